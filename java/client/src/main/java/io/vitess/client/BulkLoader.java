@@ -0,0 +1,461 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.base.Function;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.vitess.client.cursor.CursorWithError;
+import io.vitess.proto.Query;
+import io.vitess.proto.Topodata.ShardReference;
+import io.vitess.proto.Topodata.TabletType;
+import io.vitess.proto.Vtgate.BoundKeyspaceIdQuery;
+
+import org.joda.time.Duration;
+
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Inserts rows into a table with multi-row {@code INSERT}s, sent in batches.
+ *
+ * <p>For a sharded table, each shard is sent its own rows through {@link
+ * VTGateConnection#executeBatchKeyspaceIds} instead of letting VTGate route every row. The
+ * keyspace id of each row is computed on the client, for example with {@link #hashColumn(int)}
+ * for a table sharded by a {@code hash} vindex, and looked up in the cached topology of the
+ * keyspace. Rows are buffered per shard. Without a keyspace id function, all rows share one
+ * buffer, and batches are sent to the keyspace through {@link VTGateConnection#executeBatch},
+ * which routes them through the table's vindexes.
+ * Once a buffer has {@code rowsPerInsert * insertsPerBatch} rows, they are sent as one batch of
+ * {@code insertsPerBatch} statements.
+ *
+ * <p>At most {@code maxInFlightBatches} batches run at a time. {@link #add(List)} blocks while
+ * they are all running, so a fast producer can't buffer unbounded amounts of rows. Each batch
+ * runs as a transaction, so that a batch failing with a transient or recoverable error can be
+ * retried as a whole, up to {@code maxRetries} times with exponential backoff. Any other error
+ * fails the loader: the next {@link #add(List)}, {@link #flush()} or {@link #close()} throws it.
+ * A batch which timed out may still have been committed, so retried rows should be idempotent.
+ *
+ * <p>{@code BulkLoader} is meant to be fed by a single thread. Setters must be called before the
+ * first row is added.
+ */
+public class BulkLoader implements AutoCloseable {
+
+  public static final int DEFAULT_ROWS_PER_INSERT = 500;
+  public static final int DEFAULT_INSERTS_PER_BATCH = 4;
+  public static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 8;
+  public static final int DEFAULT_MAX_RETRIES = 3;
+  public static final long DEFAULT_RETRY_BACKOFF_MILLIS = 100;
+  public static final long DEFAULT_BATCH_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  private final VTGateConnection connection;
+  private final Context ctx;
+  private final KeyspaceTopologyCache topologyCache;
+  private final String keyspace;
+  private final String table;
+  private final ImmutableList<String> columns;
+  private final Function<? super List<?>, byte[]> keyspaceIdFunction;
+
+  private TabletType tabletType = TabletType.MASTER;
+  private int rowsPerInsert = DEFAULT_ROWS_PER_INSERT;
+  private int insertsPerBatch = DEFAULT_INSERTS_PER_BATCH;
+  private int maxInFlightBatches = DEFAULT_MAX_IN_FLIGHT_BATCHES;
+  private int maxRetries = DEFAULT_MAX_RETRIES;
+  private long retryBackoffMillis = DEFAULT_RETRY_BACKOFF_MILLIS;
+  private long batchTimeoutMillis = DEFAULT_BATCH_TIMEOUT_MILLIS;
+
+  private final Map<String, List<PendingRow>> buffers = new HashMap<>();
+  private final AtomicLong rowsWritten = new AtomicLong();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicReference<SQLException> failure = new AtomicReference<>();
+  private Semaphore inFlight;
+  private ScheduledExecutorService retryScheduler;
+  private boolean closed;
+
+  /**
+   * Buffers the rows routed by VTGate, which have no shard.
+   */
+  private static final String UNSHARDED_BUFFER = "";
+
+  private static final class PendingRow {
+
+    private final byte[] keyspaceId;
+    private final List<?> values;
+
+    private PendingRow(byte[] keyspaceId, List<?> values) {
+      this.keyspaceId = keyspaceId;
+      this.values = values;
+    }
+  }
+
+  /**
+   * An {@code INSERT} statement with the keyspace ids of its rows, if sharded.
+   */
+  private static final class Insert {
+
+    private final String sql;
+    private final Map<String, ?> bindVars;
+    private final List<byte[]> keyspaceIds;
+
+    private Insert(String sql, Map<String, ?> bindVars, List<byte[]> keyspaceIds) {
+      this.sql = sql;
+      this.bindVars = bindVars;
+      this.keyspaceIds = keyspaceIds;
+    }
+  }
+
+  /**
+   * Creates a loader for a sharded table.
+   *
+   * @param connection Connection the batches are sent through.
+   * @param ctx Context of every call, with a deadline of {@code batchTimeoutMillis} added.
+   * @param topologyCache Serves the shards of {@code keyspace}, usually through {@code
+   *     connection}.
+   * @param columns Columns set by each row, in the order of the row's values.
+   * @param keyspaceIdFunction Computes the keyspace id of a row.
+   */
+  public BulkLoader(VTGateConnection connection, Context ctx, KeyspaceTopologyCache topologyCache,
+      String keyspace, String table, List<String> columns,
+      Function<? super List<?>, byte[]> keyspaceIdFunction) {
+    this(connection, ctx, keyspace, table, columns, checkNotNull(topologyCache),
+        checkNotNull(keyspaceIdFunction));
+  }
+
+  /**
+   * Creates a loader whose batches are sent to the keyspace without keyspace ids, for VTGate to
+   * route: for an unsharded keyspace, or a table sharded by any vindex.
+   *
+   * @param connection Connection the batches are sent through.
+   * @param ctx Context of every call, with a deadline of {@code batchTimeoutMillis} added.
+   * @param columns Columns set by each row, in the order of the row's values.
+   */
+  public BulkLoader(VTGateConnection connection, Context ctx, String keyspace, String table,
+      List<String> columns) {
+    this(connection, ctx, keyspace, table, columns, null, null);
+  }
+
+  private BulkLoader(VTGateConnection connection, Context ctx, String keyspace, String table,
+      List<String> columns, KeyspaceTopologyCache topologyCache,
+      Function<? super List<?>, byte[]> keyspaceIdFunction) {
+    checkArgument(!columns.isEmpty(), "columns must not be empty");
+    this.connection = checkNotNull(connection);
+    this.ctx = checkNotNull(ctx);
+    this.topologyCache = topologyCache;
+    this.keyspace = checkNotNull(keyspace);
+    this.table = checkNotNull(table);
+    this.columns = ImmutableList.copyOf(columns);
+    this.keyspaceIdFunction = keyspaceIdFunction;
+  }
+
+  /**
+   * Returns a function computing the keyspace id of a row from the integer value in column
+   * {@code index}, as the {@code hash} vindex does.
+   */
+  public static Function<List<?>, byte[]> hashColumn(final int index) {
+    return new Function<List<?>, byte[]>() {
+      @Override
+      public byte[] apply(List<?> row) {
+        return HashVindex.toKeyspaceId(((Number) row.get(index)).longValue());
+      }
+    };
+  }
+
+  public BulkLoader setTabletType(TabletType value) {
+    tabletType = checkNotNull(value);
+    return this;
+  }
+
+  public BulkLoader setRowsPerInsert(int value) {
+    checkArgument(value > 0, "rowsPerInsert must be positive");
+    rowsPerInsert = value;
+    return this;
+  }
+
+  public BulkLoader setInsertsPerBatch(int value) {
+    checkArgument(value > 0, "insertsPerBatch must be positive");
+    insertsPerBatch = value;
+    return this;
+  }
+
+  public BulkLoader setMaxInFlightBatches(int value) {
+    checkArgument(value > 0, "maxInFlightBatches must be positive");
+    maxInFlightBatches = value;
+    return this;
+  }
+
+  public BulkLoader setMaxRetries(int value) {
+    checkArgument(value >= 0, "maxRetries must not be negative");
+    maxRetries = value;
+    return this;
+  }
+
+  public BulkLoader setRetryBackoffMillis(long value) {
+    checkArgument(value >= 0, "retryBackoffMillis must not be negative");
+    retryBackoffMillis = value;
+    return this;
+  }
+
+  public BulkLoader setBatchTimeoutMillis(long value) {
+    checkArgument(value > 0, "batchTimeoutMillis must be positive");
+    batchTimeoutMillis = value;
+    return this;
+  }
+
+  /**
+   * Returns how many rows were inserted by successful batches so far.
+   */
+  public long getRowsWritten() {
+    return rowsWritten.get();
+  }
+
+  /**
+   * Returns how many times a batch was retried so far.
+   */
+  public long getRetries() {
+    return retries.get();
+  }
+
+  /**
+   * Buffers a row, and sends its shard's rows if there are enough of them. Blocks while {@code
+   * maxInFlightBatches} batches are running.
+   *
+   * @param row The values of the columns, in order.
+   * @throws SQLException If a previous batch failed, or no shard serves the row.
+   */
+  public void add(List<?> row) throws SQLException {
+    checkOpen();
+    checkArgument(row.size() == columns.size(), "rows must have a value for each column");
+    byte[] keyspaceId = null;
+    String bufferName = UNSHARDED_BUFFER;
+    if (keyspaceIdFunction != null) {
+      keyspaceId = keyspaceIdFunction.apply(row);
+      ShardReference shard = topologyCache.get(keyspace).getShard(tabletType, keyspaceId);
+      if (shard == null) {
+        throw new SQLDataException("no shard of keyspace " + keyspace
+            + " serves the keyspace id of " + row + " for tablet type " + tabletType);
+      }
+      bufferName = shard.getName();
+    }
+    List<PendingRow> buffer = buffers.get(bufferName);
+    if (buffer == null) {
+      buffer = new ArrayList<>();
+      buffers.put(bufferName, buffer);
+    }
+    buffer.add(new PendingRow(keyspaceId, row));
+    if (buffer.size() >= rowsPerInsert * insertsPerBatch) {
+      buffers.remove(bufferName);
+      send(buffer);
+    }
+  }
+
+  /**
+   * Sends all buffered rows and waits for every batch to finish.
+   *
+   * @throws SQLException If a batch failed.
+   */
+  public void flush() throws SQLException {
+    checkOpen();
+    for (List<PendingRow> buffer : buffers.values()) {
+      send(buffer);
+    }
+    buffers.clear();
+    if (inFlight != null) {
+      inFlight.acquireUninterruptibly(maxInFlightBatches);
+      inFlight.release(maxInFlightBatches);
+    }
+    throwIfFailed();
+  }
+
+  /**
+   * Flushes the remaining rows, then releases the loader's thread.
+   */
+  @Override
+  public void close() throws SQLException {
+    if (closed) {
+      return;
+    }
+    try {
+      flush();
+    } finally {
+      closed = true;
+      if (retryScheduler != null) {
+        retryScheduler.shutdownNow();
+      }
+    }
+  }
+
+  private void send(List<PendingRow> rows) throws SQLException {
+    if (inFlight == null) {
+      inFlight = new Semaphore(maxInFlightBatches);
+      retryScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+          .setNameFormat("vitess-bulk-loader-retry-%d").setDaemon(true).build());
+    }
+    List<Insert> inserts = new ArrayList<>();
+    for (int start = 0; start < rows.size(); start += rowsPerInsert) {
+      inserts.add(bindInsert(rows.subList(start, Math.min(start + rowsPerInsert, rows.size()))));
+    }
+    inFlight.acquireUninterruptibly();
+    // A batch may have failed while waiting.
+    if (failure.get() != null) {
+      inFlight.release();
+      throwIfFailed();
+    }
+    execute(inserts, rows.size(), 0);
+  }
+
+  private Insert bindInsert(List<PendingRow> rows) {
+    StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (")
+        .append(Joiner.on(", ").join(columns)).append(") VALUES ");
+    Map<String, Object> bindVars = new HashMap<>();
+    List<byte[]> keyspaceIds = keyspaceIdFunction == null ? null
+        : new ArrayList<byte[]>(rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      PendingRow row = rows.get(i);
+      sql.append(i == 0 ? "(" : ", (");
+      for (int j = 0; j < columns.size(); j++) {
+        String name = "r" + i + "c" + j;
+        sql.append(j == 0 ? ":" : ", :").append(name);
+        bindVars.put(name, row.values.get(j));
+      }
+      sql.append(')');
+      if (keyspaceIds != null) {
+        keyspaceIds.add(row.keyspaceId);
+      }
+    }
+    return new Insert(sql.toString(), bindVars, keyspaceIds);
+  }
+
+  private void execute(final List<Insert> inserts, final int rowCount, final int attempt) {
+    ListenableFuture<?> call;
+    try {
+      call = call(inserts, ctx.withDeadlineAfter(Duration.millis(batchTimeoutMillis)));
+    } catch (SQLException | RuntimeException exc) {
+      onBatchFailure(inserts, rowCount, attempt, exc);
+      return;
+    }
+    Futures.addCallback(call, new FutureCallback<Object>() {
+      @Override
+      public void onSuccess(Object result) {
+        rowsWritten.addAndGet(rowCount);
+        inFlight.release();
+      }
+
+      @Override
+      public void onFailure(Throwable error) {
+        onBatchFailure(inserts, rowCount, attempt, error);
+      }
+    }, directExecutor());
+  }
+
+  /**
+   * Starts the call sending a batch as one transaction: to the shards of its keyspace ids if the
+   * table is sharded, or else to the keyspace.
+   */
+  private ListenableFuture<?> call(List<Insert> inserts, Context callCtx) throws SQLException {
+    if (keyspaceIdFunction != null) {
+      List<BoundKeyspaceIdQuery> queries = new ArrayList<>(inserts.size());
+      for (Insert insert : inserts) {
+        queries.add(Proto.bindKeyspaceIdQuery(keyspace, insert.keyspaceIds, insert.sql,
+            insert.bindVars));
+      }
+      return connection.executeBatchKeyspaceIds(callCtx, queries, tabletType, true,
+          Query.ExecuteOptions.IncludedFields.TYPE_ONLY);
+    }
+    List<String> sqls = new ArrayList<>(inserts.size());
+    List<Map<String, ?>> bindVarsList = new ArrayList<>(inserts.size());
+    for (Insert insert : inserts) {
+      sqls.add(insert.sql);
+      bindVarsList.add(insert.bindVars);
+    }
+    VTSession session = new VTSession(keyspace + "@" + tabletType.name().toLowerCase(),
+        Query.ExecuteOptions.newBuilder()
+            .setIncludedFields(Query.ExecuteOptions.IncludedFields.TYPE_ONLY).build());
+    // Unlike executeBatchKeyspaceIds, executeBatch reports errors per query.
+    return Futures.transformAsync(
+        connection.executeBatch(callCtx, sqls, bindVarsList, true, session),
+        new AsyncFunction<List<CursorWithError>, Void>() {
+          @Override
+          public ListenableFuture<Void> apply(List<CursorWithError> results) throws Exception {
+            for (CursorWithError result : results) {
+              if (result.getError() != null) {
+                connection.checkAndThrowError(result.getError());
+              }
+            }
+            return Futures.immediateFuture(null);
+          }
+        }, directExecutor());
+  }
+
+  private void onBatchFailure(final List<Insert> inserts, final int rowCount,
+      final int attempt, Throwable error) {
+    if ((error instanceof SQLTransientException || error instanceof SQLRecoverableException)
+        && attempt < maxRetries && failure.get() == null) {
+      retries.incrementAndGet();
+      try {
+        retryScheduler.schedule(new Runnable() {
+          @Override
+          public void run() {
+            execute(inserts, rowCount, attempt + 1);
+          }
+        }, retryBackoffMillis << attempt, TimeUnit.MILLISECONDS);
+        return;
+      } catch (RuntimeException exc) {
+        error = exc;
+      }
+    }
+    failure.compareAndSet(null, error instanceof SQLException ? (SQLException) error
+        : new SQLException("bulk load batch failed", error));
+    inFlight.release();
+  }
+
+  private void checkOpen() throws SQLException {
+    if (closed) {
+      throw new SQLException("BulkLoader is closed");
+    }
+    throwIfFailed();
+  }
+
+  private void throwIfFailed() throws SQLException {
+    SQLException error = failure.get();
+    if (error != null) {
+      throw new SQLException("a bulk load batch failed: " + error.getMessage(),
+          error.getSQLState(), error.getErrorCode(), error);
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Function;
+import com.google.common.primitives.Longs;
+
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Computes keyspace ids the same way as the {@code hash} vindex of VTGate, so that queries can be
+ * routed with {@code executeKeyspaceIds} and rows bucketed by shard without asking VTGate.
+ *
+ * <p>The keyspace id of an id is its 8 big-endian bytes, treated as an unsigned 64-bit integer,
+ * encrypted with DES under an all-zero key. The mapping is a bijection, so {@link
+ * #toId(byte[])} recovers the id.
+ */
+public final class HashVindex {
+
+  private static final String TRANSFORMATION = "DES/ECB/NoPadding";
+  private static final SecretKeySpec KEY = new SecretKeySpec(new byte[8], "DES");
+
+  /**
+   * Maps an id to its keyspace id.
+   */
+  public static final Function<Long, byte[]> ID_TO_KEYSPACE_ID = new Function<Long, byte[]>() {
+    @Override
+    public byte[] apply(Long id) {
+      return toKeyspaceId(id);
+    }
+  };
+
+  // Ciphers aren't thread-safe, and creating one is much slower than using it.
+  private static final ThreadLocal<Cipher> ENCRYPT = new ThreadLocal<Cipher>() {
+    @Override
+    protected Cipher initialValue() {
+      return newCipher(Cipher.ENCRYPT_MODE);
+    }
+  };
+  private static final ThreadLocal<Cipher> DECRYPT = new ThreadLocal<Cipher>() {
+    @Override
+    protected Cipher initialValue() {
+      return newCipher(Cipher.DECRYPT_MODE);
+    }
+  };
+
+  private HashVindex() {
+  }
+
+  /**
+   * Returns the keyspace id of an id. Negative ids are hashed as their unsigned value, like VTGate
+   * does for ids greater than {@link Long#MAX_VALUE}.
+   */
+  public static byte[] toKeyspaceId(long id) {
+    return crypt(ENCRYPT.get(), Longs.toByteArray(id));
+  }
+
+  /**
+   * Returns the id whose keyspace id is {@code keyspaceId}.
+   *
+   * @throws IllegalArgumentException If {@code keyspaceId} isn't 8 bytes long.
+   */
+  public static long toId(byte[] keyspaceId) {
+    checkArgument(keyspaceId.length == 8, "hash keyspace ids are 8 bytes long");
+    return Longs.fromByteArray(crypt(DECRYPT.get(), keyspaceId));
+  }
+
+  private static byte[] crypt(Cipher cipher, byte[] block) {
+    try {
+      return cipher.doFinal(block);
+    } catch (GeneralSecurityException exc) {
+      throw new IllegalStateException("DES failed on a single block", exc);
+    }
+  }
+
+  private static Cipher newCipher(int mode) {
+    try {
+      Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+      cipher.init(mode, KEY);
+      return cipher;
+    } catch (GeneralSecurityException exc) {
+      throw new IllegalStateException(TRANSFORMATION + " isn't available", exc);
+    }
+  }
+}
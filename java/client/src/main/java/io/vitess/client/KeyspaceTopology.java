@@ -0,0 +1,233 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.UnsignedBytes;
+
+import io.vitess.proto.Topodata.KeyRange;
+import io.vitess.proto.Topodata.ShardReference;
+import io.vitess.proto.Topodata.SrvKeyspace;
+import io.vitess.proto.Topodata.TabletType;
+
+import java.sql.SQLDataException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * An immutable snapshot of the serving graph of a keyspace, as returned by {@link
+ * VTGateConnection#getSrvKeyspace(Context, String)}, indexed for shard lookups.
+ *
+ * <p>Key ranges are compared as unsigned bytes. An empty start or end is unbounded, so the only
+ * shard of an unsharded keyspace covers every keyspace id.
+ */
+public final class KeyspaceTopology {
+
+  private static final Comparator<byte[]> KEY_ORDER = UnsignedBytes.lexicographicalComparator();
+
+  private final String keyspace;
+  private final SrvKeyspace srvKeyspace;
+  private final long loadedAtMillis;
+  private final ImmutableMap<TabletType, Partition> partitions;
+
+  /**
+   * The shards serving one tablet type, sorted by start key.
+   */
+  private static final class Partition {
+
+    private final ImmutableList<ShardReference> shards;
+    private final byte[][] starts;
+    private final byte[][] ends;
+
+    private Partition(List<ShardReference> shardReferences) {
+      List<ShardReference> sorted = new ArrayList<>(shardReferences);
+      Collections.sort(sorted, new Comparator<ShardReference>() {
+        @Override
+        public int compare(ShardReference left, ShardReference right) {
+          return KEY_ORDER.compare(left.getKeyRange().getStart().toByteArray(),
+              right.getKeyRange().getStart().toByteArray());
+        }
+      });
+      shards = ImmutableList.copyOf(sorted);
+      starts = new byte[sorted.size()][];
+      ends = new byte[sorted.size()][];
+      for (int i = 0; i < sorted.size(); i++) {
+        starts[i] = sorted.get(i).getKeyRange().getStart().toByteArray();
+        ends[i] = sorted.get(i).getKeyRange().getEnd().toByteArray();
+      }
+    }
+
+    @Nullable
+    private ShardReference find(byte[] keyspaceId) {
+      int index = indexOf(keyspaceId);
+      return index < 0 ? null : shards.get(index);
+    }
+
+    private int indexOf(byte[] keyspaceId) {
+      // The last shard starting at or before the keyspace id is the only one which can cover it.
+      int low = 0;
+      int high = starts.length - 1;
+      int found = -1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        if (KEY_ORDER.compare(starts[mid], keyspaceId) <= 0) {
+          found = mid;
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      if (found < 0 || !isBefore(keyspaceId, ends[found])) {
+        return -1;
+      }
+      return found;
+    }
+
+    private List<ShardReference> overlapping(byte[] start, byte[] end) {
+      ImmutableList.Builder<ShardReference> result = ImmutableList.builder();
+      for (int i = 0; i < shards.size(); i++) {
+        if (isBefore(starts[i], end) && isBefore(start, ends[i])) {
+          result.add(shards.get(i));
+        }
+      }
+      return result.build();
+    }
+  }
+
+  KeyspaceTopology(String keyspace, SrvKeyspace srvKeyspace, long loadedAtMillis) {
+    this.keyspace = checkNotNull(keyspace);
+    this.srvKeyspace = checkNotNull(srvKeyspace);
+    this.loadedAtMillis = loadedAtMillis;
+    Map<TabletType, Partition> partitions = new EnumMap<>(TabletType.class);
+    for (SrvKeyspace.KeyspacePartition partition : srvKeyspace.getPartitionsList()) {
+      partitions.put(partition.getServedType(), new Partition(partition.getShardReferencesList()));
+    }
+    this.partitions = ImmutableMap.copyOf(partitions);
+  }
+
+  public String getKeyspace() {
+    return keyspace;
+  }
+
+  public SrvKeyspace getSrvKeyspace() {
+    return srvKeyspace;
+  }
+
+  /**
+   * Returns when this snapshot was fetched, in milliseconds since the epoch.
+   */
+  public long getLoadedAtMillis() {
+    return loadedAtMillis;
+  }
+
+  /**
+   * Returns the shards serving a tablet type, sorted by key range, or an empty list if the
+   * keyspace isn't served for that tablet type.
+   */
+  public List<ShardReference> getShards(TabletType tabletType) {
+    Partition partition = partitions.get(tabletType);
+    return partition == null ? ImmutableList.<ShardReference>of() : partition.shards;
+  }
+
+  /**
+   * Returns the shard serving a keyspace id for a tablet type, or {@code null} if there is none.
+   */
+  @Nullable
+  public ShardReference getShard(TabletType tabletType, byte[] keyspaceId) {
+    Partition partition = partitions.get(tabletType);
+    return partition == null ? null : partition.find(checkNotNull(keyspaceId));
+  }
+
+  /**
+   * Returns the shards serving a tablet type whose key ranges overlap {@code keyRange}, sorted by
+   * key range.
+   */
+  public List<ShardReference> getShards(TabletType tabletType, KeyRange keyRange) {
+    Partition partition = partitions.get(tabletType);
+    if (partition == null) {
+      return ImmutableList.of();
+    }
+    return partition.overlapping(keyRange.getStart().toByteArray(),
+        keyRange.getEnd().toByteArray());
+  }
+
+  /**
+   * Groups items by the shard serving their keyspace id for a tablet type, for example to send
+   * each shard its rows with {@code executeKeyspaceIds}. Shards are returned in key range order,
+   * and items keep their order within a shard.
+   *
+   * @param keyspaceIdFunction Computes the keyspace id of an item, for example {@link
+   *     HashVindex#ID_TO_KEYSPACE_ID}.
+   * @return Items by shard name.
+   * @throws SQLDataException If no shard serves the keyspace id of an item.
+   */
+  public <T> Map<String, List<T>> bucketByShard(TabletType tabletType, Iterable<T> items,
+      Function<? super T, byte[]> keyspaceIdFunction) throws SQLDataException {
+    Partition partition = partitions.get(tabletType);
+    if (partition == null) {
+      throw new SQLDataException(
+          "keyspace " + keyspace + " isn't served for tablet type " + tabletType);
+    }
+    // Buckets are indexed like the shards, so that the result is in key range order.
+    List<List<T>> buckets = new ArrayList<>(Collections.<List<T>>nCopies(partition.shards.size(),
+        null));
+    for (T item : items) {
+      byte[] keyspaceId = keyspaceIdFunction.apply(item);
+      int index = partition.indexOf(keyspaceId);
+      if (index < 0) {
+        throw new SQLDataException("no shard of keyspace " + keyspace + " serves keyspace id "
+            + BaseEncoding.base16().encode(keyspaceId) + " for tablet type " + tabletType);
+      }
+      if (buckets.get(index) == null) {
+        buckets.set(index, new ArrayList<T>());
+      }
+      buckets.get(index).add(item);
+    }
+    Map<String, List<T>> result = new LinkedHashMap<>();
+    for (int i = 0; i < buckets.size(); i++) {
+      if (buckets.get(i) != null) {
+        result.put(partition.shards.get(i).getName(), buckets.get(i));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns whether {@code key} comes before the exclusive, possibly unbounded, {@code end}.
+   */
+  private static boolean isBefore(byte[] key, byte[] end) {
+    return end.length == 0 || KEY_ORDER.compare(key, end) < 0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("[KeyspaceTopology keyspace=%s loadedAtMillis=%d]", keyspace,
+        loadedAtMillis);
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.vitess.proto.Topodata.SrvKeyspace;
+
+import org.joda.time.Duration;
+
+import java.io.Closeable;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+
+/**
+ * Caches the serving graph of keyspaces, so that shard lookups don't need a call to VTGate.
+ *
+ * <p>The first {@link #get(String)} of a keyspace fetches its {@link SrvKeyspace}. From then on it
+ * is refreshed in the background every {@code refreshIntervalMillis}, randomly shortened or
+ * lengthened by up to {@code jitter} of the interval so that many processes don't all call VTGate
+ * at the same time. Lookups always return the last successfully fetched {@link KeyspaceTopology};
+ * a failed refresh keeps the previous one and is retried at the next interval.
+ *
+ * <p>Each call uses the given context with a deadline of one refresh interval.
+ */
+public class KeyspaceTopologyCache implements Closeable {
+
+  public static final long DEFAULT_REFRESH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  public static final double DEFAULT_JITTER = 0.2;
+
+  private static final Logger logger = Logger.getLogger(KeyspaceTopologyCache.class.getName());
+
+  private final VTGateConnection connection;
+  private final Context ctx;
+  private final long refreshIntervalMillis;
+  private final double jitter;
+  private final ScheduledExecutorService scheduler;
+  private final boolean ownsScheduler;
+
+  private final ConcurrentMap<String, KeyspaceTopology> topologies = new ConcurrentHashMap<>();
+  private final Set<String> watchedKeyspaces = ConcurrentHashMap.newKeySet();
+  private final ConcurrentMap<String, ScheduledFuture<?>> refreshes = new ConcurrentHashMap<>();
+  private volatile boolean closed;
+
+  /**
+   * Creates a cache refreshing every {@link #DEFAULT_REFRESH_INTERVAL_MILLIS} with {@link
+   * #DEFAULT_JITTER}, on its own daemon thread.
+   */
+  public KeyspaceTopologyCache(VTGateConnection connection, Context ctx) {
+    this(connection, ctx, DEFAULT_REFRESH_INTERVAL_MILLIS, DEFAULT_JITTER, null);
+  }
+
+  /**
+   * Creates a cache.
+   *
+   * @param refreshIntervalMillis How often each keyspace is refreshed.
+   * @param jitter Fraction of the interval, between 0 and 1, by which each refresh is randomly
+   *     moved earlier or later.
+   * @param scheduler Runs the refreshes. If {@code null}, the cache uses its own daemon thread,
+   *     which {@link #close()} shuts down.
+   */
+  public KeyspaceTopologyCache(VTGateConnection connection, Context ctx,
+      long refreshIntervalMillis, double jitter, @Nullable ScheduledExecutorService scheduler) {
+    checkArgument(refreshIntervalMillis > 0, "refreshIntervalMillis must be positive");
+    checkArgument(jitter >= 0 && jitter <= 1, "jitter must be between 0 and 1");
+    this.connection = checkNotNull(connection);
+    this.ctx = checkNotNull(ctx);
+    this.refreshIntervalMillis = refreshIntervalMillis;
+    this.jitter = jitter;
+    this.ownsScheduler = scheduler == null;
+    this.scheduler = scheduler != null ? scheduler : Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("vitess-topology-refresh-%d").setDaemon(true)
+            .build());
+  }
+
+  /**
+   * Returns the topology of a keyspace, fetching it if it isn't cached yet.
+   *
+   * @throws SQLException If the keyspace isn't cached and fetching it fails.
+   */
+  public KeyspaceTopology get(String keyspace) throws SQLException {
+    KeyspaceTopology topology = topologies.get(checkNotNull(keyspace));
+    if (topology != null) {
+      return topology;
+    }
+    checkNotClosed();
+    topology = fetch(keyspace).checkedGet();
+    if (watchedKeyspaces.add(keyspace)) {
+      scheduleRefresh(keyspace);
+    }
+    return topology;
+  }
+
+  /**
+   * Returns the cached topology of a keyspace, or {@code null} if it wasn't fetched yet.
+   */
+  @Nullable
+  public KeyspaceTopology getIfPresent(String keyspace) {
+    return topologies.get(checkNotNull(keyspace));
+  }
+
+  /**
+   * Fetches the topology of a keyspace now, without waiting for the next scheduled refresh. The
+   * returned future completes once the new topology is cached.
+   */
+  public SQLFuture<KeyspaceTopology> refresh(String keyspace) throws SQLException {
+    checkNotClosed();
+    return fetch(checkNotNull(keyspace));
+  }
+
+  /**
+   * Stops refreshing. Cached topologies stay available to {@link #getIfPresent(String)}.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (ScheduledFuture<?> refresh : refreshes.values()) {
+      refresh.cancel(false);
+    }
+    refreshes.clear();
+    if (ownsScheduler) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  private SQLFuture<KeyspaceTopology> fetch(final String keyspace) throws SQLException {
+    final SettableFuture<KeyspaceTopology> result = SettableFuture.create();
+    ListenableFuture<SrvKeyspace> call = connection.getSrvKeyspace(
+        ctx.withDeadlineAfter(Duration.millis(refreshIntervalMillis)), keyspace);
+    Futures.addCallback(call, new FutureCallback<SrvKeyspace>() {
+      @Override
+      public void onSuccess(SrvKeyspace srvKeyspace) {
+        KeyspaceTopology topology = new KeyspaceTopology(keyspace, srvKeyspace,
+            System.currentTimeMillis());
+        topologies.put(keyspace, topology);
+        result.set(topology);
+      }
+
+      @Override
+      public void onFailure(Throwable error) {
+        result.setException(error);
+      }
+    }, directExecutor());
+    return new SQLFuture<>(result);
+  }
+
+  private void scheduleRefresh(final String keyspace) {
+    if (closed) {
+      return;
+    }
+    long delay = refreshIntervalMillis;
+    if (jitter > 0) {
+      delay += (long) (refreshIntervalMillis * jitter * ThreadLocalRandom.current()
+          .nextDouble(-1, 1));
+    }
+    try {
+      refreshes.put(keyspace, scheduler.schedule(new Runnable() {
+        @Override
+        public void run() {
+          refreshInBackground(keyspace);
+        }
+      }, Math.max(delay, 1), TimeUnit.MILLISECONDS));
+    } catch (RejectedExecutionException exc) {
+      // The cache was closed concurrently.
+      if (!closed) {
+        throw exc;
+      }
+    }
+  }
+
+  private void refreshInBackground(final String keyspace) {
+    if (closed) {
+      return;
+    }
+    final SQLFuture<KeyspaceTopology> refresh;
+    try {
+      refresh = fetch(keyspace);
+    } catch (SQLException | RuntimeException exc) {
+      logger.log(Level.WARNING, "Failed to refresh the topology of keyspace " + keyspace, exc);
+      scheduleRefresh(keyspace);
+      return;
+    }
+    Futures.addCallback(refresh, new FutureCallback<KeyspaceTopology>() {
+      @Override
+      public void onSuccess(KeyspaceTopology topology) {
+        scheduleRefresh(keyspace);
+      }
+
+      @Override
+      public void onFailure(Throwable error) {
+        logger.log(Level.WARNING, "Failed to refresh the topology of keyspace " + keyspace, error);
+        scheduleRefresh(keyspace);
+      }
+    }, directExecutor());
+  }
+
+  private void checkNotClosed() {
+    if (closed) {
+      throw new IllegalStateException("KeyspaceTopologyCache is closed");
+    }
+  }
+}
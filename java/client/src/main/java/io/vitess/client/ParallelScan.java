@@ -0,0 +1,269 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+
+import io.vitess.client.cursor.Cursor;
+import io.vitess.client.cursor.Row;
+import io.vitess.client.cursor.RowStreamException;
+import io.vitess.client.cursor.StreamCursor;
+import io.vitess.proto.Query;
+import io.vitess.proto.Query.QueryResult;
+import io.vitess.proto.Query.SplitQueryRequest.Algorithm;
+import io.vitess.proto.Topodata.TabletType;
+import io.vitess.proto.Vtgate.SplitQueryResponse;
+import io.vitess.proto.Vtgate.StreamExecuteKeyRangesRequest;
+import io.vitess.proto.Vtgate.StreamExecuteShardsRequest;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.Nullable;
+
+/**
+ * Scans a table in parallel by splitting a query with {@code SplitQuery} and streaming the parts,
+ * without a Hadoop cluster.
+ *
+ * <p>The rows of all parts are returned as one parallel {@link Stream}, backed by a {@link
+ * Spliterator} which splits between parts. The rows are processed by the {@link
+ * java.util.concurrent.ForkJoinPool ForkJoinPool} the terminal operation runs in: the common pool
+ * by default, or a dedicated one if the terminal operation is submitted to it, for example {@code
+ * pool.submit(() -> scan.stream(...).forEach(consumer)).get()}. Call {@link Stream#sequential()} to
+ * process the rows on the calling thread.
+ *
+ * <p>Each spliterator streams up to {@code partsInFlight} parts at once. Streaming calls are
+ * asynchronous, so VTGate scans the parts after the one being read while it is consumed, within
+ * the flow control window of each call.
+ *
+ * <p>The stream must be closed, for example with try-with-resources, when it isn't fully consumed:
+ * closing it cancels the parts still streaming. SQL errors are thrown as {@link
+ * RowStreamException}.
+ */
+public class ParallelScan {
+
+  public static final int DEFAULT_PARTS_IN_FLIGHT = 2;
+
+  private final RpcClient client;
+  private final VTGateConnection connection;
+  private TabletType tabletType = TabletType.RDONLY;
+  private Query.ExecuteOptions.IncludedFields includedFields =
+      Query.ExecuteOptions.IncludedFields.ALL;
+  private int partsInFlight = DEFAULT_PARTS_IN_FLIGHT;
+
+  public ParallelScan(RpcClient client) {
+    this.client = checkNotNull(client);
+    this.connection = new VTGateConnection(client);
+  }
+
+  /**
+   * Sets the tablet type the parts are read from. Defaults to {@link TabletType#RDONLY}.
+   */
+  public ParallelScan setTabletType(TabletType tabletType) {
+    this.tabletType = checkNotNull(tabletType);
+    return this;
+  }
+
+  /**
+   * Sets which field metadata the parts return. Defaults to {@link
+   * Query.ExecuteOptions.IncludedFields#ALL}.
+   */
+  public ParallelScan setIncludedFields(Query.ExecuteOptions.IncludedFields includedFields) {
+    this.includedFields = checkNotNull(includedFields);
+    return this;
+  }
+
+  /**
+   * Sets how many parts each spliterator streams at once. Defaults to {@link
+   * #DEFAULT_PARTS_IN_FLIGHT}.
+   */
+  public ParallelScan setPartsInFlight(int partsInFlight) {
+    checkArgument(partsInFlight > 0, "partsInFlight must be positive");
+    this.partsInFlight = partsInFlight;
+    return this;
+  }
+
+  /**
+   * Splits a query and returns the rows of all parts. See {@link VTGateConnection#splitQuery} for
+   * the parameters.
+   */
+  public Stream<Row> stream(Context ctx, String keyspace, String query,
+      @Nullable Map<String, ?> bindVars, Iterable<String> splitColumns, int splitCount,
+      int numRowsPerQueryPart, Algorithm algorithm) throws SQLException {
+    List<SplitQueryResponse.Part> parts = connection.splitQuery(ctx, keyspace, query, bindVars,
+        splitColumns, splitCount, numRowsPerQueryPart, algorithm).checkedGet();
+    return stream(ctx, parts);
+  }
+
+  /**
+   * Returns the rows of query parts returned by {@link VTGateConnection#splitQuery}.
+   */
+  public Stream<Row> stream(Context ctx, List<SplitQueryResponse.Part> parts) {
+    final Set<Cursor> openCursors = ConcurrentHashMap.newKeySet();
+    PartSpliterator spliterator = new PartSpliterator(checkNotNull(ctx),
+        ImmutableList.copyOf(parts), 0, parts.size(), openCursors);
+    return StreamSupport.stream(spliterator, true).onClose(new Runnable() {
+      @Override
+      public void run() {
+        for (Cursor cursor : openCursors) {
+          closeQuietly(cursor);
+        }
+      }
+    });
+  }
+
+  /**
+   * Starts streaming one query part.
+   */
+  public Cursor execute(Context ctx, SplitQueryResponse.Part part) throws SQLException {
+    return new StreamCursor(startStream(ctx, part));
+  }
+
+  /**
+   * Starts streaming one query part, returning its raw results.
+   */
+  public StreamIterator<QueryResult> startStream(Context ctx, SplitQueryResponse.Part part)
+      throws SQLException {
+    Query.ExecuteOptions options = Query.ExecuteOptions.newBuilder()
+        .setIncludedFields(includedFields).build();
+    if (part.hasKeyRangePart()) {
+      SplitQueryResponse.KeyRangePart keyRangePart = part.getKeyRangePart();
+      StreamExecuteKeyRangesRequest.Builder requestBuilder = StreamExecuteKeyRangesRequest
+          .newBuilder()
+          .setQuery(part.getQuery())
+          .setKeyspace(keyRangePart.getKeyspace())
+          .addAllKeyRanges(keyRangePart.getKeyRangesList())
+          .setTabletType(tabletType)
+          .setOptions(options);
+
+      if (ctx.getCallerId() != null) {
+        requestBuilder.setCallerId(ctx.getCallerId());
+      }
+
+      return client.streamExecuteKeyRanges(ctx, requestBuilder.build());
+    } else if (part.hasShardPart()) {
+      SplitQueryResponse.ShardPart shardPart = part.getShardPart();
+      StreamExecuteShardsRequest.Builder requestBuilder = StreamExecuteShardsRequest.newBuilder()
+          .setQuery(part.getQuery())
+          .setKeyspace(shardPart.getKeyspace())
+          .addAllShards(shardPart.getShardsList())
+          .setTabletType(tabletType)
+          .setOptions(options);
+
+      if (ctx.getCallerId() != null) {
+        requestBuilder.setCallerId(ctx.getCallerId());
+      }
+
+      return client.streamExecuteShards(ctx, requestBuilder.build());
+    }
+    throw new IllegalArgumentException("unknown split info: " + part);
+  }
+
+  private static void closeQuietly(Cursor cursor) {
+    try {
+      cursor.close();
+    } catch (Exception exc) {
+      // The cursor is only closed early when its remaining rows aren't wanted.
+    }
+  }
+
+  /**
+   * Reads the parts in {@code [next, end)}, and splits by handing half of the parts it hasn't
+   * started to a new spliterator.
+   */
+  private final class PartSpliterator implements Spliterator<Row> {
+
+    private final Context ctx;
+    private final List<SplitQueryResponse.Part> parts;
+    private final Set<Cursor> openCursors;
+    private final Queue<Cursor> cursors = new ArrayDeque<>();
+    private int next;
+    private int end;
+
+    private PartSpliterator(Context ctx, List<SplitQueryResponse.Part> parts, int next, int end,
+        Set<Cursor> openCursors) {
+      this.ctx = ctx;
+      this.parts = parts;
+      this.next = next;
+      this.end = end;
+      this.openCursors = openCursors;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Row> action) {
+      try {
+        while (true) {
+          while (cursors.size() < partsInFlight && next < end) {
+            Cursor cursor = execute(ctx, parts.get(next++));
+            openCursors.add(cursor);
+            cursors.add(cursor);
+          }
+          Cursor cursor = cursors.peek();
+          if (cursor == null) {
+            return false;
+          }
+          Row row = cursor.next();
+          if (row != null) {
+            action.accept(row);
+            return true;
+          }
+          cursors.remove();
+          openCursors.remove(cursor);
+          closeQuietly(cursor);
+        }
+      } catch (SQLException exc) {
+        throw new RowStreamException(exc);
+      }
+    }
+
+    @Override
+    public Spliterator<Row> trySplit() {
+      // Only parts which weren't started can be handed over.
+      int remaining = end - next;
+      if (remaining < 2) {
+        return null;
+      }
+      int middle = next + remaining / 2;
+      PartSpliterator prefix = new PartSpliterator(ctx, parts, next, middle, openCursors);
+      next = middle;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      // The number of rows isn't known, but parts have roughly the same size.
+      return end - next + cursors.size();
+    }
+
+    @Override
+    public int characteristics() {
+      return NONNULL;
+    }
+  }
+}
@@ -35,6 +35,7 @@ import io.vitess.proto.Vtgate.ExecuteEntityIdsRequest.EntityId;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -201,6 +202,78 @@ public class Proto {
     return bindKeyspaceIdQuery(keyspace, keyspaceIds, bindQuery(query, vars));
   }
 
+  /**
+   * splitTupleBindVariable splits the largest {@code TUPLE} bind variable of a BoundQuery into
+   * chunks of at most {@code chunkSize} values.
+   *
+   * <p>One BoundQuery is returned per chunk. All other bind variables are left untouched. If no
+   * {@code TUPLE} bind variable has more than {@code chunkSize} values, a list containing only the
+   * original query is returned.
+   */
+  public static List<BoundQuery> splitTupleBindVariable(BoundQuery query, int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+    }
+
+    String splitName = null;
+    BindVariable splitVar = null;
+    for (Map.Entry<String, BindVariable> entry : query.getBindVariablesMap().entrySet()) {
+      BindVariable bindVar = entry.getValue();
+      if (bindVar.getType() == Query.Type.TUPLE && bindVar.getValuesCount() > chunkSize
+          && (splitVar == null || bindVar.getValuesCount() > splitVar.getValuesCount())) {
+        splitName = entry.getKey();
+        splitVar = bindVar;
+      }
+    }
+    if (splitVar == null) {
+      return ImmutableList.of(query);
+    }
+
+    List<Query.Value> values = splitVar.getValuesList();
+    ImmutableList.Builder<BoundQuery> builder = new ImmutableList.Builder<BoundQuery>();
+    for (int start = 0; start < values.size(); start += chunkSize) {
+      List<Query.Value> chunk = values.subList(start, Math.min(start + chunkSize, values.size()));
+      BindVariable chunkVar = BindVariable.newBuilder()
+          .setType(Query.Type.TUPLE)
+          .addAllValues(chunk)
+          .build();
+      builder.add(query.toBuilder().putBindVariables(splitName, chunkVar).build());
+    }
+    return builder.build();
+  }
+
+  /**
+   * concatQueryResults merges the results of a chunked query into a single QueryResult.
+   *
+   * <p>The fields are taken from the first result, rows are appended in the order of {@code
+   * queryResults}, and the number of affected rows is summed up. The insert id is the first
+   * non-zero insert id, if any.
+   */
+  public static QueryResult concatQueryResults(List<QueryResult> queryResults) {
+    if (queryResults.size() == 1) {
+      return queryResults.get(0);
+    }
+
+    QueryResult.Builder builder = QueryResult.newBuilder();
+    int rowCount = 0;
+    for (QueryResult queryResult : queryResults) {
+      rowCount += queryResult.getRowsCount();
+    }
+    List<Query.Row> rows = new ArrayList<>(rowCount);
+    long rowsAffected = 0;
+    for (QueryResult queryResult : queryResults) {
+      if (builder.getFieldsCount() == 0) {
+        builder.addAllFields(queryResult.getFieldsList());
+      }
+      if (builder.getInsertId() == 0) {
+        builder.setInsertId(queryResult.getInsertId());
+      }
+      rowsAffected += queryResult.getRowsAffected();
+      rows.addAll(queryResult.getRowsList());
+    }
+    return builder.setRowsAffected(rowsAffected).addAllRows(rows).build();
+  }
+
   public static List<Cursor> toCursorList(List<QueryResult> queryResults) {
     ImmutableList.Builder<Cursor> builder = new ImmutableList.Builder<Cursor>();
     for (QueryResult queryResult : queryResults) {
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.vitess.proto.Query;
+import io.vitess.proto.Query.ExecuteOptions.IncludedFields;
+import io.vitess.proto.Vtgate;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+/**
+ * Remembers the fields of query results, so later executions of the same query can ask VTGate for
+ * {@link IncludedFields#TYPE_ONLY} and get the names and other metadata from here.
+ * <p>
+ * <p>Fields are cached by query text, target and requested {@link IncludedFields}. Results
+ * without fields, like those of DML statements, are never cached. Type-only results carry no
+ * names, so columns renamed or reordered without a change of types are only noticed once the
+ * cached fields expire, {@value #EXPIRY_SECONDS} seconds after they were cached.</p>
+ */
+final class ResultFieldsCache {
+
+  private static final int CACHE_SIZE = 1000;
+  private static final long EXPIRY_SECONDS = 60;
+
+  private final Cache<Key, List<Query.Field>> cache;
+
+  ResultFieldsCache() {
+    this(Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  ResultFieldsCache(Ticker ticker) {
+    cache = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE)
+        .expireAfterWrite(EXPIRY_SECONDS, TimeUnit.SECONDS).ticker(ticker).build();
+  }
+
+  /**
+   * Returns the cached fields of {@code sql}, or {@code null} if they aren't known or the session
+   * already asks for types only.
+   */
+  @Nullable
+  List<Query.Field> get(Vtgate.Session session, String sql) {
+    if (session.getOptions().getIncludedFields() == IncludedFields.TYPE_ONLY) {
+      return null;
+    }
+    return cache.getIfPresent(new Key(session, sql));
+  }
+
+  void put(Vtgate.Session session, String sql, List<Query.Field> fields) {
+    if (fields.isEmpty()
+        || session.getOptions().getIncludedFields() == IncludedFields.TYPE_ONLY) {
+      return;
+    }
+    cache.put(new Key(session, sql), fields);
+  }
+
+  void invalidate(Vtgate.Session session, String sql) {
+    cache.invalidate(new Key(session, sql));
+  }
+
+  /**
+   * Returns {@code session} asking for field types only.
+   */
+  static Vtgate.Session typeOnly(Vtgate.Session session) {
+    return withOptions(session,
+        session.getOptions().toBuilder().setIncludedFields(IncludedFields.TYPE_ONLY).build());
+  }
+
+  /**
+   * Returns a session returned by VTGate with the client's original options restored.
+   */
+  static Vtgate.Session withOptions(Vtgate.Session session, Query.ExecuteOptions options) {
+    return session.toBuilder().setOptions(options).build();
+  }
+
+  /**
+   * Returns {@code result} with the cached fields if they have the same types as its own, and the
+   * same names where it has any, or {@code null} if they don't.
+   */
+  @Nullable
+  static Query.QueryResult withFields(Query.QueryResult result, List<Query.Field> fields) {
+    if (result.getFieldsCount() != fields.size()) {
+      return null;
+    }
+    for (int i = 0; i < fields.size(); i++) {
+      Query.Field field = result.getFields(i);
+      if (field.getType() != fields.get(i).getType()
+          || (!field.getName().isEmpty() && !field.getName().equals(fields.get(i).getName()))) {
+        return null;
+      }
+    }
+    return result.toBuilder().clearFields().addAllFields(fields).build();
+  }
+
+  private static final class Key {
+
+    private final String sql;
+    private final String target;
+    private final IncludedFields includedFields;
+
+    Key(Vtgate.Session session, String sql) {
+      this.sql = sql;
+      this.target = session.getTargetString();
+      this.includedFields = session.getOptions().getIncludedFields();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) other;
+      return sql.equals(that.sql) && target.equals(that.target)
+          && includedFields == that.includedFields;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(sql, target, includedFields);
+    }
+  }
+}
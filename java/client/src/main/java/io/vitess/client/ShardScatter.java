@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.vitess.client.cursor.Cursor;
+import io.vitess.client.cursor.MergeCursor;
+import io.vitess.client.cursor.ScatterCursor;
+import io.vitess.client.cursor.StreamCursor;
+import io.vitess.proto.Query;
+import io.vitess.proto.Query.QueryResult;
+import io.vitess.proto.Topodata.ShardReference;
+import io.vitess.proto.Topodata.TabletType;
+import io.vitess.proto.Vtgate.StreamExecuteShardsRequest;
+
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import javax.annotation.Nullable;
+
+/**
+ * Runs a streaming query on every shard of a keyspace at once, and merges the results on the
+ * client.
+ *
+ * <p>VTGate already scatters a query over all shards, but streams the results back over one call.
+ * This class instead looks up the shards in a {@link KeyspaceTopologyCache} and opens one {@code
+ * StreamExecuteShards} call per shard, so that the shards are read in parallel, each with its own
+ * flow control, and rows can be returned in whatever order the shards deliver them.
+ *
+ * <p>The query runs as is on each shard. To push a limit down, the query should have its own
+ * {@code LIMIT}, and the {@code limit} given here caps the merged result; once it is reached, the
+ * remaining shard streams are cancelled.
+ */
+public class ShardScatter {
+
+  private static final Executor DEFAULT_EXECUTOR = Executors.newCachedThreadPool(
+      new ThreadFactoryBuilder().setNameFormat("vitess-shard-scatter-%d").setDaemon(true).build());
+
+  private final RpcClient client;
+  private final KeyspaceTopologyCache topologyCache;
+  private final Executor executor;
+
+  /**
+   * Creates a scatter reading unordered streams on a shared pool of daemon threads.
+   */
+  public ShardScatter(RpcClient client, KeyspaceTopologyCache topologyCache) {
+    this(client, topologyCache, DEFAULT_EXECUTOR);
+  }
+
+  /**
+   * Creates a scatter.
+   *
+   * @param executor Reads the shard streams of unordered queries, one task per shard. It should be
+   *     able to run as many tasks at the same time as a keyspace has shards.
+   */
+  public ShardScatter(RpcClient client, KeyspaceTopologyCache topologyCache, Executor executor) {
+    this.client = checkNotNull(client);
+    this.topologyCache = checkNotNull(topologyCache);
+    this.executor = checkNotNull(executor);
+  }
+
+  /**
+   * Runs a query on every shard, returning the rows in the order the shards deliver them.
+   */
+  public Cursor streamExecute(Context ctx, String query, String keyspace,
+      @Nullable Map<String, ?> bindVars, TabletType tabletType) throws SQLException {
+    return streamExecute(ctx, query, keyspace, bindVars, tabletType, Long.MAX_VALUE);
+  }
+
+  /**
+   * Runs a query on every shard, returning at most {@code limit} rows in the order the shards
+   * deliver them.
+   */
+  public Cursor streamExecute(Context ctx, String query, String keyspace,
+      @Nullable Map<String, ?> bindVars, TabletType tabletType, long limit) throws SQLException {
+    return new ScatterCursor(startStreams(ctx, query, keyspace, bindVars, tabletType), executor,
+        limit);
+  }
+
+  /**
+   * Runs a query whose results are sorted on {@code orderColumns} on every shard, and merges the
+   * shard results into at most {@code limit} sorted rows.
+   *
+   * @param orderColumns Labels of the columns in the {@code ORDER BY} of the query, most
+   *     significant first. They must be in the select list, and be numeric, temporal, binary or
+   *     text with a binary collation, as described in {@link MergeCursor}.
+   * @param descending Whether the query sorts in descending order, which applies to every order
+   *     column.
+   */
+  public Cursor streamExecuteOrdered(Context ctx, String query, String keyspace,
+      @Nullable Map<String, ?> bindVars, TabletType tabletType, List<String> orderColumns,
+      boolean descending, long limit) throws SQLException {
+    List<StreamIterator<QueryResult>> streams = startStreams(ctx, query, keyspace, bindVars,
+        tabletType);
+    List<Cursor> cursors = new ArrayList<>(streams.size());
+    for (StreamIterator<QueryResult> stream : streams) {
+      cursors.add(new StreamCursor(stream));
+    }
+    return new MergeCursor(cursors, orderColumns, descending, limit);
+  }
+
+  private List<StreamIterator<QueryResult>> startStreams(Context ctx, String query,
+      String keyspace, @Nullable Map<String, ?> bindVars, TabletType tabletType)
+      throws SQLException {
+    List<ShardReference> shards = topologyCache.get(keyspace).getShards(checkNotNull(tabletType));
+    if (shards.isEmpty()) {
+      throw new SQLDataException(
+          "keyspace " + keyspace + " isn't served for tablet type " + tabletType);
+    }
+    Query.BoundQuery boundQuery = Proto.bindQuery(checkNotNull(query), bindVars);
+    List<StreamIterator<QueryResult>> streams = new ArrayList<>(shards.size());
+    try {
+      for (ShardReference shard : shards) {
+        StreamExecuteShardsRequest.Builder requestBuilder = StreamExecuteShardsRequest.newBuilder()
+            .setQuery(boundQuery)
+            .setKeyspace(keyspace)
+            .addShards(shard.getName())
+            .setTabletType(tabletType)
+            .setOptions(Query.ExecuteOptions.newBuilder()
+                .setIncludedFields(Query.ExecuteOptions.IncludedFields.ALL));
+
+        if (ctx.getCallerId() != null) {
+          requestBuilder.setCallerId(ctx.getCallerId());
+        }
+
+        streams.add(client.streamExecuteShards(ctx, requestBuilder.build()));
+      }
+    } catch (SQLException | RuntimeException exc) {
+      for (StreamIterator<QueryResult> stream : streams) {
+        try {
+          stream.close();
+        } catch (Exception closeExc) {
+          exc.addSuppressed(closeExc);
+        }
+      }
+      throw exc;
+    }
+    return streams;
+  }
+}
@@ -33,9 +33,9 @@ import javax.annotation.Nullable;
  * An asynchronous VTGate connection.
  * <p>
  * <p>All the information regarding this connection is maintained by {@code Session},
- * only one operation can be in flight at a time on a given instance. The methods are {@code
- * synchronized} only because the session cookie is updated asynchronously when the RPC response
- * comes back.</p>
+ * only one operation can be in flight at a time on a given {@link VTSession}. The session cookie
+ * is updated asynchronously when the RPC response comes back, so it's kept in volatile fields
+ * rather than behind a lock; calls with different sessions don't block each other.</p>
  * <p>
  * <p>After calling any method that returns a {@link SQLFuture}, you must wait for that future to
  * complete before calling any other methods on that {@code VTGateConnection} instance. An {@link
@@ -16,6 +16,7 @@
 
 package io.vitess.client;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.util.concurrent.Futures.transformAsync;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
@@ -30,9 +31,16 @@ import io.vitess.client.cursor.SimpleCursor;
 import io.vitess.client.cursor.StreamCursor;
 import io.vitess.proto.Query;
 import io.vitess.proto.Query.SplitQueryRequest.Algorithm;
+import io.vitess.proto.Topodata.SrvKeyspace;
+import io.vitess.proto.Topodata.TabletType;
 import io.vitess.proto.Vtgate;
+import io.vitess.proto.Vtgate.BoundKeyspaceIdQuery;
+import io.vitess.proto.Vtgate.ExecuteBatchKeyspaceIdsRequest;
+import io.vitess.proto.Vtgate.ExecuteBatchKeyspaceIdsResponse;
 import io.vitess.proto.Vtgate.ExecuteRequest;
 import io.vitess.proto.Vtgate.ExecuteResponse;
+import io.vitess.proto.Vtgate.GetSrvKeyspaceRequest;
+import io.vitess.proto.Vtgate.GetSrvKeyspaceResponse;
 import io.vitess.proto.Vtgate.SplitQueryRequest;
 import io.vitess.proto.Vtgate.SplitQueryResponse;
 import io.vitess.proto.Vtgate.StreamExecuteRequest;
@@ -52,9 +60,9 @@ import javax.annotation.Nullable;
  * An asynchronous VTGate connection.
  * <p>
  * <p>All the information regarding this connection is maintained by {@code Session},
- * only one operation can be in flight at a time on a given instance. The methods are {@code
- * synchronized} only because the session cookie is updated asynchronously when the RPC response
- * comes back.</p>
+ * only one operation can be in flight at a time on a given {@link VTSession}. The session cookie
+ * is updated asynchronously when the RPC response comes back, so it's kept in volatile fields
+ * rather than behind a lock; calls with different sessions don't block each other.</p>
  * <p>
  * <p>After calling any method that returns a {@link SQLFuture}, you must wait for that future to
  * complete before calling any other methods on that {@code VTGateConnection} instance. An {@link
@@ -66,6 +74,8 @@ import javax.annotation.Nullable;
 public class VTGateConnection implements Closeable {
 
   private final RpcClient client;
+  private final int tupleChunkSize;
+  private final ResultFieldsCache resultFieldsCache = new ResultFieldsCache();
 
   /**
    * Creates a VTGate connection with no specific parameters.
@@ -76,7 +86,42 @@ public class VTGateConnection implements Closeable {
    * @param client RPC connection
    */
   public VTGateConnection(RpcClient client) {
+    this(client, 0);
+  }
+
+  /**
+   * Creates a VTGate connection which splits oversized list bind variables.
+   * <p>
+   * <p>If {@code tupleChunkSize} is positive, {@link #execute(Context, String, Map, VTSession)}
+   * splits the largest {@code TUPLE} bind variable (e.g. the list in {@code WHERE id IN ::ids})
+   * into chunks of at most {@code tupleChunkSize} values whenever it is larger than that. The
+   * chunks are executed concurrently and their results are concatenated into a single {@link
+   * Cursor}. A value of {@code 0} disables chunking.</p>
+   * <p>
+   * <p>Chunking only happens in autocommit mode outside of a transaction, since the chunks can't
+   * share a session. It is only correct for queries whose result is the union of the results of
+   * each chunk, such as plain selects or deletes filtered by the list. The rows of the combined
+   * cursor are ordered by chunk, in the order of the values in the original list, and within a
+   * chunk in the order returned by VTGate. {@code ORDER BY}, {@code LIMIT} and aggregations are
+   * therefore only applied per chunk. The number of affected rows is summed up over all
+   * chunks.</p>
+   *
+   * @param client RPC connection
+   * @param tupleChunkSize Maximum number of values sent in one list bind variable, or {@code 0}
+   *     to disable chunking.
+   */
+  public VTGateConnection(RpcClient client, int tupleChunkSize) {
+    checkArgument(tupleChunkSize >= 0, "tupleChunkSize must not be negative: %s", tupleChunkSize);
     this.client = checkNotNull(client);
+    this.tupleChunkSize = tupleChunkSize;
+  }
+
+  /**
+   * Returns the maximum number of values sent in one list bind variable, or {@code 0} if
+   * chunking is disabled.
+   */
+  public int getTupleChunkSize() {
+    return tupleChunkSize;
   }
 
   /**
@@ -89,31 +134,118 @@ public class VTGateConnection implements Closeable {
    * @return SQL Future Cursor
    * @throws SQLException If anything fails on query execution.
    */
-  public SQLFuture<Cursor> execute(Context ctx, String query, @Nullable Map<String, ?> bindVars,
+  public SQLFuture<Cursor> execute(final Context ctx, final String query,
+      @Nullable Map<String, ?> bindVars, final VTSession vtSession) throws SQLException {
+    vtSession.checkCallIsAllowed("execute");
+    Query.BoundQuery boundQuery = Proto.bindQuery(checkNotNull(query), bindVars);
+    if (tupleChunkSize > 0 && vtSession.isAutoCommit() && !vtSession.isInTransaction()) {
+      List<Query.BoundQuery> chunks = Proto.splitTupleBindVariable(boundQuery, tupleChunkSize);
+      if (chunks.size() > 1) {
+        SQLFuture<Cursor> call = executeChunks(ctx, chunks, vtSession);
+        vtSession.setLastCall(call);
+        return call;
+      }
+    }
+
+    final Vtgate.Session session = vtSession.getSession();
+    final List<Query.Field> cachedFields =
+        vtSession.isResultFieldsCacheEnabled() ? resultFieldsCache.get(session, query) : null;
+    ExecuteRequest.Builder requestBuilder = ExecuteRequest.newBuilder()
+        .setQuery(boundQuery)
+        .setSession(cachedFields == null ? session : ResultFieldsCache.typeOnly(session));
+
+    if (ctx.getCallerId() != null) {
+      requestBuilder.setCallerId(ctx.getCallerId());
+    }
+
+    if (cachedFields == null) {
+      SQLFuture<Cursor> call = new SQLFuture<>(
+          transformAsync(client.execute(ctx, requestBuilder.build()),
+              toCursor(query, vtSession), directExecutor()));
+      vtSession.setLastCall(call);
+      return call;
+    }
+
+    final ExecuteRequest request = requestBuilder.build();
+    SQLFuture<Cursor> call = new SQLFuture<>(
+        transformAsync(client.execute(ctx, request),
+            new AsyncFunction<ExecuteResponse, Cursor>() {
+              @Override
+              public ListenableFuture<Cursor> apply(ExecuteResponse response) throws Exception {
+                vtSession.setSession(
+                    ResultFieldsCache.withOptions(response.getSession(), session.getOptions()));
+                checkAndThrowError(response.getError());
+                Query.QueryResult result =
+                    ResultFieldsCache.withFields(response.getResult(), cachedFields);
+                if (result != null) {
+                  return Futures.<Cursor>immediateFuture(new SimpleCursor(result));
+                }
+                // The field types changed, e.g. because of a schema change. Run the query again
+                // to get the new names.
+                resultFieldsCache.invalidate(session, query);
+                return transformAsync(client.execute(ctx,
+                    request.toBuilder().setSession(vtSession.getSession()).build()),
+                    toCursor(query, vtSession), directExecutor());
+              }
+            }, directExecutor()));
+    vtSession.setLastCall(call);
+    return call;
+  }
+
+  /**
+   * Returns a function which updates the session from a response and returns its result, caching
+   * the fields if the session has the cache enabled.
+   */
+  private AsyncFunction<ExecuteResponse, Cursor> toCursor(final String query,
+      final VTSession vtSession) {
+    final Vtgate.Session session = vtSession.getSession();
+    return new AsyncFunction<ExecuteResponse, Cursor>() {
+      @Override
+      public ListenableFuture<Cursor> apply(ExecuteResponse response) throws Exception {
+        vtSession.setSession(response.getSession());
+        checkAndThrowError(response.getError());
+        if (vtSession.isResultFieldsCacheEnabled()) {
+          resultFieldsCache.put(session, query, response.getResult().getFieldsList());
+        }
+        return Futures.<Cursor>immediateFuture(new SimpleCursor(response.getResult()));
+      }
+    };
+  }
+
+  /**
+   * Executes the chunks of a split query concurrently and concatenates their results.
+   */
+  private SQLFuture<Cursor> executeChunks(Context ctx, List<Query.BoundQuery> chunks,
       final VTSession vtSession) throws SQLException {
-    synchronized (this) {
-      vtSession.checkCallIsAllowed("execute");
+    List<ListenableFuture<ExecuteResponse>> responses = new ArrayList<>(chunks.size());
+    for (Query.BoundQuery chunk : chunks) {
       ExecuteRequest.Builder requestBuilder = ExecuteRequest.newBuilder()
-          .setQuery(Proto.bindQuery(checkNotNull(query), bindVars))
+          .setQuery(chunk)
           .setSession(vtSession.getSession());
 
       if (ctx.getCallerId() != null) {
         requestBuilder.setCallerId(ctx.getCallerId());
       }
+      responses.add(client.execute(ctx, requestBuilder.build()));
+    }
 
-      SQLFuture<Cursor> call = new SQLFuture<>(
-          transformAsync(client.execute(ctx, requestBuilder.build()),
-              new AsyncFunction<ExecuteResponse, Cursor>() {
-                @Override
-                public ListenableFuture<Cursor> apply(ExecuteResponse response) throws Exception {
-                  vtSession.setSession(response.getSession());
+    return new SQLFuture<>(
+        transformAsync(Futures.allAsList(responses),
+            new AsyncFunction<List<ExecuteResponse>, Cursor>() {
+              @Override
+              public ListenableFuture<Cursor> apply(List<ExecuteResponse> responses)
+                  throws Exception {
+                List<Query.QueryResult> results = new ArrayList<>(responses.size());
+                for (ExecuteResponse response : responses) {
                   checkAndThrowError(response.getError());
-                  return Futures.<Cursor>immediateFuture(new SimpleCursor(response.getResult()));
+                  results.add(response.getResult());
                 }
-              }, directExecutor()));
-      vtSession.setLastCall(call);
-      return call;
-    }
+                // Every chunk ran in autocommit mode, so all returned sessions are equivalent.
+                vtSession.setSession(responses.get(0).getSession());
+                return Futures.<Cursor>immediateFuture(
+                    new SimpleCursor(Proto.concatQueryResults(results)));
+              }
+            }, directExecutor()));
   }
 
   /**
@@ -150,45 +282,43 @@ public class VTGateConnection implements Closeable {
   public SQLFuture<List<CursorWithError>> executeBatch(Context ctx, List<String> queryList,
       @Nullable List<Map<String, ?>> bindVarsList, boolean asTransaction, final VTSession vtSession)
       throws SQLException {
-    synchronized (this) {
-      vtSession.checkCallIsAllowed("executeBatch");
-      List<Query.BoundQuery> queries = new ArrayList<>();
+    vtSession.checkCallIsAllowed("executeBatch");
+    List<Query.BoundQuery> queries = new ArrayList<>();
 
-      if (null != bindVarsList && bindVarsList.size() != queryList.size()) {
-        throw new SQLDataException(
-            "Size of SQL Query list does not match the bind variables list");
-      }
+    if (null != bindVarsList && bindVarsList.size() != queryList.size()) {
+      throw new SQLDataException(
+          "Size of SQL Query list does not match the bind variables list");
+    }
 
-      for (int i = 0; i < queryList.size(); ++i) {
-        queries.add(i, Proto.bindQuery(checkNotNull(queryList.get(i)),
-            bindVarsList == null ? null : bindVarsList.get(i)));
-      }
+    for (int i = 0; i < queryList.size(); ++i) {
+      queries.add(i, Proto.bindQuery(checkNotNull(queryList.get(i)),
+          bindVarsList == null ? null : bindVarsList.get(i)));
+    }
 
-      Vtgate.ExecuteBatchRequest.Builder requestBuilder =
-          Vtgate.ExecuteBatchRequest.newBuilder()
-              .addAllQueries(checkNotNull(queries))
-              .setSession(vtSession.getSession())
-              .setAsTransaction(asTransaction);
+    Vtgate.ExecuteBatchRequest.Builder requestBuilder =
+        Vtgate.ExecuteBatchRequest.newBuilder()
+            .addAllQueries(checkNotNull(queries))
+            .setSession(vtSession.getSession())
+            .setAsTransaction(asTransaction);
 
-      if (ctx.getCallerId() != null) {
-        requestBuilder.setCallerId(ctx.getCallerId());
-      }
-
-      SQLFuture<List<CursorWithError>> call = new SQLFuture<>(
-          transformAsync(client.executeBatch(ctx, requestBuilder.build()),
-              new AsyncFunction<Vtgate.ExecuteBatchResponse, List<CursorWithError>>() {
-                @Override
-                public ListenableFuture<List<CursorWithError>> apply(
-                    Vtgate.ExecuteBatchResponse response) throws Exception {
-                  vtSession.setSession(response.getSession());
-                  checkAndThrowError(response.getError());
-                  return Futures.immediateFuture(
-                      Proto.fromQueryResponsesToCursorList(response.getResultsList()));
-                }
-              }, directExecutor()));
-      vtSession.setLastCall(call);
-      return call;
+    if (ctx.getCallerId() != null) {
+      requestBuilder.setCallerId(ctx.getCallerId());
     }
+
+    SQLFuture<List<CursorWithError>> call = new SQLFuture<>(
+        transformAsync(client.executeBatch(ctx, requestBuilder.build()),
+            new AsyncFunction<Vtgate.ExecuteBatchResponse, List<CursorWithError>>() {
+              @Override
+              public ListenableFuture<List<CursorWithError>> apply(
+                  Vtgate.ExecuteBatchResponse response) throws Exception {
+                vtSession.setSession(response.getSession());
+                checkAndThrowError(response.getError());
+                return Futures.immediateFuture(
+                    Proto.fromQueryResponsesToCursorList(response.getResultsList()));
+              }
+            }, directExecutor()));
+    vtSession.setLastCall(call);
+    return call;
   }
 
   /**
@@ -253,7 +383,77 @@ public class VTGateConnection implements Closeable {
             }, directExecutor()));
   }
 
-  private void checkAndThrowError(RPCError error) throws SQLException {
+  /**
+   * Executes a batch of queries, each routed to the shards serving its keyspace ids rather than
+   * by VTGate's query planner. It runs outside of any {@link VTSession}, as one transaction if
+   * {@code asTransaction} is set.
+   *
+   * @param ctx Context on user and execution deadline if any.
+   * @param queries Queries with the keyspace ids they are sent to.
+   * @param tabletType Type of the tablets the queries run on.
+   * @param asTransaction Whether the batch is committed or rolled back as a whole.
+   * @param includedFields Which field metadata the results carry.
+   * @return SQL Future with the cursors of the queries, in order.
+   * @throws SQLException If anything fails on query execution.
+   */
+  public SQLFuture<List<Cursor>> executeBatchKeyspaceIds(Context ctx,
+      Iterable<? extends BoundKeyspaceIdQuery> queries, TabletType tabletType,
+      boolean asTransaction, Query.ExecuteOptions.IncludedFields includedFields)
+      throws SQLException {
+    ExecuteBatchKeyspaceIdsRequest.Builder requestBuilder =
+        ExecuteBatchKeyspaceIdsRequest.newBuilder()
+            .addAllQueries(checkNotNull(queries))
+            .setTabletType(checkNotNull(tabletType))
+            .setAsTransaction(asTransaction)
+            .setOptions(Query.ExecuteOptions.newBuilder()
+                .setIncludedFields(includedFields));
+
+    if (ctx.getCallerId() != null) {
+      requestBuilder.setCallerId(ctx.getCallerId());
+    }
+
+    return new SQLFuture<>(
+        transformAsync(client.executeBatchKeyspaceIds(ctx, requestBuilder.build()),
+            new AsyncFunction<ExecuteBatchKeyspaceIdsResponse, List<Cursor>>() {
+              @Override
+              public ListenableFuture<List<Cursor>> apply(ExecuteBatchKeyspaceIdsResponse response)
+                  throws Exception {
+                checkAndThrowError(response.getError());
+                return Futures.<List<Cursor>>immediateFuture(
+                    Proto.toCursorList(response.getResultsList()));
+              }
+            }, directExecutor()));
+  }
+
+  /**
+   * Fetches the serving graph of a keyspace: its partitions and shard references per tablet type.
+   * Use a {@link KeyspaceTopologyCache} to avoid fetching it on every call.
+   *
+   * @param ctx Context on user and execution deadline if any.
+   * @param keyspace Keyspace to get the serving graph of.
+   * @return SQL Future with the SrvKeyspace
+   * @throws SQLException If anything fails on the call.
+   */
+  public SQLFuture<SrvKeyspace> getSrvKeyspace(Context ctx, String keyspace)
+      throws SQLException {
+    GetSrvKeyspaceRequest.Builder requestBuilder =
+        GetSrvKeyspaceRequest.newBuilder().setKeyspace(checkNotNull(keyspace));
+
+    return new SQLFuture<>(
+        transformAsync(client.getSrvKeyspace(ctx, requestBuilder.build()),
+            new AsyncFunction<GetSrvKeyspaceResponse, SrvKeyspace>() {
+              @Override
+              public ListenableFuture<SrvKeyspace> apply(GetSrvKeyspaceResponse response)
+                  throws Exception {
+                return Futures.immediateFuture(response.getSrvKeyspace());
+              }
+            }, directExecutor()));
+  }
+
+  /**
+   * Throws the {@link SQLException} matching {@code error}, unless it is a success.
+   */
+  void checkAndThrowError(RPCError error) throws SQLException {
     SQLException exception = client.checkError(error);
     if (exception != null) {
       throw exception;
@@ -67,8 +67,8 @@ import javax.annotation.Nullable;
  * An asynchronous VTGate transaction session.
  *
  * <p>Because {@code VTGateTx} manages a session cookie, only one operation can be in flight at a
- * time on a given instance. The methods are {@code synchronized} only because the session cookie is
- * updated asynchronously when the RPC response comes back.
+ * time on a given instance. The session cookie is updated asynchronously when the RPC response
+ * comes back, so it's kept in a volatile field rather than behind a lock.
  *
  * <p>After calling any method that returns a {@link SQLFuture}, you must wait for that future to
  * complete before calling any other methods on that {@code VTGateTx} instance. An {@link
@@ -88,8 +88,8 @@ public class VTGateTx {
 
   private final RpcClient client;
   private final String keyspace;
-  private Session session;
-  private SQLFuture<?> lastCall;
+  private volatile Session session;
+  private volatile SQLFuture<?> lastCall;
 
   VTGateTx(RpcClient client, Session session, String keyspace) {
     this.client = checkNotNull(client);
@@ -97,7 +97,7 @@ public class VTGateTx {
     setSession(checkNotNull(session));
   }
 
-  public synchronized SQLFuture<Cursor> execute(Context ctx, String query, Map<String, ?> bindVars,
+  public SQLFuture<Cursor> execute(Context ctx, String query, Map<String, ?> bindVars,
       TabletType tabletType, Query.ExecuteOptions.IncludedFields includedFields)
       throws SQLException {
     checkCallIsAllowed("execute");
@@ -131,7 +131,7 @@ public class VTGateTx {
     return call;
   }
 
-  public synchronized SQLFuture<Cursor> executeShards(Context ctx, String query, String keyspace,
+  public SQLFuture<Cursor> executeShards(Context ctx, String query, String keyspace,
       Iterable<String> shards, Map<String, ?> bindVars, TabletType tabletType,
       Query.ExecuteOptions.IncludedFields includedFields) throws SQLException {
     checkCallIsAllowed("executeShards");
@@ -166,7 +166,7 @@ public class VTGateTx {
     return call;
   }
 
-  public synchronized SQLFuture<Cursor> executeKeyspaceIds(Context ctx, String query,
+  public SQLFuture<Cursor> executeKeyspaceIds(Context ctx, String query,
       String keyspace, Iterable<byte[]> keyspaceIds, Map<String, ?> bindVars, TabletType tabletType,
       Query.ExecuteOptions.IncludedFields includedFields)
       throws SQLException {
@@ -202,7 +202,7 @@ public class VTGateTx {
     return call;
   }
 
-  public synchronized SQLFuture<Cursor> executeKeyRanges(Context ctx, String query, String keyspace,
+  public SQLFuture<Cursor> executeKeyRanges(Context ctx, String query, String keyspace,
       Iterable<? extends KeyRange> keyRanges, Map<String, ?> bindVars, TabletType tabletType,
       Query.ExecuteOptions.IncludedFields includedFields)
       throws SQLException {
@@ -238,7 +238,7 @@ public class VTGateTx {
     return call;
   }
 
-  public synchronized SQLFuture<Cursor> executeEntityIds(Context ctx, String query, String keyspace,
+  public SQLFuture<Cursor> executeEntityIds(Context ctx, String query, String keyspace,
       String entityColumnName, Map<byte[], ?> entityKeyspaceIds, Map<String, ?> bindVars,
       TabletType tabletType, Query.ExecuteOptions.IncludedFields includedFields)
       throws SQLException {
@@ -321,7 +321,7 @@ public class VTGateTx {
             directExecutor()));
   }
 
-  public synchronized SQLFuture<List<Cursor>> executeBatchShards(Context ctx,
+  public SQLFuture<List<Cursor>> executeBatchShards(Context ctx,
       Iterable<? extends BoundShardQuery> queries, TabletType tabletType,
       Query.ExecuteOptions.IncludedFields includedFields) throws SQLException {
     checkCallIsAllowed("executeBatchShards");
@@ -355,7 +355,7 @@ public class VTGateTx {
     return call;
   }
 
-  public synchronized SQLFuture<List<Cursor>> executeBatchKeyspaceIds(Context ctx,
+  public SQLFuture<List<Cursor>> executeBatchKeyspaceIds(Context ctx,
       Iterable<? extends BoundKeyspaceIdQuery> queries, TabletType tabletType,
       Query.ExecuteOptions.IncludedFields includedFields) throws SQLException {
     checkCallIsAllowed("executeBatchKeyspaceIds");
@@ -390,11 +390,11 @@ public class VTGateTx {
     return call;
   }
 
-  public synchronized SQLFuture<Void> commit(Context ctx) throws SQLException {
+  public SQLFuture<Void> commit(Context ctx) throws SQLException {
     return commit(ctx, false);
   }
 
-  public synchronized SQLFuture<Void> commit(Context ctx, boolean atomic) throws SQLException {
+  public SQLFuture<Void> commit(Context ctx, boolean atomic) throws SQLException {
     checkCallIsAllowed("commit");
     CommitRequest.Builder requestBuilder = CommitRequest.newBuilder().setSession(session)
         .setAtomic(atomic);
@@ -417,7 +417,7 @@ public class VTGateTx {
     return call;
   }
 
-  public synchronized SQLFuture<Void> rollback(Context ctx) throws SQLException {
+  public SQLFuture<Void> rollback(Context ctx) throws SQLException {
     checkCallIsAllowed("rollback");
     RollbackRequest.Builder requestBuilder = RollbackRequest.newBuilder().setSession(session);
     if (ctx.getCallerId() != null) {
@@ -439,7 +439,7 @@ public class VTGateTx {
     return call;
   }
 
-  protected synchronized void checkCallIsAllowed(String call) throws SQLException {
+  protected void checkCallIsAllowed(String call) throws SQLException {
     // Calls are not allowed to overlap.
     if (lastCall != null && !lastCall.isDone()) {
       throw new IllegalStateException("Can't call " + call
@@ -451,11 +451,11 @@ public class VTGateTx {
     }
   }
 
-  protected synchronized void setSession(Session session) {
+  protected void setSession(Session session) {
     this.session = session;
   }
 
-  private synchronized void checkAndThrowError(RPCError error) throws SQLException {
+  private void checkAndThrowError(RPCError error) throws SQLException {
     SQLException exception = client.checkError(error);
     if (exception != null) {
       throw exception;
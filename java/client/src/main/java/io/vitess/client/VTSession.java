@@ -24,8 +24,9 @@ import io.vitess.proto.Vtgate;
  */
 public class VTSession {
 
-  private Vtgate.Session session;
-  private SQLFuture<?> lastCall;
+  private volatile Vtgate.Session session;
+  private volatile SQLFuture<?> lastCall;
+  private boolean resultFieldsCacheEnabled;
 
   /**
    * Create session cookie.
@@ -36,12 +37,27 @@ public class VTSession {
    *     database engine.
    */
   public VTSession(String target, Query.ExecuteOptions options) {
+    reset(target, options);
+  }
+
+  /**
+   * Discards the session state, leaving the session as it was right after being created with the
+   * given target and options. No call is made to VTGate, so any open transaction must have been
+   * committed or rolled back before.
+   *
+   * @param target In the format keyspace@shard:tabletType. Only provide the part what needs to
+   *     be set.
+   * @param options Additional parameters to be passed along the query to the underlying
+   *     database engine.
+   */
+  public void reset(String target, Query.ExecuteOptions options) {
     this.session = Vtgate.Session.newBuilder()
         .setTargetString(null == target ? "" : target)
         .setOptions(null == options ? Query.ExecuteOptions.newBuilder().build() : options)
         .setAutocommit(true)
         .setInTransaction(false)
         .build();
+    this.lastCall = null;
   }
 
   /**
@@ -56,7 +72,7 @@ public class VTSession {
   /**
    * This method set the session cookie returned from VTGate.
    * <p>
-   * <p>This method is not synchronized as the callee function is synchronized.</p>
+   * <p>The field is volatile because the cookie is set on the thread completing the RPC.</p>
    *
    * @param session Updated globalSession to be set.
    */
@@ -111,6 +127,28 @@ public class VTSession {
             .setTransactionIsolation(isolation)).build();
   }
 
+  /**
+   * Returns whether {@link VTGateConnection#execute} may ask VTGate for field types only, and
+   * take the remaining field metadata from an earlier result of the same query.
+   */
+  public boolean isResultFieldsCacheEnabled() {
+    return resultFieldsCacheEnabled;
+  }
+
+  /**
+   * Enables or disables requesting field types only for queries whose fields are already known.
+   * <p>
+   * <p>Results of the same query on the same target are assumed to have the same fields as long
+   * as their types match. If the types change, the query is executed again with the configured
+   * {@link Query.ExecuteOptions.IncludedFields}. Renaming a column without changing its type isn't
+   * detected until the cached fields are evicted.</p>
+   *
+   * @param resultFieldsCacheEnabled true to enable
+   */
+  public void setResultFieldsCacheEnabled(boolean resultFieldsCacheEnabled) {
+    this.resultFieldsCacheEnabled = resultFieldsCacheEnabled;
+  }
+
   /**
    * Set the last SQLFuture call made on this session.
    *
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client.cursor;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.protobuf.ByteString;
+
+import io.vitess.proto.Query;
+import io.vitess.proto.Query.Field;
+import io.vitess.proto.Query.QueryResult;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+import java.util.function.LongConsumer;
+
+import javax.annotation.Nullable;
+
+/**
+ * A column-oriented copy of a batch of rows, such as one {@link QueryResult} or one streamed chunk
+ * of {@link StreamCursor#nextColumnBatch()}, for consumers that aggregate many values without
+ * creating a {@link Row} and boxing every value.
+ *
+ * <p>Values are decoded straight from the packed lengths and values of each {@link Query.Row}:
+ * <ul>
+ * <li>Integer and {@code YEAR} columns become a {@code long[]}. {@code UINT64} values above {@link
+ * Long#MAX_VALUE} keep their 64 bits, like {@code UnsignedLong.longValue()}.
+ * <li>{@code FLOAT} and {@code DOUBLE} columns become a {@code double[]}.
+ * <li>All other columns keep their raw bytes in one contiguous buffer per column, with offsets.
+ * </ul>
+ * Each column also has a bitmap of its {@code NULL} values, which read as 0 or {@code null}.
+ *
+ * <p>Like in {@link Row}, columns are numbered from 1. Rows are numbered from 0.
+ */
+public final class ColumnBatch {
+
+  /**
+   * How the values of a column are stored.
+   */
+  public enum ColumnKind {
+    LONG, DOUBLE, BYTES
+  }
+
+  private final FieldMap fieldMap;
+  private final int rowCount;
+  private final Column[] columns;
+
+  private static final class Column {
+
+    private final ColumnKind kind;
+    private final BitSet nulls = new BitSet();
+    private long[] longs;
+    private double[] doubles;
+    private byte[] bytes;
+    private int[] offsets;
+
+    private Column(ColumnKind kind, int rowCount) {
+      this.kind = kind;
+      switch (kind) {
+        case LONG:
+          longs = new long[rowCount];
+          break;
+        case DOUBLE:
+          doubles = new double[rowCount];
+          break;
+        default:
+          bytes = new byte[16 * rowCount];
+          offsets = new int[rowCount + 1];
+          break;
+      }
+    }
+
+    private void appendBytes(int row, byte[] source, int offset, int length) {
+      int start = offsets[row];
+      if (start + length > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(start + length, 2 * bytes.length));
+      }
+      System.arraycopy(source, offset, bytes, start, length);
+      offsets[row + 1] = start + length;
+    }
+  }
+
+  private ColumnBatch(FieldMap fieldMap, int rowCount, Column[] columns) {
+    this.fieldMap = fieldMap;
+    this.rowCount = rowCount;
+    this.columns = columns;
+  }
+
+  /**
+   * Converts the rows of a {@link QueryResult}, which must include its fields.
+   *
+   * @throws SQLDataException if a value doesn't match the type of its column.
+   */
+  public static ColumnBatch of(QueryResult queryResult) throws SQLException {
+    return of(queryResult.getFieldsList(), queryResult.getRowsList());
+  }
+
+  /**
+   * Converts rows with the given fields, for example a streamed {@link QueryResult} whose fields
+   * were sent in an earlier chunk.
+   *
+   * @throws SQLDataException if a value doesn't match the type of its column.
+   */
+  public static ColumnBatch of(List<Field> fields, List<Query.Row> rows) throws SQLException {
+    FieldMap fieldMap = FieldMap.of(checkNotNull(fields));
+    int rowCount = rows.size();
+    Column[] columns = new Column[fields.size()];
+    for (int column = 0; column < columns.length; column++) {
+      columns[column] = new Column(kindOf(fields.get(column).getType()), rowCount);
+    }
+
+    byte[] buffer = new byte[64];
+    for (int row = 0; row < rowCount; row++) {
+      Query.Row rawRow = rows.get(row);
+      if (rawRow.getLengthsCount() != columns.length) {
+        throw new SQLDataException("row " + row + " has " + rawRow.getLengthsCount()
+            + " values for " + columns.length + " fields");
+      }
+      ByteString values = rawRow.getValues();
+      if (values.size() > buffer.length) {
+        buffer = new byte[Math.max(values.size(), 2 * buffer.length)];
+      }
+      values.copyTo(buffer, 0);
+
+      int offset = 0;
+      for (int index = 0; index < columns.length; index++) {
+        Column column = columns[index];
+        int length = (int) rawRow.getLengths(index);
+        if (length < 0) {
+          // MySQL NULL value.
+          column.nulls.set(row);
+          if (column.kind == ColumnKind.BYTES) {
+            column.offsets[row + 1] = column.offsets[row];
+          }
+          continue;
+        }
+        switch (column.kind) {
+          case LONG:
+            column.longs[row] = parseLong(buffer, offset, length, fields.get(index));
+            break;
+          case DOUBLE:
+            column.doubles[row] = parseDouble(buffer, offset, length, fields.get(index));
+            break;
+          default:
+            column.appendBytes(row, buffer, offset, length);
+            break;
+        }
+        offset += length;
+      }
+    }
+    return new ColumnBatch(fieldMap, rowCount, columns);
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public int getColumnCount() {
+    return columns.length;
+  }
+
+  public List<Field> getFields() {
+    return fieldMap.getList();
+  }
+
+  /**
+   * Returns the column index for a given column name.
+   *
+   * @throws SQLDataException if the column is not found.
+   */
+  public int findColumn(String columnLabel) throws SQLException {
+    Integer columnIndex = fieldMap.getIndex(checkNotNull(columnLabel));
+    if (columnIndex == null) {
+      throw new SQLDataException("column not found:" + columnLabel);
+    }
+    return columnIndex;
+  }
+
+  /**
+   * @param columnIndex 1-based column number (0 is invalid)
+   */
+  public ColumnKind getColumnKind(int columnIndex) {
+    return column(columnIndex).kind;
+  }
+
+  /**
+   * @param columnIndex 1-based column number (0 is invalid)
+   */
+  public boolean isNull(int columnIndex, int row) {
+    checkElementIndex(row, rowCount);
+    return column(columnIndex).nulls.get(row);
+  }
+
+  /**
+   * Returns a value of a {@link ColumnKind#LONG} column, or 0 for {@code NULL}.
+   *
+   * @param columnIndex 1-based column number (0 is invalid)
+   */
+  public long getLong(int columnIndex, int row) {
+    checkElementIndex(row, rowCount);
+    return column(columnIndex, ColumnKind.LONG).longs[row];
+  }
+
+  /**
+   * Returns a value of a {@link ColumnKind#DOUBLE} or {@link ColumnKind#LONG} column, or 0 for
+   * {@code NULL}.
+   *
+   * @param columnIndex 1-based column number (0 is invalid)
+   */
+  public double getDouble(int columnIndex, int row) {
+    checkElementIndex(row, rowCount);
+    Column column = column(columnIndex);
+    if (column.kind == ColumnKind.LONG) {
+      return column.longs[row];
+    }
+    return column(columnIndex, ColumnKind.DOUBLE).doubles[row];
+  }
+
+  /**
+   * Returns a copy of the raw bytes of a {@link ColumnKind#BYTES} column, or {@code null} for
+   * {@code NULL}.
+   *
+   * @param columnIndex 1-based column number (0 is invalid)
+   */
+  @Nullable
+  public byte[] getBytes(int columnIndex, int row) {
+    checkElementIndex(row, rowCount);
+    Column column = column(columnIndex, ColumnKind.BYTES);
+    if (column.nulls.get(row)) {
+      return null;
+    }
+    return Arrays.copyOfRange(column.bytes, column.offsets[row], column.offsets[row + 1]);
+  }
+
+  /**
+   * Returns a value of a {@link ColumnKind#BYTES} column decoded as UTF-8, or {@code null} for
+   * {@code NULL}.
+   *
+   * @param columnIndex 1-based column number (0 is invalid)
+   */
+  @Nullable
+  public String getString(int columnIndex, int row) {
+    checkElementIndex(row, rowCount);
+    Column column = column(columnIndex, ColumnKind.BYTES);
+    if (column.nulls.get(row)) {
+      return null;
+    }
+    return new String(column.bytes, column.offsets[row],
+        column.offsets[row + 1] - column.offsets[row], StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Passes each non-{@code NULL} value of a {@link ColumnKind#LONG} column to {@code action}, in
+   * row order.
+   *
+   * @param columnIndex 1-based column number (0 is invalid)
+   */
+  public void forEachLong(int columnIndex, LongConsumer action) {
+    Column column = column(columnIndex, ColumnKind.LONG);
+    for (int row = column.nulls.nextClearBit(0); row < rowCount;
+        row = column.nulls.nextClearBit(row + 1)) {
+      action.accept(column.longs[row]);
+    }
+  }
+
+  /**
+   * Returns the sum of a {@link ColumnKind#LONG} column, ignoring {@code NULL} values, which are
+   * stored as 0. Overflows wrap around.
+   *
+   * @param columnIndex 1-based column number (0 is invalid)
+   */
+  public long sumLong(int columnIndex) {
+    long[] longs = column(columnIndex, ColumnKind.LONG).longs;
+    long sum = 0;
+    for (int row = 0; row < rowCount; row++) {
+      sum += longs[row];
+    }
+    return sum;
+  }
+
+  /**
+   * Passes each non-{@code NULL} value of a {@link ColumnKind#DOUBLE} or {@link ColumnKind#LONG}
+   * column to {@code action}, in row order.
+   *
+   * @param columnIndex 1-based column number (0 is invalid)
+   */
+  public void forEachDouble(int columnIndex, DoubleConsumer action) {
+    Column column = column(columnIndex);
+    for (int row = column.nulls.nextClearBit(0); row < rowCount;
+        row = column.nulls.nextClearBit(row + 1)) {
+      action.accept(getDouble(columnIndex, row));
+    }
+  }
+
+  /**
+   * Returns the sum of a {@link ColumnKind#DOUBLE} or {@link ColumnKind#LONG} column, ignoring
+   * {@code NULL} values, which are stored as 0.
+   *
+   * @param columnIndex 1-based column number (0 is invalid)
+   */
+  public double sumDouble(int columnIndex) {
+    Column column = column(columnIndex);
+    double sum = 0;
+    if (column.kind == ColumnKind.LONG) {
+      for (int row = 0; row < rowCount; row++) {
+        sum += column.longs[row];
+      }
+    } else {
+      double[] doubles = column(columnIndex, ColumnKind.DOUBLE).doubles;
+      for (int row = 0; row < rowCount; row++) {
+        sum += doubles[row];
+      }
+    }
+    return sum;
+  }
+
+  private Column column(int columnIndex) {
+    checkArgument(columnIndex >= 1 && columnIndex <= columns.length,
+        "column index %s is out of range [1, %s]", columnIndex, columns.length);
+    return columns[columnIndex - 1];
+  }
+
+  private Column column(int columnIndex, ColumnKind kind) {
+    Column column = column(columnIndex);
+    checkArgument(column.kind == kind, "column %s is stored as %s, not %s", columnIndex,
+        column.kind, kind);
+    return column;
+  }
+
+  private static ColumnKind kindOf(Query.Type type) {
+    switch (type) {
+      case INT8:
+      case UINT8:
+      case INT16:
+      case UINT16:
+      case INT24:
+      case UINT24:
+      case INT32:
+      case UINT32:
+      case INT64:
+      case UINT64:
+      case YEAR:
+        return ColumnKind.LONG;
+      case FLOAT32:
+      case FLOAT64:
+        return ColumnKind.DOUBLE;
+      default:
+        return ColumnKind.BYTES;
+    }
+  }
+
+  /**
+   * Parses a decimal integer from ASCII bytes, without creating a {@link String}.
+   */
+  private static long parseLong(byte[] buffer, int offset, int length, Field field)
+      throws SQLDataException {
+    int index = offset;
+    int end = offset + length;
+    boolean negative = length > 0 && buffer[index] == '-';
+    if (negative) {
+      index++;
+    }
+    if (index == end) {
+      throw invalidValue(buffer, offset, length, field);
+    }
+    long value = 0;
+    for (; index < end; index++) {
+      int digit = buffer[index] - '0';
+      if (digit < 0 || digit > 9) {
+        throw invalidValue(buffer, offset, length, field);
+      }
+      // Unsigned 64-bit values wrap around into their two's complement.
+      value = value * 10 + digit;
+    }
+    return negative ? -value : value;
+  }
+
+  private static double parseDouble(byte[] buffer, int offset, int length, Field field)
+      throws SQLDataException {
+    try {
+      return Double.parseDouble(new String(buffer, offset, length, StandardCharsets.US_ASCII));
+    } catch (NumberFormatException exc) {
+      throw invalidValue(buffer, offset, length, field);
+    }
+  }
+
+  private static SQLDataException invalidValue(byte[] buffer, int offset, int length,
+      Field field) {
+    return new SQLDataException("invalid " + field.getType() + " value for column "
+        + field.getName() + ": " + new String(buffer, offset, length, StandardCharsets.UTF_8));
+  }
+}
@@ -25,6 +25,11 @@ import java.sql.SQLDataException;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -102,9 +107,46 @@ public abstract class Cursor implements AutoCloseable {
     return columnIndex;
   }
 
+  /**
+   * Returns the remaining rows as a sequential {@link Stream}, which can be made {@link
+   * Stream#parallel() parallel}. The rows are read lazily as the stream is consumed, and reading
+   * them advances this cursor, which must still be closed afterwards.
+   *
+   * <p>Errors are thrown as {@link RowStreamException}.
+   *
+   * @throws SQLException if the fields can't be read.
+   */
+  public Stream<Row> stream() throws SQLException {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /**
+   * Returns the {@link Spliterator} backing {@link #stream()}. The default implementation calls
+   * {@link #next()}, and splits by buffering batches of rows.
+   */
+  protected Spliterator<Row> spliterator() throws SQLException {
+    return new Spliterators.AbstractSpliterator<Row>(Long.MAX_VALUE,
+        Spliterator.ORDERED | Spliterator.NONNULL) {
+      @Override
+      public boolean tryAdvance(Consumer<? super Row> action) {
+        Row row;
+        try {
+          row = next();
+        } catch (SQLException exc) {
+          throw new RowStreamException(exc);
+        }
+        if (row == null) {
+          return false;
+        }
+        action.accept(row);
+        return true;
+      }
+    };
+  }
+
   protected final FieldMap getFieldMap() throws SQLException {
     if (fieldMap == null) {
-      fieldMap = new FieldMap(getFields());
+      fieldMap = FieldMap.of(getFields());
     }
     return fieldMap;
   }
@@ -19,14 +19,13 @@ package io.vitess.client.cursor;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 
 import io.vitess.proto.Query.Field;
 
-import org.apache.commons.collections4.map.CaseInsensitiveMap;
-
 import java.util.List;
-import java.util.Map;
 
 import javax.annotation.Nullable;
 
@@ -39,48 +38,69 @@ import javax.annotation.Nullable;
  *
  * <p>The field name maps to an index, rather than a Field, because that same
  * index is also used to find the value in a separate list.
+ *
+ * <p>Instances are immutable, so {@link #of(List)} shares them between results with the same
+ * fields.
  */
 public class FieldMap {
 
+  private static final int CACHE_SIZE = 1000;
+
+  private static final Cache<List<Field>, FieldMap> cache =
+      CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
   private final List<Field> fields;
-  private final Map<String, Integer> labelMap;
-  private final Map<String, Integer> nameMap;
-  private final Map<String, Integer> fullNameMap;
+  /**
+   * Open-addressing table of lookup keys (column label, original name and {@code table.name}),
+   * with the 1-based column index of each key at the same slot of {@link #indexes}.
+   */
+  private final String[] keys;
+  private final int[] indexes;
 
   public FieldMap(Iterable<Field> fields) {
     this.fields = ImmutableList.copyOf(checkNotNull(fields));
 
-    labelMap = new CaseInsensitiveMap<String, Integer>();
-    nameMap = new CaseInsensitiveMap<String, Integer>();
-    fullNameMap = new CaseInsensitiveMap<String, Integer>();
+    int size = Integer.highestOneBit(Math.max(this.fields.size() * 6, 1) - 1) << 1;
+    keys = new String[Math.max(size, 2)];
+    indexes = new int[keys.length];
+    // Labels take precedence over original names, which take precedence over full names. If
+    // multiple columns have the same name, prefer the earlier one as JDBC ResultSet does.
     // columnIndex is 1-based.
     int columnIndex = 1;
     for (Field field : this.fields) {
-      // If multiple columns have the same name,
-      // prefer the earlier one as JDBC ResultSet does.
-      String columnLabel = field.getName();
-      if (!labelMap.containsKey(columnLabel)) {
-        labelMap.put(columnLabel, columnIndex);
-      }
+      put(field.getName(), columnIndex++);
+    }
+    columnIndex = 1;
+    for (Field field : this.fields) {
       String origName = field.getOrgName();
-      if (!"".equals(origName) && !nameMap.containsKey(origName)) {
-        nameMap.put(origName, columnIndex);
+      if (!"".equals(origName)) {
+        put(origName, columnIndex);
       }
+      ++columnIndex;
+    }
+    columnIndex = 1;
+    for (Field field : this.fields) {
       String tableName = field.getTable();
       if (!"".equals(tableName)) {
-        StringBuilder fullNameBuf = new StringBuilder();
-        fullNameBuf.append(tableName);
-        fullNameBuf.append('.');
-        fullNameBuf.append(field.getName());
-        String fullName = fullNameBuf.toString();
-        if (!fullNameMap.containsKey(fullName)) {
-          fullNameMap.put(fullName, columnIndex);
-        }
+        put(tableName + '.' + field.getName(), columnIndex);
       }
       ++columnIndex;
     }
   }
 
+  /**
+   * Returns a {@code FieldMap} for {@code fields}, reusing a previously built one if the fields
+   * are the same.
+   */
+  public static FieldMap of(List<Field> fields) {
+    FieldMap fieldMap = cache.getIfPresent(checkNotNull(fields));
+    if (fieldMap == null) {
+      fieldMap = new FieldMap(fields);
+      cache.put(fieldMap.fields, fieldMap);
+    }
+    return fieldMap;
+  }
+
   public List<Field> getList() {
     return fields;
   }
@@ -106,13 +126,47 @@ public class FieldMap {
    */
   @Nullable
   public Integer getIndex(String columnLabel) {
-    Integer index = labelMap.get(columnLabel);
-    if (index == null) {
-      index = nameMap.get(columnLabel);
+    if (columnLabel == null) {
+      return null;
+    }
+    int mask = keys.length - 1;
+    for (int slot = hash(columnLabel) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+      if (equalsIgnoreCase(keys[slot], columnLabel)) {
+        return indexes[slot];
+      }
     }
-    if (index == null) {
-      index = fullNameMap.get(columnLabel);
+    return null;
+  }
+
+  /**
+   * Adds a key unless it's already present.
+   */
+  private void put(String key, int columnIndex) {
+    int mask = keys.length - 1;
+    int slot = hash(key) & mask;
+    while (keys[slot] != null) {
+      if (equalsIgnoreCase(keys[slot], key)) {
+        return;
+      }
+      slot = (slot + 1) & mask;
     }
-    return index;
+    keys[slot] = key;
+    indexes[slot] = columnIndex;
+  }
+
+  /**
+   * Case-insensitive hash, folding characters the same way as {@link
+   * String#equalsIgnoreCase(String)}.
+   */
+  private static int hash(String key) {
+    int hash = 0;
+    for (int i = 0; i < key.length(); i++) {
+      hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(key.charAt(i)));
+    }
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean equalsIgnoreCase(String key, String other) {
+    return key == other || key.equalsIgnoreCase(other);
   }
 }
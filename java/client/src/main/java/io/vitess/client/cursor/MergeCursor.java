@@ -0,0 +1,251 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client.cursor;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.UnsignedBytes;
+
+import io.vitess.proto.Query.Field;
+import io.vitess.proto.Query.MySqlFlag;
+
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A {@link Cursor} that merges cursors which are each sorted on the same columns, such as the
+ * per-shard results of a query with an {@code ORDER BY}, into one sorted sequence of rows.
+ *
+ * <p>Only the current row of each cursor is held in memory. Values are compared by their Java
+ * objects: {@code NULL} first in ascending order, binary values as unsigned bytes, and other values
+ * by their natural order. That only matches the order of MySQL for numeric and temporal columns,
+ * binary strings, and text with a binary collation, so the order columns must have one of these
+ * types. Text with any other collation, as well as {@code ENUM} and {@code SET} columns, which
+ * MySQL sorts by their index, fail with a {@link SQLFeatureNotSupportedException} on the first
+ * {@link #next()}. Rows with equal values come from the earlier cursor first.
+ *
+ * <p>Once {@code limit} rows were returned, all cursors are closed, which cancels streaming calls.
+ */
+@NotThreadSafe
+public class MergeCursor extends Cursor {
+
+  private static final Comparator<byte[]> BYTES_ORDER = UnsignedBytes.lexicographicalComparator();
+
+  private final List<Cursor> cursors;
+  private final List<String> orderColumns;
+  private final boolean descending;
+  private final long limit;
+  private final PriorityQueue<Head> heads;
+
+  private List<Field> fields;
+  private boolean started;
+  private boolean closed;
+  private boolean cursorsClosed;
+  private long rowsReturned;
+
+  /**
+   * The current row of one cursor, with its sort key.
+   */
+  private static final class Head {
+
+    private final int cursorIndex;
+    private final Row row;
+    private final Object[] key;
+
+    private Head(int cursorIndex, Row row, Object[] key) {
+      this.cursorIndex = cursorIndex;
+      this.row = row;
+      this.key = key;
+    }
+  }
+
+  /**
+   * Creates a cursor merging {@code cursors}, which it takes ownership of.
+   *
+   * @param orderColumns Labels of the columns each cursor is sorted on, most significant first.
+   * @param descending Whether the cursors are sorted in descending order, which applies to every
+   *     order column.
+   * @param limit Maximum number of rows to return, or {@link Long#MAX_VALUE} for all of them.
+   */
+  public MergeCursor(List<? extends Cursor> cursors, List<String> orderColumns,
+      boolean descending, long limit) {
+    checkArgument(!cursors.isEmpty(), "at least one cursor is required");
+    checkArgument(!orderColumns.isEmpty(), "at least one order column is required");
+    checkArgument(limit >= 0, "limit must not be negative");
+    this.cursors = ImmutableList.copyOf(cursors);
+    this.orderColumns = ImmutableList.copyOf(orderColumns);
+    this.descending = descending;
+    this.limit = limit;
+    this.heads = new PriorityQueue<>(this.cursors.size(), new Comparator<Head>() {
+      @Override
+      public int compare(Head left, Head right) {
+        return compareHeads(left, right);
+      }
+    });
+  }
+
+  @Override
+  public long getRowsAffected() throws SQLException {
+    throw new SQLFeatureNotSupportedException("getRowsAffected() is not supported on MergeCursor");
+  }
+
+  @Override
+  public long getInsertId() throws SQLException {
+    throw new SQLFeatureNotSupportedException("getInsertId() is not supported on MergeCursor");
+  }
+
+  @Override
+  public List<Field> getFields() throws SQLException {
+    if (closed) {
+      throw new SQLDataException("getFields() called on closed Cursor");
+    }
+    if (fields == null) {
+      // All cursors run the same query.
+      fields = cursors.get(0).getFields();
+    }
+    return fields;
+  }
+
+  @Override
+  public Row next() throws SQLException {
+    if (closed) {
+      throw new SQLDataException("next() called on closed Cursor");
+    }
+    if (!started) {
+      started = true;
+      // Keep the fields available once the limit closes the cursors.
+      getFields();
+      checkOrderColumns();
+      for (int i = 0; i < cursors.size(); i++) {
+        advance(i);
+      }
+    }
+    if (rowsReturned >= limit || heads.isEmpty()) {
+      return null;
+    }
+    Head head = heads.poll();
+    if (++rowsReturned >= limit) {
+      closeCursors();
+    } else {
+      advance(head.cursorIndex);
+    }
+    return head.row;
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    Exception error = closeCursors();
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  private void checkOrderColumns() throws SQLException {
+    for (String column : orderColumns) {
+      Field field = getFieldMap().get(findColumn(column));
+      if (!hasBinaryOrder(field)) {
+        throw new SQLFeatureNotSupportedException("can't merge rows ordered by " + column
+            + " of type " + field.getType() + " without a binary collation");
+      }
+    }
+  }
+
+  /**
+   * Returns whether the values of {@code field} compare like MySQL sorts them.
+   */
+  private static boolean hasBinaryOrder(Field field) {
+    switch (field.getType()) {
+      case ENUM: // fall through
+      case SET: // fall through
+      case JSON: // fall through
+      case GEOMETRY:
+        return false;
+      case TEXT: // fall through
+      case VARCHAR: // fall through
+      case CHAR:
+        return (field.getFlags() & MySqlFlag.BINARY_FLAG_VALUE) != 0;
+      default:
+        return true;
+    }
+  }
+
+  private void advance(int cursorIndex) throws SQLException {
+    Row row = cursors.get(cursorIndex).next();
+    if (row == null) {
+      return;
+    }
+    Object[] key = new Object[orderColumns.size()];
+    for (int i = 0; i < key.length; i++) {
+      key[i] = row.getObject(orderColumns.get(i));
+    }
+    heads.add(new Head(cursorIndex, row, key));
+  }
+
+  private int compareHeads(Head left, Head right) {
+    for (int i = 0; i < left.key.length; i++) {
+      int result = compareValues(left.key[i], right.key[i]);
+      if (result != 0) {
+        return descending ? -result : result;
+      }
+    }
+    return Integer.compare(left.cursorIndex, right.cursorIndex);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static int compareValues(Object left, Object right) {
+    if (left == null || right == null) {
+      return left == null ? (right == null ? 0 : -1) : 1;
+    }
+    if (left instanceof byte[] && right instanceof byte[]) {
+      return BYTES_ORDER.compare((byte[]) left, (byte[]) right);
+    }
+    return ((Comparable<Object>) left).compareTo(right);
+  }
+
+  /**
+   * Closes all cursors and returns the first error, which only {@link #close()} reports.
+   */
+  private Exception closeCursors() {
+    if (cursorsClosed) {
+      return null;
+    }
+    cursorsClosed = true;
+    heads.clear();
+    Exception error = null;
+    for (Cursor cursor : cursors) {
+      try {
+        cursor.close();
+      } catch (Exception exc) {
+        if (error == null) {
+          error = exc;
+        }
+      }
+    }
+    return error;
+  }
+}
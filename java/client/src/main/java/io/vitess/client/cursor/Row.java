@@ -17,6 +17,7 @@
 package io.vitess.client.cursor;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.primitives.UnsignedLong;
@@ -36,10 +37,15 @@ import java.sql.SQLException;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.text.ParseException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
@@ -89,7 +95,7 @@ public class Row {
    * Construct a Row from {@link io.vitess.proto.Query.Row} proto.
    */
   public Row(List<Field> fields, Query.Row rawRow) {
-    this.fieldMap = new FieldMap(fields);
+    this.fieldMap = FieldMap.of(fields);
     this.rawRow = rawRow;
     this.values = extractValues(rawRow.getLengthsList(), rawRow.getValues());
   }
@@ -108,7 +114,7 @@ public class Row {
    */
   @VisibleForTesting
   public Row(List<Field> fields, List<ByteString> values) {
-    this.fieldMap = new FieldMap(fields);
+    this.fieldMap = FieldMap.of(fields);
     this.rawRow = null;
     this.values = values;
   }
@@ -144,7 +150,7 @@ public class Row {
         // We don't get time zone information from the server,
         // so we use the default time zone.
         try {
-          return DateTime.parseDate(value.toStringUtf8());
+          return DateTime.parseDate(value);
         } catch (ParseException exc) {
           throw new SQLDataException("Can't parse DATE: " + value.toStringUtf8(), exc);
         }
@@ -161,7 +167,7 @@ public class Row {
         // We don't get time zone information from the server,
         // so we use the default time zone.
         try {
-          return DateTime.parseTimestamp(value.toStringUtf8());
+          return DateTime.parseTimestamp(value);
         } catch (ParseException exc) {
           throw new SQLDataException("Can't parse TIMESTAMP: " + value.toStringUtf8(), exc);
         }
@@ -450,7 +456,7 @@ public class Row {
    * @param columnLabel case-insensitive column label
    */
   public Date getDate(String columnLabel) throws SQLException {
-    return getDate(findColumn(columnLabel), Calendar.getInstance());
+    return getDate(findColumn(columnLabel));
   }
 
   /**
@@ -468,7 +474,7 @@ public class Row {
    * @param columnIndex 1-based column number (0 is invalid)
    */
   public Date getDate(int columnIndex) throws SQLException {
-    return getDate(columnIndex, Calendar.getInstance());
+    return parseDate(columnIndex, null);
   }
 
   /**
@@ -477,6 +483,53 @@ public class Row {
    * @param columnIndex 1-based column number (0 is invalid)
    */
   public Date getDate(int columnIndex, Calendar cal) throws SQLException {
+    return parseDate(columnIndex, checkNotNull(cal));
+  }
+
+  /**
+   * Returns the column value as a {@link LocalDate}.
+   *
+   * @param columnLabel case-insensitive column label
+   * @throws SQLDataException if the value is a MySQL zero date.
+   */
+  public LocalDate getLocalDate(String columnLabel) throws SQLException {
+    return getLocalDate(findColumn(columnLabel));
+  }
+
+  /**
+   * Returns the column value as a {@link LocalDate}.
+   *
+   * @param columnIndex 1-based column number (0 is invalid)
+   * @throws SQLDataException if the value is a MySQL zero date.
+   */
+  public LocalDate getLocalDate(int columnIndex) throws SQLException {
+    ByteString rawValue = getDateValue(columnIndex);
+    if (rawValue == null) {
+      return null;
+    }
+    try {
+      return DateTime.parseLocalDate(rawValue);
+    } catch (ParseException exc) {
+      throw new SQLDataException("Can't parse DATE: " + rawValue.toStringUtf8(), exc);
+    }
+  }
+
+  private Date parseDate(int columnIndex, @Nullable Calendar cal) throws SQLException {
+    ByteString rawValue = getDateValue(columnIndex);
+    if (rawValue == null) {
+      return null;
+    }
+    try {
+      return cal == null ? DateTime.parseDate(rawValue) : DateTime.parseDate(rawValue, cal);
+    } catch (ParseException exc) {
+      throw new SQLDataException("Can't parse DATE: " + rawValue.toStringUtf8(), exc);
+    }
+  }
+
+  /**
+   * Returns the raw value of a {@code DATE} column, or {@code null} if it is NULL.
+   */
+  private ByteString getDateValue(int columnIndex) throws SQLException {
     ByteString rawValue = getRawValue(columnIndex);
     if (rawValue == null) {
       return null;
@@ -486,11 +539,7 @@ public class Row {
       throw new SQLDataException(
           "type mismatch, expected: " + Type.DATE + ", actual: " + field.getType());
     }
-    try {
-      return DateTime.parseDate(rawValue.toStringUtf8(), cal);
-    } catch (ParseException exc) {
-      throw new SQLDataException("Can't parse DATE: " + rawValue.toStringUtf8(), exc);
-    }
+    return rawValue;
   }
 
   /**
@@ -548,7 +597,7 @@ public class Row {
    * @param columnLabel case-insensitive column label
    */
   public Timestamp getTimestamp(String columnLabel) throws SQLException {
-    return getTimestamp(findColumn(columnLabel), Calendar.getInstance());
+    return getTimestamp(findColumn(columnLabel));
   }
 
   /**
@@ -566,7 +615,7 @@ public class Row {
    * @param columnIndex 1-based column number (0 is invalid)
    */
   public Timestamp getTimestamp(int columnIndex) throws SQLException {
-    return getTimestamp(columnIndex, Calendar.getInstance());
+    return parseTimestamp(columnIndex, null);
   }
 
   /**
@@ -575,6 +624,75 @@ public class Row {
    * @param columnIndex 1-based column number (0 is invalid)
    */
   public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
+    return parseTimestamp(columnIndex, checkNotNull(cal));
+  }
+
+  /**
+   * Returns the column value as a {@link LocalDateTime}.
+   *
+   * @param columnLabel case-insensitive column label
+   * @throws SQLDataException if the value is a MySQL zero date.
+   */
+  public LocalDateTime getLocalDateTime(String columnLabel) throws SQLException {
+    return getLocalDateTime(findColumn(columnLabel));
+  }
+
+  /**
+   * Returns the column value as a {@link LocalDateTime}.
+   *
+   * @param columnIndex 1-based column number (0 is invalid)
+   * @throws SQLDataException if the value is a MySQL zero date.
+   */
+  public LocalDateTime getLocalDateTime(int columnIndex) throws SQLException {
+    ByteString rawValue = getTimestampValue(columnIndex);
+    if (rawValue == null) {
+      return null;
+    }
+    try {
+      return DateTime.parseLocalDateTime(rawValue);
+    } catch (ParseException exc) {
+      throw new SQLDataException("Can't parse TIMESTAMP: " + rawValue.toStringUtf8(), exc);
+    }
+  }
+
+  /**
+   * Returns the column value as an {@link Instant}, interpreted in the default time zone like
+   * {@link #getTimestamp(String)}.
+   *
+   * @param columnLabel case-insensitive column label
+   * @throws SQLDataException if the value is a MySQL zero date.
+   */
+  public Instant getInstant(String columnLabel) throws SQLException {
+    return getInstant(findColumn(columnLabel));
+  }
+
+  /**
+   * Returns the column value as an {@link Instant}, interpreted in the default time zone like
+   * {@link #getTimestamp(int)}.
+   *
+   * @param columnIndex 1-based column number (0 is invalid)
+   * @throws SQLDataException if the value is a MySQL zero date.
+   */
+  public Instant getInstant(int columnIndex) throws SQLException {
+    LocalDateTime value = getLocalDateTime(columnIndex);
+    return value == null ? null
+        : value.atZone(ZoneId.systemDefault()).withLaterOffsetAtOverlap().toInstant();
+  }
+
+  private Timestamp parseTimestamp(int columnIndex, @Nullable Calendar cal) throws SQLException {
+    ByteString rawValue = getTimestampValue(columnIndex);
+    if (rawValue == null) {
+      return null;
+    }
+    try {
+      return cal == null ? DateTime.parseTimestamp(rawValue)
+          : DateTime.parseTimestamp(rawValue, cal);
+    } catch (ParseException exc) {
+      throw new SQLDataException("Can't parse TIMESTAMP: " + rawValue.toStringUtf8(), exc);
+    }
+  }
+
+  private ByteString getTimestampValue(int columnIndex) throws SQLException {
     ByteString rawValue = getRawValue(columnIndex);
     if (rawValue == null) {
       return null;
@@ -584,11 +702,7 @@ public class Row {
       throw new SQLDataException("type mismatch, expected: " + Type.TIMESTAMP + " or "
           + Type.DATETIME + ", actual: " + field.getType());
     }
-    try {
-      return DateTime.parseTimestamp(rawValue.toStringUtf8(), cal);
-    } catch (ParseException exc) {
-      throw new SQLDataException("Can't parse TIMESTAMP: " + rawValue.toStringUtf8(), exc);
-    }
+    return rawValue;
   }
 
   /**
@@ -664,11 +778,22 @@ public class Row {
    *
    * </blockquote>
    *
+   * <p>
+   * {@link LocalDate}, {@link LocalDateTime} and {@link Instant} are also accepted for temporal
+   * columns.
+   *
    * @param columnIndex 1-based column number (0 is invalid)
    * @throws SQLDataException if the type doesn't match the actual value.
    */
   @SuppressWarnings("unchecked") // by runtime check
   public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+    if (type == LocalDate.class) {
+      return (T) getLocalDate(columnIndex);
+    } else if (type == LocalDateTime.class) {
+      return (T) getLocalDateTime(columnIndex);
+    } else if (type == Instant.class) {
+      return (T) getInstant(columnIndex);
+    }
     Object object = getObject(columnIndex);
     if (object != null && !type.isInstance(object)) {
       throw new SQLDataException(
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client.cursor;
+
+import io.vitess.proto.Query;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} over a random access list of raw rows, which splits in halves so that the
+ * rows can be decoded and processed on several cores.
+ */
+class RowSpliterator implements Spliterator<Row> {
+
+  private final FieldMap fieldMap;
+  private final List<Query.Row> rows;
+  private int index;
+  private final int end;
+
+  /**
+   * Creates a spliterator over {@code rows[index, end)}.
+   */
+  RowSpliterator(FieldMap fieldMap, List<Query.Row> rows, int index, int end) {
+    this.fieldMap = fieldMap;
+    this.rows = rows;
+    this.index = index;
+    this.end = end;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Row> action) {
+    if (index >= end) {
+      return false;
+    }
+    action.accept(new Row(fieldMap, rows.get(index++)));
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super Row> action) {
+    for (int i = index; i < end; i++) {
+      action.accept(new Row(fieldMap, rows.get(i)));
+    }
+    index = end;
+  }
+
+  @Override
+  public Spliterator<Row> trySplit() {
+    int middle = (index + end) >>> 1;
+    if (middle <= index) {
+      return null;
+    }
+    RowSpliterator prefix = new RowSpliterator(fieldMap, rows, index, middle);
+    index = middle;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return end - index;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client.cursor;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown by the row streams of {@link Cursor#stream()} and {@link io.vitess.client.ParallelScan
+ * ParallelScan} when reading rows fails, since streams can't throw {@link SQLException}.
+ */
+public class RowStreamException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  public RowStreamException(SQLException cause) {
+    super(cause.getMessage(), cause);
+  }
+
+  @Override
+  public SQLException getCause() {
+    return (SQLException) super.getCause();
+  }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client.cursor;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+
+import io.vitess.client.StreamIterator;
+import io.vitess.proto.Query;
+import io.vitess.proto.Query.Field;
+import io.vitess.proto.Query.QueryResult;
+
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A {@link Cursor} that merges several streams, such as one per shard, in no particular order.
+ *
+ * <p>Each stream is drained by its own task on the given executor into a small shared buffer, and
+ * {@link #next()} returns rows from whichever stream delivered first, so a slow shard doesn't hold
+ * back the others. The executor should be able to run one task per stream at the same time;
+ * otherwise streams are read one after the other.
+ *
+ * <p>An error on any stream closes all of them and is thrown by {@link #next()}. Once {@code limit}
+ * rows were returned, the remaining streams are closed, which cancels their calls.
+ */
+@NotThreadSafe
+public class ScatterCursor extends Cursor {
+
+  /**
+   * Marks the end of one stream in {@link #results}.
+   */
+  private static final Object END_OF_STREAM = new Object();
+
+  private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+  private final List<StreamIterator<QueryResult>> streams;
+  private final long limit;
+  private final BlockingQueue<Object> results;
+  private final Deque<QueryResult> pending = new ArrayDeque<>();
+
+  private volatile boolean closed;
+  private boolean cursorClosed;
+  private SQLException failure;
+  private int openStreams;
+  private long rowsReturned;
+  private Iterator<Query.Row> rowIterator;
+  private List<Field> fields;
+
+  /**
+   * Starts reading the streams, buffering up to two results per stream so that every reader
+   * fetches ahead while the previous result is consumed.
+   *
+   * @param limit Maximum number of rows to return, or {@link Long#MAX_VALUE} for all of them.
+   */
+  public ScatterCursor(List<? extends StreamIterator<QueryResult>> streams, Executor executor,
+      long limit) {
+    this(streams, executor, limit, 2 * streams.size());
+  }
+
+  /**
+   * Starts reading the streams.
+   *
+   * @param limit Maximum number of rows to return, or {@link Long#MAX_VALUE} for all of them.
+   * @param bufferedResults How many results the readers can fetch ahead of {@link #next()}, in
+   *     total.
+   */
+  public ScatterCursor(List<? extends StreamIterator<QueryResult>> streams, Executor executor,
+      long limit, int bufferedResults) {
+    checkArgument(!streams.isEmpty(), "at least one stream is required");
+    checkArgument(limit >= 0, "limit must not be negative");
+    checkArgument(bufferedResults > 0, "bufferedResults must be positive");
+    this.streams = ImmutableList.copyOf(streams);
+    this.limit = limit;
+    this.openStreams = this.streams.size();
+    this.results = new ArrayBlockingQueue<>(bufferedResults);
+    for (final StreamIterator<QueryResult> stream : this.streams) {
+      checkNotNull(executor).execute(new Runnable() {
+        @Override
+        public void run() {
+          read(stream);
+        }
+      });
+    }
+  }
+
+  @Override
+  public long getRowsAffected() throws SQLException {
+    throw new SQLFeatureNotSupportedException(
+        "getRowsAffected() is not supported on ScatterCursor");
+  }
+
+  @Override
+  public long getInsertId() throws SQLException {
+    throw new SQLFeatureNotSupportedException("getInsertId() is not supported on ScatterCursor");
+  }
+
+  @Override
+  public List<Field> getFields() throws SQLException {
+    checkNotClosed("getFields()");
+    while (fields == null) {
+      // Results without fields can't have rows, but keep them anyway.
+      QueryResult queryResult = nextQueryResult();
+      if (queryResult == null) {
+        throw new SQLDataException("stream ended before fields were received");
+      }
+      pending.add(queryResult);
+    }
+    return fields;
+  }
+
+  @Override
+  public Row next() throws SQLException {
+    checkNotClosed("next()");
+    if (rowsReturned >= limit) {
+      closeStreams();
+      return null;
+    }
+    while (rowIterator == null || !rowIterator.hasNext()) {
+      QueryResult queryResult = pending.isEmpty() ? nextQueryResult() : pending.poll();
+      if (queryResult == null) {
+        return null;
+      }
+      rowIterator = queryResult.getRowsList().iterator();
+    }
+    Row row = new Row(getFieldMap(), rowIterator.next());
+    if (++rowsReturned >= limit) {
+      closeStreams();
+    }
+    return row;
+  }
+
+  @Override
+  public void close() throws Exception {
+    cursorClosed = true;
+    Exception error = closeStreams();
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  /**
+   * Takes the next result of any stream, or returns {@code null} once all streams ended.
+   */
+  private QueryResult nextQueryResult() throws SQLException {
+    if (failure != null) {
+      throw failure;
+    }
+    while (openStreams > 0 && !closed) {
+      Object item;
+      try {
+        item = results.take();
+      } catch (InterruptedException exc) {
+        Thread.currentThread().interrupt();
+        throw fail(new SQLException("interrupted while waiting for a stream", exc));
+      }
+      if (item == END_OF_STREAM) {
+        openStreams--;
+      } else if (item instanceof SQLException) {
+        throw fail((SQLException) item);
+      } else if (item instanceof Throwable) {
+        throw fail(new SQLException("stream failed", (Throwable) item));
+      } else {
+        QueryResult queryResult = (QueryResult) item;
+        if (fields == null && queryResult.getFieldsCount() > 0) {
+          fields = queryResult.getFieldsList();
+        }
+        return queryResult;
+      }
+    }
+    return null;
+  }
+
+  private SQLException fail(SQLException error) {
+    failure = error;
+    closeStreams();
+    return error;
+  }
+
+  private void read(StreamIterator<QueryResult> stream) {
+    try {
+      while (!closed && stream.hasNext()) {
+        if (!put(stream.next())) {
+          return;
+        }
+      }
+      put(END_OF_STREAM);
+    } catch (SQLException | RuntimeException exc) {
+      // Closing the streams makes them fail, and nobody is waiting for that error anymore.
+      if (!closed) {
+        put(exc);
+      }
+    }
+  }
+
+  /**
+   * Waits for room in {@link #results}, or returns {@code false} if the cursor is closed first.
+   */
+  private boolean put(Object item) {
+    try {
+      while (!closed) {
+        if (results.offer(item, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+          return true;
+        }
+      }
+    } catch (InterruptedException exc) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  /**
+   * Closes all streams and returns the first error, which only {@link #close()} reports: once the
+   * limit is reached or a stream failed, the other streams failing to close doesn't matter.
+   */
+  private Exception closeStreams() {
+    if (closed) {
+      return null;
+    }
+    closed = true;
+    Exception error = null;
+    for (StreamIterator<QueryResult> stream : streams) {
+      try {
+        stream.close();
+      } catch (Exception exc) {
+        if (error == null) {
+          error = exc;
+        }
+      }
+    }
+    results.clear();
+    return error;
+  }
+
+  private void checkNotClosed(String method) throws SQLException {
+    if (cursorClosed) {
+      throw new SQLDataException(method + " called on closed Cursor");
+    }
+  }
+}
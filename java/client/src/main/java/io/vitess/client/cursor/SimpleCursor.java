@@ -21,8 +21,8 @@ import io.vitess.proto.Query.Field;
 import io.vitess.proto.Query.QueryResult;
 
 import java.sql.SQLException;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -33,11 +33,12 @@ import javax.annotation.concurrent.NotThreadSafe;
 public class SimpleCursor extends Cursor {
 
   private final QueryResult queryResult;
-  private final Iterator<Query.Row> rowIterator;
+  private final List<Query.Row> rows;
+  private int rowIndex;
 
   public SimpleCursor(QueryResult queryResult) {
     this.queryResult = queryResult;
-    rowIterator = queryResult.getRowsList().iterator();
+    rows = queryResult.getRowsList();
   }
 
   @Override
@@ -62,9 +63,20 @@ public class SimpleCursor extends Cursor {
 
   @Override
   public Row next() throws SQLException {
-    if (rowIterator.hasNext()) {
-      return new Row(getFieldMap(), rowIterator.next());
+    if (rowIndex < rows.size()) {
+      return new Row(getFieldMap(), rows.get(rowIndex++));
     }
     return null;
   }
+
+  /**
+   * Returns a spliterator over the remaining rows which splits in halves, so that a {@link
+   * #stream()} made parallel decodes and processes them on several cores.
+   */
+  @Override
+  protected Spliterator<Row> spliterator() throws SQLException {
+    Spliterator<Row> spliterator = new RowSpliterator(getFieldMap(), rows, rowIndex, rows.size());
+    rowIndex = rows.size();
+    return spliterator;
+  }
 }
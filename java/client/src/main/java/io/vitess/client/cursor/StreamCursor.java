@@ -24,9 +24,11 @@ import io.vitess.proto.Query.QueryResult;
 import java.sql.SQLDataException;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
@@ -37,7 +39,8 @@ import javax.annotation.concurrent.NotThreadSafe;
 public class StreamCursor extends Cursor {
 
   private StreamIterator<QueryResult> streamIterator;
-  private Iterator<Query.Row> rowIterator;
+  private List<Query.Row> rows;
+  private int rowIndex;
 
   private List<Field> fields;
 
@@ -84,15 +87,15 @@ public class StreamCursor extends Cursor {
     }
 
     // Get the next Row from the current QueryResult.
-    if (rowIterator != null && rowIterator.hasNext()) {
-      return new Row(getFieldMap(), rowIterator.next());
+    if (rows != null && rowIndex < rows.size()) {
+      return new Row(getFieldMap(), rows.get(rowIndex++));
     }
 
     // Get the next QueryResult. Loop in case we get a QueryResult with no Rows (e.g. only Fields).
     while (nextQueryResult()) {
       // Get the first Row from the new QueryResult.
-      if (rowIterator.hasNext()) {
-        return new Row(getFieldMap(), rowIterator.next());
+      if (rowIndex < rows.size()) {
+        return new Row(getFieldMap(), rows.get(rowIndex++));
       }
     }
 
@@ -100,13 +103,118 @@ public class StreamCursor extends Cursor {
     return null;
   }
 
+  /**
+   * Returns the remaining rows of the current {@link QueryResult}, or else of the next one with
+   * rows, as a {@link ColumnBatch}. This reads the stream chunk by chunk without creating {@link
+   * Row} objects, and can be mixed with {@link #next()}.
+   *
+   * @return the next batch, or {@code null} if there are no more rows.
+   * @throws SQLException if the server returns an error.
+   */
+  @Nullable
+  public ColumnBatch nextColumnBatch() throws SQLException {
+    if (streamIterator == null) {
+      throw new SQLDataException("nextColumnBatch() called on closed Cursor");
+    }
+    List<Field> fields = getFields();
+    while (rows == null || rowIndex >= rows.size()) {
+      if (!nextQueryResult()) {
+        return null;
+      }
+    }
+    ColumnBatch batch = ColumnBatch.of(fields, rows.subList(rowIndex, rows.size()));
+    rowIndex = rows.size();
+    return batch;
+  }
+
+  /**
+   * Returns a sequential spliterator which reads one {@link QueryResult} at a time. When a
+   * parallel stream splits it, it hands over the remaining rows of the current {@link QueryResult},
+   * or else the next one, so that batches are decoded and processed on other cores while this one
+   * fetches more.
+   */
+  @Override
+  protected Spliterator<Row> spliterator() throws SQLException {
+    if (streamIterator == null) {
+      throw new SQLDataException("stream() called on closed Cursor");
+    }
+    final FieldMap fieldMap = getFieldMap();
+    return new Spliterator<Row>() {
+      private Spliterator<Row> batch = takeBatch(fieldMap);
+
+      @Override
+      public boolean tryAdvance(Consumer<? super Row> action) {
+        while (batch == null || !batch.tryAdvance(action)) {
+          if (!nextBatch()) {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      @Override
+      public void forEachRemaining(Consumer<? super Row> action) {
+        do {
+          if (batch != null) {
+            batch.forEachRemaining(action);
+          }
+        } while (nextBatch());
+      }
+
+      @Override
+      public Spliterator<Row> trySplit() {
+        if ((batch == null || batch.estimateSize() == 0) && !nextBatch()) {
+          return null;
+        }
+        Spliterator<Row> prefix = batch;
+        batch = null;
+        return prefix;
+      }
+
+      @Override
+      public long estimateSize() {
+        return Long.MAX_VALUE;
+      }
+
+      @Override
+      public int characteristics() {
+        return ORDERED | NONNULL;
+      }
+
+      private boolean nextBatch() {
+        try {
+          if (streamIterator == null || !nextQueryResult()) {
+            batch = null;
+            return false;
+          }
+        } catch (SQLException exc) {
+          throw new RowStreamException(exc);
+        }
+        batch = takeBatch(fieldMap);
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Returns the remaining rows of the current {@link QueryResult}, which become consumed.
+   */
+  private Spliterator<Row> takeBatch(FieldMap fieldMap) {
+    if (rows == null) {
+      return null;
+    }
+    Spliterator<Row> batch = new RowSpliterator(fieldMap, rows, rowIndex, rows.size());
+    rowIndex = rows.size();
+    return batch;
+  }
+
   /**
    * Fetches the next {@link QueryResult} from the stream.
    *
    * <p>Whereas the public {@link #next()} method advances the {@link Cursor} state to the next
    * {@link Row}, this method advances the internal state to the next {@link QueryResult}, which
    * contains a batch of rows. Specifically, we get the next {@link QueryResult} from {@link
-   * #streamIterator}, and then set {@link #rowIterator} accordingly.
+   * #streamIterator}, and then set {@link #rows} accordingly.
    *
    * <p>If {@link #fields} is null, we assume the next {@link QueryResult} must contain the fields,
    * and set {@link #fields} from it.
@@ -120,10 +228,11 @@ public class StreamCursor extends Cursor {
         // The first QueryResult should have the fields.
         fields = queryResult.getFieldsList();
       }
-      rowIterator = queryResult.getRowsList().iterator();
+      rows = queryResult.getRowsList();
+      rowIndex = 0;
       return true;
     } else {
-      rowIterator = null;
+      rows = null;
       return false;
     }
   }
@@ -16,7 +16,10 @@
 
 package io.vitess.mysql;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.google.common.math.IntMath;
+import com.google.protobuf.ByteString;
 
 import java.sql.Date;
 import java.sql.Time;
@@ -24,7 +27,15 @@ import java.sql.Timestamp;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+import javax.annotation.Nullable;
 
 /**
  * Utility methods for processing MySQL TIME, DATE, DATETIME, and TIMESTAMP.
@@ -42,22 +53,73 @@ public class DateTime {
   private static final long MINUTES_TO_MILLIS = 60L * SECONDS_TO_MILLIS;
   private static final long HOURS_TO_MILLIS = 60L * MINUTES_TO_MILLIS;
 
+  // Indexes into the array returned by parseFields().
+  private static final int YEAR = 0;
+  private static final int MONTH = 1;
+  private static final int DAY = 2;
+  private static final int HOUR = 3;
+  private static final int MINUTE = 4;
+  private static final int SECOND = 5;
+  private static final int NANOS = 6;
+  private static final int DATE_FIELDS = DAY + 1;
+  private static final int DATETIME_FIELDS = SECOND + 1;
+  // Larger fields would overflow an int, and are never valid.
+  private static final int MAX_FIELD_DIGITS = 9;
+  private static final int GREGORIAN_CUTOVER_YEAR = 1582;
+
+  private static final ByteString ZERO_DATE = ByteString.copyFromUtf8("0000-00-00");
+
   /**
    * Parse a MySQL DATE format into a {@link Date} with the default time zone.
    *
    * <p>This should match {@link Date#valueOf(String)}.
    */
   public static Date parseDate(String value) throws ParseException {
-    return parseDate(value, Calendar.getInstance());
+    return parseDate(value, null, "DATE");
   }
 
   /**
    * Parse a MySQL DATE format into a {@link Date} with the given {@link Calendar}.
    */
   public static Date parseDate(String value, Calendar cal) throws ParseException {
-    DateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
-    dateFormat.setCalendar(cal);
-    return new Date(dateFormat.parse(value).getTime());
+    return parseDate(value, checkNotNull(cal), "DATE");
+  }
+
+  /**
+   * Parse a MySQL DATE cell into a {@link Date} with the default time zone.
+   *
+   * <p>This reads the cell bytes directly, without decoding them to a {@link String} first.
+   */
+  public static Date parseDate(ByteString value) throws ParseException {
+    return parseDate(new AsciiSequence(value), null, "DATE");
+  }
+
+  /**
+   * Parse a MySQL DATE cell into a {@link Date} with the given {@link Calendar}.
+   */
+  public static Date parseDate(ByteString value, Calendar cal) throws ParseException {
+    return parseDate(new AsciiSequence(value), checkNotNull(cal), "DATE");
+  }
+
+  private static Date parseDate(CharSequence value, @Nullable Calendar cal, String type)
+      throws ParseException {
+    int[] fields = parseFields(value, DATE_FIELDS, type);
+    return new Date(toMillis(fields, cal, value, type));
+  }
+
+  /**
+   * Parse a MySQL DATE cell into a {@link LocalDate}.
+   *
+   * @throws ParseException if the value is not a valid date, like the zero date '0000-00-00'.
+   */
+  public static LocalDate parseLocalDate(ByteString value) throws ParseException {
+    CharSequence chars = new AsciiSequence(value);
+    int[] fields = parseFields(chars, DATE_FIELDS, "DATE");
+    try {
+      return LocalDate.of(fields[YEAR], fields[MONTH], fields[DAY]);
+    } catch (DateTimeException exc) {
+      throw invalid(chars, "DATE", 0);
+    }
   }
 
   /**
@@ -215,7 +277,7 @@ public class DateTime {
    * For MySQL-specific syntax, this will succeed where {@code valueOf()} fails.
    */
   public static Timestamp parseTimestamp(String value) throws ParseException {
-    return parseTimestamp(value, Calendar.getInstance());
+    return parseTimestamp((CharSequence) value, null);
   }
 
   /**
@@ -229,36 +291,186 @@ public class DateTime {
    * returned by MySQL. Results are undefined for invalid input.
    */
   public static Timestamp parseTimestamp(String value, Calendar cal) throws ParseException {
-    // Value to pass to Timestamp.setNanos().
-    int nanos = 0;
+    return parseTimestamp((CharSequence) value, checkNotNull(cal));
+  }
+
+  /**
+   * Parse a MySQL DATETIME or TIMESTAMP cell into a {@link Timestamp} with the default time zone.
+   *
+   * <p>This reads the cell bytes directly, without decoding them to a {@link String} first.
+   */
+  public static Timestamp parseTimestamp(ByteString value) throws ParseException {
+    return parseTimestamp(new AsciiSequence(value), null);
+  }
+
+  /**
+   * Parse a MySQL DATETIME or TIMESTAMP cell into a {@link Timestamp} with the given {@link
+   * Calendar}.
+   */
+  public static Timestamp parseTimestamp(ByteString value, Calendar cal) throws ParseException {
+    return parseTimestamp(new AsciiSequence(value), checkNotNull(cal));
+  }
 
-    // Strip the fraction (if any) before using DateFormat.
+  private static Timestamp parseTimestamp(CharSequence value, @Nullable Calendar cal)
+      throws ParseException {
+    int[] fields = parseFields(value, DATETIME_FIELDS, "TIMESTAMP");
     // Timestamp stores second-level precision separate from the fraction.
-    int dotIndex = value.lastIndexOf('.');
-    if (dotIndex != -1) {
-      String fraction = value.substring(dotIndex + 1, value.length());
-
-      if (fraction.length() > 0) {
-        // Convert the fraction to nanoseconds.
-        if (fraction.length() > 9) {
-          fraction = fraction.substring(0, 9);
+    Timestamp result = new Timestamp(toMillis(fields, cal, value, "TIMESTAMP"));
+    result.setNanos(fields[NANOS]);
+    return result;
+  }
+
+  /**
+   * Parse a MySQL DATETIME or TIMESTAMP cell into a {@link LocalDateTime}.
+   *
+   * @throws ParseException if the value is not a valid date and time, like the zero date
+   *     '0000-00-00 00:00:00'.
+   */
+  public static LocalDateTime parseLocalDateTime(ByteString value) throws ParseException {
+    CharSequence chars = new AsciiSequence(value);
+    int[] fields = parseFields(chars, DATETIME_FIELDS, "TIMESTAMP");
+    try {
+      return LocalDateTime.of(fields[YEAR], fields[MONTH], fields[DAY], fields[HOUR],
+          fields[MINUTE], fields[SECOND], fields[NANOS]);
+    } catch (DateTimeException exc) {
+      throw invalid(chars, "TIMESTAMP", 0);
+    }
+  }
+
+  /**
+   * Returns whether a DATE, DATETIME or TIMESTAMP cell holds the MySQL zero date '0000-00-00'.
+   */
+  public static boolean isZeroDate(ByteString value) {
+    return value.startsWith(ZERO_DATE);
+  }
+
+  /**
+   * Splits a fixed-layout value like 'YYYY-MM-DD HH:MM:SS.ffffff' into its numeric fields.
+   *
+   * <p>Fields are runs of digits separated by a single non-digit character. For DATETIME, an
+   * optional fraction of up to 9 digits is converted to nanoseconds; further digits are ignored.
+   */
+  private static int[] parseFields(CharSequence value, int count, String type)
+      throws ParseException {
+    int[] fields = new int[NANOS + 1];
+    int length = value.length();
+    int pos = 0;
+    for (int field = 0; field < count; field++) {
+      if (field > 0) {
+        if (pos >= length || isDigit(value.charAt(pos))) {
+          throw invalid(value, type, pos);
         }
-        try {
-          nanos = Integer.parseInt(fraction) * IntMath.pow(10, 9 - fraction.length());
-        } catch (NumberFormatException exc) {
-          throw new ParseException("Invalid MySQL TIMESTAMP format: " + value, dotIndex + 1);
+        pos++; // separator
+      }
+      int start = pos;
+      int number = 0;
+      while (pos < length && isDigit(value.charAt(pos))) {
+        if (pos - start == MAX_FIELD_DIGITS) {
+          throw invalid(value, type, pos);
+        }
+        number = number * 10 + (value.charAt(pos) - '0');
+        pos++;
+      }
+      if (pos == start) {
+        throw invalid(value, type, pos);
+      }
+      fields[field] = number;
+    }
+
+    if (count == DATETIME_FIELDS && pos < length && value.charAt(pos) == '.') {
+      pos++;
+      int nanos = 0;
+      int digits = 0;
+      while (pos < length && isDigit(value.charAt(pos))) {
+        if (digits < 9) {
+          nanos = nanos * 10 + (value.charAt(pos) - '0');
+          digits++;
         }
+        pos++;
+      }
+      if (pos < length) {
+        throw invalid(value, type, pos);
       }
+      fields[NANOS] = nanos * IntMath.pow(10, 9 - digits);
+    }
+    return fields;
+  }
 
-      value = value.substring(0, dotIndex);
+  /**
+   * Converts parsed fields to millis since epoch, in the time zone of {@code cal} or the default
+   * time zone if it's {@code null}.
+   *
+   * <p>Valid Gregorian dates are converted with {@code java.time}, which doesn't need a mutable
+   * {@link Calendar}. Anything else, like zero dates or dates before the Gregorian cutover, is
+   * resolved by a lenient {@link Calendar}, which is what {@link SimpleDateFormat} used to do.
+   */
+  private static long toMillis(int[] fields, @Nullable Calendar cal, CharSequence value,
+      String type) throws ParseException {
+    TimeZone timeZone = cal == null ? TimeZone.getDefault() : cal.getTimeZone();
+    if (fields[YEAR] > GREGORIAN_CUTOVER_YEAR && fields[MONTH] >= 1 && fields[MONTH] <= 12
+        && fields[DAY] >= 1 && fields[DAY] <= 31 && fields[HOUR] < 24 && fields[MINUTE] < 60
+        && fields[SECOND] < 60 && (cal == null || cal instanceof GregorianCalendar)
+        && !(timeZone instanceof SimpleTimeZone)) {
+      try {
+        LocalDateTime dateTime = LocalDateTime.of(fields[YEAR], fields[MONTH], fields[DAY],
+            fields[HOUR], fields[MINUTE], fields[SECOND]);
+        // Calendar resolves a local time repeated by a DST transition to standard time.
+        return dateTime.atZone(timeZone.toZoneId()).withLaterOffsetAtOverlap().toInstant()
+            .toEpochMilli();
+      } catch (DateTimeException exc) {
+        // Day out of range for the month, or unknown zone id: let Calendar deal with it.
+      }
     }
 
-    // Parse with second precision, then add nanos.
-    DateFormat dateFormat = new SimpleDateFormat(DATETIME_FORMAT);
-    dateFormat.setCalendar(cal);
-    Timestamp result = new Timestamp(dateFormat.parse(value).getTime());
-    result.setNanos(nanos);
-    return result;
+    Calendar calendar = cal == null ? Calendar.getInstance() : cal;
+    calendar.clear();
+    calendar.set(fields[YEAR], fields[MONTH] - 1, fields[DAY], fields[HOUR], fields[MINUTE],
+        fields[SECOND]);
+    try {
+      return calendar.getTimeInMillis();
+    } catch (IllegalArgumentException exc) {
+      throw invalid(value, type, 0);
+    }
+  }
+
+  private static boolean isDigit(char ch) {
+    return ch >= '0' && ch <= '9';
+  }
+
+  private static ParseException invalid(CharSequence value, String type, int pos) {
+    return new ParseException("Invalid MySQL " + type + " format: " + value, pos);
+  }
+
+  /**
+   * Read-only view of an ASCII {@link ByteString} as characters, without copying it.
+   */
+  private static final class AsciiSequence implements CharSequence {
+
+    private final ByteString bytes;
+
+    AsciiSequence(ByteString bytes) {
+      this.bytes = bytes;
+    }
+
+    @Override
+    public int length() {
+      return bytes.size();
+    }
+
+    @Override
+    public char charAt(int index) {
+      return (char) (bytes.byteAt(index) & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return new AsciiSequence(bytes.substring(start, end));
+    }
+
+    @Override
+    public String toString() {
+      return bytes.toStringUtf8();
+    }
   }
 
   /**
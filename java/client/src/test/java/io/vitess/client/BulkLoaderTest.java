@@ -0,0 +1,229 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client;
+
+import static io.vitess.client.FakeRpcClient.shard;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.common.util.concurrent.Futures;
+import com.google.protobuf.ByteString;
+
+import io.vitess.proto.Query.ResultWithError;
+import io.vitess.proto.Topodata.TabletType;
+import io.vitess.proto.Vtgate.BoundKeyspaceIdQuery;
+import io.vitess.proto.Vtgate.ExecuteBatchKeyspaceIdsRequest;
+import io.vitess.proto.Vtgate.ExecuteBatchKeyspaceIdsResponse;
+import io.vitess.proto.Vtgate.ExecuteBatchRequest;
+import io.vitess.proto.Vtgate.ExecuteBatchResponse;
+import io.vitess.proto.Vtrpc.Code;
+import io.vitess.proto.Vtrpc.RPCError;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class BulkLoaderTest {
+
+  /**
+   * Serves a keyspace split in two, records batches, and fails the first {@code failures} ones.
+   * Batches sent to an unsharded keyspace fail their queries with {@code queryError}, if set.
+   */
+  private static class FakeClient implements InvocationHandler {
+
+    final List<ExecuteBatchKeyspaceIdsRequest> batches = new CopyOnWriteArrayList<>();
+    final AtomicInteger failures = new AtomicInteger();
+    final List<ExecuteBatchRequest> unshardedBatches = new CopyOnWriteArrayList<>();
+    volatile SQLException failure;
+    volatile RPCError queryError;
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      if ("getSrvKeyspace".equals(method.getName())) {
+        return FakeRpcClient.srvKeyspace(TabletType.MASTER, shard("-80", -1, 0x80),
+            shard("80-", 0x80, -1));
+      }
+      if ("checkError".equals(method.getName())) {
+        RPCError error = (RPCError) args[0];
+        return error == null || error.getCode() == Code.OK ? null
+            : new SQLTransientException(error.getMessage());
+      }
+      if ("executeBatch".equals(method.getName())) {
+        ExecuteBatchRequest request = (ExecuteBatchRequest) args[1];
+        unshardedBatches.add(request);
+        ExecuteBatchResponse.Builder response = ExecuteBatchResponse.newBuilder();
+        for (int i = 0; i < request.getQueriesCount(); i++) {
+          response.addResults(queryError == null ? ResultWithError.getDefaultInstance()
+              : ResultWithError.newBuilder().setError(queryError).build());
+        }
+        return Futures.immediateFuture(response.build());
+      }
+      if (!"executeBatchKeyspaceIds".equals(method.getName())) {
+        return null;
+      }
+      if (failures.getAndDecrement() > 0) {
+        return Futures.immediateFailedFuture(failure);
+      }
+      batches.add((ExecuteBatchKeyspaceIdsRequest) args[1]);
+      return Futures.immediateFuture(ExecuteBatchKeyspaceIdsResponse.getDefaultInstance());
+    }
+  }
+
+  private KeyspaceTopologyCache topologyCache;
+
+  @After
+  public void tearDown() {
+    if (topologyCache != null) {
+      topologyCache.close();
+    }
+  }
+
+  private BulkLoader loader(FakeClient fake) {
+    VTGateConnection connection = new VTGateConnection(FakeRpcClient.of(fake));
+    topologyCache = new KeyspaceTopologyCache(connection, Context.getDefault());
+    return new BulkLoader(connection, Context.getDefault(), topologyCache, "ks", "t",
+        ImmutableList.of("id", "name"), BulkLoader.hashColumn(0))
+        .setRowsPerInsert(2)
+        .setInsertsPerBatch(2)
+        .setMaxInFlightBatches(2)
+        .setRetryBackoffMillis(1);
+  }
+
+  private static boolean isLow(ByteString keyspaceId) {
+    return UnsignedBytes.toInt(keyspaceId.byteAt(0)) < 0x80;
+  }
+
+  @Test
+  public void testRowsAreGroupedByShard() throws SQLException {
+    FakeClient fake = new FakeClient();
+    BulkLoader loader = loader(fake);
+    for (long id = 1; id <= 20; id++) {
+      loader.add(ImmutableList.of(id, "name" + id));
+    }
+    loader.close();
+
+    Assert.assertEquals(20, loader.getRowsWritten());
+    int rows = 0;
+    for (ExecuteBatchKeyspaceIdsRequest batch : fake.batches) {
+      Assert.assertTrue(batch.getAsTransaction());
+      Assert.assertTrue(batch.getQueriesCount() <= 2);
+      boolean low = isLow(batch.getQueries(0).getKeyspaceIds(0));
+      for (BoundKeyspaceIdQuery query : batch.getQueriesList()) {
+        Assert.assertEquals("ks", query.getKeyspace());
+        Assert.assertTrue(query.getKeyspaceIdsCount() <= 2);
+        for (ByteString keyspaceId : query.getKeyspaceIdsList()) {
+          Assert.assertEquals(low, isLow(keyspaceId));
+          rows++;
+        }
+      }
+    }
+    Assert.assertEquals(20, rows);
+
+    BoundKeyspaceIdQuery query = fake.batches.get(0).getQueries(0);
+    Assert.assertEquals("INSERT INTO t (id, name) VALUES (:r0c0, :r0c1), (:r1c0, :r1c1)",
+        query.getQuery().getSql());
+    Assert.assertEquals(4, query.getQuery().getBindVariablesCount());
+  }
+
+  @Test
+  public void testTransientFailuresAreRetried() throws SQLException {
+    FakeClient fake = new FakeClient();
+    fake.failure = new SQLTransientException("try again");
+    fake.failures.set(2);
+    BulkLoader loader = loader(fake);
+    for (long id = 1; id <= 8; id++) {
+      loader.add(ImmutableList.of(id, "name" + id));
+    }
+    loader.close();
+    Assert.assertEquals(8, loader.getRowsWritten());
+    Assert.assertEquals(2, loader.getRetries());
+  }
+
+  @Test
+  public void testPermanentFailure() throws SQLException {
+    FakeClient fake = new FakeClient();
+    fake.failure = new SQLIntegrityConstraintViolationException("duplicate entry");
+    fake.failures.set(1);
+    BulkLoader loader = loader(fake);
+    try {
+      for (long id = 1; id <= 20; id++) {
+        loader.add(ImmutableList.of(id, "name" + id));
+      }
+      loader.close();
+      Assert.fail("Should have thrown an exception");
+    } catch (SQLException exc) {
+      Assert.assertTrue(exc.getCause() instanceof SQLIntegrityConstraintViolationException);
+    }
+    Assert.assertEquals(0, loader.getRetries());
+  }
+
+  @Test
+  public void testUnshardedBatchesAreSentToTheKeyspace() throws SQLException {
+    FakeClient fake = new FakeClient();
+    BulkLoader loader = new BulkLoader(new VTGateConnection(FakeRpcClient.of(fake)),
+        Context.getDefault(), "ks", "t", ImmutableList.of("id", "name"))
+        .setRowsPerInsert(2)
+        .setInsertsPerBatch(2);
+    for (long id = 1; id <= 5; id++) {
+      loader.add(ImmutableList.of(id, "name" + id));
+    }
+    loader.close();
+
+    Assert.assertEquals(5, loader.getRowsWritten());
+    Assert.assertTrue(fake.batches.isEmpty());
+    Assert.assertEquals(2, fake.unshardedBatches.size());
+    ExecuteBatchRequest batch = fake.unshardedBatches.get(0);
+    Assert.assertTrue(batch.getAsTransaction());
+    Assert.assertEquals("ks@master", batch.getSession().getTargetString());
+    Assert.assertEquals(2, batch.getQueriesCount());
+    Assert.assertEquals("INSERT INTO t (id, name) VALUES (:r0c0, :r0c1), (:r1c0, :r1c1)",
+        batch.getQueries(0).getSql());
+    Assert.assertEquals(1, fake.unshardedBatches.get(1).getQueriesCount());
+  }
+
+  @Test
+  public void testUnshardedQueryErrorsAreRetried() throws SQLException {
+    FakeClient fake = new FakeClient();
+    fake.queryError = RPCError.newBuilder().setCode(Code.UNAVAILABLE).setMessage("try again")
+        .build();
+    BulkLoader loader = new BulkLoader(new VTGateConnection(FakeRpcClient.of(fake)),
+        Context.getDefault(), "ks", "t", ImmutableList.of("id", "name"))
+        .setMaxRetries(1)
+        .setRetryBackoffMillis(1);
+    loader.add(ImmutableList.of(1L, "name1"));
+    try {
+      loader.close();
+      Assert.fail("Should have thrown an exception");
+    } catch (SQLException exc) {
+      Assert.assertTrue(exc.getCause() instanceof SQLTransientException);
+    }
+    Assert.assertEquals(1, loader.getRetries());
+    Assert.assertEquals(0, loader.getRowsWritten());
+  }
+}
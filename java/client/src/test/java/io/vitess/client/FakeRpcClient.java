@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.protobuf.ByteString;
+
+import io.vitess.client.grpc.tls.TlsOptions;
+import io.vitess.proto.Query;
+import io.vitess.proto.Query.Field;
+import io.vitess.proto.Query.QueryResult;
+import io.vitess.proto.Topodata.KeyRange;
+import io.vitess.proto.Topodata.ShardReference;
+import io.vitess.proto.Topodata.SrvKeyspace;
+import io.vitess.proto.Topodata.TabletType;
+import io.vitess.proto.Vtgate.GetSrvKeyspaceResponse;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Fakes of the RPC layer shared by the client and Hadoop tests.
+ *
+ * <p>A fake {@link RpcClient} answers every call with an {@link InvocationHandler}, which only
+ * needs to handle the methods a test uses; the others return {@code null}.
+ */
+public final class FakeRpcClient {
+
+  private FakeRpcClient() {
+  }
+
+  /**
+   * Returns an {@link RpcClient} answering every call with {@code handler}.
+   */
+  public static RpcClient of(InvocationHandler handler) {
+    return (RpcClient) Proxy.newProxyInstance(RpcClient.class.getClassLoader(),
+        new Class<?>[]{RpcClient.class}, handler);
+  }
+
+  /**
+   * Returns a shard whose key range is {@code [start, end)}, given as single bytes, or -1 for an
+   * unbounded side.
+   */
+  public static ShardReference shard(String name, int start, int end) {
+    return ShardReference.newBuilder().setName(name).setKeyRange(keyRange(start, end)).build();
+  }
+
+  /**
+   * Returns the key range {@code [start, end)}, given as single bytes, or -1 for an unbounded
+   * side.
+   */
+  public static KeyRange keyRange(int start, int end) {
+    KeyRange.Builder keyRange = KeyRange.newBuilder();
+    if (start >= 0) {
+      keyRange.setStart(ByteString.copyFrom(new byte[]{(byte) start}));
+    }
+    if (end >= 0) {
+      keyRange.setEnd(ByteString.copyFrom(new byte[]{(byte) end}));
+    }
+    return keyRange.build();
+  }
+
+  /**
+   * Returns the answer to {@code getSrvKeyspace} for a keyspace served by {@code shards}.
+   */
+  public static ListenableFuture<GetSrvKeyspaceResponse> srvKeyspace(TabletType servedType,
+      ShardReference... shards) {
+    SrvKeyspace.KeyspacePartition.Builder partition = SrvKeyspace.KeyspacePartition.newBuilder()
+        .setServedType(servedType);
+    for (ShardReference shard : shards) {
+      partition.addShardReferences(shard);
+    }
+    return Futures.immediateFuture(GetSrvKeyspaceResponse.newBuilder()
+        .setSrvKeyspace(SrvKeyspace.newBuilder().addPartitions(partition)).build());
+  }
+
+  /**
+   * Returns streamed results with an {@code INT64} column {@code id}: first the fields, then
+   * {@code rowsPerResult} ids per result.
+   */
+  public static List<QueryResult> idResults(List<Long> ids, int rowsPerResult) {
+    List<QueryResult> results = new ArrayList<>();
+    results.add(QueryResult.newBuilder()
+        .addFields(Field.newBuilder().setName("id").setType(Query.Type.INT64))
+        .build());
+    for (int i = 0; i < ids.size(); i += rowsPerResult) {
+      QueryResult.Builder result = QueryResult.newBuilder();
+      for (long id : ids.subList(i, Math.min(i + rowsPerResult, ids.size()))) {
+        String value = Long.toString(id);
+        result.addRows(Query.Row.newBuilder().addLengths(value.length())
+            .setValues(ByteString.copyFromUtf8(value)));
+      }
+      results.add(result.build());
+    }
+    return results;
+  }
+
+  /**
+   * Returns the ids {@code [first, first + count)}.
+   */
+  public static List<Long> ids(long first, int count) {
+    List<Long> ids = new ArrayList<>(count);
+    for (long id = first; id < first + count; id++) {
+      ids.add(id);
+    }
+    return ids;
+  }
+
+  /**
+   * Streams a list of results, or fails if {@link #failWith} was called.
+   */
+  public static class FakeStream implements StreamIterator<QueryResult> {
+
+    private final Iterator<QueryResult> results;
+    private volatile SQLException failure;
+    private volatile boolean closed;
+
+    public FakeStream(List<QueryResult> results) {
+      this.results = results.iterator();
+    }
+
+    public FakeStream failWith(SQLException failure) {
+      this.failure = failure;
+      return this;
+    }
+
+    public boolean isClosed() {
+      return closed;
+    }
+
+    @Override
+    public boolean hasNext() throws SQLException {
+      if (failure != null) {
+        throw failure;
+      }
+      return !closed && results.hasNext();
+    }
+
+    @Override
+    public QueryResult next() {
+      return results.next();
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  /**
+   * An {@link RpcClientFactory} for tests which create their clients by class name, without TLS.
+   */
+  public abstract static class Factory implements RpcClientFactory {
+
+    /**
+     * Returns the handler answering the calls of a new client.
+     */
+    protected abstract InvocationHandler handler();
+
+    @Override
+    public RpcClient create(Context ctx, String target) {
+      return of(handler());
+    }
+
+    @Override
+    public RpcClient createTls(Context ctx, String target, TlsOptions tlsOptions) {
+      throw new UnsupportedOperationException("TLS isn't faked");
+    }
+  }
+}
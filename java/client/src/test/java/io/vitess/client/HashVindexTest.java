@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.BaseEncoding;
+import com.google.protobuf.ByteString;
+
+import io.vitess.proto.Topodata.KeyRange;
+import io.vitess.proto.Topodata.ShardReference;
+import io.vitess.proto.Topodata.SrvKeyspace;
+import io.vitess.proto.Topodata.TabletType;
+
+import java.sql.SQLDataException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class HashVindexTest {
+
+  private static byte[] hex(String value) {
+    return BaseEncoding.base16().lowerCase().decode(value);
+  }
+
+  @Test
+  public void testKeyspaceIds() {
+    // The same values as the hash vindex tests of VTGate.
+    Assert.assertArrayEquals(hex("166b40b44aba4bd6"), HashVindex.toKeyspaceId(1));
+    Assert.assertArrayEquals(hex("06e7ea22ce92708f"), HashVindex.toKeyspaceId(2));
+    Assert.assertArrayEquals(hex("4eb190c9a2fa169c"), HashVindex.toKeyspaceId(3));
+    Assert.assertArrayEquals(hex("d2fd8867d50d2dfe"), HashVindex.toKeyspaceId(4));
+    Assert.assertArrayEquals(hex("70bb023c810ca87a"), HashVindex.toKeyspaceId(5));
+    Assert.assertArrayEquals(hex("8ca64de9c1b123a7"), HashVindex.toKeyspaceId(0));
+  }
+
+  @Test
+  public void testRoundTrip() {
+    for (long id : new long[]{0, 1, 42, Long.MAX_VALUE, Long.MIN_VALUE, -1}) {
+      Assert.assertEquals(id, HashVindex.toId(HashVindex.toKeyspaceId(id)));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidKeyspaceId() {
+    HashVindex.toId(new byte[4]);
+  }
+
+  @Test
+  public void testBucketByShard() throws SQLDataException {
+    KeyspaceTopology topology = new KeyspaceTopology("ks", SrvKeyspace.newBuilder()
+        .addPartitions(SrvKeyspace.KeyspacePartition.newBuilder()
+            .setServedType(TabletType.MASTER)
+            .addShardReferences(shard("80-", 0x80, -1))
+            .addShardReferences(shard("-80", -1, 0x80)))
+        .build(), 0);
+
+    // 1 and 2 hash below 0x80, 4 above.
+    Map<String, List<Long>> buckets = topology.bucketByShard(TabletType.MASTER,
+        Arrays.asList(4L, 1L, 5L, 2L), HashVindex.ID_TO_KEYSPACE_ID);
+    Assert.assertEquals(ImmutableList.of("-80", "80-"), ImmutableList.copyOf(buckets.keySet()));
+    Assert.assertEquals(ImmutableList.of(1L, 5L, 2L), buckets.get("-80"));
+    Assert.assertEquals(ImmutableList.of(4L), buckets.get("80-"));
+
+    try {
+      topology.bucketByShard(TabletType.REPLICA, Arrays.asList(1L), HashVindex.ID_TO_KEYSPACE_ID);
+      Assert.fail("Should have thrown an exception");
+    } catch (SQLDataException exc) {
+      Assert.assertEquals("keyspace ks isn't served for tablet type REPLICA", exc.getMessage());
+    }
+  }
+
+  private static ShardReference shard(String name, int start, int end) {
+    KeyRange.Builder keyRange = KeyRange.newBuilder();
+    if (start >= 0) {
+      keyRange.setStart(ByteString.copyFrom(new byte[]{(byte) start}));
+    }
+    if (end >= 0) {
+      keyRange.setEnd(ByteString.copyFrom(new byte[]{(byte) end}));
+    }
+    return ShardReference.newBuilder().setName(name).setKeyRange(keyRange).build();
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client;
+
+import static io.vitess.client.FakeRpcClient.keyRange;
+import static io.vitess.client.FakeRpcClient.shard;
+
+import com.google.common.util.concurrent.Futures;
+
+import io.vitess.proto.Topodata.TabletType;
+import io.vitess.proto.Vtgate.GetSrvKeyspaceRequest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class KeyspaceTopologyCacheTest {
+
+  /**
+   * Answers getSrvKeyspace with a keyspace split in two, then in four after {@code resharded}.
+   */
+  private static class FakeClient implements InvocationHandler {
+
+    final AtomicInteger calls = new AtomicInteger();
+    volatile boolean resharded;
+    volatile boolean failing;
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      if (!"getSrvKeyspace".equals(method.getName())) {
+        return null;
+      }
+      calls.incrementAndGet();
+      if (failing) {
+        return Futures.immediateFailedFuture(new SQLException("vtgate unavailable"));
+      }
+      Assert.assertEquals("ks", ((GetSrvKeyspaceRequest) args[1]).getKeyspace());
+      if (resharded) {
+        // Out of order on purpose.
+        return FakeRpcClient.srvKeyspace(TabletType.MASTER, shard("80-c0", 0x80, 0xc0),
+            shard("-40", -1, 0x40), shard("c0-", 0xc0, -1), shard("40-80", 0x40, 0x80));
+      }
+      return FakeRpcClient.srvKeyspace(TabletType.MASTER, shard("-80", -1, 0x80),
+          shard("80-", 0x80, -1));
+    }
+  }
+
+  private static VTGateConnection connection(FakeClient fake) {
+    return new VTGateConnection(FakeRpcClient.of(fake));
+  }
+
+  @Test
+  public void testLookups() throws Exception {
+    FakeClient fake = new FakeClient();
+    fake.resharded = true;
+    try (KeyspaceTopologyCache cache = new KeyspaceTopologyCache(connection(fake),
+        Context.getDefault())) {
+      Assert.assertNull(cache.getIfPresent("ks"));
+      KeyspaceTopology topology = cache.get("ks");
+      Assert.assertSame(topology, cache.get("ks"));
+      Assert.assertSame(topology, cache.getIfPresent("ks"));
+      Assert.assertEquals(1, fake.calls.get());
+
+      Assert.assertEquals(4, topology.getShards(TabletType.MASTER).size());
+      Assert.assertEquals("-40", topology.getShards(TabletType.MASTER).get(0).getName());
+      Assert.assertEquals("c0-", topology.getShards(TabletType.MASTER).get(3).getName());
+      Assert.assertTrue(topology.getShards(TabletType.REPLICA).isEmpty());
+
+      Assert.assertEquals("-40", topology.getShard(TabletType.MASTER, new byte[]{0}).getName());
+      Assert.assertEquals("-40", topology.getShard(TabletType.MASTER, new byte[0]).getName());
+      Assert.assertEquals("40-80",
+          topology.getShard(TabletType.MASTER, new byte[]{0x40}).getName());
+      Assert.assertEquals("80-c0",
+          topology.getShard(TabletType.MASTER, new byte[]{(byte) 0xbf, 1, 2}).getName());
+      Assert.assertEquals("c0-",
+          topology.getShard(TabletType.MASTER, new byte[]{(byte) 0xff, (byte) 0xff}).getName());
+      Assert.assertNull(topology.getShard(TabletType.REPLICA, new byte[]{0}));
+
+      Assert.assertEquals(2, topology.getShards(TabletType.MASTER, keyRange(0x50, 0x81)).size());
+      Assert.assertEquals("40-80",
+          topology.getShards(TabletType.MASTER, keyRange(0x50, 0x81)).get(0).getName());
+      Assert.assertEquals(1, topology.getShards(TabletType.MASTER, keyRange(0x40, 0x80)).size());
+      Assert.assertEquals(4, topology.getShards(TabletType.MASTER, keyRange(-1, -1)).size());
+    }
+  }
+
+  @Test
+  public void testBackgroundRefresh() throws Exception {
+    FakeClient fake = new FakeClient();
+    try (KeyspaceTopologyCache cache = new KeyspaceTopologyCache(connection(fake),
+        Context.getDefault(), 20, 0.5, null)) {
+      Assert.assertEquals(2, cache.get("ks").getShards(TabletType.MASTER).size());
+
+      fake.failing = true;
+      int calls = fake.calls.get();
+      waitFor(fake, calls + 2);
+      // Failed refreshes keep the last topology.
+      Assert.assertEquals(2, cache.get("ks").getShards(TabletType.MASTER).size());
+
+      fake.failing = false;
+      fake.resharded = true;
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (cache.get("ks").getShards(TabletType.MASTER).size() != 4) {
+        Assert.assertTrue("Topology wasn't refreshed", System.nanoTime() < deadline);
+        Thread.sleep(5);
+      }
+
+      cache.close();
+      calls = fake.calls.get();
+      Thread.sleep(100);
+      Assert.assertTrue(fake.calls.get() <= calls + 1);
+      Assert.assertEquals(4, cache.getIfPresent("ks").getShards(TabletType.MASTER).size());
+    }
+  }
+
+  @Test(expected = SQLException.class)
+  public void testFetchFailure() throws Exception {
+    FakeClient fake = new FakeClient();
+    fake.failing = true;
+    try (KeyspaceTopologyCache cache = new KeyspaceTopologyCache(connection(fake),
+        Context.getDefault())) {
+      cache.get("ks");
+    }
+  }
+
+  private static void waitFor(FakeClient fake, int calls) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (fake.calls.get() < calls) {
+      Assert.assertTrue("Topology wasn't refreshed", System.nanoTime() < deadline);
+      Thread.sleep(5);
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client;
+
+import static io.vitess.client.FakeRpcClient.idResults;
+import static io.vitess.client.FakeRpcClient.ids;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+
+import io.vitess.client.FakeRpcClient.FakeStream;
+import io.vitess.client.cursor.Row;
+import io.vitess.client.cursor.RowStreamException;
+import io.vitess.proto.Query.BoundQuery;
+import io.vitess.proto.Query.SplitQueryRequest.Algorithm;
+import io.vitess.proto.Topodata.KeyRange;
+import io.vitess.proto.Topodata.TabletType;
+import io.vitess.proto.Vtgate.SplitQueryResponse;
+import io.vitess.proto.Vtgate.StreamExecuteKeyRangesRequest;
+import io.vitess.proto.Vtgate.StreamExecuteShardsRequest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ParallelScanTest {
+
+  private static final int PARTS = 8;
+  private static final int ROWS_PER_PART = 10;
+
+  /**
+   * Splits a query into shard and key range parts whose SQL is the first id of the part, and
+   * streams {@link #ROWS_PER_PART} ids for each.
+   */
+  private static class FakeClient implements InvocationHandler {
+
+    final List<FakeStream> streams = new CopyOnWriteArrayList<>();
+    final AtomicInteger keyRangeParts = new AtomicInteger();
+    volatile int failingPart = -1;
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      switch (method.getName()) {
+        case "splitQuery":
+          SplitQueryResponse.Builder response = SplitQueryResponse.newBuilder();
+          for (int i = 0; i < PARTS; i++) {
+            SplitQueryResponse.Part.Builder part = SplitQueryResponse.Part.newBuilder()
+                .setQuery(BoundQuery.newBuilder().setSql(Integer.toString(i * ROWS_PER_PART)));
+            if (i % 2 == 0) {
+              part.setShardPart(SplitQueryResponse.ShardPart.newBuilder().setKeyspace("ks")
+                  .addShards("-80"));
+            } else {
+              part.setKeyRangePart(SplitQueryResponse.KeyRangePart.newBuilder().setKeyspace("ks")
+                  .addKeyRanges(KeyRange.getDefaultInstance()));
+            }
+            response.addSplits(part);
+          }
+          return Futures.immediateFuture(response.build());
+        case "streamExecuteShards":
+          StreamExecuteShardsRequest shardsRequest = (StreamExecuteShardsRequest) args[1];
+          Assert.assertEquals(TabletType.RDONLY, shardsRequest.getTabletType());
+          return stream(Integer.parseInt(shardsRequest.getQuery().getSql()));
+        case "streamExecuteKeyRanges":
+          StreamExecuteKeyRangesRequest keyRangesRequest = (StreamExecuteKeyRangesRequest) args[1];
+          keyRangeParts.incrementAndGet();
+          return stream(Integer.parseInt(keyRangesRequest.getQuery().getSql()));
+        default:
+          return null;
+      }
+    }
+
+    private FakeStream stream(int firstId) {
+      FakeStream stream = new FakeStream(idResults(ids(firstId, ROWS_PER_PART), 1));
+      if (firstId / ROWS_PER_PART == failingPart) {
+        stream.failWith(new SQLException("tablet unavailable"));
+      }
+      streams.add(stream);
+      return stream;
+    }
+  }
+
+  private static ParallelScan scan(FakeClient fake) {
+    return new ParallelScan(FakeRpcClient.of(fake));
+  }
+
+  private static Stream<Row> stream(FakeClient fake) throws SQLException {
+    return scan(fake).stream(Context.getDefault(), "ks", "select id from t", null,
+        ImmutableList.of("id"), PARTS, 0, Algorithm.EQUAL_SPLITS);
+  }
+
+  private static long id(Row row) {
+    try {
+      return row.getLong("id");
+    } catch (SQLException exc) {
+      throw new RowStreamException(exc);
+    }
+  }
+
+  @Test
+  public void testAllPartsAreRead() throws SQLException {
+    FakeClient fake = new FakeClient();
+    List<Long> ids;
+    try (Stream<Row> rows = stream(fake)) {
+      ids = rows.map(ParallelScanTest::id).sorted().collect(Collectors.toList());
+    }
+    Assert.assertEquals(PARTS * ROWS_PER_PART, ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      Assert.assertEquals(i, (long) ids.get(i));
+    }
+    Assert.assertEquals(PARTS / 2, fake.keyRangeParts.get());
+    for (FakeStream stream : fake.streams) {
+      Assert.assertTrue(stream.isClosed());
+    }
+  }
+
+  @Test
+  public void testSequentialStreamKeepsPartOrder() throws SQLException {
+    FakeClient fake = new FakeClient();
+    try (Stream<Row> rows = stream(fake).sequential()) {
+      long expected = 0;
+      for (Iterator<Row> it = rows.iterator(); it.hasNext(); expected++) {
+        Assert.assertEquals(expected, id(it.next()));
+      }
+      Assert.assertEquals(PARTS * ROWS_PER_PART, expected);
+    }
+  }
+
+  @Test
+  public void testCloseCancelsUnreadParts() throws SQLException {
+    FakeClient fake = new FakeClient();
+    try (Stream<Row> rows = stream(fake).sequential()) {
+      Assert.assertEquals(5, rows.limit(5).count());
+    }
+    // Only the first parts were started, and closing the stream closed them.
+    Assert.assertEquals(ParallelScan.DEFAULT_PARTS_IN_FLIGHT, fake.streams.size());
+    for (FakeStream stream : fake.streams) {
+      Assert.assertTrue(stream.isClosed());
+    }
+  }
+
+  @Test
+  public void testErrorIsThrown() throws SQLException {
+    FakeClient fake = new FakeClient();
+    fake.failingPart = 3;
+    try (Stream<Row> rows = stream(fake)) {
+      rows.count();
+      Assert.fail("expected a RowStreamException");
+    } catch (RowStreamException exc) {
+      Assert.assertEquals("tablet unavailable", exc.getCause().getMessage());
+    }
+  }
+}
@@ -16,8 +16,16 @@
 
 package io.vitess.client;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.ByteString;
 
+import io.vitess.proto.Query;
+import io.vitess.proto.Query.BoundQuery;
+import io.vitess.proto.Query.QueryResult;
+
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Assert;
@@ -58,4 +66,64 @@ public class ProtoTest {
       Assert.assertEquals(entry.getValue(), Proto.getSQLState(entry.getKey()));
     }
   }
+
+  @Test
+  public void testSplitTupleBindVariable() {
+    Map<String, Object> bindVars = ImmutableMap.<String, Object>of(
+        "ids", Arrays.asList(1, 2, 3, 4, 5),
+        "names", Arrays.asList("a", "b"),
+        "flag", 1);
+    BoundQuery query = Proto.bindQuery("select * from t where id in ::ids", bindVars);
+
+    List<BoundQuery> chunks = Proto.splitTupleBindVariable(query, 2);
+    Assert.assertEquals(3, chunks.size());
+    int[] expectedSizes = {2, 2, 1};
+    int expectedValue = 1;
+    for (int i = 0; i < chunks.size(); i++) {
+      BoundQuery chunk = chunks.get(i);
+      Assert.assertEquals(query.getSql(), chunk.getSql());
+      Assert.assertEquals(query.getBindVariablesMap().get("names"),
+          chunk.getBindVariablesMap().get("names"));
+      Assert.assertEquals(query.getBindVariablesMap().get("flag"),
+          chunk.getBindVariablesMap().get("flag"));
+      Query.BindVariable ids = chunk.getBindVariablesMap().get("ids");
+      Assert.assertEquals(Query.Type.TUPLE, ids.getType());
+      Assert.assertEquals(expectedSizes[i], ids.getValuesCount());
+      for (Query.Value value : ids.getValuesList()) {
+        Assert.assertEquals(String.valueOf(expectedValue++), value.getValue().toStringUtf8());
+      }
+    }
+  }
+
+  @Test
+  public void testSplitTupleBindVariableSmallList() {
+    BoundQuery query = Proto.bindQuery("select * from t where id in ::ids",
+        ImmutableMap.<String, Object>of("ids", Arrays.asList(1, 2, 3)));
+    Assert.assertEquals(ImmutableList.of(query), Proto.splitTupleBindVariable(query, 3));
+  }
+
+  @Test
+  public void testConcatQueryResults() {
+    Query.Field field = Query.Field.newBuilder().setName("id").setType(Query.Type.INT64).build();
+    QueryResult first = QueryResult.newBuilder()
+        .addFields(field)
+        .addRows(Query.Row.newBuilder().addLengths(1).setValues(ByteString.copyFromUtf8("1")))
+        .setRowsAffected(1)
+        .build();
+    QueryResult second = QueryResult.newBuilder()
+        .addFields(field)
+        .addRows(Query.Row.newBuilder().addLengths(1).setValues(ByteString.copyFromUtf8("2")))
+        .addRows(Query.Row.newBuilder().addLengths(1).setValues(ByteString.copyFromUtf8("3")))
+        .setRowsAffected(2)
+        .setInsertId(7)
+        .build();
+
+    QueryResult result = Proto.concatQueryResults(Arrays.asList(first, second));
+    Assert.assertEquals(Arrays.asList(field), result.getFieldsList());
+    Assert.assertEquals(3, result.getRowsCount());
+    Assert.assertEquals("1", result.getRows(0).getValues().toStringUtf8());
+    Assert.assertEquals("3", result.getRows(2).getValues().toStringUtf8());
+    Assert.assertEquals(3, result.getRowsAffected());
+    Assert.assertEquals(7, result.getInsertId());
+  }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.Futures;
+
+import io.vitess.client.cursor.Cursor;
+import io.vitess.proto.Query;
+import io.vitess.proto.Query.ExecuteOptions.IncludedFields;
+import io.vitess.proto.Vtgate;
+import io.vitess.proto.Vtgate.ExecuteRequest;
+import io.vitess.proto.Vtgate.ExecuteResponse;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ResultFieldsCacheTest {
+
+  private static final Query.Field ID = Query.Field.newBuilder().setName("id").setTable("t")
+      .setType(Query.Type.INT64).build();
+  private static final Query.Field NAME = Query.Field.newBuilder().setName("name").setTable("t")
+      .setType(Query.Type.VARCHAR).build();
+
+  /**
+   * Records requests and answers them with the queued results.
+   */
+  private static class FakeClient implements InvocationHandler {
+
+    final List<ExecuteRequest> requests = new ArrayList<>();
+    final Deque<Query.QueryResult> results = new ArrayDeque<>();
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      if (!"execute".equals(method.getName())) {
+        return null;
+      }
+      ExecuteRequest request = (ExecuteRequest) args[1];
+      requests.add(request);
+      Query.QueryResult result = results.remove();
+      if (request.getSession().getOptions().getIncludedFields() == IncludedFields.TYPE_ONLY) {
+        Query.QueryResult.Builder typeOnly = result.toBuilder().clearFields();
+        for (Query.Field field : result.getFieldsList()) {
+          typeOnly.addFields(Query.Field.newBuilder().setType(field.getType()));
+        }
+        result = typeOnly.build();
+      }
+      return Futures.immediateFuture(ExecuteResponse.newBuilder()
+          .setSession(request.getSession()).setResult(result).build());
+    }
+  }
+
+  private static Query.QueryResult result(Query.Field... fields) {
+    Query.QueryResult.Builder result = Query.QueryResult.newBuilder();
+    for (Query.Field field : fields) {
+      result.addFields(field);
+    }
+    return result.build();
+  }
+
+  @Test
+  public void testTypeOnlyAfterFirstExecute() throws Exception {
+    FakeClient fake = new FakeClient();
+    VTGateConnection conn = new VTGateConnection((RpcClient) Proxy.newProxyInstance(
+        RpcClient.class.getClassLoader(), new Class<?>[]{RpcClient.class}, fake));
+    VTSession session = new VTSession("ks",
+        Query.ExecuteOptions.newBuilder().setIncludedFields(IncludedFields.ALL).build());
+    session.setResultFieldsCacheEnabled(true);
+
+    fake.results.add(result(ID, NAME));
+    fake.results.add(result(ID, NAME));
+    fake.results.add(result(ID));
+    fake.results.add(result(ID));
+    for (int i = 0; i < 3; i++) {
+      try (Cursor cursor = conn.execute(Context.getDefault(), "select * from t", null, session)
+          .checkedGet()) {
+        Assert.assertEquals(i < 2 ? 2 : 1, cursor.getFields().size());
+        Assert.assertEquals("id", cursor.getFields().get(0).getName());
+        Assert.assertEquals(1, cursor.findColumn("t.id"));
+      }
+      Assert.assertEquals(IncludedFields.ALL,
+          session.getSession().getOptions().getIncludedFields());
+    }
+
+    Assert.assertEquals(4, fake.requests.size());
+    Assert.assertEquals(IncludedFields.ALL,
+        fake.requests.get(0).getSession().getOptions().getIncludedFields());
+    Assert.assertEquals(IncludedFields.TYPE_ONLY,
+        fake.requests.get(1).getSession().getOptions().getIncludedFields());
+    // The shape changed, so the query runs again with all fields.
+    Assert.assertEquals(IncludedFields.TYPE_ONLY,
+        fake.requests.get(2).getSession().getOptions().getIncludedFields());
+    Assert.assertEquals(IncludedFields.ALL,
+        fake.requests.get(3).getSession().getOptions().getIncludedFields());
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    FakeClient fake = new FakeClient();
+    VTGateConnection conn = new VTGateConnection((RpcClient) Proxy.newProxyInstance(
+        RpcClient.class.getClassLoader(), new Class<?>[]{RpcClient.class}, fake));
+    VTSession session = new VTSession("ks", null);
+
+    fake.results.add(result(ID));
+    fake.results.add(result(ID));
+    for (int i = 0; i < 2; i++) {
+      conn.execute(Context.getDefault(), "select id from t", null, session).checkedGet();
+    }
+    for (ExecuteRequest request : fake.requests) {
+      Assert.assertNotEquals(IncludedFields.TYPE_ONLY,
+          request.getSession().getOptions().getIncludedFields());
+    }
+  }
+
+  @Test
+  public void testWithFields() {
+    Query.QueryResult typeOnly = Query.QueryResult.newBuilder()
+        .addFields(Query.Field.newBuilder().setType(Query.Type.INT64))
+        .addRows(Query.Row.newBuilder().addLengths(0)).build();
+    Query.QueryResult result = ResultFieldsCache.withFields(typeOnly,
+        Collections.singletonList(ID));
+    Assert.assertEquals(ID, result.getFields(0));
+    Assert.assertEquals(typeOnly.getRowsList(), result.getRowsList());
+    Assert.assertNull(ResultFieldsCache.withFields(typeOnly,
+        Collections.singletonList(NAME)));
+
+    Query.QueryResult renamed = Query.QueryResult.newBuilder()
+        .addFields(Query.Field.newBuilder().setName("user_id").setType(Query.Type.INT64)).build();
+    Assert.assertNull(ResultFieldsCache.withFields(renamed, Collections.singletonList(ID)));
+  }
+
+  @Test
+  public void testExpiry() {
+    final AtomicLong nanos = new AtomicLong();
+    ResultFieldsCache cache = new ResultFieldsCache(new Ticker() {
+      @Override
+      public long read() {
+        return nanos.get();
+      }
+    });
+    Vtgate.Session session = Vtgate.Session.newBuilder().setTargetString("ks").build();
+    cache.put(session, "select id from t", Collections.singletonList(ID));
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(59));
+    Assert.assertEquals(Collections.singletonList(ID), cache.get(session, "select id from t"));
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    Assert.assertNull(cache.get(session, "select id from t"));
+  }
+}
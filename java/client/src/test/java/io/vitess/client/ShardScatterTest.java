@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client;
+
+import static io.vitess.client.FakeRpcClient.idResults;
+import static io.vitess.client.FakeRpcClient.shard;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import io.vitess.client.FakeRpcClient.FakeStream;
+import io.vitess.client.cursor.Cursor;
+import io.vitess.client.cursor.Row;
+import io.vitess.proto.Topodata.TabletType;
+import io.vitess.proto.Vtgate.StreamExecuteShardsRequest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ShardScatterTest {
+
+  private static final Map<String, List<Long>> IDS_BY_SHARD = ImmutableMap.<String, List<Long>>of(
+      "-80", ImmutableList.of(1L, 4L, 7L),
+      "80-", ImmutableList.of(2L, 3L, 8L, 9L));
+
+  /**
+   * Serves a keyspace split in two, and streams each shard's sorted ids two rows at a time.
+   */
+  private static class FakeClient implements InvocationHandler {
+
+    final Map<String, FakeStream> streams = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      if ("getSrvKeyspace".equals(method.getName())) {
+        return FakeRpcClient.srvKeyspace(TabletType.RDONLY, shard("-80", -1, 0x80),
+            shard("80-", 0x80, -1));
+      }
+      if (!"streamExecuteShards".equals(method.getName())) {
+        return null;
+      }
+      StreamExecuteShardsRequest request = (StreamExecuteShardsRequest) args[1];
+      Assert.assertEquals(1, request.getShardsCount());
+      Assert.assertEquals(TabletType.RDONLY, request.getTabletType());
+      String shard = request.getShards(0);
+      FakeStream stream = new FakeStream(idResults(IDS_BY_SHARD.get(shard), 2));
+      streams.put(shard, stream);
+      return stream;
+    }
+  }
+
+  private KeyspaceTopologyCache topologyCache;
+
+  @After
+  public void tearDown() {
+    if (topologyCache != null) {
+      topologyCache.close();
+    }
+  }
+
+  private ShardScatter scatter(FakeClient fake) {
+    RpcClient client = FakeRpcClient.of(fake);
+    topologyCache = new KeyspaceTopologyCache(new VTGateConnection(client), Context.getDefault());
+    return new ShardScatter(client, topologyCache);
+  }
+
+  private static List<Long> ids(Cursor cursor) throws Exception {
+    List<Long> ids = new ArrayList<>();
+    for (Row row = cursor.next(); row != null; row = cursor.next()) {
+      ids.add(row.getLong("id"));
+    }
+    return ids;
+  }
+
+  @Test
+  public void testUnorderedReturnsAllRows() throws Exception {
+    FakeClient fake = new FakeClient();
+    try (Cursor cursor = scatter(fake).streamExecute(Context.getDefault(), "select id from t",
+        "ks", null, TabletType.RDONLY)) {
+      Assert.assertEquals("id", cursor.getFields().get(0).getName());
+      List<Long> ids = ids(cursor);
+      Collections.sort(ids);
+      Assert.assertEquals(ImmutableList.of(1L, 2L, 3L, 4L, 7L, 8L, 9L), ids);
+    }
+    Assert.assertEquals(2, fake.streams.size());
+    for (FakeStream stream : fake.streams.values()) {
+      Assert.assertTrue(stream.isClosed());
+    }
+  }
+
+  @Test
+  public void testUnorderedLimitClosesStreams() throws Exception {
+    FakeClient fake = new FakeClient();
+    Cursor cursor = scatter(fake).streamExecute(Context.getDefault(), "select id from t", "ks",
+        null, TabletType.RDONLY, 3);
+    Assert.assertEquals(3, ids(cursor).size());
+    for (FakeStream stream : fake.streams.values()) {
+      Assert.assertTrue(stream.isClosed());
+    }
+    cursor.close();
+  }
+
+  @Test
+  public void testOrderedMergesShards() throws Exception {
+    FakeClient fake = new FakeClient();
+    try (Cursor cursor = scatter(fake).streamExecuteOrdered(Context.getDefault(),
+        "select id from t order by id", "ks", null, TabletType.RDONLY, ImmutableList.of("id"),
+        false, Long.MAX_VALUE)) {
+      Assert.assertEquals(ImmutableList.of(1L, 2L, 3L, 4L, 7L, 8L, 9L), ids(cursor));
+    }
+  }
+
+  @Test
+  public void testOrderedLimitClosesStreams() throws Exception {
+    FakeClient fake = new FakeClient();
+    Cursor cursor = scatter(fake).streamExecuteOrdered(Context.getDefault(),
+        "select id from t order by id", "ks", null, TabletType.RDONLY, ImmutableList.of("id"),
+        false, 4);
+    Assert.assertEquals(ImmutableList.of(1L, 2L, 3L, 4L), ids(cursor));
+    Assert.assertTrue(fake.streams.get("-80").isClosed());
+    Assert.assertTrue(fake.streams.get("80-").isClosed());
+    Assert.assertEquals("id", cursor.getFields().get(0).getName());
+    cursor.close();
+  }
+
+  @Test(expected = SQLException.class)
+  public void testUnservedTabletType() throws Exception {
+    scatter(new FakeClient()).streamExecute(Context.getDefault(), "select id from t", "ks", null,
+        TabletType.MASTER);
+  }
+}
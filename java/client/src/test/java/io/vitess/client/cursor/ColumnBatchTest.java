@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client.cursor;
+
+import com.google.protobuf.ByteString;
+
+import io.vitess.client.StreamIterator;
+import io.vitess.proto.Query;
+import io.vitess.proto.Query.Field;
+import io.vitess.proto.Query.QueryResult;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLDataException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ColumnBatchTest {
+
+  private static final List<Field> FIELDS = Arrays.asList(
+      Field.newBuilder().setName("id").setType(Query.Type.INT64).build(),
+      Field.newBuilder().setName("big").setType(Query.Type.UINT64).build(),
+      Field.newBuilder().setName("price").setType(Query.Type.FLOAT64).build(),
+      Field.newBuilder().setName("name").setType(Query.Type.VARCHAR).build());
+
+  /**
+   * Packs values like VTGate does, with {@code null} as a MySQL NULL value.
+   */
+  private static Query.Row row(String... values) {
+    Query.Row.Builder row = Query.Row.newBuilder();
+    StringBuilder packed = new StringBuilder();
+    for (String value : values) {
+      if (value == null) {
+        row.addLengths(-1);
+      } else {
+        row.addLengths(value.getBytes(StandardCharsets.UTF_8).length);
+        packed.append(value);
+      }
+    }
+    return row.setValues(ByteString.copyFromUtf8(packed.toString())).build();
+  }
+
+  private static QueryResult result() {
+    return QueryResult.newBuilder().addAllFields(FIELDS)
+        .addRows(row("1", "18446744073709551615", "1.5", "héllo"))
+        .addRows(row("-20", null, null, null))
+        .addRows(row(null, "7", "-0.25", ""))
+        .build();
+  }
+
+  @Test
+  public void testColumns() throws Exception {
+    ColumnBatch batch = ColumnBatch.of(result());
+    Assert.assertEquals(3, batch.getRowCount());
+    Assert.assertEquals(4, batch.getColumnCount());
+    Assert.assertEquals(ColumnBatch.ColumnKind.LONG, batch.getColumnKind(1));
+    Assert.assertEquals(ColumnBatch.ColumnKind.DOUBLE, batch.getColumnKind(3));
+    Assert.assertEquals(ColumnBatch.ColumnKind.BYTES, batch.getColumnKind(4));
+    Assert.assertEquals(4, batch.findColumn("name"));
+
+    Assert.assertEquals(1, batch.getLong(1, 0));
+    Assert.assertEquals(-20, batch.getLong(1, 1));
+    Assert.assertTrue(batch.isNull(1, 2));
+    Assert.assertEquals(0, batch.getLong(1, 2));
+    Assert.assertEquals(-1, batch.getLong(2, 0)); // UINT64 max keeps its 64 bits
+
+    Assert.assertEquals(1.5, batch.getDouble(3, 0), 0.0);
+    Assert.assertTrue(batch.isNull(3, 1));
+    Assert.assertEquals(-20.0, batch.getDouble(1, 1), 0.0);
+
+    Assert.assertEquals("héllo", batch.getString(4, 0));
+    Assert.assertNull(batch.getString(4, 1));
+    Assert.assertNull(batch.getBytes(4, 1));
+    Assert.assertEquals("", batch.getString(4, 2));
+    Assert.assertFalse(batch.isNull(4, 2));
+  }
+
+  @Test
+  public void testAggregates() throws Exception {
+    ColumnBatch batch = ColumnBatch.of(result());
+    Assert.assertEquals(-19, batch.sumLong(1));
+    Assert.assertEquals(1.25, batch.sumDouble(3), 0.0);
+    Assert.assertEquals(-19.0, batch.sumDouble(1), 0.0);
+
+    final List<Long> ids = new ArrayList<>();
+    batch.forEachLong(1, ids::add);
+    Assert.assertEquals(Arrays.asList(1L, -20L), ids);
+
+    final List<Double> prices = new ArrayList<>();
+    batch.forEachDouble(3, prices::add);
+    Assert.assertEquals(Arrays.asList(1.5, -0.25), prices);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongKind() throws Exception {
+    ColumnBatch.of(result()).getLong(4, 0);
+  }
+
+  @Test(expected = SQLDataException.class)
+  public void testInvalidInteger() throws Exception {
+    ColumnBatch.of(FIELDS, Arrays.asList(row("1x", "1", "1", "a")));
+  }
+
+  @Test
+  public void testStreamCursorBatches() throws Exception {
+    final Iterator<QueryResult> results = Arrays.asList(
+        QueryResult.newBuilder().addAllFields(FIELDS).addRows(row("1", "1", "1", "a")).build(),
+        QueryResult.newBuilder().build(),
+        QueryResult.newBuilder().addRows(row("2", "2", "2", "b")).addRows(row("3", "3", "3", "c"))
+            .build()).iterator();
+    StreamIterator<QueryResult> streamIterator = new StreamIterator<QueryResult>() {
+      @Override
+      public boolean hasNext() {
+        return results.hasNext();
+      }
+
+      @Override
+      public QueryResult next() {
+        return results.next();
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+    try (StreamCursor cursor = new StreamCursor(streamIterator)) {
+      Assert.assertEquals(1, cursor.nextColumnBatch().sumLong(1));
+      Assert.assertEquals(2, cursor.next().getLong("id"));
+      ColumnBatch batch = cursor.nextColumnBatch();
+      Assert.assertEquals(1, batch.getRowCount());
+      Assert.assertEquals("c", batch.getString(4, 0));
+      Assert.assertNull(cursor.nextColumnBatch());
+    }
+  }
+}
@@ -19,6 +19,7 @@ package io.vitess.client.cursor;
 import com.google.common.primitives.UnsignedLong;
 import com.google.protobuf.ByteString;
 
+import io.vitess.client.StreamIterator;
 import io.vitess.proto.Query;
 import io.vitess.proto.Query.Field;
 import io.vitess.proto.Query.QueryResult;
@@ -27,12 +28,20 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Date;
 import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
 import java.util.TimeZone;
+import java.util.stream.Collectors;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -239,9 +248,13 @@ public class CursorTest {
         Assert.assertEquals(Date.valueOf("2008-01-02"), row.getObject("col1"));
         Assert.assertEquals(Date.valueOf("2008-01-02"), row.getDate("col1"));
         Assert.assertEquals(new Date(1199232000000L), row.getDate("col1", GMT));
+        Assert.assertEquals(LocalDate.of(2008, 1, 2), row.getLocalDate("col1"));
+        Assert.assertEquals(LocalDate.of(2008, 1, 2), row.getObject("col1", LocalDate.class));
         Assert.assertFalse(row.wasNull());
         Assert.assertEquals(null, row.getDate("null"));
         Assert.assertTrue(row.wasNull());
+        Assert.assertEquals(null, row.getLocalDate("null"));
+        Assert.assertTrue(row.wasNull());
       }
     }
   }
@@ -284,9 +297,16 @@ public class CursorTest {
         Timestamp ts = new Timestamp(1199283316000L);
         ts.setNanos(123456000);
         Assert.assertEquals(ts, row.getTimestamp("col1", GMT));
+        Assert.assertEquals(LocalDateTime.of(2008, 1, 2, 14, 15, 16, 123456000),
+            row.getLocalDateTime("col1"));
+        Assert.assertEquals(row.getTimestamp("col1").toInstant(), row.getInstant("col1"));
+        Assert.assertEquals(row.getTimestamp("col1").toInstant(),
+            row.getObject("col1", Instant.class));
         Assert.assertFalse(row.wasNull());
         Assert.assertEquals(null, row.getTimestamp("null"));
         Assert.assertTrue(row.wasNull());
+        Assert.assertEquals(null, row.getLocalDateTime("null"));
+        Assert.assertTrue(row.wasNull());
       }
     }
   }
@@ -402,4 +422,105 @@ public class CursorTest {
       Assert.assertArrayEquals(ba1, ba3);
     }
   }
+
+  private static QueryResult idResult(int firstId, int count, boolean withFields) {
+    QueryResult.Builder result = QueryResult.newBuilder();
+    if (withFields) {
+      result.addFields(Field.newBuilder().setName("id").setType(Query.Type.INT64).build());
+    }
+    for (int id = firstId; id < firstId + count; id++) {
+      String value = Integer.toString(id);
+      result.addRows(Query.Row.newBuilder().addLengths(value.length())
+          .setValues(ByteString.copyFromUtf8(value)));
+    }
+    return result.build();
+  }
+
+  private static long id(Row row) {
+    try {
+      return row.getLong("id");
+    } catch (SQLException exc) {
+      throw new RowStreamException(exc);
+    }
+  }
+
+  @Test
+  public void testSimpleCursorStream() throws Exception {
+    try (Cursor cursor = new SimpleCursor(idResult(0, 1000, true))) {
+      Assert.assertEquals(0, cursor.next().getLong("id"));
+      Spliterator<Row> spliterator = cursor.stream().spliterator();
+      Assert.assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+      Assert.assertEquals(999, spliterator.estimateSize());
+      Assert.assertEquals(null, cursor.next());
+    }
+    try (Cursor cursor = new SimpleCursor(idResult(0, 1000, true))) {
+      Assert.assertEquals(999 * 1000 / 2,
+          cursor.stream().parallel().mapToLong(CursorTest::id).sum());
+    }
+  }
+
+  @Test
+  public void testStreamCursorStream() throws Exception {
+    final Iterator<QueryResult> results = Arrays.asList(idResult(0, 3, true), idResult(3, 0, false),
+        idResult(3, 4, false), idResult(7, 3, false)).iterator();
+    StreamIterator<QueryResult> streamIterator = new StreamIterator<QueryResult>() {
+      @Override
+      public boolean hasNext() {
+        return results.hasNext();
+      }
+
+      @Override
+      public QueryResult next() {
+        return results.next();
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+    try (Cursor cursor = new StreamCursor(streamIterator)) {
+      Assert.assertEquals(0, cursor.next().getLong("id"));
+      Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L),
+          cursor.stream().parallel().map(CursorTest::id).collect(Collectors.toList()));
+      Assert.assertEquals(null, cursor.next());
+    }
+  }
+
+  private static QueryResult nameResult(Query.Type type, int flags, String... names) {
+    QueryResult.Builder result = QueryResult.newBuilder()
+        .addFields(Field.newBuilder().setName("name").setType(type).setFlags(flags));
+    for (String name : names) {
+      result.addRows(Query.Row.newBuilder().addLengths(name.length())
+          .setValues(ByteString.copyFromUtf8(name)));
+    }
+    return result.build();
+  }
+
+  @Test
+  public void testMergeCursorBinaryCollation() throws Exception {
+    int binary = Query.MySqlFlag.BINARY_FLAG_VALUE;
+    try (Cursor cursor = new MergeCursor(Arrays.asList(
+        new SimpleCursor(nameResult(Query.Type.VARCHAR, binary, "b", "a", "B")),
+        new SimpleCursor(nameResult(Query.Type.VARCHAR, binary, "c", "A"))),
+        Arrays.asList("name"), true, Long.MAX_VALUE)) {
+      StringBuilder names = new StringBuilder();
+      for (Row row = cursor.next(); row != null; row = cursor.next()) {
+        names.append(row.getRawValue("name").toStringUtf8());
+      }
+      Assert.assertEquals("cbaBA", names.toString());
+    }
+  }
+
+  @Test
+  public void testMergeCursorRejectsCollatedKeys() throws Exception {
+    for (Query.Type type : Arrays.asList(Query.Type.VARCHAR, Query.Type.ENUM)) {
+      try (Cursor cursor = new MergeCursor(Arrays.asList(new SimpleCursor(nameResult(type, 0, "b")),
+          new SimpleCursor(nameResult(type, 0, "a"))), Arrays.asList("name"), false, 1)) {
+        cursor.next();
+        Assert.fail("Should have thrown an exception for " + type);
+      } catch (SQLFeatureNotSupportedException exc) {
+        Assert.assertTrue(exc.getMessage(), exc.getMessage().contains(type.name()));
+      }
+    }
+  }
 }
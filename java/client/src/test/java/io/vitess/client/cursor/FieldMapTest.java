@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client.cursor;
+
+import com.google.protobuf.ByteString;
+
+import io.vitess.proto.Query;
+import io.vitess.proto.Query.Field;
+import io.vitess.proto.Query.QueryResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class FieldMapTest {
+
+  @Test
+  public void testLookupPrecedence() {
+    FieldMap fieldMap = new FieldMap(QueryResult.newBuilder()
+        .addFields(Field.newBuilder().setName("a").setOrgName("b").setTable("t").build())
+        .addFields(Field.newBuilder().setName("b").setOrgName("a").setTable("u").build())
+        .addFields(Field.newBuilder().setName("t.b").build())
+        .build().getFieldsList());
+    Assert.assertEquals(Integer.valueOf(1), fieldMap.getIndex("A"));
+    // Labels win over original names and full names, even if they come later.
+    Assert.assertEquals(Integer.valueOf(2), fieldMap.getIndex("b"));
+    Assert.assertEquals(Integer.valueOf(3), fieldMap.getIndex("T.B"));
+    Assert.assertEquals(Integer.valueOf(2), fieldMap.getIndex("u.b"));
+    Assert.assertNull(fieldMap.getIndex("c"));
+    Assert.assertNull(fieldMap.getIndex(null));
+  }
+
+  @Test
+  public void testManyColumns() {
+    List<Field> fields = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      fields.add(Field.newBuilder().setName("col" + i).setTable("t").build());
+    }
+    FieldMap fieldMap = new FieldMap(fields);
+    for (int i = 0; i < 200; i++) {
+      Assert.assertEquals(Integer.valueOf(i + 1), fieldMap.getIndex("COL" + i));
+      Assert.assertEquals(Integer.valueOf(i + 1), fieldMap.getIndex("t.col" + i));
+    }
+    Assert.assertNull(new FieldMap(new ArrayList<Field>()).getIndex("col0"));
+  }
+
+  @Test
+  public void testShared() throws Exception {
+    QueryResult result = QueryResult.newBuilder()
+        .addFields(Field.newBuilder().setName("shared_col1").build())
+        .addRows(Query.Row.newBuilder().addLengths(1)
+            .setValues(ByteString.copyFromUtf8("1")))
+        .build();
+    try (Cursor first = new SimpleCursor(result);
+        Cursor second = new SimpleCursor(result.toBuilder().build())) {
+      Assert.assertSame(first.getFieldMap(), second.getFieldMap());
+      Assert.assertSame(first.getFieldMap(), first.next().getFieldMap());
+    }
+  }
+}
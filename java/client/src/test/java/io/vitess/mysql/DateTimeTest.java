@@ -17,13 +17,20 @@
 package io.vitess.mysql;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.ByteString;
 
 import java.sql.Date;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Map;
@@ -303,4 +310,60 @@ public class DateTimeTest {
       assertEquals(tsString, DateTime.formatTimestamp(ts, GMT));
     }
   }
+
+  @Test
+  public void testParseByteString() throws Exception {
+    assertEquals(Date.valueOf("2008-01-02"),
+        DateTime.parseDate(ByteString.copyFromUtf8("2008-01-02")));
+    assertEquals(new Date(1199232000000L),
+        DateTime.parseDate(ByteString.copyFromUtf8("2008-01-02"), GMT));
+    assertEquals(Timestamp.valueOf("2008-01-02 14:15:16.123456"),
+        DateTime.parseTimestamp(ByteString.copyFromUtf8("2008-01-02 14:15:16.123456")));
+    assertEquals(makeTimestamp(1199312116000L, 123000000),
+        DateTime.parseTimestamp(ByteString.copyFromUtf8("2008-01-02 14:15:16.123"), PST));
+  }
+
+  @Test
+  public void testParseZeroDate() throws Exception {
+    // Zero dates keep the lenient Calendar interpretation that SimpleDateFormat gave them.
+    Calendar expected = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+    expected.clear();
+    expected.set(0, -1, 0, 0, 0, 0);
+    assertEquals(new Date(expected.getTimeInMillis()), DateTime.parseDate("0000-00-00", GMT));
+    assertEquals(new Timestamp(expected.getTimeInMillis()),
+        DateTime.parseTimestamp("0000-00-00 00:00:00", GMT));
+
+    assertTrue(DateTime.isZeroDate(ByteString.copyFromUtf8("0000-00-00 00:00:00")));
+    assertFalse(DateTime.isZeroDate(ByteString.copyFromUtf8("2008-01-02")));
+    try {
+      DateTime.parseLocalDate(ByteString.copyFromUtf8("0000-00-00"));
+      fail("zero date can't be a LocalDate");
+    } catch (ParseException exc) {
+      assertEquals("Invalid MySQL DATE format: 0000-00-00", exc.getMessage());
+    }
+  }
+
+  @Test
+  public void testParseLocalDateTime() throws Exception {
+    assertEquals(LocalDate.of(2008, 1, 2),
+        DateTime.parseLocalDate(ByteString.copyFromUtf8("2008-01-02")));
+    assertEquals(LocalDateTime.of(2008, 1, 2, 14, 15, 16),
+        DateTime.parseLocalDateTime(ByteString.copyFromUtf8("2008-01-02 14:15:16")));
+    assertEquals(LocalDateTime.of(2008, 1, 2, 14, 15, 16, 120000000),
+        DateTime.parseLocalDateTime(ByteString.copyFromUtf8("2008-01-02 14:15:16.12")));
+  }
+
+  @Test
+  public void testParseInvalid() throws Exception {
+    String[] invalid = new String[]{"", "2008", "2008-01", "2008-01-02 14:15",
+        "2008-01-02 14:15:16.12x", "12345678901-01-02 00:00:00"};
+    for (String value : invalid) {
+      try {
+        DateTime.parseTimestamp(value, GMT);
+        fail("should have failed to parse " + value);
+      } catch (ParseException exc) {
+        assertEquals("Invalid MySQL TIMESTAMP format: " + value, exc.getMessage());
+      }
+    }
+  }
 }
@@ -47,6 +47,7 @@ import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.concurrent.Executor;
 
 import javax.net.ssl.SSLException;
 
@@ -60,6 +61,7 @@ public class GrpcClientFactory implements RpcClientFactory {
   private CallCredentials callCredentials;
   private LoadBalancer.Factory loadBalancerFactory;
   private NameResolver.Factory nameResolverFactory;
+  private Executor callbackExecutor;
 
   public GrpcClientFactory() {
     this(new DefaultChannelBuilderProvider(RetryingInterceptorConfig.noOpConfig()),
@@ -91,6 +93,15 @@ public class GrpcClientFactory implements RpcClientFactory {
     return this;
   }
 
+  /**
+   * Sets the executor that runs response callbacks, including any post-processing chained
+   * directly onto the returned futures. By default gRPC uses a shared cached thread pool.
+   */
+  public GrpcClientFactory setCallbackExecutor(Executor value) {
+    callbackExecutor = value;
+    return this;
+  }
+
   /**
    * Factory method to construct a gRPC client connection with no transport-layer security.
    *
@@ -125,11 +136,18 @@ public class GrpcClientFactory implements RpcClientFactory {
    * .withOption(EpollChannelOption.TCP_USER_TIMEOUT,30); }
    * </code>
    *
+   * <p>The event loop threads and the epoll transport can also be chosen without subclassing,
+   * through {@link DefaultChannelBuilderProvider}.</p>
+   *
    * @param target target is passed to NettyChannelBuilder which will resolve based on scheme,
    *     by default dns.
    */
   protected NettyChannelBuilder channelBuilder(String target) {
-    return nettyChannelBuilderProvider.getChannelBuilder(target);
+    NettyChannelBuilder builder = nettyChannelBuilderProvider.getChannelBuilder(target);
+    if (callbackExecutor != null) {
+      builder.executor(callbackExecutor);
+    }
+    return builder;
   }
 
   /**
@@ -16,6 +16,8 @@
 
 package io.vitess.client.grpc;
 
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import io.grpc.stub.StreamObserver;
 import io.vitess.client.StreamIterator;
 import io.vitess.client.grpc.error.ErrorHandler;
@@ -23,6 +25,9 @@ import io.vitess.client.grpc.error.ErrorHandler;
 import java.sql.SQLDataException;
 import java.sql.SQLException;
 import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A {@link StreamIterator} that returns results provided by a gRPC {@link StreamObserver}
@@ -37,13 +42,14 @@ import java.util.NoSuchElementException;
  *
  * <p>The {@code StreamObserver} side will block until the result has been returned to the consumer
  * by the {@code StreamIterator} side. Therefore, the {@link #close()} method must be called when
- * done, to unblock the {@code StreamObserver} side.
+ * done, to unblock the {@code StreamObserver} side. Closing the iterator before the end of the
+ * stream also cancels the call, so that the server stops sending results nobody reads.
  *
  * @param <V> The type of value sent through the {@link StreamObserver} interface.
  * @param <E> The type of value to return through the {@link StreamIterator} interface.
  */
-abstract class GrpcStreamAdapter<V, E> implements StreamObserver<V>, StreamIterator<E>,
-    AutoCloseable {
+abstract class GrpcStreamAdapter<V, E> implements ClientResponseObserver<Object, V>,
+    StreamIterator<E>, AutoCloseable {
 
   /**
    * getResult must be implemented to tell the adapter how to convert from the StreamObserver value
@@ -58,95 +64,136 @@ abstract class GrpcStreamAdapter<V, E> implements StreamObserver<V>, StreamItera
 
   abstract ErrorHandler getErrorHandler();
 
+  // An explicit lock rather than a monitor, so that threads waiting on the stream don't pin a
+  // carrier thread when they are virtual threads.
+  private final Lock lock = new ReentrantLock();
+  private final Condition valueConsumed = lock.newCondition();
+  private final Condition stateChanged = lock.newCondition();
+
+  private ClientCallStreamObserver<?> call;
   private E nextValue;
   private Throwable error;
   private boolean completed = false;
   private boolean closed = false;
 
+  @Override
+  public void beforeStart(ClientCallStreamObserver<Object> requestStream) {
+    lock.lock();
+    try {
+      call = requestStream;
+    } finally {
+      lock.unlock();
+    }
+  }
+
   @Override
   public void onNext(V value) {
-    synchronized (this) {
-      try {
-        // Wait until the previous value has been consumed.
-        while (nextValue != null) {
-          // If there's been an error, or the iterator was closed, drain the rest of the stream
-          // without blocking.
-          if (closed || error != null) {
-            return;
-          }
-
-          wait();
+    lock.lock();
+    try {
+      // Wait until the previous value has been consumed.
+      while (nextValue != null) {
+        // If there's been an error, or the iterator was closed, drain the rest of the stream
+        // without blocking.
+        if (closed || error != null) {
+          return;
         }
 
-        nextValue = getResult(value);
-        notifyAll();
-      } catch (InterruptedException exc) {
-        onError(exc);
-      } catch (SQLException exc) {
-        onError(exc);
+        valueConsumed.await();
       }
+
+      nextValue = getResult(value);
+      stateChanged.signalAll();
+    } catch (InterruptedException exc) {
+      onError(exc);
+    } catch (SQLException exc) {
+      onError(exc);
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public void onCompleted() {
-    synchronized (this) {
+    lock.lock();
+    try {
       completed = true;
-      notifyAll();
+      stateChanged.signalAll();
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public void onError(Throwable error) {
-    synchronized (this) {
+    lock.lock();
+    try {
       this.error = error;
-      notifyAll();
+      stateChanged.signalAll();
+      valueConsumed.signalAll();
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public boolean hasNext() throws SQLException {
-    synchronized (this) {
-      try {
-        // Wait for a new value to show up.
-        while (nextValue == null) {
-          if (completed) {
-            return false;
-          }
-          if (error != null) {
-            // We got an error from the gRPC layer.
-            throw getErrorHandler().convertGrpcError(error);
-          }
-
-          wait();
+    lock.lock();
+    try {
+      // Wait for a new value to show up.
+      while (nextValue == null) {
+        if (completed) {
+          return false;
+        }
+        if (error != null) {
+          // We got an error from the gRPC layer.
+          throw getErrorHandler().convertGrpcError(error);
         }
 
-        return true;
-      } catch (InterruptedException exc) {
-        onError(exc);
-        throw new SQLDataException("gRPC StreamIterator interrupted while waiting for value", exc);
+        stateChanged.await();
       }
+
+      return true;
+    } catch (InterruptedException exc) {
+      onError(exc);
+      throw new SQLDataException("gRPC StreamIterator interrupted while waiting for value", exc);
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public E next() throws NoSuchElementException, SQLException {
-    synchronized (this) {
+    lock.lock();
+    try {
       if (hasNext()) {
         E value = nextValue;
         nextValue = null;
-        notifyAll();
+        valueConsumed.signalAll();
         return value;
       } else {
         throw new NoSuchElementException("stream completed");
       }
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public void close() throws Exception {
-    synchronized (this) {
+    ClientCallStreamObserver<?> toCancel = null;
+    lock.lock();
+    try {
+      if (!closed && !completed && error == null) {
+        toCancel = call;
+      }
       closed = true;
+      valueConsumed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    // Outside of the lock, as cancelling calls onError().
+    if (toCancel != null) {
+      toCancel.cancel("stream closed by the client", null);
     }
   }
 }
@@ -2,27 +2,81 @@ package io.vitess.client.grpc.netty;
 
 import io.grpc.netty.NettyChannelBuilder;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import io.vitess.client.grpc.RetryingInterceptor;
 import io.vitess.client.grpc.RetryingInterceptorConfig;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
 public class DefaultChannelBuilderProvider implements NettyChannelBuilderProvider {
-  private static final EventLoopGroup ELG = new NioEventLoopGroup(
-      6,
-      new DefaultThreadFactory("vitess-netty", true)
-  );
+  public static final int DEFAULT_EVENT_LOOP_THREADS = 6;
+  public static final String DEFAULT_EVENT_LOOP_NAME = "vitess-netty";
+  private static final ConcurrentMap<String, EventLoopGroup> ELGS = new ConcurrentHashMap<>();
+  private static final Lock ELGS_LOCK = new ReentrantLock();
 
   private final RetryingInterceptorConfig config;
+  private final NettyTransport transport;
+  private final EventLoopGroup eventLoopGroup;
 
   public DefaultChannelBuilderProvider(RetryingInterceptorConfig config) {
+    this(config, DEFAULT_EVENT_LOOP_NAME);
+  }
+
+  /**
+   * Creates a provider whose channels use the event loop threads shared by all providers with the
+   * same {@code eventLoopName}. Separate names keep the I/O of different kinds of traffic, like
+   * long streams and short calls, on separate threads.
+   */
+  public DefaultChannelBuilderProvider(RetryingInterceptorConfig config, String eventLoopName) {
+    this(config, eventLoopName, DEFAULT_EVENT_LOOP_THREADS, NettyTransport.NIO);
+  }
+
+  /**
+   * Creates a provider whose channels use the given transport and event loop threads. Event loop
+   * groups are shared by all providers with the same name, number of threads and transport.
+   *
+   * @param eventLoopThreads number of event loop threads, or 0 for Netty's default of twice
+   *     the number of available processors
+   * @throws IllegalStateException if the transport isn't available
+   */
+  public DefaultChannelBuilderProvider(RetryingInterceptorConfig config, String eventLoopName,
+      int eventLoopThreads, NettyTransport transport) {
+    if (eventLoopThreads < 0) {
+      throw new IllegalArgumentException("eventLoopThreads must not be negative: "
+          + eventLoopThreads);
+    }
     this.config = config;
+    this.transport = transport.resolve();
+    this.eventLoopGroup = getEventLoopGroup(eventLoopName, eventLoopThreads, this.transport);
+  }
+
+  private static EventLoopGroup getEventLoopGroup(String name, int threads,
+      NettyTransport transport) {
+    String key = name + '/' + threads + '/' + transport;
+    EventLoopGroup group = ELGS.get(key);
+    if (group == null) {
+      ELGS_LOCK.lock();
+      try {
+        group = ELGS.get(key);
+        if (group == null) {
+          group = transport.newEventLoopGroup(threads, new DefaultThreadFactory(name, true));
+          ELGS.put(key, group);
+        }
+      } finally {
+        ELGS_LOCK.unlock();
+      }
+    }
+    return group;
   }
 
   @Override
   public NettyChannelBuilder getChannelBuilder(String target) {
     return NettyChannelBuilder.forTarget(target)
-        .eventLoopGroup(ELG)
+        .eventLoopGroup(eventLoopGroup)
+        .channelType(transport.getChannelType())
         .maxInboundMessageSize(16777216)
         .intercept(new RetryingInterceptor(config));
   }
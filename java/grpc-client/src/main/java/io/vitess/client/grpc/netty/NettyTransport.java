@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client.grpc.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The Netty transports {@link DefaultChannelBuilderProvider} can create channels with.
+ */
+public enum NettyTransport {
+  /**
+   * Java NIO, available everywhere.
+   */
+  NIO,
+  /**
+   * Linux native epoll. Requires {@code io.netty:netty-transport-native-epoll} on the classpath.
+   */
+  EPOLL,
+  /**
+   * {@link #EPOLL} if it's available, {@link #NIO} otherwise.
+   */
+  AUTO;
+
+  private static final String EPOLL_CLASS = "io.netty.channel.epoll.Epoll";
+  private static final String EPOLL_EVENT_LOOP_GROUP_CLASS =
+      "io.netty.channel.epoll.EpollEventLoopGroup";
+  private static final String EPOLL_SOCKET_CHANNEL_CLASS =
+      "io.netty.channel.epoll.EpollSocketChannel";
+
+  /**
+   * Returns the transport that will actually be used, resolving {@link #AUTO}.
+   */
+  public NettyTransport resolve() {
+    if (this == AUTO) {
+      return isEpollAvailable() ? EPOLL : NIO;
+    }
+    return this;
+  }
+
+  /**
+   * Creates an event loop group for this transport.
+   *
+   * @param threads number of threads, or 0 for Netty's default
+   * @throws IllegalStateException if the transport isn't available
+   */
+  EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory) {
+    if (resolve() == NIO) {
+      return new NioEventLoopGroup(threads, threadFactory);
+    }
+    checkEpollAvailable();
+    try {
+      return (EventLoopGroup) Class.forName(EPOLL_EVENT_LOOP_GROUP_CLASS)
+          .getConstructor(int.class, ThreadFactory.class).newInstance(threads, threadFactory);
+    } catch (ClassNotFoundException | NoSuchMethodException | InstantiationException
+        | IllegalAccessException | InvocationTargetException exc) {
+      throw new IllegalStateException("Could not create epoll event loop group", exc);
+    }
+  }
+
+  /**
+   * Returns the channel type matching the event loop groups of this transport.
+   */
+  Class<? extends Channel> getChannelType() {
+    if (resolve() == NIO) {
+      return NioSocketChannel.class;
+    }
+    checkEpollAvailable();
+    try {
+      return Class.forName(EPOLL_SOCKET_CHANNEL_CLASS).asSubclass(Channel.class);
+    } catch (ClassNotFoundException exc) {
+      throw new IllegalStateException("Could not load epoll socket channel", exc);
+    }
+  }
+
+  private static void checkEpollAvailable() {
+    if (!isEpollAvailable()) {
+      throw new IllegalStateException("The epoll transport isn't available. It requires Linux and "
+          + "io.netty:netty-transport-native-epoll on the classpath.");
+    }
+  }
+
+  private static boolean isEpollAvailable() {
+    try {
+      return (Boolean) Class.forName(EPOLL_CLASS).getMethod("isAvailable").invoke(null);
+    } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException
+        | InvocationTargetException | LinkageError exc) {
+      return false;
+    }
+  }
+}
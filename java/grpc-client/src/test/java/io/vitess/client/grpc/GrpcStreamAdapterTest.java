@@ -0,0 +1,178 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client.grpc;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.vitess.client.grpc.error.DefaultErrorHandler;
+import io.vitess.client.grpc.error.ErrorHandler;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GrpcStreamAdapterTest {
+
+  private static class IntegerStreamAdapter extends GrpcStreamAdapter<Integer, Integer> {
+
+    @Override
+    Integer getResult(Integer value) {
+      return value;
+    }
+
+    @Override
+    ErrorHandler getErrorHandler() {
+      return new DefaultErrorHandler();
+    }
+  }
+
+  private static Thread produce(final IntegerStreamAdapter adapter, final int count) {
+    Thread producer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        for (int i = 0; i < count; i++) {
+          adapter.onNext(i);
+        }
+        adapter.onCompleted();
+      }
+    });
+    producer.start();
+    return producer;
+  }
+
+  @Test
+  public void testValuesAreHandedOver() throws Exception {
+    IntegerStreamAdapter adapter = new IntegerStreamAdapter();
+    Thread producer = produce(adapter, 1000);
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertTrue(adapter.hasNext());
+      Assert.assertEquals(Integer.valueOf(i), adapter.next());
+    }
+    Assert.assertFalse(adapter.hasNext());
+    producer.join(TimeUnit.SECONDS.toMillis(10));
+    Assert.assertFalse(producer.isAlive());
+  }
+
+  @Test
+  public void testCloseUnblocksProducer() throws Exception {
+    IntegerStreamAdapter adapter = new IntegerStreamAdapter();
+    Thread producer = produce(adapter, 1000);
+    Assert.assertEquals(Integer.valueOf(0), adapter.next());
+    adapter.close();
+    producer.join(TimeUnit.SECONDS.toMillis(10));
+    Assert.assertFalse(producer.isAlive());
+  }
+
+  @Test
+  public void testCloseCancelsCall() throws Exception {
+    final AtomicReference<String> cancelled = new AtomicReference<>();
+    IntegerStreamAdapter adapter = new IntegerStreamAdapter();
+    adapter.beforeStart(new ClientCallStreamObserver<Object>() {
+      @Override
+      public void cancel(String message, Throwable cause) {
+        cancelled.set(message);
+      }
+
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setOnReadyHandler(Runnable onReadyHandler) {
+      }
+
+      @Override
+      public void disableAutoInboundFlowControl() {
+      }
+
+      @Override
+      public void request(int count) {
+      }
+
+      @Override
+      public void setMessageCompression(boolean enable) {
+      }
+
+      @Override
+      public void onNext(Object value) {
+      }
+
+      @Override
+      public void onError(Throwable error) {
+      }
+
+      @Override
+      public void onCompleted() {
+      }
+    });
+    adapter.onNext(1);
+    adapter.close();
+    Assert.assertEquals("stream closed by the client", cancelled.get());
+
+    // A completed stream has nothing left to cancel.
+    cancelled.set(null);
+    adapter = new IntegerStreamAdapter();
+    adapter.onCompleted();
+    adapter.close();
+    Assert.assertNull(cancelled.get());
+  }
+
+  @Test(expected = SQLException.class)
+  public void testErrorIsThrown() throws Exception {
+    IntegerStreamAdapter adapter = new IntegerStreamAdapter();
+    adapter.onNext(1);
+    adapter.onError(new IllegalStateException("stream failed"));
+    Assert.assertEquals(Integer.valueOf(1), adapter.next());
+    adapter.hasNext();
+  }
+
+  @Test
+  public void testConcurrentStreams() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(64);
+    try {
+      List<Future<Integer>> sums = new ArrayList<>();
+      for (int i = 0; i < 1000; i++) {
+        sums.add(executor.submit(new Callable<Integer>() {
+          @Override
+          public Integer call() throws Exception {
+            IntegerStreamAdapter adapter = new IntegerStreamAdapter();
+            produce(adapter, 10);
+            int sum = 0;
+            while (adapter.hasNext()) {
+              sum += adapter.next();
+            }
+            return sum;
+          }
+        }));
+      }
+      for (Future<Integer> sum : sums) {
+        Assert.assertEquals(Integer.valueOf(45), sum.get(30, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
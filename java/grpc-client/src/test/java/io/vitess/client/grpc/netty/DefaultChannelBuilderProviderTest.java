@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.client.grpc.netty;
+
+import io.grpc.ManagedChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.vitess.client.grpc.RetryingInterceptorConfig;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DefaultChannelBuilderProviderTest {
+
+  @Test
+  public void testNioTransport() {
+    Assert.assertEquals(NettyTransport.NIO, NettyTransport.NIO.resolve());
+    Assert.assertEquals(NioSocketChannel.class, NettyTransport.NIO.getChannelType());
+
+    DefaultChannelBuilderProvider provider = new DefaultChannelBuilderProvider(
+        RetryingInterceptorConfig.noOpConfig(), "vitess-netty-test", 2, NettyTransport.NIO);
+    ManagedChannel channel = provider.getChannelBuilder("localhost:1").build();
+    channel.shutdownNow();
+  }
+
+  @Test
+  public void testAutoFallsBackToNio() {
+    // netty-transport-native-epoll isn't a dependency, so it's never available in tests.
+    Assert.assertEquals(NettyTransport.NIO, NettyTransport.AUTO.resolve());
+    new DefaultChannelBuilderProvider(RetryingInterceptorConfig.noOpConfig(), "vitess-netty-test",
+        0, NettyTransport.AUTO);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testEpollUnavailable() {
+    new DefaultChannelBuilderProvider(RetryingInterceptorConfig.noOpConfig(), "vitess-netty-test",
+        2, NettyTransport.EPOLL);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeThreads() {
+    new DefaultChannelBuilderProvider(RetryingInterceptorConfig.noOpConfig(), "vitess-netty-test",
+        -1, NettyTransport.NIO);
+  }
+}
@@ -16,28 +16,105 @@
 
 package io.vitess.hadoop;
 
-import com.google.common.collect.Lists;
-import com.google.common.io.BaseEncoding;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.gson.Gson;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnsafeByteOperations;
 
+import io.vitess.client.cursor.FieldMap;
 import io.vitess.client.cursor.Row;
 import io.vitess.proto.Query;
 import io.vitess.proto.Query.Field;
+import io.vitess.proto.Query.QueryResult;
 
-import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.io.WritableUtils;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
-public class RowWritable implements Writable {
+/**
+ * A {@link Row} as a Hadoop {@link WritableComparable}.
+ *
+ * <p>A row is written in a compact binary form, with Hadoop variable-length integers:
+ * <ul>
+ * <li>The length of the schema, then the schema as a {@link QueryResult} proto with only fields.
+ * <li>The number of columns, then the length of each value, or -1 for {@code NULL}.
+ * <li>The values, as in the packed {@link Query.Row} proto.
+ * </ul>
+ *
+ * <p>Every record carries its schema. Hadoop writes and reads each {@code Writable} on its own,
+ * without any per-split or per-task context to hold the schema once, so the schema bytes are
+ * repeated in every shuffled or stored record. Only the encoding and decoding are shared: rows
+ * sharing a {@link FieldMap} reuse its serialized form, and rows with the same schema bytes share
+ * one {@link FieldMap}, so a schema is encoded and decoded once per process.
+ *
+ * <p>Rows sort column by column, with {@code NULL} first: numeric columns by value, and others by
+ * their bytes. The registered {@link Comparator} sorts serialized rows without deserializing them.
+ * {@link #equals} and {@link #hashCode} follow the same order, so a {@code DECIMAL} 1.0 equals
+ * 1.00. Values are compared with the column types of the first row, so only rows with the same
+ * schema should be compared.
+ */
+public class RowWritable implements WritableComparable<RowWritable> {
+
+  private static final int SCHEMA_CACHE_SIZE = 1000;
+
+  /**
+   * Serialized schemas of the rows written by this process.
+   */
+  private static final Cache<FieldMap, Schema> SCHEMAS_BY_FIELD_MAP = CacheBuilder.newBuilder()
+      .weakKeys().maximumSize(SCHEMA_CACHE_SIZE).build();
+
+  /**
+   * Schemas of the rows read by this process, by the hash of their bytes.
+   */
+  private static final Cache<Integer, Schema> SCHEMAS_BY_HASH = CacheBuilder.newBuilder()
+      .maximumSize(SCHEMA_CACHE_SIZE).build();
+
+  static {
+    WritableComparator.define(RowWritable.class, new Comparator());
+  }
 
   private Row row;
 
+  /**
+   * A schema with its serialized form and column types.
+   */
+  private static final class Schema {
+
+    private final byte[] bytes;
+    private final FieldMap fieldMap;
+    private final Query.Type[] types;
+
+    private Schema(byte[] bytes, FieldMap fieldMap) {
+      this.bytes = bytes;
+      this.fieldMap = fieldMap;
+      List<Field> fields = fieldMap.getList();
+      this.types = new Query.Type[fields.size()];
+      for (int i = 0; i < types.length; i++) {
+        types[i] = fields.get(i).getType();
+      }
+    }
+
+    private boolean matches(byte[] buffer, int start, int length) {
+      return WritableComparator.compareBytes(bytes, 0, bytes.length, buffer, start, length) == 0;
+    }
+  }
+
   public RowWritable() {
   }
 
@@ -49,24 +126,302 @@ public class RowWritable implements Writable {
     return row;
   }
 
+  /**
+   * Replaces the row, so that a record reader can reuse one instance for all its rows.
+   */
+  public void set(Row row) {
+    this.row = row;
+  }
+
   @Override
   public void write(DataOutput out) throws IOException {
-    out.writeInt(row.getFields().size());
-    for (Field field : row.getFields()) {
-      out.writeUTF(BaseEncoding.base64().encode(field.toByteArray()));
+    byte[] schema = schemaOf(row.getFieldMap()).bytes;
+    WritableUtils.writeVInt(out, schema.length);
+    out.write(schema);
+
+    Query.Row rowProto = row.getRowProto();
+    WritableUtils.writeVInt(out, rowProto.getLengthsCount());
+    for (long length : rowProto.getLengthsList()) {
+      WritableUtils.writeVLong(out, length);
+    }
+    if (out instanceof OutputStream) {
+      rowProto.getValues().writeTo((OutputStream) out);
+    } else {
+      out.write(rowProto.getValues().toByteArray());
     }
-    out.writeUTF(BaseEncoding.base64().encode(row.getRowProto().toByteArray()));
   }
 
   @Override
   public void readFields(DataInput in) throws IOException {
-    int numFields = in.readInt();
-    List<Field> fields = Lists.newArrayListWithCapacity(numFields);
-    for (int i = 0; i < numFields; i++) {
-      fields.add(Field.parseFrom(BaseEncoding.base64().decode(in.readUTF())));
+    byte[] schemaBytes = new byte[WritableUtils.readVInt(in)];
+    in.readFully(schemaBytes);
+    Schema schema = schemaOf(schemaBytes, 0, schemaBytes.length);
+
+    int numColumns = WritableUtils.readVInt(in);
+    List<Long> lengths = new ArrayList<>(numColumns);
+    int valuesLength = 0;
+    for (int i = 0; i < numColumns; i++) {
+      long length = WritableUtils.readVLong(in);
+      lengths.add(length);
+      valuesLength += Math.max(length, 0);
+    }
+    byte[] values = new byte[valuesLength];
+    in.readFully(values);
+    row = new Row(schema.fieldMap, Query.Row.newBuilder().addAllLengths(lengths)
+        .setValues(UnsafeByteOperations.unsafeWrap(values)).build());
+  }
+
+  @Override
+  public int compareTo(RowWritable other) {
+    Query.Type[] types = schemaOf(row.getFieldMap()).types;
+    Query.Row left = row.getRowProto();
+    Query.Row right = other.row.getRowProto();
+    byte[] leftValues = left.getValues().toByteArray();
+    byte[] rightValues = right.getValues().toByteArray();
+    int leftOffset = 0;
+    int rightOffset = 0;
+    int numColumns = Math.min(left.getLengthsCount(), right.getLengthsCount());
+    for (int i = 0; i < numColumns; i++) {
+      int leftLength = (int) left.getLengths(i);
+      int rightLength = (int) right.getLengths(i);
+      int result = compareValues(i < types.length ? types[i] : Query.Type.VARBINARY, leftValues,
+          leftOffset, leftLength, rightValues, rightOffset, rightLength);
+      if (result != 0) {
+        return result;
+      }
+      leftOffset += Math.max(leftLength, 0);
+      rightOffset += Math.max(rightLength, 0);
+    }
+    return Integer.compare(left.getLengthsCount(), right.getLengthsCount());
+  }
+
+  /**
+   * Returns whether {@code other} is a row which {@link #compareTo compares} equal to this one.
+   */
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof RowWritable && compareTo((RowWritable) other) == 0;
+  }
+
+  /**
+   * Returns a hash of the values as {@link #compareTo} sees them, which is the same in every
+   * process, unlike the hash of a proto.
+   */
+  @Override
+  public int hashCode() {
+    Query.Type[] types = schemaOf(row.getFieldMap()).types;
+    Query.Row rowProto = row.getRowProto();
+    byte[] values = rowProto.getValues().toByteArray();
+    int hash = rowProto.getLengthsCount();
+    int offset = 0;
+    for (int i = 0; i < rowProto.getLengthsCount(); i++) {
+      int length = (int) rowProto.getLengths(i);
+      hash = 31 * hash
+          + hashValue(i < types.length ? types[i] : Query.Type.VARBINARY, values, offset, length);
+      offset += Math.max(length, 0);
+    }
+    return hash;
+  }
+
+  /**
+   * Compares serialized {@link RowWritable}s without deserializing them.
+   */
+  public static class Comparator extends WritableComparator {
+
+    public Comparator() {
+      super(RowWritable.class);
+    }
+
+    @Override
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      try {
+        // Skip the schemas, using the types of the first one.
+        int schemaLength = readVInt(b1, s1);
+        int schemaStart = s1 + WritableUtils.decodeVIntSize(b1[s1]);
+        Query.Type[] types = schemaOf(b1, schemaStart, schemaLength).types;
+        int p1 = schemaStart + schemaLength;
+        int p2 = s2 + WritableUtils.decodeVIntSize(b2[s2]) + readVInt(b2, s2);
+
+        int numColumns1 = readVInt(b1, p1);
+        int numColumns2 = readVInt(b2, p2);
+        p1 += WritableUtils.decodeVIntSize(b1[p1]);
+        p2 += WritableUtils.decodeVIntSize(b2[p2]);
+        int values1 = skipLengths(b1, p1, numColumns1);
+        int values2 = skipLengths(b2, p2, numColumns2);
+
+        int numColumns = Math.min(numColumns1, numColumns2);
+        for (int i = 0; i < numColumns; i++) {
+          int length1 = (int) readVLong(b1, p1);
+          int length2 = (int) readVLong(b2, p2);
+          p1 += WritableUtils.decodeVIntSize(b1[p1]);
+          p2 += WritableUtils.decodeVIntSize(b2[p2]);
+          int result = compareValues(i < types.length ? types[i] : Query.Type.VARBINARY, b1,
+              values1, length1, b2, values2, length2);
+          if (result != 0) {
+            return result;
+          }
+          values1 += Math.max(length1, 0);
+          values2 += Math.max(length2, 0);
+        }
+        return Integer.compare(numColumns1, numColumns2);
+      } catch (IOException exc) {
+        throw new IllegalArgumentException("invalid serialized RowWritable", exc);
+      }
+    }
+
+    private static int skipLengths(byte[] bytes, int start, int numColumns) {
+      int position = start;
+      for (int i = 0; i < numColumns; i++) {
+        position += WritableUtils.decodeVIntSize(bytes[position]);
+      }
+      return position;
+    }
+  }
+
+  /**
+   * Compares two values of a column, {@code NULL} (a negative length) first.
+   */
+  private static int compareValues(Query.Type type, byte[] b1, int s1, int l1, byte[] b2, int s2,
+      int l2) {
+    if (l1 < 0 || l2 < 0) {
+      return l1 < 0 ? (l2 < 0 ? 0 : -1) : 1;
+    }
+    switch (type) {
+      case INT8:
+      case INT16:
+      case INT24:
+      case INT32:
+      case INT64:
+      case YEAR:
+        Long signed1 = parseLong(b1, s1, l1);
+        Long signed2 = parseLong(b2, s2, l2);
+        if (signed1 != null && signed2 != null) {
+          return Long.compare(signed1, signed2);
+        }
+        break;
+      case UINT8:
+      case UINT16:
+      case UINT24:
+      case UINT32:
+      case UINT64:
+        Long unsigned1 = parseLong(b1, s1, l1);
+        Long unsigned2 = parseLong(b2, s2, l2);
+        if (unsigned1 != null && unsigned2 != null) {
+          return Long.compareUnsigned(unsigned1, unsigned2);
+        }
+        break;
+      case FLOAT32:
+      case FLOAT64:
+      case DECIMAL:
+        try {
+          return new BigDecimal(new String(b1, s1, l1, StandardCharsets.US_ASCII))
+              .compareTo(new BigDecimal(new String(b2, s2, l2, StandardCharsets.US_ASCII)));
+        } catch (NumberFormatException exc) {
+          // Compare the bytes, like for values that aren't numbers.
+        }
+        break;
+      default:
+        break;
+    }
+    return WritableComparator.compareBytes(b1, s1, l1, b2, s2, l2);
+  }
+
+  /**
+   * Hashes a value of a column so that values which {@link #compareValues compare} equal have the
+   * same hash: numbers by their value, and others by their bytes.
+   */
+  private static int hashValue(Query.Type type, byte[] bytes, int start, int length) {
+    if (length < 0) {
+      return 0;
+    }
+    switch (type) {
+      case INT8:
+      case INT16:
+      case INT24:
+      case INT32:
+      case INT64:
+      case YEAR:
+      case UINT8:
+      case UINT16:
+      case UINT24:
+      case UINT32:
+      case UINT64:
+        Long value = parseLong(bytes, start, length);
+        if (value != null) {
+          return Long.hashCode(value);
+        }
+        break;
+      case FLOAT32:
+      case FLOAT64:
+      case DECIMAL:
+        try {
+          return new BigDecimal(new String(bytes, start, length, StandardCharsets.US_ASCII))
+              .stripTrailingZeros().hashCode();
+        } catch (NumberFormatException exc) {
+          // Hash the bytes, like for values that aren't numbers.
+        }
+        break;
+      default:
+        break;
+    }
+    return WritableComparator.hashBytes(bytes, start, length);
+  }
+
+  /**
+   * Parses a decimal integer from ASCII bytes, or returns {@code null} if it isn't one. Unsigned
+   * 64-bit values wrap around into their two's complement.
+   */
+  private static Long parseLong(byte[] bytes, int start, int length) {
+    int index = start;
+    int end = start + length;
+    boolean negative = length > 0 && bytes[index] == '-';
+    if (negative) {
+      index++;
+    }
+    if (index == end) {
+      return null;
+    }
+    long value = 0;
+    for (; index < end; index++) {
+      int digit = bytes[index] - '0';
+      if (digit < 0 || digit > 9) {
+        return null;
+      }
+      value = value * 10 + digit;
+    }
+    return negative ? -value : value;
+  }
+
+  private static Schema schemaOf(final FieldMap fieldMap) {
+    try {
+      return SCHEMAS_BY_FIELD_MAP.get(fieldMap, new Callable<Schema>() {
+        @Override
+        public Schema call() {
+          byte[] bytes = QueryResult.newBuilder().addAllFields(fieldMap.getList()).build()
+              .toByteArray();
+          return new Schema(bytes, fieldMap);
+        }
+      });
+    } catch (ExecutionException exc) {
+      throw new IllegalStateException(exc.getCause());
+    }
+  }
+
+  private static Schema schemaOf(byte[] buffer, int start, int length) throws IOException {
+    int hash = WritableComparator.hashBytes(buffer, start, length);
+    Schema schema = SCHEMAS_BY_HASH.getIfPresent(hash);
+    if (schema != null && schema.matches(buffer, start, length)) {
+      return schema;
+    }
+    byte[] bytes = Arrays.copyOfRange(buffer, start, start + length);
+    try {
+      List<Field> fields = QueryResult.parseFrom(bytes).getFieldsList();
+      schema = new Schema(bytes, FieldMap.of(fields));
+    } catch (InvalidProtocolBufferException exc) {
+      throw new IOException("invalid RowWritable schema", exc);
     }
-    Query.Row rowProto = Query.Row.parseFrom(BaseEncoding.base64().decode(in.readUTF()));
-    row = new Row(fields, rowProto);
+    SCHEMAS_BY_HASH.put(hash, schema);
+    return schema;
   }
 
   @Override
@@ -16,6 +16,7 @@
 
 package io.vitess.hadoop;
 
+import io.vitess.client.BulkLoader;
 import io.vitess.client.RpcClientFactory;
 import io.vitess.proto.Query;
 import io.vitess.proto.Query.SplitQueryRequest;
@@ -25,7 +26,8 @@ import org.apache.hadoop.conf.Configuration;
 import java.util.Collection;
 
 /**
- * Collection of configuration properties used for {@link VitessInputFormat}
+ * Collection of configuration properties used for {@link VitessInputFormat} and {@link
+ * VitessOutputFormat}
  */
 public class VitessConf {
 
@@ -39,6 +41,16 @@ public class VitessConf {
   public static final String ALGORITHM = "vitess.client.algorithm";
   public static final String RPC_FACTORY_CLASS = "vitess.client.factory";
   public static final String INCLUDED_FIELDS = "vitess.client.included.fields";
+  public static final String PREFETCH_RESULTS = "vitess.client.prefetch_results";
+  public static final String OUTPUT_KEYSPACE = "vitess.client.output_keyspace";
+  public static final String OUTPUT_TABLE = "vitess.client.output_table";
+  public static final String OUTPUT_COLUMNS = "vitess.client.output_columns";
+  public static final String OUTPUT_KEYSPACE_ID_COLUMN =
+      "vitess.client.output_keyspace_id_column";
+  public static final String OUTPUT_ROWS_PER_INSERT = "vitess.client.output_rows_per_insert";
+  public static final String OUTPUT_INSERTS_PER_BATCH = "vitess.client.output_inserts_per_batch";
+  public static final String OUTPUT_MAX_IN_FLIGHT_BATCHES =
+      "vitess.client.output_max_in_flight_batches";
   public static final String HOSTS_DELIM = ",";
 
   private Configuration conf;
@@ -126,4 +138,75 @@ public class VitessConf {
   public void setIncludedFields(Query.ExecuteOptions.IncludedFields includedFields) {
     conf.setEnum(INCLUDED_FIELDS, includedFields);
   }
+
+  /**
+   * Returns how many streamed results {@link VitessRecordReader} fetches ahead of the map task.
+   */
+  public int getPrefetchResults() {
+    return conf.getInt(PREFETCH_RESULTS, 4);
+  }
+
+  public void setPrefetchResults(int prefetchResults) {
+    conf.setInt(PREFETCH_RESULTS, prefetchResults);
+  }
+
+  public String getOutputKeyspace() {
+    return conf.get(OUTPUT_KEYSPACE);
+  }
+
+  public void setOutputKeyspace(String keyspace) {
+    conf.set(OUTPUT_KEYSPACE, keyspace);
+  }
+
+  public String getOutputTable() {
+    return conf.get(OUTPUT_TABLE);
+  }
+
+  public void setOutputTable(String table) {
+    conf.set(OUTPUT_TABLE, table);
+  }
+
+  public Collection<String> getOutputColumns() {
+    return conf.getStringCollection(OUTPUT_COLUMNS);
+  }
+
+  public void setOutputColumns(Collection<String> columns) {
+    conf.setStrings(OUTPUT_COLUMNS, columns.toArray(new String[0]));
+  }
+
+  /**
+   * Returns the output column whose value is hashed into the keyspace id of a row, or {@code null}
+   * if the output keyspace isn't sharded.
+   */
+  public String getOutputKeyspaceIdColumn() {
+    return conf.get(OUTPUT_KEYSPACE_ID_COLUMN);
+  }
+
+  public void setOutputKeyspaceIdColumn(String column) {
+    conf.set(OUTPUT_KEYSPACE_ID_COLUMN, column);
+  }
+
+  public int getOutputRowsPerInsert() {
+    return conf.getInt(OUTPUT_ROWS_PER_INSERT, BulkLoader.DEFAULT_ROWS_PER_INSERT);
+  }
+
+  public void setOutputRowsPerInsert(int rowsPerInsert) {
+    conf.setInt(OUTPUT_ROWS_PER_INSERT, rowsPerInsert);
+  }
+
+  public int getOutputInsertsPerBatch() {
+    return conf.getInt(OUTPUT_INSERTS_PER_BATCH, BulkLoader.DEFAULT_INSERTS_PER_BATCH);
+  }
+
+  public void setOutputInsertsPerBatch(int insertsPerBatch) {
+    conf.setInt(OUTPUT_INSERTS_PER_BATCH, insertsPerBatch);
+  }
+
+  public int getOutputMaxInFlightBatches() {
+    return conf.getInt(OUTPUT_MAX_IN_FLIGHT_BATCHES, BulkLoader.DEFAULT_MAX_IN_FLIGHT_BATCHES);
+  }
+
+  public void setOutputMaxInFlightBatches(int maxInFlightBatches) {
+    conf.setInt(OUTPUT_MAX_IN_FLIGHT_BATCHES, maxInFlightBatches);
+  }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.hadoop;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.vitess.client.RpcClientFactory;
+
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.OutputCommitter;
+import org.apache.hadoop.mapreduce.OutputFormat;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * {@link VitessOutputFormat} is the {@link OutputFormat} for tables in Vitess. Keys are ignored,
+ * and each value is inserted as a row by a {@link VitessRecordWriter}: either a {@link
+ * RowWritable}, whose output columns are looked up by name, or an {@link
+ * org.apache.hadoop.io.ArrayWritable ArrayWritable} with a value for each output column.
+ *
+ * <p>Rows are committed batch by batch while the task runs, so there is nothing left to commit
+ * when it finishes, and rows written by a failed task attempt are not rolled back. Jobs which
+ * may be retried should write rows idempotently, for example with a unique key.
+ */
+public class VitessOutputFormat<K> extends OutputFormat<K, Writable> {
+
+  @Override
+  public RecordWriter<K, Writable> getRecordWriter(TaskAttemptContext context)
+      throws IOException, InterruptedException {
+    return new VitessRecordWriter<>(new VitessConf(context.getConfiguration()));
+  }
+
+  @Override
+  public void checkOutputSpecs(JobContext context) throws IOException, InterruptedException {
+    VitessConf conf = new VitessConf(context.getConfiguration());
+    if (conf.getHosts() == null || conf.getRpcFactoryClass() == null) {
+      throw new IOException("VTGate hosts and RPC factory class must be set");
+    }
+    if (conf.getOutputKeyspace() == null || conf.getOutputTable() == null) {
+      throw new IOException("output keyspace and table must be set");
+    }
+    Collection<String> columns = conf.getOutputColumns();
+    if (columns.isEmpty()) {
+      throw new IOException("output columns must be set");
+    }
+    String keyspaceIdColumn = conf.getOutputKeyspaceIdColumn();
+    if (keyspaceIdColumn != null && !columns.contains(keyspaceIdColumn)) {
+      throw new IOException("keyspace id column " + keyspaceIdColumn
+          + " is not one of the output columns " + columns);
+    }
+  }
+
+  /**
+   * Returns a committer which does nothing, since rows are committed as they are written.
+   */
+  @Override
+  public OutputCommitter getOutputCommitter(TaskAttemptContext context)
+      throws IOException, InterruptedException {
+    return new OutputCommitter() {
+      @Override
+      public void setupJob(JobContext jobContext) {
+      }
+
+      @Override
+      public void setupTask(TaskAttemptContext taskContext) {
+      }
+
+      @Override
+      public boolean needsTaskCommit(TaskAttemptContext taskContext) {
+        return false;
+      }
+
+      @Override
+      public void commitTask(TaskAttemptContext taskContext) {
+      }
+
+      @Override
+      public void abortTask(TaskAttemptContext taskContext) {
+      }
+    };
+  }
+
+  /**
+   * Sets the necessary configurations for a Vitess table output.
+   *
+   * @param keyspaceIdColumn The output column hashed into the keyspace id of each row, for a table
+   *     sharded by a {@code hash} vindex, or {@code null} to let VTGate route the rows through the
+   *     table's vindexes.
+   */
+  public static void setOutput(
+      Job job,
+      String hosts,
+      String keyspace,
+      String table,
+      Collection<String> columns,
+      String keyspaceIdColumn,
+      Class<? extends RpcClientFactory> rpcFactoryClass) {
+    job.setOutputFormatClass(VitessOutputFormat.class);
+    VitessConf vtConf = new VitessConf(job.getConfiguration());
+    vtConf.setHosts(checkNotNull(hosts));
+    vtConf.setOutputKeyspace(checkNotNull(keyspace));
+    vtConf.setOutputTable(checkNotNull(table));
+    vtConf.setOutputColumns(checkNotNull(columns));
+    if (keyspaceIdColumn != null) {
+      vtConf.setOutputKeyspaceIdColumn(keyspaceIdColumn);
+    }
+    vtConf.setRpcFactoryClass(checkNotNull(rpcFactoryClass));
+  }
+}
@@ -16,16 +16,17 @@
 
 package io.vitess.hadoop;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import io.vitess.client.Context;
+import io.vitess.client.ParallelScan;
 import io.vitess.client.RpcClient;
 import io.vitess.client.RpcClientFactory;
-import io.vitess.client.VTGateBlockingConn;
 import io.vitess.client.cursor.Cursor;
 import io.vitess.client.cursor.Row;
-import io.vitess.proto.Query;
-import io.vitess.proto.Query.BoundQuery;
+import io.vitess.client.cursor.ScatterCursor;
 import io.vitess.proto.Topodata.TabletType;
-import io.vitess.proto.Vtgate.SplitQueryResponse;
 
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapreduce.InputSplit;
@@ -39,16 +40,29 @@ import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Reads the rows of one {@link VitessInputSplit}.
+ *
+ * <p>A background thread fetches the streamed results ahead of the map task, up to {@link
+ * VitessConf#getPrefetchResults()} of them, so that the task doesn't wait on the network between
+ * results. As usual in Hadoop, the same {@link RowWritable} is returned for every row. Only that
+ * wrapper is reused: the cursor still creates a {@link Row} per row, over the row proto already
+ * decoded with its result, since rows are immutable and may be kept by other cursor users.
+ */
 public class VitessRecordReader extends RecordReader<NullWritable, RowWritable> {
 
   private VitessInputSplit split;
-  private VTGateBlockingConn vtgate;
+  private RpcClient rpcClient;
+  private ParallelScan scan;
   private VitessConf conf;
   private long rowsProcessed = 0;
+  private boolean finished;
+  private ExecutorService prefetcher;
   private Cursor cursor;
-  private RowWritable currentRow;
-  private Query.ExecuteOptions.IncludedFields includedFields;
+  private final RowWritable currentRow = new RowWritable();
 
   /**
    * Fetch connection parameters from Configuraiton and open VtGate connection.
@@ -65,11 +79,12 @@ public class VitessRecordReader extends RecordReader<NullWritable, RowWritable>
       List<String> addressList = Arrays.asList(conf.getHosts().split(","));
       int index = new Random().nextInt(addressList.size());
 
-      RpcClient rpcClient = rpcFactoryClass.newInstance().create(
+      rpcClient = rpcFactoryClass.newInstance().create(
           Context.getDefault().withDeadlineAfter(Duration.millis(conf.getTimeoutMs())),
           addressList.get(index));
-      vtgate = new VTGateBlockingConn(rpcClient);
-      includedFields = conf.getIncludedFields();
+      scan = new ParallelScan(rpcClient)
+          .setTabletType(TabletType.RDONLY)
+          .setIncludedFields(conf.getIncludedFields());
     } catch (ClassNotFoundException | InstantiationException | IllegalAccessException exc) {
       throw new RuntimeException(exc);
     }
@@ -77,10 +92,22 @@ public class VitessRecordReader extends RecordReader<NullWritable, RowWritable>
 
   @Override
   public void close() throws IOException {
-    if (vtgate != null) {
+    if (cursor != null) {
       try {
-        vtgate.close();
-        vtgate = null;
+        cursor.close();
+      } catch (Exception exc) {
+        // The stream is closed early when the task stops reading.
+      }
+      cursor = null;
+    }
+    if (prefetcher != null) {
+      prefetcher.shutdownNow();
+      prefetcher = null;
+    }
+    if (rpcClient != null) {
+      try {
+        rpcClient.close();
+        rpcClient = null;
       } catch (IOException exc) {
         throw new RuntimeException(exc);
       }
@@ -94,53 +121,48 @@ public class VitessRecordReader extends RecordReader<NullWritable, RowWritable>
 
   @Override
   public RowWritable getCurrentValue() throws IOException, InterruptedException {
-    return currentRow;
+    return currentRow.get() == null ? null : currentRow;
   }
 
+  /**
+   * Returns the rows read so far against the estimated size of the split, staying below 1 until
+   * the split is done since the estimate may be too low.
+   */
   @Override
   public float getProgress() throws IOException, InterruptedException {
-    if (rowsProcessed > split.getLength()) {
-      return 0.9f;
+    if (finished) {
+      return 1.0f;
     }
-    return rowsProcessed / split.getLength();
+    long estimatedRows = split.getLength();
+    if (estimatedRows <= 0) {
+      return 0.0f;
+    }
+    return Math.min(0.99f, (float) rowsProcessed / estimatedRows);
   }
 
   /**
    * Fetches the next row. If this is the first invocation for the split, execute the streaming
-   * query. Subsequent calls just advance the iterator.
+   * query. Subsequent calls just advance the cursor.
    */
   @Override
   public boolean nextKeyValue() throws IOException, InterruptedException {
+    Row row;
     try {
       if (cursor == null) {
-        SplitQueryResponse.Part splitInfo = split.getSplit();
-        if (splitInfo.hasKeyRangePart()) {
-          BoundQuery query = splitInfo.getQuery();
-          SplitQueryResponse.KeyRangePart keyRangePart = splitInfo.getKeyRangePart();
-          cursor = vtgate.streamExecuteKeyRanges(Context.getDefault(), query.getSql(),
-              keyRangePart.getKeyspace(), keyRangePart.getKeyRangesList(), query.getBindVariables(),
-              TabletType.RDONLY, includedFields);
-        } else if (splitInfo.hasShardPart()) {
-          BoundQuery query = splitInfo.getQuery();
-          SplitQueryResponse.ShardPart shardPart = splitInfo.getShardPart();
-          cursor = vtgate.streamExecuteShards(Context.getDefault(), query.getSql(),
-              shardPart.getKeyspace(), shardPart.getShardsList(), query.getBindVariables(),
-              TabletType.RDONLY, includedFields);
-        } else {
-          throw new IllegalArgumentException("unknown split info: " + splitInfo);
-        }
-      }
-      Row row = cursor.next();
-      if (row == null) {
-        currentRow = null;
-      } else {
-        currentRow = new RowWritable(row);
+        prefetcher = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("vitess-record-reader-%d").setDaemon(true).build());
+        cursor = new ScatterCursor(
+            ImmutableList.of(scan.startStream(Context.getDefault(), split.getSplit())),
+            prefetcher, Long.MAX_VALUE, conf.getPrefetchResults());
       }
+      row = cursor.next();
     } catch (SQLException exc) {
       throw new RuntimeException(exc);
     }
 
-    if (currentRow == null) {
+    currentRow.set(row);
+    if (row == null) {
+      finished = true;
       return false;
     }
     rowsProcessed++;
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.hadoop;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.UnsignedLong;
+
+import io.vitess.client.BulkLoader;
+import io.vitess.client.Context;
+import io.vitess.client.HashVindex;
+import io.vitess.client.KeyspaceTopologyCache;
+import io.vitess.client.RpcClient;
+import io.vitess.client.RpcClientFactory;
+import io.vitess.client.VTGateConnection;
+import io.vitess.client.cursor.Row;
+import io.vitess.proto.Query;
+import io.vitess.proto.Query.BindVariable;
+
+import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.io.BooleanWritable;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.FloatWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.VIntWritable;
+import org.apache.hadoop.io.VLongWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+import org.joda.time.Duration;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Writes the rows of one task to a Vitess table with a {@link BulkLoader}.
+ *
+ * <p>Rows are buffered and sent as multi-row {@code INSERT}s. If {@link
+ * VitessConf#getOutputKeyspaceIdColumn()} is set, the keyspace id of each row is the {@code hash}
+ * vindex of that column, and each shard is sent its own rows with {@code executeBatchKeyspaceIds}.
+ * Otherwise the rows are sent to the keyspace with {@code executeBatch}, and VTGate routes them
+ * through the table's vindexes, so tables sharded by any vindex can be written. {@link #write}
+ * blocks while {@link VitessConf#getOutputMaxInFlightBatches()} batches are running.
+ */
+public class VitessRecordWriter<K> extends RecordWriter<K, Writable> {
+
+  private final List<String> columns;
+  private final RpcClient rpcClient;
+  private final KeyspaceTopologyCache topologyCache;
+  private final BulkLoader loader;
+
+  /**
+   * Opens a VtGate connection with the connection parameters of {@code conf}.
+   */
+  public VitessRecordWriter(VitessConf conf) {
+    columns = ImmutableList.copyOf(conf.getOutputColumns());
+    try {
+      @SuppressWarnings("unchecked")
+      Class<? extends RpcClientFactory> rpcFactoryClass =
+          (Class<? extends RpcClientFactory>) Class.forName(conf.getRpcFactoryClass());
+      List<String> addressList = Arrays.asList(conf.getHosts().split(","));
+      int index = new Random().nextInt(addressList.size());
+
+      rpcClient = rpcFactoryClass.newInstance().create(
+          Context.getDefault().withDeadlineAfter(Duration.millis(conf.getTimeoutMs())),
+          addressList.get(index));
+    } catch (ClassNotFoundException | InstantiationException | IllegalAccessException exc) {
+      throw new RuntimeException(exc);
+    }
+    VTGateConnection connection = new VTGateConnection(rpcClient);
+
+    String keyspace = conf.getOutputKeyspace();
+    String keyspaceIdColumn = conf.getOutputKeyspaceIdColumn();
+    BulkLoader bulkLoader;
+    if (keyspaceIdColumn != null) {
+      topologyCache = new KeyspaceTopologyCache(connection, Context.getDefault());
+      bulkLoader = new BulkLoader(connection, Context.getDefault(), topologyCache, keyspace,
+          conf.getOutputTable(), columns, hashColumn(columns.indexOf(keyspaceIdColumn)));
+    } else {
+      topologyCache = null;
+      bulkLoader = new BulkLoader(connection, Context.getDefault(), keyspace,
+          conf.getOutputTable(), columns);
+    }
+    loader = bulkLoader
+        .setRowsPerInsert(conf.getOutputRowsPerInsert())
+        .setInsertsPerBatch(conf.getOutputInsertsPerBatch())
+        .setMaxInFlightBatches(conf.getOutputMaxInFlightBatches());
+  }
+
+  /**
+   * Returns a function hashing the integer in column {@code index} of a row, whether it was
+   * written as a number or copied from a {@link RowWritable}.
+   */
+  private static Function<List<?>, byte[]> hashColumn(final int index) {
+    return new Function<List<?>, byte[]>() {
+      @Override
+      public byte[] apply(List<?> row) {
+        Object value = row.get(index);
+        if (value instanceof Number) {
+          return HashVindex.toKeyspaceId(((Number) value).longValue());
+        }
+        if (value instanceof BindVariable) {
+          BindVariable bindVar = (BindVariable) value;
+          String id = bindVar.getValue().toStringUtf8();
+          if (bindVar.getType() == Query.Type.UINT64) {
+            return HashVindex.toKeyspaceId(UnsignedLong.valueOf(id).longValue());
+          }
+          if (bindVar.getType() != Query.Type.NULL_TYPE) {
+            return HashVindex.toKeyspaceId(Long.parseLong(id));
+          }
+        }
+        throw new IllegalArgumentException(
+            "keyspace id column must be an integer, but was " + value);
+      }
+    };
+  }
+
+  /**
+   * Buffers the row in {@code value}, sending its shard's rows if there are enough of them.
+   */
+  @Override
+  public void write(K key, Writable value) throws IOException, InterruptedException {
+    try {
+      loader.add(toValues(value));
+    } catch (SQLException | IllegalArgumentException exc) {
+      // The keyspace id column of the row may not be an integer.
+      throw new IOException(exc);
+    }
+  }
+
+  /**
+   * Sends the remaining rows and waits for every batch to finish.
+   */
+  @Override
+  public void close(TaskAttemptContext context) throws IOException, InterruptedException {
+    try {
+      loader.close();
+    } catch (SQLException exc) {
+      throw new IOException(exc);
+    } finally {
+      closeConnection();
+    }
+  }
+
+  /**
+   * Returns how many rows were inserted so far.
+   */
+  public long getRowsWritten() {
+    return loader.getRowsWritten();
+  }
+
+  private void closeConnection() throws IOException {
+    if (topologyCache != null) {
+      topologyCache.close();
+    }
+    rpcClient.close();
+  }
+
+  private List<?> toValues(Writable value) throws IOException {
+    if (value instanceof RowWritable) {
+      // Values are copied with their type, without converting them to Java objects and back.
+      Row row = ((RowWritable) value).get();
+      List<Object> values = new ArrayList<>(columns.size());
+      try {
+        for (String column : columns) {
+          int index = row.findColumn(column);
+          BindVariable.Builder bindVar = BindVariable.newBuilder();
+          if (row.getRawValue(index) == null) {
+            bindVar.setType(Query.Type.NULL_TYPE);
+          } else {
+            bindVar.setType(row.getFields().get(index - 1).getType())
+                .setValue(row.getRawValue(index));
+          }
+          values.add(bindVar.build());
+        }
+      } catch (SQLException exc) {
+        throw new IOException(exc);
+      }
+      return values;
+    }
+    if (value instanceof ArrayWritable) {
+      Writable[] writables = ((ArrayWritable) value).get();
+      if (writables.length != columns.size()) {
+        throw new IOException("output value has " + writables.length + " values, expected one for"
+            + " each output column " + columns);
+      }
+      List<Object> values = new ArrayList<>(writables.length);
+      for (Writable writable : writables) {
+        values.add(toValue(writable));
+      }
+      return values;
+    }
+    throw new IOException("unsupported output value: " + value.getClass().getName()
+        + ", expected a RowWritable or an ArrayWritable");
+  }
+
+  private static Object toValue(Writable writable) throws IOException {
+    if (writable == null || writable instanceof NullWritable) {
+      return null;
+    } else if (writable instanceof Text) {
+      return writable.toString();
+    } else if (writable instanceof LongWritable) {
+      return ((LongWritable) writable).get();
+    } else if (writable instanceof IntWritable) {
+      return ((IntWritable) writable).get();
+    } else if (writable instanceof VLongWritable) {
+      return ((VLongWritable) writable).get();
+    } else if (writable instanceof VIntWritable) {
+      return ((VIntWritable) writable).get();
+    } else if (writable instanceof DoubleWritable) {
+      return ((DoubleWritable) writable).get();
+    } else if (writable instanceof FloatWritable) {
+      return ((FloatWritable) writable).get();
+    } else if (writable instanceof BooleanWritable) {
+      return ((BooleanWritable) writable).get();
+    } else if (writable instanceof BytesWritable) {
+      return ((BytesWritable) writable).copyBytes();
+    }
+    throw new IOException("unsupported output column value: " + writable.getClass().getName());
+  }
+}
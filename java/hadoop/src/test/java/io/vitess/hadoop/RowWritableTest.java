@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.hadoop;
+
+import com.google.protobuf.ByteString;
+
+import io.vitess.client.cursor.Row;
+import io.vitess.proto.Query;
+import io.vitess.proto.Query.Field;
+
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.WritableComparator;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class RowWritableTest {
+
+  private static final List<Field> FIELDS = Arrays.asList(
+      Field.newBuilder().setName("id").setType(Query.Type.INT64).build(),
+      Field.newBuilder().setName("name").setType(Query.Type.VARCHAR).build());
+
+  /**
+   * Packs values like VTGate does, with {@code null} as a MySQL NULL value.
+   */
+  private static RowWritable row(String id, String name) {
+    Query.Row.Builder row = Query.Row.newBuilder();
+    StringBuilder packed = new StringBuilder();
+    for (String value : new String[]{id, name}) {
+      if (value == null) {
+        row.addLengths(-1);
+      } else {
+        row.addLengths(value.length());
+        packed.append(value);
+      }
+    }
+    return new RowWritable(
+        new Row(FIELDS, row.setValues(ByteString.copyFromUtf8(packed.toString())).build()));
+  }
+
+  private static RowWritable decimal(String value) {
+    return new RowWritable(new Row(
+        Collections.singletonList(
+            Field.newBuilder().setName("price").setType(Query.Type.DECIMAL).build()),
+        Query.Row.newBuilder().addLengths(value.length())
+            .setValues(ByteString.copyFromUtf8(value)).build()));
+  }
+
+  private static byte[] serialize(RowWritable row) throws IOException {
+    DataOutputBuffer out = new DataOutputBuffer();
+    row.write(out);
+    return Arrays.copyOf(out.getData(), out.getLength());
+  }
+
+  private static RowWritable deserialize(byte[] bytes) throws IOException {
+    DataInputBuffer in = new DataInputBuffer();
+    in.reset(bytes, bytes.length);
+    RowWritable row = new RowWritable();
+    row.readFields(in);
+    return row;
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    RowWritable original = row("12", "alice");
+    RowWritable copy = deserialize(serialize(original));
+    Assert.assertEquals(original, copy);
+    Assert.assertEquals(original.hashCode(), copy.hashCode());
+    Assert.assertEquals(12, copy.get().getLong("id"));
+    Assert.assertEquals("alice", copy.get().getRawValue("name").toStringUtf8());
+
+    RowWritable nulls = deserialize(serialize(row(null, null)));
+    Assert.assertNull(nulls.get().getObject("id"));
+    Assert.assertNull(nulls.get().getObject("name"));
+
+    // Rows read with the same schema share its FieldMap.
+    Assert.assertSame(copy.get().getFieldMap(), deserialize(serialize(row("1", "b"))).get()
+        .getFieldMap());
+  }
+
+  @Test
+  public void testLargeValue() throws Exception {
+    char[] name = new char[100000];
+    Arrays.fill(name, 'x');
+    RowWritable copy = deserialize(serialize(row("1", new String(name))));
+    Assert.assertEquals(name.length, copy.get().getRawValue("name").toStringUtf8().length());
+  }
+
+  @Test
+  public void testRawComparatorMatchesCompareTo() throws Exception {
+    WritableComparator comparator = WritableComparator.get(RowWritable.class);
+    Assert.assertTrue(comparator instanceof RowWritable.Comparator);
+    RowWritable[] sorted = {row(null, "z"), row("-5", "b"), row("9", null), row("9", "a"),
+        row("9", "ab"), row("10", "a")};
+    for (int i = 0; i < sorted.length; i++) {
+      byte[] left = serialize(sorted[i]);
+      for (int j = 0; j < sorted.length; j++) {
+        byte[] right = serialize(sorted[j]);
+        int expected = Integer.signum(Integer.compare(i, j));
+        Assert.assertEquals(expected, Integer.signum(sorted[i].compareTo(sorted[j])));
+        Assert.assertEquals(expected, Integer.signum(
+            comparator.compare(left, 0, left.length, right, 0, right.length)));
+      }
+    }
+  }
+
+  @Test
+  public void testEqualsMatchesCompareTo() throws Exception {
+    RowWritable one = decimal("1.0");
+    RowWritable same = decimal("1.00");
+    Assert.assertEquals(0, one.compareTo(same));
+    Assert.assertEquals(one, same);
+    Assert.assertEquals(one.hashCode(), same.hashCode());
+    Assert.assertNotEquals(one, decimal("1.01"));
+
+    Assert.assertEquals(row("7", "a"), row("007", "a"));
+    Assert.assertEquals(row("7", "a").hashCode(), row("007", "a").hashCode());
+    Assert.assertNotEquals(row("7", "a"), row("7", "A"));
+    Assert.assertNotEquals(row(null, "a"), row("", "a"));
+  }
+}
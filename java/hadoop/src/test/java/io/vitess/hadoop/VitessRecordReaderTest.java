@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.hadoop;
+
+import static io.vitess.client.FakeRpcClient.idResults;
+import static io.vitess.client.FakeRpcClient.ids;
+
+import io.vitess.client.FakeRpcClient;
+import io.vitess.client.FakeRpcClient.FakeStream;
+import io.vitess.proto.Query.BoundQuery;
+import io.vitess.proto.Vtgate.SplitQueryResponse;
+import io.vitess.proto.Vtgate.StreamExecuteShardsRequest;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class VitessRecordReaderTest {
+
+  private static final int ROWS = 10;
+
+  /**
+   * Streams {@link #ROWS} ids, one per result, for any shard part.
+   */
+  public static class FakeClientFactory extends FakeRpcClient.Factory {
+
+    @Override
+    protected InvocationHandler handler() {
+      return new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          if (!"streamExecuteShards".equals(method.getName())) {
+            return null;
+          }
+          Assert.assertEquals("select id from t",
+              ((StreamExecuteShardsRequest) args[1]).getQuery().getSql());
+          return new FakeStream(idResults(ids(0, ROWS), 1));
+        }
+      };
+    }
+  }
+
+  @Test
+  public void testRowsAreReadWithOneReusedWritable() throws Exception {
+    Configuration configuration = new Configuration();
+    VitessConf conf = new VitessConf(configuration);
+    conf.setHosts("localhost:1");
+    conf.setRpcFactoryClass(FakeClientFactory.class);
+    conf.setPrefetchResults(2);
+    VitessInputSplit split = new VitessInputSplit(SplitQueryResponse.Part.newBuilder()
+        .setQuery(BoundQuery.newBuilder().setSql("select id from t"))
+        .setShardPart(SplitQueryResponse.ShardPart.newBuilder().setKeyspace("ks")
+            .addShards("-80"))
+        .setSize(2 * ROWS)
+        .build());
+
+    VitessRecordReader reader = new VitessRecordReader();
+    reader.initialize(split, new TaskAttemptContextImpl(configuration, new TaskAttemptID()));
+    Assert.assertEquals(0.0f, reader.getProgress(), 0.0f);
+    RowWritable first = null;
+    for (int id = 0; id < ROWS; id++) {
+      Assert.assertTrue(reader.nextKeyValue());
+      RowWritable value = reader.getCurrentValue();
+      if (first == null) {
+        first = value;
+      }
+      Assert.assertSame(first, value);
+      Assert.assertEquals(id, value.get().getLong("id"));
+    }
+    // The split was estimated at twice its actual size.
+    Assert.assertEquals(0.5f, reader.getProgress(), 0.001f);
+    Assert.assertFalse(reader.nextKeyValue());
+    Assert.assertNull(reader.getCurrentValue());
+    Assert.assertEquals(1.0f, reader.getProgress(), 0.0f);
+    reader.close();
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.hadoop;
+
+import static io.vitess.client.FakeRpcClient.shard;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.common.util.concurrent.Futures;
+import com.google.protobuf.ByteString;
+
+import io.vitess.client.FakeRpcClient;
+import io.vitess.client.cursor.Row;
+import io.vitess.proto.Query;
+import io.vitess.proto.Query.BindVariable;
+import io.vitess.proto.Query.BoundQuery;
+import io.vitess.proto.Query.Field;
+import io.vitess.proto.Query.ResultWithError;
+import io.vitess.proto.Topodata.TabletType;
+import io.vitess.proto.Vtgate.BoundKeyspaceIdQuery;
+import io.vitess.proto.Vtgate.ExecuteBatchKeyspaceIdsRequest;
+import io.vitess.proto.Vtgate.ExecuteBatchKeyspaceIdsResponse;
+import io.vitess.proto.Vtgate.ExecuteBatchRequest;
+import io.vitess.proto.Vtgate.ExecuteBatchResponse;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class VitessRecordWriterTest {
+
+  private static final List<ExecuteBatchKeyspaceIdsRequest> BATCHES = new CopyOnWriteArrayList<>();
+  private static final List<ExecuteBatchRequest> UNSHARDED_BATCHES = new CopyOnWriteArrayList<>();
+
+  /**
+   * Serves a keyspace split in two, and records batches.
+   */
+  public static class FakeClientFactory extends FakeRpcClient.Factory {
+
+    @Override
+    protected InvocationHandler handler() {
+      return new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          switch (method.getName()) {
+            case "getSrvKeyspace":
+              return FakeRpcClient.srvKeyspace(TabletType.MASTER, shard("-80", -1, 0x80),
+                  shard("80-", 0x80, -1));
+            case "executeBatchKeyspaceIds":
+              BATCHES.add((ExecuteBatchKeyspaceIdsRequest) args[1]);
+              return Futures.immediateFuture(
+                  ExecuteBatchKeyspaceIdsResponse.getDefaultInstance());
+            case "executeBatch":
+              ExecuteBatchRequest request = (ExecuteBatchRequest) args[1];
+              UNSHARDED_BATCHES.add(request);
+              ExecuteBatchResponse.Builder response = ExecuteBatchResponse.newBuilder();
+              for (int i = 0; i < request.getQueriesCount(); i++) {
+                response.addResults(ResultWithError.getDefaultInstance());
+              }
+              return Futures.immediateFuture(response.build());
+            default:
+              return null;
+          }
+        }
+      };
+    }
+  }
+
+  private static Job job(String keyspace, String keyspaceIdColumn) throws IOException {
+    Job job = Job.getInstance(new Configuration());
+    VitessOutputFormat.setOutput(job, "localhost:1", keyspace, "t",
+        ImmutableList.of("id", "name"), keyspaceIdColumn, FakeClientFactory.class);
+    VitessConf conf = new VitessConf(job.getConfiguration());
+    conf.setOutputRowsPerInsert(2);
+    conf.setOutputInsertsPerBatch(2);
+    conf.setOutputMaxInFlightBatches(2);
+    return job;
+  }
+
+  private static TaskAttemptContextImpl context(Job job) {
+    return new TaskAttemptContextImpl(job.getConfiguration(), new TaskAttemptID());
+  }
+
+  private static boolean isLow(ByteString keyspaceId) {
+    return UnsignedBytes.toInt(keyspaceId.byteAt(0)) < 0x80;
+  }
+
+  @Before
+  public void setUp() {
+    BATCHES.clear();
+    UNSHARDED_BATCHES.clear();
+  }
+
+  @Test
+  public void testRowsAreGroupedByShard() throws Exception {
+    Job job = job("sharded", "id");
+    VitessOutputFormat<NullWritable> format = new VitessOutputFormat<>();
+    format.checkOutputSpecs(job);
+    VitessRecordWriter<NullWritable> writer =
+        (VitessRecordWriter<NullWritable>) format.getRecordWriter(context(job));
+    for (long id = 1; id <= 20; id++) {
+      writer.write(NullWritable.get(), new ArrayWritable(Writable.class,
+          new Writable[]{new LongWritable(id), new Text("name" + id)}));
+    }
+    writer.close(context(job));
+
+    Assert.assertEquals(20, writer.getRowsWritten());
+    int rows = 0;
+    for (ExecuteBatchKeyspaceIdsRequest batch : BATCHES) {
+      Assert.assertTrue(batch.getQueriesCount() <= 2);
+      boolean low = isLow(batch.getQueries(0).getKeyspaceIds(0));
+      for (BoundKeyspaceIdQuery query : batch.getQueriesList()) {
+        Assert.assertEquals("sharded", query.getKeyspace());
+        for (ByteString keyspaceId : query.getKeyspaceIdsList()) {
+          Assert.assertEquals(low, isLow(keyspaceId));
+          rows++;
+        }
+      }
+    }
+    Assert.assertEquals(20, rows);
+    BoundQuery query = BATCHES.get(0).getQueries(0).getQuery();
+    Assert.assertEquals("INSERT INTO t (id, name) VALUES (:r0c0, :r0c1), (:r1c0, :r1c1)",
+        query.getSql());
+    Assert.assertEquals(Query.Type.VARCHAR, query.getBindVariablesOrThrow("r0c1").getType());
+  }
+
+  @Test
+  public void testRowWritableIsCopiedWithItsTypes() throws Exception {
+    Job job = job("unsharded", null);
+    VitessRecordWriter<NullWritable> writer =
+        (VitessRecordWriter<NullWritable>) new VitessOutputFormat<NullWritable>()
+            .getRecordWriter(context(job));
+    RowWritable value = new RowWritable(new Row(
+        Arrays.asList(
+            Field.newBuilder().setName("name").setType(Query.Type.VARBINARY).build(),
+            Field.newBuilder().setName("extra").setType(Query.Type.INT64).build(),
+            Field.newBuilder().setName("id").setType(Query.Type.UINT64).build()),
+        Arrays.asList(null, ByteString.copyFromUtf8("1"),
+            ByteString.copyFromUtf8("18446744073709551615"))));
+    writer.write(NullWritable.get(), value);
+    writer.close(context(job));
+
+    Assert.assertTrue(BATCHES.isEmpty());
+    Assert.assertEquals(1, UNSHARDED_BATCHES.size());
+    ExecuteBatchRequest batch = UNSHARDED_BATCHES.get(0);
+    Assert.assertEquals("unsharded@master", batch.getSession().getTargetString());
+    BoundQuery query = batch.getQueries(0);
+    Assert.assertEquals(
+        BindVariable.newBuilder().setType(Query.Type.UINT64)
+            .setValue(ByteString.copyFromUtf8("18446744073709551615")).build(),
+        query.getBindVariablesOrThrow("r0c0"));
+    Assert.assertEquals(Query.Type.NULL_TYPE, query.getBindVariablesOrThrow("r0c1").getType());
+  }
+
+  @Test(expected = IOException.class)
+  public void testArrayWritableNeedsAValuePerColumn() throws Exception {
+    Job job = job("unsharded", null);
+    VitessRecordWriter<NullWritable> writer =
+        (VitessRecordWriter<NullWritable>) new VitessOutputFormat<NullWritable>()
+            .getRecordWriter(context(job));
+    try {
+      writer.write(NullWritable.get(),
+          new ArrayWritable(Writable.class, new Writable[]{new LongWritable(1)}));
+    } finally {
+      writer.close(context(job));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testKeyspaceIdColumnMustBeAnInteger() throws Exception {
+    Job job = job("sharded", "name");
+    VitessRecordWriter<NullWritable> writer =
+        (VitessRecordWriter<NullWritable>) new VitessOutputFormat<NullWritable>()
+            .getRecordWriter(context(job));
+    try {
+      writer.write(NullWritable.get(), new ArrayWritable(Writable.class,
+          new Writable[]{new LongWritable(1), new Text("alice")}));
+    } finally {
+      writer.close(context(job));
+    }
+  }
+
+  @Test
+  public void testShardedKeyspaceWithoutKeyspaceIdColumnIsRoutedByVtgate() throws Exception {
+    Job job = job("sharded", null);
+    VitessRecordWriter<NullWritable> writer =
+        (VitessRecordWriter<NullWritable>) new VitessOutputFormat<NullWritable>()
+            .getRecordWriter(context(job));
+    for (long id = 1; id <= 3; id++) {
+      writer.write(NullWritable.get(), new ArrayWritable(Writable.class,
+          new Writable[]{new LongWritable(id), new Text("name" + id)}));
+    }
+    writer.close(context(job));
+
+    Assert.assertEquals(3, writer.getRowsWritten());
+    Assert.assertTrue(BATCHES.isEmpty());
+    Assert.assertEquals(1, UNSHARDED_BATCHES.size());
+    Assert.assertEquals("sharded@master",
+        UNSHARDED_BATCHES.get(0).getSession().getTargetString());
+  }
+
+  @Test(expected = IOException.class)
+  public void testKeyspaceIdColumnMustBeAnOutputColumn() throws Exception {
+    new VitessOutputFormat<NullWritable>().checkOutputSpecs(job("sharded", "user_id"));
+  }
+}
@@ -16,6 +16,8 @@
 
 package io.vitess.jdbc;
 
+import io.vitess.client.grpc.netty.DefaultChannelBuilderProvider;
+import io.vitess.client.grpc.netty.NettyTransport;
 import io.vitess.proto.Query;
 import io.vitess.proto.Topodata;
 import io.vitess.util.Constants;
@@ -174,6 +176,33 @@ public class ConnectionProperties {
       "grpcChannelBuilderProvider",
       "Classname of an implementation of NettyChannelBuilderProvider. If set this class will be "
           + "used to create channels for the GRPC client.", "", null);
+  private BooleanConnectionProperty grpcWorkloadChannels = new BooleanConnectionProperty(
+      "grpcWorkloadChannels",
+      "If enabled, connections with an OLAP or DBA workload use their own gRPC channels to "
+          + "VTGate, so that long streams don't delay OLTP calls. The workload is read when the "
+          + "connection is opened.", true);
+  private BooleanConnectionProperty grpcWorkloadEventLoops = new BooleanConnectionProperty(
+      "grpcWorkloadEventLoops",
+      "If enabled together with grpcWorkloadChannels, the channels of OLAP and DBA workloads "
+          + "also use their own event loop threads. Ignored if grpcChannelBuilderProvider is "
+          + "set.", false);
+  private LongConnectionProperty grpcEventLoopThreads = new LongConnectionProperty(
+      "grpcEventLoopThreads",
+      "Number of Netty event loop threads doing the network I/O of the gRPC channels to VTGate. "
+          + "0 uses Netty's default of twice the number of processors. Ignored if "
+          + "grpcChannelBuilderProvider is set.",
+      DefaultChannelBuilderProvider.DEFAULT_EVENT_LOOP_THREADS);
+  private EnumConnectionProperty<NettyTransport> grpcTransport = new EnumConnectionProperty<>(
+      "grpcTransport",
+      "Netty transport of the gRPC channels to VTGate: NIO, EPOLL for the Linux native "
+          + "transport, which requires netty-transport-native-epoll on the classpath, or AUTO to "
+          + "use EPOLL when it's available. Ignored if grpcChannelBuilderProvider is set.",
+      NettyTransport.NIO);
+  private LongConnectionProperty grpcCallbackThreads = new LongConnectionProperty(
+      "grpcCallbackThreads",
+      "Number of threads running gRPC response callbacks, including building result sets, so "
+          + "that this work stays off the event loop threads. Pools of the same size are shared. "
+          + "0 uses gRPC's default shared cached thread pool.", 0L);
 
   private StringConnectionProperty errorHandlerClass = new StringConnectionProperty(
       "errorHandlerClass",
@@ -230,6 +259,31 @@ public class ConnectionProperties {
       "Should the driver treat java.util.Date as a TIMESTAMP for the purposes of "
           + "PreparedStatement.setObject()", true);
 
+  private BooleanConnectionProperty autoParameterize = new BooleanConnectionProperty(
+      "autoParameterize",
+      "When enabled, literals in queries executed through Statement are sent to VTGate as bind "
+          + "variables, so that queries differing only by their literals share a query plan.",
+      false);
+
+  private BooleanConnectionProperty cacheResultFields = new BooleanConnectionProperty(
+      "cacheResultFields",
+      "When enabled, queries whose result fields are already known ask VTGate for field types "
+          + "only, and take names and other metadata from an earlier result of the same query. "
+          + "Renaming or reordering columns without changing their types is only noticed when "
+          + "the cached fields expire, a minute after they were cached.", false);
+
+  private LongConnectionProperty schemaCacheTtlMillis = new LongConnectionProperty(
+      "schemaCacheTtlMillis",
+      "How long, in millis, results of DatabaseMetaData getTables, getColumns, getPrimaryKeys and "
+          + "getIndexInfo are cached and shared by connections to the same cluster. 0 disables "
+          + "caching.", 0L);
+
+  private LongConnectionProperty dbPropertiesCacheTtlMillis = new LongConnectionProperty(
+      "dbPropertiesCacheTtlMillis",
+      "How long, in millis, the server version, default isolation level and "
+          + "lower_case_table_names read for DatabaseMetaData are shared by connections to the "
+          + "same cluster. 0 reads them once per connection.", 300000L);
+
   private LongConnectionProperty timeout = new LongConnectionProperty("timeout",
       "The default timeout, in millis, to use for queries, connections, and transaction "
           + "commit/rollback. Query timeout can be overridden by explicitly calling "
@@ -259,6 +313,32 @@ public class ConnectionProperties {
     checkConfiguredEncodingSupport();
   }
 
+  /**
+   * Initializes the properties with the values of an already initialized instance, without
+   * parsing or validating them again.
+   * <p>
+   * Property values are immutable and setters replace rather than modify them, so the values can
+   * be shared with the template until they are set on this instance.
+   */
+  void initializeProperties(ConnectionProperties template) throws SQLException {
+    for (Field propertyField : PROPERTY_LIST) {
+      try {
+        ConnectionProperty propToSet = (ConnectionProperty) propertyField.get(this);
+        propToSet.valueAsObject = ((ConnectionProperty) propertyField.get(template)).valueAsObject;
+      } catch (IllegalAccessException iae) {
+        throw new SQLException("Unable to initialize driver properties due to " + iae.toString());
+      }
+    }
+    this.tabletTypeCache = template.tabletTypeCache;
+    this.includedFieldsCache = template.includedFieldsCache;
+    this.executeOptionsCache = template.executeOptionsCache;
+    this.includeAllFieldsCache = template.includeAllFieldsCache;
+    this.twopcEnabledCache = template.twopcEnabledCache;
+    this.simpleExecuteTypeCache = template.simpleExecuteTypeCache;
+    this.characterEncodingAsString = template.characterEncodingAsString;
+    this.userNameCache = template.userNameCache;
+  }
+
   private void postInitialization() {
     this.tabletTypeCache = this.tabletType.getValueAsEnum();
     this.includedFieldsCache = this.includedFields.getValueAsEnum();
@@ -500,6 +580,46 @@ public class ConnectionProperties {
     this.grpcChannelProvider.setValue(grpcChannelProviderClassName);
   }
 
+  public boolean getGrpcWorkloadChannels() {
+    return grpcWorkloadChannels.getValueAsBoolean();
+  }
+
+  public void setGrpcWorkloadChannels(boolean grpcWorkloadChannels) {
+    this.grpcWorkloadChannels.setValue(grpcWorkloadChannels);
+  }
+
+  public boolean getGrpcWorkloadEventLoops() {
+    return grpcWorkloadEventLoops.getValueAsBoolean();
+  }
+
+  public void setGrpcWorkloadEventLoops(boolean grpcWorkloadEventLoops) {
+    this.grpcWorkloadEventLoops.setValue(grpcWorkloadEventLoops);
+  }
+
+  public int getGrpcEventLoopThreads() {
+    return grpcEventLoopThreads.getValueAsLong().intValue();
+  }
+
+  public void setGrpcEventLoopThreads(int grpcEventLoopThreads) {
+    this.grpcEventLoopThreads.setValue((long) grpcEventLoopThreads);
+  }
+
+  public NettyTransport getGrpcTransport() {
+    return grpcTransport.getValueAsEnum();
+  }
+
+  public void setGrpcTransport(NettyTransport grpcTransport) {
+    this.grpcTransport.setValue(grpcTransport);
+  }
+
+  public int getGrpcCallbackThreads() {
+    return grpcCallbackThreads.getValueAsLong().intValue();
+  }
+
+  public void setGrpcCallbackThreads(int grpcCallbackThreads) {
+    this.grpcCallbackThreads.setValue((long) grpcCallbackThreads);
+  }
+
   public String getErrorHandlerClass() {
     return errorHandlerClass.getValueAsString();
   }
@@ -580,6 +700,38 @@ public class ConnectionProperties {
     this.treatUtilDateAsTimestamp.setValue(treatUtilDateAsTimestamp);
   }
 
+  public boolean getAutoParameterize() {
+    return autoParameterize.getValueAsBoolean();
+  }
+
+  public void setAutoParameterize(boolean autoParameterize) {
+    this.autoParameterize.setValue(autoParameterize);
+  }
+
+  public boolean getCacheResultFields() {
+    return cacheResultFields.getValueAsBoolean();
+  }
+
+  public void setCacheResultFields(boolean cacheResultFields) {
+    this.cacheResultFields.setValue(cacheResultFields);
+  }
+
+  public long getSchemaCacheTtlMillis() {
+    return schemaCacheTtlMillis.getValueAsLong();
+  }
+
+  public void setSchemaCacheTtlMillis(long schemaCacheTtlMillis) {
+    this.schemaCacheTtlMillis.setValue(schemaCacheTtlMillis);
+  }
+
+  public long getDbPropertiesCacheTtlMillis() {
+    return dbPropertiesCacheTtlMillis.getValueAsLong();
+  }
+
+  public void setDbPropertiesCacheTtlMillis(long dbPropertiesCacheTtlMillis) {
+    this.dbPropertiesCacheTtlMillis.setValue(dbPropertiesCacheTtlMillis);
+  }
+
   public long getTimeout() {
     return timeout.getValueAsLong();
   }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.jdbc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The parsed url and initialized properties shared by connections opened with the same url and
+ * properties.
+ * <p>
+ * Parsing the url and initializing the properties from strings only happens once per distinct
+ * (url, properties) pair. Connections copy their property values from the template, and only
+ * replace them when a setter is called on the connection, so the template is never modified.
+ */
+final class ConnectionTemplate {
+
+  private static final int CACHE_SIZE = 1000;
+
+  private static final Cache<List<Object>, ConnectionTemplate> cache =
+      CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
+  private final VitessJDBCUrl vitessJDBCUrl;
+  private final ConnectionProperties properties;
+
+  private ConnectionTemplate(VitessJDBCUrl vitessJDBCUrl, ConnectionProperties properties) {
+    this.vitessJDBCUrl = vitessJDBCUrl;
+    this.properties = properties;
+  }
+
+  /**
+   * Returns the template for a url and properties, parsing them if they weren't seen before.
+   * Later changes to {@code info} don't affect the returned template.
+   */
+  static ConnectionTemplate get(String url, Properties info) throws SQLException {
+    Properties snapshot = new Properties();
+    ImmutableMap.Builder<String, String> values = ImmutableMap.builder();
+    if (null != info) {
+      // Flattens defaults, which a Properties' equals() and hashCode() ignore.
+      for (String name : info.stringPropertyNames()) {
+        String value = info.getProperty(name);
+        snapshot.setProperty(name, value);
+        values.put(name, value);
+      }
+    }
+    List<Object> key = Arrays.<Object>asList(url, values.build());
+    ConnectionTemplate template = cache.getIfPresent(key);
+    if (null == template) {
+      VitessJDBCUrl vitessJDBCUrl = new VitessJDBCUrl(url, snapshot);
+      ConnectionProperties properties = new ConnectionProperties();
+      properties.initializeProperties(vitessJDBCUrl.getProperties());
+      template = new ConnectionTemplate(vitessJDBCUrl, properties);
+      cache.put(key, template);
+    }
+    return template;
+  }
+
+  VitessJDBCUrl getVitessJDBCUrl() {
+    return vitessJDBCUrl;
+  }
+
+  ConnectionProperties getProperties() {
+    return properties;
+  }
+
+  @VisibleForTesting
+  static void clear() {
+    cache.invalidateAll();
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.jdbc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the {@link DBProperties} of each cluster, as identified by {@link
+ * VitessConnection#getClusterIdentity()}.
+ * <p>
+ * Entries are reused for as long as the calling connection's {@code dbPropertiesCacheTtlMillis}
+ * allows, independently of the connection which loaded them. Concurrent loads of the same cluster
+ * wait for a single query, while other clusters load in parallel.
+ */
+final class DBPropertiesCache {
+
+  private static final int CACHE_SIZE = 1000;
+
+  private static final Cache<String, Entry> cache =
+      CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
+  private DBPropertiesCache() {
+  }
+
+  /**
+   * Loads the properties of a cluster.
+   */
+  interface Loader {
+
+    Entry load() throws SQLException;
+  }
+
+  /**
+   * The properties of a cluster and its database engine.
+   */
+  static final class Entry {
+
+    private final DBProperties dbProperties;
+    private final boolean mariaDb;
+    private final long loadedNanos;
+
+    Entry(DBProperties dbProperties, boolean mariaDb) {
+      this.dbProperties = dbProperties;
+      this.mariaDb = mariaDb;
+      this.loadedNanos = System.nanoTime();
+    }
+
+    DBProperties getDbProperties() {
+      return dbProperties;
+    }
+
+    boolean isMariaDb() {
+      return mariaDb;
+    }
+  }
+
+  /**
+   * Returns the cached properties of the connection's cluster, or loads them if they aren't cached
+   * or are older than the connection's TTL.
+   */
+  static Entry get(VitessConnection connection, final Loader loader) throws SQLException {
+    long ttlNanos = TimeUnit.MILLISECONDS.toNanos(connection.getDbPropertiesCacheTtlMillis());
+    if (ttlNanos <= 0) {
+      return loader.load();
+    }
+    String key = connection.getClusterIdentity();
+    Entry entry = cache.getIfPresent(key);
+    if (entry != null && System.nanoTime() - entry.loadedNanos < ttlNanos) {
+      return entry;
+    }
+    if (entry != null) {
+      // Only drop the entry we found, not one that another connection just reloaded.
+      cache.asMap().remove(key, entry);
+    }
+    try {
+      return cache.get(key, new Callable<Entry>() {
+        @Override
+        public Entry call() throws SQLException {
+          return loader.load();
+        }
+      });
+    } catch (ExecutionException | UncheckedExecutionException | ExecutionError exc) {
+      Throwable cause = exc.getCause();
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new SQLException(cause);
+    }
+  }
+
+  @VisibleForTesting
+  static void clear() {
+    cache.invalidateAll();
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.jdbc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import io.vitess.proto.Query;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Shares resolved column metadata between result sets with the same fields.
+ * <p>
+ * Building a {@link FieldWithMetadata} maps types, resolves charsets and may match column names
+ * against regexes. The outcome only depends on the {@link Query.Field} and a handful of connection
+ * properties, so it's cached by those. Cached fields don't reference the connection they were
+ * built for, but a private copy of the properties that matter, so changing properties on a
+ * connection never affects fields that are shared with other connections.
+ */
+final class FieldMetadataCache {
+
+  private static final int CACHE_SIZE = 1000;
+
+  private static final Cache<Key, List<FieldWithMetadata>> cache =
+      CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
+  private FieldMetadataCache() {
+  }
+
+  /**
+   * Returns the metadata for {@code fields}, building it if this shape wasn't seen before with the
+   * same connection properties.
+   */
+  static List<FieldWithMetadata> get(ConnectionProperties connection, List<Query.Field> fields)
+      throws SQLException {
+    if (connection == null || connection.getExecuteOptions() == null) {
+      // No properties, or properties that were never initialized and can't be copied.
+      return build(connection, fields);
+    }
+    Key key = new Key(fields, new Settings(connection));
+    List<FieldWithMetadata> metadata = cache.getIfPresent(key);
+    if (metadata == null) {
+      metadata = build(key.settings.toConnectionProperties(), fields);
+      cache.put(key, metadata);
+    }
+    return metadata;
+  }
+
+  @VisibleForTesting
+  static void clear() {
+    cache.invalidateAll();
+  }
+
+  private static List<FieldWithMetadata> build(ConnectionProperties connection,
+      List<Query.Field> fields) throws SQLException {
+    ImmutableList.Builder<FieldWithMetadata> metadata = ImmutableList.builder();
+    for (Query.Field field : fields) {
+      metadata.add(new FieldWithMetadata(connection, field));
+    }
+    return metadata.build();
+  }
+
+  private static final class Key {
+
+    private final List<Query.Field> fields;
+    private final Settings settings;
+    private final int hashCode;
+
+    Key(List<Query.Field> fields, Settings settings) {
+      this.fields = fields;
+      this.settings = settings;
+      this.hashCode = Objects.hash(fields, settings);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) other;
+      return hashCode == that.hashCode && settings.equals(that.settings)
+          && fields.equals(that.fields);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /**
+   * The connection properties read by {@link FieldWithMetadata} and {@link
+   * VitessResultSetMetaData}.
+   */
+  private static final class Settings {
+
+    private final Query.ExecuteOptions.IncludedFields includedFields;
+    private final boolean includeAllFields;
+    private final boolean blobsAreStrings;
+    private final boolean functionsNeverReturnBlobs;
+    private final boolean useBlobToStoreUtf8OutsideBmp;
+    private final String utf8OutsideBmpIncludedColumnNamePattern;
+    private final String utf8OutsideBmpExcludedColumnNamePattern;
+    private final boolean tinyInt1isBit;
+    private final boolean yearIsDateType;
+    private final String encoding;
+
+    Settings(ConnectionProperties connection) {
+      this.includedFields = connection.getIncludedFields();
+      this.includeAllFields = connection.isIncludeAllFields();
+      this.blobsAreStrings = connection.getBlobsAreStrings();
+      this.functionsNeverReturnBlobs = connection.getFunctionsNeverReturnBlobs();
+      this.useBlobToStoreUtf8OutsideBmp = connection.getUseBlobToStoreUTF8OutsideBMP();
+      this.utf8OutsideBmpIncludedColumnNamePattern =
+          connection.getUtf8OutsideBmpIncludedColumnNamePattern();
+      this.utf8OutsideBmpExcludedColumnNamePattern =
+          connection.getUtf8OutsideBmpExcludedColumnNamePattern();
+      this.tinyInt1isBit = connection.getTinyInt1isBit();
+      this.yearIsDateType = connection.getYearIsDateType();
+      this.encoding = connection.getEncoding();
+    }
+
+    ConnectionProperties toConnectionProperties() throws SQLException {
+      ConnectionProperties connection = new ConnectionProperties();
+      connection.initializeProperties(new Properties());
+      if (includeAllFields) {
+        connection.setIncludedFields(Query.ExecuteOptions.IncludedFields.ALL);
+      } else {
+        connection.setIncludedFields(includedFields != null ? includedFields
+            : Query.ExecuteOptions.IncludedFields.TYPE_AND_NAME);
+      }
+      connection.setBlobsAreStrings(blobsAreStrings);
+      connection.setFunctionsNeverReturnBlobs(functionsNeverReturnBlobs);
+      connection.setUseBlobToStoreUTF8OutsideBMP(useBlobToStoreUtf8OutsideBmp);
+      connection.setUtf8OutsideBmpIncludedColumnNamePattern(
+          utf8OutsideBmpIncludedColumnNamePattern);
+      connection.setUtf8OutsideBmpExcludedColumnNamePattern(
+          utf8OutsideBmpExcludedColumnNamePattern);
+      connection.setTinyInt1isBit(tinyInt1isBit);
+      connection.setYearIsDateType(yearIsDateType);
+      if (encoding != null) {
+        connection.setEncoding(encoding);
+      }
+      return connection;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof Settings)) {
+        return false;
+      }
+      Settings that = (Settings) other;
+      return includedFields == that.includedFields
+          && includeAllFields == that.includeAllFields
+          && blobsAreStrings == that.blobsAreStrings
+          && functionsNeverReturnBlobs == that.functionsNeverReturnBlobs
+          && useBlobToStoreUtf8OutsideBmp == that.useBlobToStoreUtf8OutsideBmp
+          && Objects.equals(utf8OutsideBmpIncludedColumnNamePattern,
+          that.utf8OutsideBmpIncludedColumnNamePattern)
+          && Objects.equals(utf8OutsideBmpExcludedColumnNamePattern,
+          that.utf8OutsideBmpExcludedColumnNamePattern)
+          && tinyInt1isBit == that.tinyInt1isBit
+          && yearIsDateType == that.yearIsDateType
+          && Objects.equals(encoding, that.encoding);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(includedFields, includeAllFields, blobsAreStrings,
+          functionsNeverReturnBlobs, useBlobToStoreUtf8OutsideBmp,
+          utf8OutsideBmpIncludedColumnNamePattern, utf8OutsideBmpExcludedColumnNamePattern,
+          tinyInt1isBit, yearIsDateType, encoding);
+    }
+  }
+}
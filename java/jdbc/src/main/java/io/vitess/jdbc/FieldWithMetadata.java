@@ -17,6 +17,7 @@
 package io.vitess.jdbc;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.protobuf.ByteString;
 
 import io.vitess.proto.Query;
 import io.vitess.util.Constants;
@@ -24,12 +25,19 @@ import io.vitess.util.MysqlDefs;
 import io.vitess.util.StringUtils;
 import io.vitess.util.charset.CharsetMapping;
 
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 public class FieldWithMetadata {
 
+  private static final ConcurrentHashMap<String, Pattern> compiledPatterns =
+      new ConcurrentHashMap<>();
+
   private final ConnectionProperties connectionProperties;
   private final Query.Field field;
   private final Query.Type vitessType;
@@ -43,6 +51,9 @@ public class FieldWithMetadata {
   private String collationName;
   private int collationIndex;
   private int maxBytesPerChar;
+  // Resolved from the encoding on first use, since only decoding string values needs them.
+  private Charset charset;
+  private boolean asciiCompatible;
 
   public FieldWithMetadata(ConnectionProperties connectionProperties, Query.Field field)
       throws SQLException {
@@ -237,6 +248,50 @@ public class FieldWithMetadata {
     return javaEncoding;
   }
 
+  /**
+   * Whether {@link io.vitess.client.cursor.Row} returns values of this column as {@code byte[]},
+   * which then need to be decoded to get a string.
+   */
+  boolean isBytesValue() {
+    switch (vitessType) {
+      case BIT:
+      case TEXT:
+      case BLOB:
+      case VARCHAR:
+      case VARBINARY:
+      case CHAR:
+      case BINARY:
+      case GEOMETRY:
+      case JSON:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Decodes a string value of this column with the column's encoding if all fields are included,
+   * or the platform encoding otherwise.
+   */
+  String decode(ByteString value) throws SQLException {
+    Charset charset = getCharset();
+    return StringUtils.toString(value, charset, asciiCompatible);
+  }
+
+  private Charset getCharset() throws SQLException {
+    if (charset == null) {
+      String encoding = hasConnectionProperties() ? getEncoding() : null;
+      try {
+        Charset resolved = StringUtils.charsetForEncoding(encoding);
+        asciiCompatible = StringUtils.isAsciiCompatible(resolved);
+        charset = resolved;
+      } catch (UnsupportedEncodingException exc) {
+        throw new SQLException("Unsupported character encoding: " + encoding, exc);
+      }
+    }
+    return charset;
+  }
+
   public ConnectionProperties getConnectionProperties() throws SQLException {
     checkConnectionProperties();
     return connectionProperties;
@@ -260,13 +315,13 @@ public class FieldWithMetadata {
     // look for fields to exclude from that remapping (blacklist)
     if (excludePattern != null && !StringUtils.isNullOrEmptyWithoutWS(excludePattern)) {
       try {
-        if (getOrgName().matches(excludePattern)) {
+        if (compilePattern(excludePattern).matcher(getOrgName()).matches()) {
           // If we want to include more specific patters that were inadvertently covered by the
           // exclude pattern,
           // we set the includePattern (whitelist)
           if (includePattern != null && !StringUtils.isNullOrEmptyWithoutWS(includePattern)) {
             try {
-              if (getOrgName().matches(includePattern)) {
+              if (compilePattern(includePattern).matcher(getOrgName()).matches()) {
                 return true;
               }
             } catch (PatternSyntaxException pse) {
@@ -285,6 +340,19 @@ public class FieldWithMetadata {
     return true;
   }
 
+  /**
+   * Column name patterns come from connection properties, so there are only a few of them; they
+   * are compiled once and shared.
+   */
+  private static Pattern compilePattern(String regex) {
+    Pattern pattern = compiledPatterns.get(regex);
+    if (pattern == null) {
+      pattern = Pattern.compile(regex);
+      compiledPatterns.putIfAbsent(regex, pattern);
+    }
+    return pattern;
+  }
+
   public boolean isAutoIncrement() throws SQLException {
     checkConnectionProperties();
     if (!connectionProperties.isIncludeAllFields()) {
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.jdbc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the rows returned by schema-introspecting {@link java.sql.DatabaseMetaData} methods.
+ * <p>
+ * Entries are shared by all connections to the same cluster, as identified by {@link
+ * VitessConnection#getClusterIdentity()}, and are reused for as long as the calling connection's
+ * {@code schemaCacheTtlMillis} allows. A TTL of 0 disables caching.
+ */
+final class SchemaMetadataCache {
+
+  private static final int CACHE_SIZE = 10000;
+
+  private static final Cache<List<Object>, Entry> cache =
+      CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
+  private SchemaMetadataCache() {
+  }
+
+  /**
+   * Loads the rows of a metadata result set.
+   */
+  interface Loader {
+
+    ArrayList<ArrayList<String>> load() throws SQLException;
+  }
+
+  private static final class Entry {
+
+    private final ArrayList<ArrayList<String>> rows;
+    private final long loadedNanos;
+
+    Entry(ArrayList<ArrayList<String>> rows, long loadedNanos) {
+      this.rows = rows;
+      this.loadedNanos = loadedNanos;
+    }
+  }
+
+  /**
+   * Returns the cached rows for a metadata call, or loads them if they aren't cached or are older
+   * than the connection's TTL. The returned rows must not be modified.
+   *
+   * @param method name of the {@link java.sql.DatabaseMetaData} method
+   * @param arguments the method's arguments, after defaults were applied
+   */
+  static ArrayList<ArrayList<String>> get(VitessConnection connection, Loader loader,
+      String method, Object... arguments) throws SQLException {
+    long ttlNanos = TimeUnit.MILLISECONDS.toNanos(connection.getSchemaCacheTtlMillis());
+    if (ttlNanos <= 0) {
+      return loader.load();
+    }
+    List<Object> key = new ArrayList<>(arguments.length + 2);
+    key.add(connection.getClusterIdentity());
+    key.add(method);
+    for (Object argument : arguments) {
+      key.add(argument instanceof Object[] ? Arrays.asList((Object[]) argument) : argument);
+    }
+
+    Entry entry = cache.getIfPresent(key);
+    if (entry != null && System.nanoTime() - entry.loadedNanos < ttlNanos) {
+      return entry.rows;
+    }
+    long loadedNanos = System.nanoTime();
+    ArrayList<ArrayList<String>> rows = loader.load();
+    cache.put(key, new Entry(rows, loadedNanos));
+    return rows;
+  }
+
+  @VisibleForTesting
+  static void clear() {
+    cache.invalidateAll();
+  }
+}
@@ -55,9 +55,6 @@ import java.util.concurrent.Executor;
  */
 public class VitessConnection extends ConnectionProperties implements Connection {
 
-  /* Get actual class name to be printed on */
-  private static DatabaseMetaData databaseMetaData = null;
-
   /**
    * A Map of currently open statements
    */
@@ -66,8 +63,18 @@ public class VitessConnection extends ConnectionProperties implements Connection
   private boolean closed = true;
   private boolean readOnly = false;
   private DBProperties dbProperties;
+  private DatabaseMetaData databaseMetaData;
+  private final ConnectionTemplate template;
   private final VitessJDBCUrl vitessJDBCUrl;
   private final VTSession vtSession;
+  /**
+   * The physical connection this connection is the handle of, if it was handed out by one.
+   */
+  private VitessPooledConnection pooledConnection;
+  /**
+   * The logical connection this connection is currently handed out as by its pooled connection.
+   */
+  private volatile Connection logicalConnection;
 
 
   /**
@@ -78,11 +85,13 @@ public class VitessConnection extends ConnectionProperties implements Connection
    */
   public VitessConnection(String url, Properties connectionProperties) throws SQLException {
     try {
-      this.vitessJDBCUrl = new VitessJDBCUrl(url, connectionProperties);
+      this.template = ConnectionTemplate.get(url, connectionProperties);
+      this.vitessJDBCUrl = template.getVitessJDBCUrl();
       this.closed = false;
       this.dbProperties = null;
-      initializeProperties(vitessJDBCUrl.getProperties());
+      initializeProperties(template.getProperties());
       this.vtSession = new VTSession(this.getTarget(), this.getExecuteOptions());
+      this.vtSession.setResultFieldsCacheEnabled(getCacheResultFields());
     } catch (Exception exc) {
       throw new SQLException(
           Constants.SQLExceptionMessages.CONN_INIT_ERROR + " - " + exc.getMessage(), exc);
@@ -152,6 +161,12 @@ public class VitessConnection extends ConnectionProperties implements Connection
     }
   }
 
+  @Override
+  public void setCacheResultFields(boolean cacheResultFields) {
+    super.setCacheResultFields(cacheResultFields);
+    this.vtSession.setResultFieldsCacheEnabled(cacheResultFields);
+  }
+
   /**
    * Commit on existing transaction and closed the transaction
    */
@@ -192,18 +207,69 @@ public class VitessConnection extends ConnectionProperties implements Connection
    * Closes an existing connection
    */
   public void close() throws SQLException {
+    close(true);
+  }
+
+  /**
+   * Closes the connection, telling the listeners of its pooled connection unless it is only
+   * closed to be handed out again.
+   */
+  private void close(boolean notifyListeners) throws SQLException {
     if (!this.closed) { //no-op when Connection already closed
       try {
         if (isInTransaction()) { //Rolling back active transaction on close
           this.rollback();
         }
         closeAllOpenStatements();
+      } catch (SQLException exc) {
+        this.closed = true;
+        if (notifyListeners && null != pooledConnection) {
+          pooledConnection.fireConnectionErrorOccurred(exc);
+        }
+        throw exc;
       } finally {
         this.closed = true;
       }
+      if (notifyListeners && null != pooledConnection) {
+        pooledConnection.fireConnectionClosed();
+      }
     }
   }
 
+  void setPooledConnection(VitessPooledConnection pooledConnection) {
+    this.pooledConnection = pooledConnection;
+  }
+
+  void setLogicalConnection(Connection logicalConnection) {
+    this.logicalConnection = logicalConnection;
+  }
+
+  /**
+   * Returns the logical connection this connection is currently handed out as by its {@link
+   * VitessPooledConnection}, or {@code null} if it isn't pooled.
+   */
+  Connection getLogicalConnection() {
+    return logicalConnection;
+  }
+
+  /**
+   * Reopens the connection in the state it was created in, so that it can be handed out again by
+   * its {@link VitessPooledConnection}. A connection which is still open is closed first, without
+   * telling the pooled connection's listeners, since it isn't released.
+   * <p>
+   * Only in-memory state is reset: the properties are copied from the connection's template and
+   * the session is replaced by a new one, without any call to VTGate. The VTGate connections are
+   * kept.
+   */
+  void reset() throws SQLException {
+    close(false);
+    initializeProperties(template.getProperties());
+    this.vtSession.reset(this.getTarget(), this.getExecuteOptions());
+    this.vtSession.setResultFieldsCacheEnabled(getCacheResultFields());
+    this.readOnly = false;
+    this.closed = false;
+  }
+
   /**
    * Return Connection state
    *
@@ -215,26 +281,21 @@ public class VitessConnection extends ConnectionProperties implements Connection
 
   public DatabaseMetaData getMetaData() throws SQLException {
     checkOpen();
-    if (!metadataNullOrClosed()) {
-      return databaseMetaData;
-    } else {
-      synchronized (VitessConnection.class) {
-        if (metadataNullOrClosed()) {
-          String dbEngine = initializeDBProperties();
-          if (dbEngine.equals("mariadb")) {
-            databaseMetaData = new VitessMariaDBDatabaseMetadata(this);
-          } else {
-            databaseMetaData = new VitessMySQLDatabaseMetadata(this);
-          }
+    if (null == databaseMetaData) {
+      DBPropertiesCache.Entry entry = DBPropertiesCache.get(this, new DBPropertiesCache.Loader() {
+        @Override
+        public DBPropertiesCache.Entry load() throws SQLException {
+          return loadDBProperties();
         }
+      });
+      this.dbProperties = entry.getDbProperties();
+      if (entry.isMariaDb()) {
+        databaseMetaData = new VitessMariaDBDatabaseMetadata(this);
+      } else {
+        databaseMetaData = new VitessMySQLDatabaseMetadata(this);
       }
-      return databaseMetaData;
     }
-  }
-
-  private boolean metadataNullOrClosed() throws SQLException {
-    return null == databaseMetaData || null == databaseMetaData.getConnection() || databaseMetaData
-        .getConnection().isClosed();
+    return databaseMetaData;
   }
 
   public boolean isReadOnly() throws SQLException {
@@ -585,6 +646,18 @@ public class VitessConnection extends ConnectionProperties implements Connection
     return this.vitessJDBCUrl;
   }
 
+  /**
+   * Identifies the cluster this connection talks to, by its VTGate hosts and user, for state
+   * that can be shared by all connections to the same cluster.
+   */
+  String getClusterIdentity() {
+    StringBuilder identity = new StringBuilder();
+    for (VitessJDBCUrl.HostInfo hostInfo : this.vitessJDBCUrl.getHostInfos()) {
+      identity.append(hostInfo).append(',');
+    }
+    return identity.append(getUsername()).toString();
+  }
+
   /**
    * Register a Statement instance as open.
    *
@@ -748,51 +821,42 @@ public class VitessConnection extends ConnectionProperties implements Connection
         Constants.SQLExceptionMessages.SQL_FEATURE_NOT_SUPPORTED);
   }
 
-  private String initializeDBProperties() throws SQLException {
+  private DBPropertiesCache.Entry loadDBProperties() throws SQLException {
     HashMap<String, String> dbVariables = new HashMap<>();
-    String dbEngine = null;
-
-    if (metadataNullOrClosed()) {
-      String versionValue;
-
-      try (VitessStatement vitessStatement = new VitessStatement(
-          this); ResultSet resultSet = vitessStatement.executeQuery(
-          "SHOW VARIABLES WHERE VARIABLE_NAME IN (\'tx_isolation\',\'INNODB_VERSION\', "
-              + "\'lower_case_table_names\')")) {
-        while (resultSet.next()) {
-          dbVariables.put(resultSet.getString(1), resultSet.getString(2));
-        }
-        versionValue = dbVariables.get("innodb_version");
-        String transactionIsolation = dbVariables.get("tx_isolation");
-        String lowerCaseTables = dbVariables.get("lower_case_table_names");
-        String productVersion = "";
-        String majorVersion = "";
-        String minorVersion = "";
-        int isolationLevel = 0;
-        if (MysqlDefs.mysqlConnectionTransactionMapping.containsKey(transactionIsolation)) {
-          isolationLevel = MysqlDefs.mysqlConnectionTransactionMapping.get(transactionIsolation);
-        }
-        if (null != versionValue) {
-          if (versionValue.toLowerCase().contains("mariadb")) {
-            dbEngine = "mariadb";
-          } else {
-            dbEngine = "mysql";
-          }
-          if (versionValue.contains("-")) {
-            String[] versions = versionValue.split("-");
-            productVersion = versions[0];
-          } else {
-            productVersion = versionValue;
-          }
-          String[] dbVersions = productVersion.split("\\.", 3);
-          majorVersion = dbVersions[0];
-          minorVersion = dbVersions[1];
+    boolean mariaDb = false;
+
+    try (VitessStatement vitessStatement = new VitessStatement(
+        this); ResultSet resultSet = vitessStatement.executeQuery(
+        "SHOW VARIABLES WHERE VARIABLE_NAME IN (\'tx_isolation\',\'INNODB_VERSION\', "
+            + "\'lower_case_table_names\')")) {
+      while (resultSet.next()) {
+        dbVariables.put(resultSet.getString(1), resultSet.getString(2));
+      }
+      String versionValue = dbVariables.get("innodb_version");
+      String transactionIsolation = dbVariables.get("tx_isolation");
+      String lowerCaseTables = dbVariables.get("lower_case_table_names");
+      String productVersion = "";
+      String majorVersion = "";
+      String minorVersion = "";
+      int isolationLevel = 0;
+      if (MysqlDefs.mysqlConnectionTransactionMapping.containsKey(transactionIsolation)) {
+        isolationLevel = MysqlDefs.mysqlConnectionTransactionMapping.get(transactionIsolation);
+      }
+      if (null != versionValue) {
+        mariaDb = versionValue.toLowerCase().contains("mariadb");
+        if (versionValue.contains("-")) {
+          String[] versions = versionValue.split("-");
+          productVersion = versions[0];
+        } else {
+          productVersion = versionValue;
         }
-        this.dbProperties = new DBProperties(productVersion, majorVersion, minorVersion,
-            isolationLevel, lowerCaseTables);
+        String[] dbVersions = productVersion.split("\\.", 3);
+        majorVersion = dbVersions[0];
+        minorVersion = dbVersions[1];
       }
+      return new DBPropertiesCache.Entry(new DBProperties(productVersion, majorVersion,
+          minorVersion, isolationLevel, lowerCaseTables), mariaDb);
     }
-    return dbEngine;
   }
 
   public DBProperties getDbProperties() {
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.jdbc;
+
+import io.vitess.util.Constants;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Deque;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
+import javax.sql.ConnectionPoolDataSource;
+import javax.sql.DataSource;
+
+/**
+ * A {@link DataSource} which pools {@link VitessConnection}s.
+ * <p>
+ * Closing a connection returns it to the pool, after rolling back any open transaction. Taking it
+ * from the pool again resets its properties and session in memory, so unlike {@link
+ * VitessDriver#connect(String, Properties)} it neither parses the url nor looks up the VTGate
+ * connections again. At most {@code maxIdleConnections} closed connections are kept, the rest are
+ * discarded; there is no limit on the number of open connections.
+ * <p>
+ * As a {@link ConnectionPoolDataSource}, it also provides {@link VitessPooledConnection}s to
+ * external pool managers.
+ */
+public class VitessDataSource implements DataSource, ConnectionPoolDataSource {
+
+  private final String url;
+  private final Properties info;
+  private final int maxIdleConnections;
+
+  private final Deque<VitessPooledConnection> idleConnections = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger idleCount = new AtomicInteger();
+
+  private final ConnectionEventListener poolListener = new ConnectionEventListener() {
+    @Override
+    public void connectionClosed(ConnectionEvent event) {
+      release((VitessPooledConnection) event.getSource());
+    }
+
+    @Override
+    public void connectionErrorOccurred(ConnectionEvent event) {
+      // The connection may be in an unknown state, so it isn't closed into the pool.
+      discard((VitessPooledConnection) event.getSource());
+    }
+  };
+
+  private PrintWriter logWriter;
+  private int loginTimeout;
+
+  /**
+   * Creates a data source keeping up to {@link Constants#DEFAULT_MAX_IDLE_CONNECTIONS} idle
+   * connections.
+   *
+   * @param url - Connection url, as for {@link VitessDriver}
+   * @param info - property for the connections
+   */
+  public VitessDataSource(String url, Properties info) throws SQLException {
+    this(url, info, Constants.DEFAULT_MAX_IDLE_CONNECTIONS);
+  }
+
+  /**
+   * Creates a data source.
+   *
+   * @param url - Connection url, as for {@link VitessDriver}
+   * @param info - property for the connections
+   * @param maxIdleConnections - how many closed connections are kept for reuse
+   */
+  public VitessDataSource(String url, Properties info, int maxIdleConnections)
+      throws SQLException {
+    if (null == url || !url.startsWith(Constants.URL_PREFIX)) {
+      throw new SQLException(Constants.SQLExceptionMessages.INVALID_CONN_URL + " : " + url);
+    }
+    if (maxIdleConnections < 0) {
+      throw new SQLException("maxIdleConnections must not be negative: " + maxIdleConnections);
+    }
+    this.url = url;
+    this.info = null == info ? new Properties() : (Properties) info.clone();
+    this.maxIdleConnections = maxIdleConnections;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public int getMaxIdleConnections() {
+    return maxIdleConnections;
+  }
+
+  /**
+   * Returns how many closed connections are currently kept for reuse.
+   */
+  public int getIdleConnections() {
+    return idleCount.get();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    VitessPooledConnection pooledConnection = idleConnections.pollFirst();
+    if (null != pooledConnection) {
+      idleCount.decrementAndGet();
+    } else {
+      pooledConnection = getPooledConnection();
+      pooledConnection.addConnectionEventListener(poolListener);
+    }
+    return pooledConnection.getConnection();
+  }
+
+  /**
+   * Creates a connection which isn't pooled, for a different user.
+   *
+   * @param username - the user to connect as
+   * @param password - not used, as for {@link VitessDriver}
+   */
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    VitessConnection connection = new VitessConnection(url, withUsername(username));
+    connection.connect();
+    return connection;
+  }
+
+  @Override
+  public VitessPooledConnection getPooledConnection() throws SQLException {
+    return newPooledConnection(info);
+  }
+
+  @Override
+  public VitessPooledConnection getPooledConnection(String user, String password)
+      throws SQLException {
+    return newPooledConnection(withUsername(user));
+  }
+
+  /**
+   * Discards all idle connections.
+   */
+  public void close() throws SQLException {
+    VitessPooledConnection pooledConnection;
+    while (null != (pooledConnection = idleConnections.pollFirst())) {
+      idleCount.decrementAndGet();
+      pooledConnection.close();
+    }
+  }
+
+  private VitessPooledConnection newPooledConnection(Properties properties) throws SQLException {
+    VitessConnection connection = new VitessConnection(url, properties);
+    connection.connect();
+    return new VitessPooledConnection(connection);
+  }
+
+  private Properties withUsername(String username) {
+    Properties properties = (Properties) info.clone();
+    if (null != username) {
+      properties.setProperty(Constants.Property.USERNAME, username);
+    }
+    return properties;
+  }
+
+  private void release(VitessPooledConnection pooledConnection) {
+    if (idleCount.incrementAndGet() <= maxIdleConnections) {
+      // Most recently used first, so that a small working set keeps being reused.
+      idleConnections.offerFirst(pooledConnection);
+    } else {
+      idleCount.decrementAndGet();
+      discard(pooledConnection);
+    }
+  }
+
+  private void discard(VitessPooledConnection pooledConnection) {
+    pooledConnection.removeConnectionEventListener(poolListener);
+    try {
+      pooledConnection.close();
+    } catch (SQLException ignored) {
+      // Nothing is left to clean up for a connection which couldn't be closed.
+    }
+  }
+
+  @Override
+  public PrintWriter getLogWriter() {
+    return logWriter;
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) {
+    this.logWriter = out;
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) {
+    this.loginTimeout = seconds;
+  }
+
+  @Override
+  public int getLoginTimeout() {
+    return loginTimeout;
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException(
+        Constants.SQLExceptionMessages.SQL_FEATURE_NOT_SUPPORTED);
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    try {
+      return iface.cast(this);
+    } catch (ClassCastException ccexc) {
+      throw new SQLException(Constants.SQLExceptionMessages.CLASS_CAST_EXCEPTION + iface.toString(),
+          ccexc);
+    }
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) {
+    return iface.isInstance(this);
+  }
+}
@@ -42,6 +42,12 @@ import java.util.regex.Pattern;
  */
 public class VitessJDBCUrl {
 
+  private static final Pattern URL_PATTERN = Pattern.compile(Constants.URL_PATTERN);
+  /*
+      pattern = ip:port
+  */
+  private static final Pattern HOST_PATTERN = Pattern.compile("([^/:]+):(\\d+)?");
+
   private final String url;
   private final List<HostInfo> hostInfos;
   private final Properties info;
@@ -133,8 +139,7 @@ public class VitessJDBCUrl {
     m.group(12) = "property1=value1.."
     */
 
-    final Pattern p = Pattern.compile(Constants.URL_PATTERN);
-    final Matcher m = p.matcher(url);
+    final Matcher m = URL_PATTERN.matcher(url);
     if (!m.find()) {
       throw new SQLException(Constants.SQLExceptionMessages.MALFORMED_URL);
     }
@@ -246,11 +251,7 @@ public class VitessJDBCUrl {
     StringTokenizer stringTokenizer = new StringTokenizer(hostURLs, ",");
     while (stringTokenizer.hasMoreTokens()) {
       String hostString = stringTokenizer.nextToken();
-      /*
-          pattern = ip:port
-      */
-      final Pattern p = Pattern.compile("([^/:]+):(\\d+)?");
-      final Matcher m = p.matcher(hostString);
+      final Matcher m = HOST_PATTERN.matcher(hostString);
       if (!m.find()) {
         throw new SQLException(Constants.SQLExceptionMessages.MALFORMED_URL);
       }
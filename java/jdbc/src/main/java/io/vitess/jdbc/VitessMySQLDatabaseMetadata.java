@@ -42,6 +42,7 @@ import java.util.SortedMap;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
 /**
  * Created by ashudeep.sharma on 15/02/16.
@@ -295,8 +296,35 @@ public class VitessMySQLDatabaseMetadata extends VitessDatabaseMetaData implemen
     }
   }
 
-  @SuppressWarnings("StringBufferReplaceableByString")
   public ResultSet getTables(String catalog, String schemaPattern, String tableNamePattern,
+      final String[] types) throws SQLException {
+    if (null == tableNamePattern) {
+      tableNamePattern = "%";
+    }
+    if (null == catalog || catalog.length() == 0) {
+      catalog = this.connection.getCatalog();
+    }
+    final String tableCatalog = catalog;
+    final String tablePattern = tableNamePattern;
+    ArrayList<ArrayList<String>> data = SchemaMetadataCache.get(this.connection,
+        new SchemaMetadataCache.Loader() {
+          @Override
+          public ArrayList<ArrayList<String>> load() throws SQLException {
+            return loadTables(tableCatalog, tablePattern, types);
+          }
+        }, "getTables", catalog, tableNamePattern, types);
+    String[] columnNames = new String[]{"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "TABLE_TYPE",
+        "REMARKS", "TYPE_CAT", "TYPE_SCHEM", "TYPE_NAME", "SELF_REFERENCING_COL_NAME",
+        "REF_GENERATION"};
+    Query.Type[] columnTypes = new Query.Type[]{Query.Type.VARCHAR, Query.Type.VARCHAR,
+        Query.Type.VARCHAR, Query.Type.VARCHAR, Query.Type.VARCHAR, Query.Type.VARCHAR,
+        Query.Type.VARCHAR, Query.Type.VARCHAR, Query.Type.VARCHAR, Query.Type.VARCHAR};
+
+    return new VitessResultSet(columnNames, columnTypes, data, this.connection);
+  }
+
+  @SuppressWarnings("StringBufferReplaceableByString")
+  private ArrayList<ArrayList<String>> loadTables(String catalog, String tableNamePattern,
       String[] types) throws SQLException {
     ResultSet resultSet = null;
     VitessStatement vitessStatement = null;
@@ -307,18 +335,12 @@ public class VitessMySQLDatabaseMetadata extends VitessDatabaseMetaData implemen
     boolean reportLocalTemporaries = false;
     final SortedMap<TableMetaDataKey, ArrayList<String>> sortedRows = new TreeMap<>();
 
-    if (null == tableNamePattern) {
-      tableNamePattern = "%";
-    }
-    if (null == catalog || catalog.length() == 0) {
-      catalog = this.connection.getCatalog();
-    }
     ArrayList<ArrayList<String>> data = new ArrayList<>();
     try {
       vitessStatement = new VitessStatement(this.connection);
       resultSet = vitessStatement.executeQuery(
-          "SHOW FULL TABLES FROM " + this.quotedId + catalog + this.quotedId + " LIKE \'"
-              + tableNamePattern + "\'");
+          "SHOW FULL TABLES FROM " + quoteIdentifier(catalog) + " LIKE "
+              + quoteLiteral(tableNamePattern));
 
       if (null == types || types.length == 0) {
         reportTables = reportViews = reportSystemTables = reportSystemViews =
@@ -444,14 +466,7 @@ public class VitessMySQLDatabaseMetadata extends VitessDatabaseMetaData implemen
         vitessStatement.close();
       }
     }
-    String[] columnNames = new String[]{"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "TABLE_TYPE",
-        "REMARKS", "TYPE_CAT", "TYPE_SCHEM", "TYPE_NAME", "SELF_REFERENCING_COL_NAME",
-        "REF_GENERATION"};
-    Query.Type[] columnTypes = new Query.Type[]{Query.Type.VARCHAR, Query.Type.VARCHAR,
-        Query.Type.VARCHAR, Query.Type.VARCHAR, Query.Type.VARCHAR, Query.Type.VARCHAR,
-        Query.Type.VARCHAR, Query.Type.VARCHAR, Query.Type.VARCHAR, Query.Type.VARCHAR};
-
-    return new VitessResultSet(columnNames, columnTypes, data, this.connection);
+    return data;
   }
 
   public ResultSet getSchemas() throws SQLException {
@@ -495,172 +510,161 @@ public class VitessMySQLDatabaseMetadata extends VitessDatabaseMetaData implemen
     return new VitessResultSet(columnNames, columnType, data, this.connection);
   }
 
-  @SuppressWarnings("StringBufferReplaceableByString")
   public ResultSet getColumns(String catalog, String schemaPattern, String tableNamePattern,
       String columnNamePattern) throws SQLException {
-    ResultSet resultSet = null;
-    VitessStatement vitessStatement = new VitessStatement(this.connection);
-    ArrayList<ArrayList<String>> data = new ArrayList<>();
     //Null Matches All
+    if (null == tableNamePattern) {
+      tableNamePattern = "%";
+    }
     if (null == columnNamePattern) {
       columnNamePattern = "%";
     }
     if (null == catalog || catalog.length() == 0) {
       catalog = this.connection.getCatalog();
     }
-    try {
-      ArrayList<String> tableList = new ArrayList<>();
-      ResultSet tables = null;
-      if (null == tableNamePattern) {
-        try {
-          tables = getTables(catalog, schemaPattern, "%", new String[0]);
-          while (tables.next()) {
-            String tableName = tables.getString("TABLE_NAME");
-            tableList.add(tableName);
-          }
-        } finally {
-          if (null != tables) {
-            tables.close();
+    final String columnCatalog = catalog;
+    final String tablePattern = tableNamePattern;
+    final String columnPattern = columnNamePattern;
+    ArrayList<ArrayList<String>> data = SchemaMetadataCache.get(this.connection,
+        new SchemaMetadataCache.Loader() {
+          @Override
+          public ArrayList<ArrayList<String>> load() throws SQLException {
+            return loadColumns(columnCatalog, tablePattern, columnPattern);
           }
-        }
-      } else {
-        try {
-          tables = getTables(catalog, schemaPattern, tableNamePattern, new String[0]);
-          while (tables.next()) {
-            String tableName = tables.getString("TABLE_NAME");
-            tableList.add(tableName);
-          }
-        } finally {
-          if (null != tables) {
-            tables.close();
-          }
-        }
+        }, "getColumns", catalog, tableNamePattern, columnNamePattern);
+
+    String[] columnNames = new String[]{"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "COLUMN_NAME",
+        "DATA_TYPE", "TYPE_NAME", "COLUMN_SIZE", "BUFFER_LENGTH", "DECIMAL_DIGITS",
+        "NUM_PREC_RADIX", "NULLABLE", "REMARKS", "COLUMN_DEF", "SQL_DATA_TYPE", "SQL_DATETIME_SUB",
+        "CHAR_OCTET_LENGTH", "ORDINAL_POSITION", "IS_NULLABLE", "SCOPE_CATALOG", "SCOPE_SCHEMA",
+        "SCOPE_TABLE", "SOURCE_DATA_TYPE", "IS_AUTOINCREMENT", "IS_GENERATEDCOLUMN"};
+
+    Query.Type[] columnType = new Query.Type[]{Query.Type.CHAR, Query.Type.CHAR, Query.Type.CHAR,
+        Query.Type.CHAR, Query.Type.INT32, Query.Type.CHAR, Query.Type.INT32, Query.Type.INT32,
+        Query.Type.INT32, Query.Type.INT32, Query.Type.INT32, Query.Type.CHAR, Query.Type.CHAR,
+        Query.Type.INT32, Query.Type.INT32, Query.Type.INT32, Query.Type.INT32, Query.Type.CHAR,
+        Query.Type.CHAR, Query.Type.CHAR, Query.Type.CHAR, Query.Type.INT16, Query.Type.CHAR,
+        Query.Type.CHAR};
+
+    return new VitessResultSet(columnNames, columnType, data, this.connection);
+  }
+
+  /**
+   * Reads the columns of each matching table with one {@code SHOW FULL COLUMNS}, which VTGate
+   * routes to the keyspace and rewrites to its real schema, unlike a query on {@code
+   * INFORMATION_SCHEMA}. The column pattern is matched here, so that the full column list gives the
+   * ordinal positions.
+   */
+  private ArrayList<ArrayList<String>> loadColumns(String catalog, String tableNamePattern,
+      String columnNamePattern) throws SQLException {
+    ArrayList<String> tableList = new ArrayList<>();
+    ResultSet tables = getTables(catalog, null, tableNamePattern, null);
+    try {
+      while (tables.next()) {
+        tableList.add(tables.getString("TABLE_NAME"));
       }
-      for (String tableName : tableList) {
-        resultSet = null;
-        try {
+    } finally {
+      tables.close();
+    }
+    Pattern columnPattern = likePattern(columnNamePattern);
+    ArrayList<ArrayList<String>> data = new ArrayList<>();
+    for (String tableName : tableList) {
+      loadColumns(catalog, tableName, columnPattern, data);
+    }
+    return data;
+  }
 
-          // Return correct ordinals if column name pattern is not '%'
-          // Currently, MySQL doesn't show enough data to do this, so we do it the 'hard' way...Once
-          // _SYSTEM tables are in, this should be
-          // much easier
-          boolean fixUpOrdinalsRequired = false;
-          Map<String, Integer> ordinalFixUpMap = null;
-          if (!columnNamePattern.equals("%")) {
-            fixUpOrdinalsRequired = true;
-            vitessStatement = new VitessStatement(this.connection);
-            resultSet = vitessStatement.executeQuery(
-                "SHOW FULL COLUMNS FROM " + this.quotedId + tableName + this.quotedId + " FROM "
-                    + this.quotedId + catalog + this.quotedId);
-            ordinalFixUpMap = new HashMap<>();
-
-            int fullOrdinalPos = 1;
-            while (resultSet.next()) {
-              String fullOrdColName = resultSet.getString("Field");
-              ordinalFixUpMap.put(fullOrdColName, fullOrdinalPos++);
-            }
-          }
-          resultSet = vitessStatement.executeQuery(
-              "SHOW FULL COLUMNS FROM " + this.quotedId + tableName + this.quotedId + " FROM "
-                  + this.quotedId + catalog + this.quotedId + " LIKE "
-                  + Constants.LITERAL_SINGLE_QUOTE + columnNamePattern
-                  + Constants.LITERAL_SINGLE_QUOTE);
-          int ordPos = 1;
-
-          while (resultSet.next()) {
-            ArrayList<String> row = new ArrayList<>();
-            row.add(0, catalog);
-            row.add(1, null);
-            row.add(2, tableName);
-            row.add(3, resultSet.getString("Field"));
-            TypeDescriptor typeDesc = new TypeDescriptor(resultSet.getString("Type"),
-                resultSet.getString("Null"));
-
-            row.add(4, Short.toString(typeDesc.dataType));
-
-            // DATA_TYPE (jdbc)
-            row.add(5, typeDesc.typeName); // TYPE_NAME
-            // (native)
-            if (null == typeDesc.columnSize) {
-              row.add(6, null);
-            } else {
-              String collation = resultSet.getString("Collation");
-              int mbminlen = 1;
-              if (collation != null && ("TEXT".equals(typeDesc.typeName) || "TINYTEXT"
-                  .equals(typeDesc.typeName) || "MEDIUMTEXT".equals(typeDesc.typeName))) {
-                if (collation.indexOf("ucs2") > -1 || collation.indexOf("utf16") > -1) {
-                  mbminlen = 2;
-                } else if (collation.indexOf("utf32") > -1) {
-                  mbminlen = 4;
-                }
-              }
-              row.add(6, mbminlen == 1 ? typeDesc.columnSize.toString()
-                  : Integer.toString(typeDesc.columnSize / mbminlen));
-            }
-            row.add(7, Integer.toString(typeDesc.bufferLength));
-            row.add(8, typeDesc.decimalDigits == null ? null : typeDesc.decimalDigits.toString());
-            row.add(9, Integer.toString(typeDesc.numPrecRadix));
-            row.add(10, Integer.toString(typeDesc.nullability));
-
-            //
-            // Doesn't always have this field, depending on version
-            //
-            //
-            // REMARK column
-            //
-            row.add(11, "Comment");
-
-            // COLUMN_DEF
-            row.add(12,
-                resultSet.getString("Default") == null ? null : resultSet.getString("Default"));
-
-            row.add(13, Integer.toString(0));// SQL_DATA_TYPE
-            row.add(14, Integer.toString(0));// SQL_DATE_TIME_SUB
-
-            if (StringUtils.indexOfIgnoreCase(typeDesc.typeName, "CHAR") != -1
-                || StringUtils.indexOfIgnoreCase(typeDesc.typeName, "BLOB") != -1
-                || StringUtils.indexOfIgnoreCase(typeDesc.typeName, "TEXT") != -1
-                || StringUtils.indexOfIgnoreCase(typeDesc.typeName, "BINARY") != -1) {
-              row.add(15, row.get(6)); // CHAR_OCTET_LENGTH
-            } else {
-              row.add(15, Integer.toString(0));
-            }
+  private void loadColumns(String catalog, String tableName, Pattern columnPattern,
+      ArrayList<ArrayList<String>> data) throws SQLException {
+    ResultSet resultSet = null;
+    VitessStatement vitessStatement = new VitessStatement(this.connection);
+    try {
+      resultSet = vitessStatement.executeQuery(
+          "SHOW FULL COLUMNS FROM " + quoteIdentifier(tableName) + " FROM "
+              + quoteIdentifier(catalog));
 
-            // ORDINAL_POSITION
-            if (!fixUpOrdinalsRequired) {
-              row.add(16, Integer.toString(ordPos++));
-            } else {
-              String origColName = resultSet.getString("Field");
-              Integer realOrdinal = ordinalFixUpMap.get(origColName);
-
-              if (realOrdinal != null) {
-                row.add(16, realOrdinal.toString());
-              } else {
-                throw new SQLException(
-                    "Can not find column in full column list to determine true ordinal position.");
-              }
-            }
+      int ordinalPosition = 0;
+      while (resultSet.next()) {
+        ordinalPosition++;
+        String columnName = resultSet.getString("Field");
+        if (!columnPattern.matcher(columnName).matches()) {
+          continue;
+        }
+        ArrayList<String> row = new ArrayList<>();
+        row.add(0, catalog);
+        row.add(1, null);
+        row.add(2, tableName);
+        row.add(3, columnName);
+        TypeDescriptor typeDesc = new TypeDescriptor(resultSet.getString("Type"),
+            resultSet.getString("Null"));
+
+        row.add(4, Short.toString(typeDesc.dataType));
 
-            row.add(17, typeDesc.isNullable);
-
-            // We don't support REF or DISTINCT types
-            row.add(18, null);
-            row.add(19, null);
-            row.add(20, null);
-            row.add(21, null);
-            String extra = resultSet.getString("Extra");
-            if (null != extra) {
-              row.add(22,
-                  StringUtils.indexOfIgnoreCase(extra, "auto_increment") != -1 ? "YES" : "NO");
-              row.add(23, StringUtils.indexOfIgnoreCase(extra, "generated") != -1 ? "YES" : "NO");
+        // DATA_TYPE (jdbc)
+        row.add(5, typeDesc.typeName); // TYPE_NAME
+        // (native)
+        if (null == typeDesc.columnSize) {
+          row.add(6, null);
+        } else {
+          String collation = resultSet.getString("Collation");
+          int mbminlen = 1;
+          if (collation != null && ("TEXT".equals(typeDesc.typeName) || "TINYTEXT"
+              .equals(typeDesc.typeName) || "MEDIUMTEXT".equals(typeDesc.typeName))) {
+            if (collation.indexOf("ucs2") > -1 || collation.indexOf("utf16") > -1) {
+              mbminlen = 2;
+            } else if (collation.indexOf("utf32") > -1) {
+              mbminlen = 4;
             }
-            data.add(row);
-          }
-        } finally {
-          if (null != resultSet) {
-            resultSet.close();
           }
+          row.add(6, mbminlen == 1 ? typeDesc.columnSize.toString()
+              : Integer.toString(typeDesc.columnSize / mbminlen));
         }
+        row.add(7, Integer.toString(typeDesc.bufferLength));
+        row.add(8, typeDesc.decimalDigits == null ? null : typeDesc.decimalDigits.toString());
+        row.add(9, Integer.toString(typeDesc.numPrecRadix));
+        row.add(10, Integer.toString(typeDesc.nullability));
+
+        //
+        // Doesn't always have this field, depending on version
+        //
+        //
+        // REMARK column
+        //
+        row.add(11, "Comment");
+
+        // COLUMN_DEF
+        row.add(12,
+            resultSet.getString("Default") == null ? null : resultSet.getString("Default"));
+
+        row.add(13, Integer.toString(0));// SQL_DATA_TYPE
+        row.add(14, Integer.toString(0));// SQL_DATE_TIME_SUB
+
+        if (StringUtils.indexOfIgnoreCase(typeDesc.typeName, "CHAR") != -1
+            || StringUtils.indexOfIgnoreCase(typeDesc.typeName, "BLOB") != -1
+            || StringUtils.indexOfIgnoreCase(typeDesc.typeName, "TEXT") != -1
+            || StringUtils.indexOfIgnoreCase(typeDesc.typeName, "BINARY") != -1) {
+          row.add(15, row.get(6)); // CHAR_OCTET_LENGTH
+        } else {
+          row.add(15, Integer.toString(0));
+        }
+
+        // ORDINAL_POSITION
+        row.add(16, Integer.toString(ordinalPosition));
+
+        row.add(17, typeDesc.isNullable);
+
+        // We don't support REF or DISTINCT types
+        row.add(18, null);
+        row.add(19, null);
+        row.add(20, null);
+        row.add(21, null);
+        String extra = resultSet.getString("Extra");
+        if (null != extra) {
+          row.add(22,
+              StringUtils.indexOfIgnoreCase(extra, "auto_increment") != -1 ? "YES" : "NO");
+          row.add(23, StringUtils.indexOfIgnoreCase(extra, "generated") != -1 ? "YES" : "NO");
+        }
+        data.add(row);
       }
     } finally {
       if (null != resultSet) {
@@ -668,21 +672,40 @@ public class VitessMySQLDatabaseMetadata extends VitessDatabaseMetaData implemen
       }
       vitessStatement.close();
     }
+  }
 
-    String[] columnNames = new String[]{"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "COLUMN_NAME",
-        "DATA_TYPE", "TYPE_NAME", "COLUMN_SIZE", "BUFFER_LENGTH", "DECIMAL_DIGITS",
-        "NUM_PREC_RADIX", "NULLABLE", "REMARKS", "COLUMN_DEF", "SQL_DATA_TYPE", "SQL_DATETIME_SUB",
-        "CHAR_OCTET_LENGTH", "ORDINAL_POSITION", "IS_NULLABLE", "SCOPE_CATALOG", "SCOPE_SCHEMA",
-        "SCOPE_TABLE", "SOURCE_DATA_TYPE", "IS_AUTOINCREMENT", "IS_GENERATEDCOLUMN"};
+  private String quoteIdentifier(String identifier) {
+    return this.quotedId + identifier.replace(this.quotedId, this.quotedId + this.quotedId)
+        + this.quotedId;
+  }
 
-    Query.Type[] columnType = new Query.Type[]{Query.Type.CHAR, Query.Type.CHAR, Query.Type.CHAR,
-        Query.Type.CHAR, Query.Type.INT32, Query.Type.CHAR, Query.Type.INT32, Query.Type.INT32,
-        Query.Type.INT32, Query.Type.INT32, Query.Type.INT32, Query.Type.CHAR, Query.Type.CHAR,
-        Query.Type.INT32, Query.Type.INT32, Query.Type.INT32, Query.Type.INT32, Query.Type.CHAR,
-        Query.Type.CHAR, Query.Type.CHAR, Query.Type.CHAR, Query.Type.INT16, Query.Type.CHAR,
-        Query.Type.CHAR};
+  private static String quoteLiteral(String value) {
+    return Constants.LITERAL_SINGLE_QUOTE + value.replace("\\", "\\\\")
+        .replace(Constants.LITERAL_SINGLE_QUOTE, "\\" + Constants.LITERAL_SINGLE_QUOTE)
+        + Constants.LITERAL_SINGLE_QUOTE;
+  }
 
-    return new VitessResultSet(columnNames, columnType, data, this.connection);
+  /**
+   * Returns a case-insensitive pattern matching like a JDBC search pattern, where {@code %} and
+   * {@code _} match any string and any character, unless escaped by a backslash.
+   */
+  @VisibleForTesting
+  static Pattern likePattern(String searchPattern) {
+    StringBuilder regex = new StringBuilder();
+    for (int i = 0; i < searchPattern.length(); i++) {
+      char ch = searchPattern.charAt(i);
+      if (ch == '\\' && i + 1 < searchPattern.length()) {
+        regex.append(Pattern.quote(String.valueOf(searchPattern.charAt(++i))));
+      } else if (ch == '%') {
+        regex.append(".*");
+      } else if (ch == '_') {
+        regex.append('.');
+      } else {
+        regex.append(Pattern.quote(String.valueOf(ch)));
+      }
+    }
+    return Pattern.compile(regex.toString(),
+        Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
   }
 
   public ResultSet getColumnPrivileges(String catalog, String schema, String table,
@@ -823,12 +846,29 @@ public class VitessMySQLDatabaseMetadata extends VitessDatabaseMetaData implemen
     return new VitessResultSet(columnNames, columnType, data, this.connection);
   }
 
-  @SuppressWarnings("StringBufferReplaceableByString")
-  public ResultSet getPrimaryKeys(String catalog, String schema, String table) throws SQLException {
-
+  public ResultSet getPrimaryKeys(final String catalog, String schema, final String table)
+      throws SQLException {
     if (null == table) {
       throw new SQLException("Table Name Cannot be Null");
     }
+    ArrayList<ArrayList<String>> data = SchemaMetadataCache.get(this.connection,
+        new SchemaMetadataCache.Loader() {
+          @Override
+          public ArrayList<ArrayList<String>> load() throws SQLException {
+            return loadPrimaryKeys(catalog, table);
+          }
+        }, "getPrimaryKeys", catalog, table);
+    String[] columnNames = new String[]{"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "COLUMN_NAME",
+        "KEY_SEQ", "PK_NAME"};
+    Query.Type[] columnType = new Query.Type[]{Query.Type.CHAR, Query.Type.CHAR, Query.Type.CHAR,
+        Query.Type.CHAR, Query.Type.INT16, Query.Type.CHAR};
+
+    return new VitessResultSet(columnNames, columnType, data, this.connection);
+  }
+
+  @SuppressWarnings("StringBufferReplaceableByString")
+  private ArrayList<ArrayList<String>> loadPrimaryKeys(String catalog, String table)
+      throws SQLException {
     ResultSet resultSet = null;
     VitessStatement vitessStatement = new VitessStatement(this.connection);
     ArrayList<ArrayList<String>> sortedData = new ArrayList<>();
@@ -869,12 +909,7 @@ public class VitessMySQLDatabaseMetadata extends VitessDatabaseMetaData implemen
       vitessStatement.close();
     }
 
-    String[] columnNames = new String[]{"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "COLUMN_NAME",
-        "KEY_SEQ", "PK_NAME"};
-    Query.Type[] columnType = new Query.Type[]{Query.Type.CHAR, Query.Type.CHAR, Query.Type.CHAR,
-        Query.Type.CHAR, Query.Type.INT16, Query.Type.CHAR};
-
-    return new VitessResultSet(columnNames, columnType, sortedData, this.connection);
+    return sortedData;
   }
 
   public ResultSet getImportedKeys(String catalog, String schema, String table)
@@ -1199,10 +1234,29 @@ public class VitessMySQLDatabaseMetadata extends VitessDatabaseMetaData implemen
     return new VitessResultSet(columnNames, columnTypes, data, this.connection);
   }
 
-  @SuppressWarnings("StringBufferReplaceableByString")
-  public ResultSet getIndexInfo(String catalog, String schema, String table, boolean unique,
-      boolean approximate) throws SQLException {
+  public ResultSet getIndexInfo(final String catalog, String schema, final String table,
+      boolean unique, boolean approximate) throws SQLException {
+    ArrayList<ArrayList<String>> data = SchemaMetadataCache.get(this.connection,
+        new SchemaMetadataCache.Loader() {
+          @Override
+          public ArrayList<ArrayList<String>> load() throws SQLException {
+            return loadIndexInfo(catalog, table);
+          }
+        }, "getIndexInfo", catalog, table);
+    String[] columnName = new String[]{"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "Non_unique",
+        "INDEX_QUALIFIER", "INDEX_NAME", "TYPE", "ORDINAL_POSITION", "COLUMN_NAME", "ASC_OR_DESC",
+        "CARDINALITY", "PAGES", "FILTER_CONDITION"};
 
+    Query.Type[] columnType = new Query.Type[]{Query.Type.CHAR, Query.Type.CHAR, Query.Type.CHAR,
+        Query.Type.BIT, Query.Type.CHAR, Query.Type.CHAR, Query.Type.INT16, Query.Type.INT16,
+        Query.Type.CHAR, Query.Type.CHAR, Query.Type.INT32, Query.Type.INT32, Query.Type.CHAR};
+
+    return new VitessResultSet(columnName, columnType, data, this.connection);
+  }
+
+  @SuppressWarnings("StringBufferReplaceableByString")
+  private ArrayList<ArrayList<String>> loadIndexInfo(String catalog, String table)
+      throws SQLException {
     ArrayList<ArrayList<String>> data = new ArrayList<>();
     final SortedMap<IndexMetaDataKey, ArrayList<String>> sortedRows = new TreeMap<>();
     VitessStatement vitessStatement = new VitessStatement(this.connection);
@@ -1253,15 +1307,7 @@ public class VitessMySQLDatabaseMetadata extends VitessDatabaseMetaData implemen
       }
       vitessStatement.close();
     }
-    String[] columnName = new String[]{"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "Non_unique",
-        "INDEX_QUALIFIER", "INDEX_NAME", "TYPE", "ORDINAL_POSITION", "COLUMN_NAME", "ASC_OR_DESC",
-        "CARDINALITY", "PAGES", "FILTER_CONDITION"};
-
-    Query.Type[] columnType = new Query.Type[]{Query.Type.CHAR, Query.Type.CHAR, Query.Type.CHAR,
-        Query.Type.BIT, Query.Type.CHAR, Query.Type.CHAR, Query.Type.INT16, Query.Type.INT16,
-        Query.Type.CHAR, Query.Type.CHAR, Query.Type.INT32, Query.Type.INT32, Query.Type.CHAR};
-
-    return new VitessResultSet(columnName, columnType, data, this.connection);
+    return data;
   }
 
   public boolean ownUpdatesAreVisible(int type) throws SQLException {
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.jdbc;
+
+import io.vitess.util.Constants;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
+import javax.sql.PooledConnection;
+import javax.sql.StatementEventListener;
+
+/**
+ * A {@link PooledConnection} backed by a single {@link VitessConnection}.
+ * <p>
+ * VTGate channels are shared by all connections to the same hosts, so a Vitess connection is not
+ * much more than its session. Every {@link #getConnection()} call resets the properties and
+ * session of the {@link VitessConnection} in memory, and returns a new logical handle to it.
+ * Closing a handle closes the connection, which notifies the listeners rather than releasing any
+ * resources. A closed handle stays closed: closing it again does nothing, and any other call
+ * fails, even once the connection was handed out again. Handing the connection out again
+ * invalidates the previous handle without notifying the listeners, since the connection isn't
+ * released. Statements and the {@link DatabaseMetaData} return the handle from {@code
+ * getConnection()}. {@code unwrap(VitessConnection.class)} returns the connection itself, which
+ * must not be used after its handle was closed.
+ */
+public class VitessPooledConnection implements PooledConnection {
+
+  private final VitessConnection connection;
+  private final List<ConnectionEventListener> listeners = new CopyOnWriteArrayList<>();
+  private volatile boolean closed = false;
+  private Handle handle;
+
+  VitessPooledConnection(VitessConnection connection) throws SQLException {
+    this.connection = connection;
+    // The connection is reopened by getConnection().
+    connection.close();
+    connection.setPooledConnection(this);
+  }
+
+  @Override
+  public synchronized Connection getConnection() throws SQLException {
+    if (closed) {
+      throw new SQLException(Constants.SQLExceptionMessages.CONN_CLOSED);
+    }
+    // Only one handle can be open at a time. The previous one is invalidated rather than closed,
+    // so that the listeners aren't told the connection is free while it is handed out again.
+    if (null != handle) {
+      handle.invalidate();
+    }
+    connection.reset();
+    handle = new Handle();
+    connection.setLogicalConnection(handle.logicalConnection);
+    return handle.logicalConnection;
+  }
+
+  @Override
+  public synchronized void close() throws SQLException {
+    if (!closed) {
+      closed = true;
+      connection.setPooledConnection(null);
+      connection.setLogicalConnection(null);
+      if (null != handle) {
+        handle.invalidate();
+      }
+      connection.close();
+    }
+  }
+
+  @Override
+  public void addConnectionEventListener(ConnectionEventListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeConnectionEventListener(ConnectionEventListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Statement pooling isn't supported, so statement events are never sent.
+   */
+  @Override
+  public void addStatementEventListener(StatementEventListener listener) {
+  }
+
+  @Override
+  public void removeStatementEventListener(StatementEventListener listener) {
+  }
+
+  void fireConnectionClosed() {
+    ConnectionEvent event = new ConnectionEvent(this);
+    for (ConnectionEventListener listener : listeners) {
+      listener.connectionClosed(event);
+    }
+  }
+
+  void fireConnectionErrorOccurred(SQLException exc) {
+    ConnectionEvent event = new ConnectionEvent(this, exc);
+    for (ConnectionEventListener listener : listeners) {
+      listener.connectionErrorOccurred(event);
+    }
+  }
+
+  /**
+   * A logical connection handed out by {@link #getConnection()}, which forwards calls to the
+   * {@link VitessConnection} until it is closed.
+   */
+  private final class Handle implements InvocationHandler {
+
+    private final Connection logicalConnection = (Connection) Proxy.newProxyInstance(
+        Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+    private volatile boolean handleClosed = false;
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "VitessPooledConnection handle of " + connection;
+        case "close":
+          close();
+          return null;
+        case "isClosed":
+          return handleClosed || connection.isClosed();
+        case "isValid":
+          if (handleClosed) {
+            return false;
+          }
+          break;
+        case "getMetaData":
+          if (handleClosed) {
+            throw new SQLException(Constants.SQLExceptionMessages.CONN_CLOSED);
+          }
+          return Proxy.newProxyInstance(DatabaseMetaData.class.getClassLoader(),
+              new Class<?>[]{DatabaseMetaData.class},
+              new MetaDataHandle(connection.getMetaData()));
+        default:
+          if (handleClosed) {
+            throw new SQLException(Constants.SQLExceptionMessages.CONN_CLOSED);
+          }
+      }
+      try {
+        return method.invoke(connection, args);
+      } catch (InvocationTargetException exc) {
+        throw exc.getCause();
+      }
+    }
+
+    /**
+     * Closes the connection, unless this handle was already closed.
+     */
+    private void close() throws SQLException {
+      synchronized (VitessPooledConnection.this) {
+        if (handleClosed) {
+          return;
+        }
+        handleClosed = true;
+      }
+      connection.close();
+    }
+
+    private void invalidate() {
+      handleClosed = true;
+    }
+
+    /**
+     * Forwards calls to the {@link DatabaseMetaData} of the connection while the handle is open,
+     * and returns the handle as its connection.
+     */
+    private final class MetaDataHandle implements InvocationHandler {
+
+      private final DatabaseMetaData metaData;
+
+      private MetaDataHandle(DatabaseMetaData metaData) {
+        this.metaData = metaData;
+      }
+
+      @Override
+      public Object invoke(Object metaDataProxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+          case "equals":
+            return metaDataProxy == args[0];
+          case "hashCode":
+            return System.identityHashCode(metaDataProxy);
+          case "toString":
+            return metaData.toString();
+          case "getConnection":
+            return logicalConnection;
+          default:
+            if (handleClosed) {
+              throw new SQLException(Constants.SQLExceptionMessages.CONN_CLOSED);
+            }
+        }
+        try {
+          return method.invoke(metaData, args);
+        } catch (InvocationTargetException exc) {
+          throw exc.getCause();
+        }
+      }
+    }
+  }
+}
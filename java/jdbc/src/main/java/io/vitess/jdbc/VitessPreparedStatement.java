@@ -17,10 +17,12 @@
 package io.vitess.jdbc;
 
 import io.vitess.client.Context;
+import io.vitess.client.Proto;
 import io.vitess.client.VTGateConnection;
 import io.vitess.client.cursor.Cursor;
 import io.vitess.client.cursor.CursorWithError;
 import io.vitess.mysql.DateTime;
+import io.vitess.proto.Query;
 import io.vitess.util.Constants;
 import io.vitess.util.StringUtils;
 
@@ -52,10 +54,13 @@ import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Created by harshit.gangal on 25/01/16.
@@ -75,6 +80,15 @@ public class VitessPreparedStatement extends VitessStatement implements Prepared
    */
   private final List<Map<String, ?>> batchedArgs;
   private VitessParameterMetaData parameterMetadata;
+  /**
+   * Offsets of the {@code ?} placeholders in {@link #sql}, computed on first use.
+   */
+  private List<Integer> parameterPositions;
+  /**
+   * Last rewrite of {@link #sql} for list parameters, and the parameters it was computed for.
+   */
+  private Set<Integer> listSqlParameters;
+  private String listSql;
 
   public VitessPreparedStatement(VitessConnection vitessConnection, String sql)
       throws SQLException {
@@ -118,12 +132,14 @@ public class VitessPreparedStatement extends VitessStatement implements Prepared
         checkAndBeginTransaction();
         Context context = this.vitessConnection.createContext(this.queryTimeoutInMillis);
         cursor = vtGateConn
-            .execute(context, this.sql, this.bindVariables, vitessConnection.getVtSession())
+            .execute(context, getSql(this.bindVariables), this.bindVariables,
+                vitessConnection.getVtSession())
             .checkedGet();
       } else {
         Context context = this.vitessConnection.createContext(this.queryTimeoutInMillis);
         cursor = vtGateConn
-            .streamExecute(context, this.sql, this.bindVariables, vitessConnection.getVtSession());
+            .streamExecute(context, getSql(this.bindVariables), this.bindVariables,
+                vitessConnection.getVtSession());
       }
 
       if (null == cursor) {
@@ -150,7 +166,8 @@ public class VitessPreparedStatement extends VitessStatement implements Prepared
       checkAndBeginTransaction();
       Context context = this.vitessConnection.createContext(this.queryTimeoutInMillis);
       cursor = vtGateConn
-          .execute(context, this.sql, this.bindVariables, vitessConnection.getVtSession())
+          .execute(context, getSql(this.bindVariables), this.bindVariables,
+              vitessConnection.getVtSession())
           .checkedGet();
 
       if (null == cursor) {
@@ -326,14 +343,137 @@ public class VitessPreparedStatement extends VitessStatement implements Prepared
       setBigInteger(parameterIndex, (BigInteger) object);
     } else if (object instanceof byte[]) {
       setBytes(parameterIndex, (byte[]) object);
-    } else if (getConnection().getTreatUtilDateAsTimestamp() && object instanceof java.util.Date) {
+    } else if (vitessConnection.getTreatUtilDateAsTimestamp() && object instanceof java.util.Date) {
       setTimestamp(parameterIndex, new Timestamp(((java.util.Date) object).getTime()));
+    } else if (object instanceof Collection) {
+      setList(parameterIndex, (Collection<?>) object);
+    } else if (object instanceof Array) {
+      setArray(parameterIndex, (Array) object);
+    } else if (object.getClass().isArray()) {
+      setList(parameterIndex, arrayToList(object));
     } else {
       throw new SQLException(
           Constants.SQLExceptionMessages.SQL_TYPE_INFER + object.getClass().getCanonicalName());
     }
   }
 
+  /**
+   * Binds a list of values as a single {@code TUPLE} bind variable, for use in {@code IN} clauses.
+   * <p>
+   * The placeholder of the parameter is sent to VTGate as the list argument {@code ::v<index>},
+   * so {@code select * from t where id in ?}, or {@code id in (?)}, works for any number of values
+   * without changing the query sent to VTGate. The elements may be of any type supported by
+   * {@link #setObject(int, Object)}, except lists.
+   */
+  private void setList(int parameterIndex, Collection<?> values) throws SQLException {
+    checkOpen();
+    if (values.isEmpty()) {
+      throw new SQLException(Constants.SQLExceptionMessages.EMPTY_LIST_PARAMETER + parameterIndex);
+    }
+    List<Object> listValues = new ArrayList<>(values.size());
+    for (Object value : values) {
+      listValues.add(toListElement(value));
+    }
+    try {
+      this.bindVariables
+          .put(Constants.LITERAL_V + parameterIndex, Proto.buildBindVariable(listValues));
+    } catch (IllegalArgumentException exc) {
+      throw new SQLException(exc.getMessage(), exc);
+    }
+  }
+
+  /**
+   * Converts a list element the same way the scalar setters convert their argument.
+   */
+  private Object toListElement(Object value) throws SQLException {
+    if (value instanceof Date) {
+      return DateTime.formatDate((Date) value);
+    } else if (value instanceof Time) {
+      return DateTime.formatTime((Time) value);
+    } else if (value instanceof Timestamp) {
+      return DateTime.formatTimestamp((Timestamp) value);
+    } else if (value instanceof Character) {
+      return String.valueOf(value);
+    } else if (vitessConnection.getTreatUtilDateAsTimestamp() && value instanceof java.util.Date) {
+      return DateTime.formatTimestamp(new Timestamp(((java.util.Date) value).getTime()));
+    } else if (value instanceof Collection || (value != null && !(value instanceof byte[])
+        && value.getClass().isArray())) {
+      throw new SQLException(
+          Constants.SQLExceptionMessages.SQL_TYPE_INFER + value.getClass().getCanonicalName());
+    }
+    return value;
+  }
+
+  private static List<Object> arrayToList(Object array) {
+    int length = java.lang.reflect.Array.getLength(array);
+    List<Object> list = new ArrayList<>(length);
+    for (int i = 0; i < length; i++) {
+      list.add(java.lang.reflect.Array.get(array, i));
+    }
+    return list;
+  }
+
+  /**
+   * Returns the query to send to VTGate for the given bind variables.
+   * <p>
+   * If any parameter is bound to a list, all {@code ?} placeholders are replaced by named
+   * arguments, because VTGate only accepts lists as {@code ::name} arguments. VTGate's grammar
+   * only accepts a bare {@code in ::name}, so parentheses around a list placeholder, as in {@code
+   * in (?)}, are dropped. The rewritten query only depends on which parameters are lists, and the
+   * last one is kept for reuse.
+   */
+  private String getSql(Map<String, ?> bindVars) throws SQLException {
+    Set<Integer> listParameters = null;
+    for (Map.Entry<String, ?> entry : bindVars.entrySet()) {
+      Object value = entry.getValue();
+      if (value instanceof Query.BindVariable
+          && ((Query.BindVariable) value).getType() == Query.Type.TUPLE) {
+        if (listParameters == null) {
+          listParameters = new TreeSet<>();
+        }
+        listParameters.add(Integer.valueOf(entry.getKey().substring(Constants.LITERAL_V.length())));
+      }
+    }
+    if (listParameters == null) {
+      return this.sql;
+    }
+    if (!listParameters.equals(this.listSqlParameters)) {
+      if (this.parameterPositions == null) {
+        this.parameterPositions = findParameterPositions();
+      }
+      StringBuilder builder = new StringBuilder(this.sql.length() + 4 * parameterPositions.size());
+      int start = 0;
+      for (int i = 0; i < parameterPositions.size(); i++) {
+        int position = parameterPositions.get(i);
+        int end = position;
+        int next = position + 1;
+        if (listParameters.contains(i + 1)) {
+          int open = position - 1;
+          while (open >= start && Character.isWhitespace(this.sql.charAt(open))) {
+            open--;
+          }
+          int close = position + 1;
+          while (close < this.sql.length() && Character.isWhitespace(this.sql.charAt(close))) {
+            close++;
+          }
+          if (open >= start && this.sql.charAt(open) == '('
+              && close < this.sql.length() && this.sql.charAt(close) == ')') {
+            end = open;
+            next = close + 1;
+          }
+        }
+        builder.append(this.sql, start, end);
+        builder.append(listParameters.contains(i + 1) ? "::" : ":");
+        builder.append(Constants.LITERAL_V).append(i + 1);
+        start = next;
+      }
+      builder.append(this.sql, start, this.sql.length());
+      this.listSql = builder.toString();
+      this.listSqlParameters = listParameters;
+    }
+    return this.listSql;
+  }
+
   /**
    * Add bindVariables to the batch and clear it to have new set of bindVariables.
    */
@@ -393,7 +533,7 @@ public class VitessPreparedStatement extends VitessStatement implements Prepared
        * So, List of the query is created to match the bindVariables list.
        */
       for (int i = 0; i < batchedArgs.size(); ++i) {
-        batchedQueries.add(this.sql);
+        batchedQueries.add(getSql(batchedArgs.get(i)));
       }
 
       checkAndBeginTransaction();
@@ -419,7 +559,10 @@ public class VitessPreparedStatement extends VitessStatement implements Prepared
   public ParameterMetaData getParameterMetaData() throws SQLException {
     checkOpen();
     if (this.parameterMetadata == null) {
-      this.parameterMetadata = new VitessParameterMetaData(calculateParameterCount());
+      if (this.parameterPositions == null) {
+        this.parameterPositions = findParameterPositions();
+      }
+      this.parameterMetadata = new VitessParameterMetaData(this.parameterPositions.size());
     }
 
     return this.parameterMetadata;
@@ -427,18 +570,15 @@ public class VitessPreparedStatement extends VitessStatement implements Prepared
 
   /**
    * This function was ported from mysql-connector-java ParseInfo object and greatly simplified to
-   * just the parts for counting parameters
+   * just the parts for finding parameters. It returns the offsets of the {@code ?} placeholders
+   * which are not inside quotes or comments.
    */
-  private int calculateParameterCount() throws SQLException {
+  private List<Integer> findParameterPositions() throws SQLException {
     if (sql == null) {
       throw new SQLException(Constants.SQLExceptionMessages.ILLEGAL_VALUE_FOR + ": sql null");
     }
 
-    char quotedIdentifierChar = '`';
-    char currentQuoteChar = 0;
-    boolean inQuotes = false;
-    boolean inQuotedId = false;
-    int statementCount = 0;
+    List<Integer> positions = new ArrayList<>();
     int statementLength = sql.length();
     int statementStartPos = StringUtils.findStartOfStatement(sql);
 
@@ -450,74 +590,27 @@ public class VitessPreparedStatement extends VitessStatement implements Prepared
         continue; // next character is escaped
       }
 
-      // are we in a quoted identifier? (only valid when the id is not inside a 'string')
-      if (!inQuotes && curChar == quotedIdentifierChar) {
-        inQuotedId = !inQuotedId;
-      } else if (!inQuotedId) {
-        //only respect quotes when not in a quoted identifier
-        if (inQuotes) {
-          if (((curChar == '\'') || (curChar == '"')) && curChar == currentQuoteChar) {
-            if (i < (statementLength - 1) && sql.charAt(i + 1) == currentQuoteChar) {
-              i++;
-              continue; // inline quote escape
-            }
-
-            inQuotes = !inQuotes;
-            currentQuoteChar = 0;
-          }
-        } else {
-          if (curChar == '#'
-              || (curChar == '-'
-              && (i + 1) < statementLength
-              && sql.charAt(i + 1) == '-')) {
-            // comment, run out to end of statement, or newline, whichever comes first
-            int endOfStmt = statementLength - 1;
-
-            for (; i < endOfStmt; i++) {
-              curChar = sql.charAt(i);
-
-              if (curChar == '\r' || curChar == '\n') {
-                break;
-              }
-            }
-
-            continue;
-          } else if (curChar == '/' && (i + 1) < statementLength) {
-            // Comment?
-            char nextChar = sql.charAt(i + 1);
-            if (nextChar == '*') {
-              i += 2;
-
-              for (int j = i; j < statementLength; j++) {
-                i++;
-                nextChar = sql.charAt(j);
-
-                if (nextChar == '*' && (j + 1) < statementLength) {
-                  if (sql.charAt(j + 1) == '/') {
-                    i++;
-
-                    if (i < statementLength) {
-                      curChar = sql.charAt(i);
-                    }
-
-                    break; // comment done
-                  }
-                }
-              }
-            }
-          } else if ((curChar == '\'') || (curChar == '"')) {
-            inQuotes = true;
-            currentQuoteChar = curChar;
-          }
+      if (curChar == '\'' || curChar == '"' || curChar == '`') {
+        int closingQuote = StringUtils.findClosingQuote(sql, i);
+        if (closingQuote == -1) {
+          break; // the rest of the statement is quoted
         }
+        i = closingQuote;
+        continue;
+      }
+
+      int endOfComment = StringUtils.skipComment(sql, i);
+      if (endOfComment > i) {
+        i = endOfComment - 1;
+        continue;
       }
 
-      if ((curChar == '?') && !inQuotes && !inQuotedId) {
-        statementCount++;
+      if (curChar == '?') {
+        positions.add(i);
       }
     }
 
-    return statementCount;
+    return positions;
   }
 
   public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
@@ -700,9 +793,12 @@ public class VitessPreparedStatement extends VitessStatement implements Prepared
         .put(Constants.LITERAL_V + parameterIndex, clob.getSubString(1, (int) clob.length()));
   }
 
-  public void setArray(int parameterIndex, Array ignored) throws SQLException {
-    throw new SQLFeatureNotSupportedException(
-        Constants.SQLExceptionMessages.SQL_FEATURE_NOT_SUPPORTED);
+  public void setArray(int parameterIndex, Array array) throws SQLException {
+    if (array == null) {
+      setNull(parameterIndex, Types.ARRAY);
+    } else {
+      setList(parameterIndex, arrayToList(array.getArray()));
+    }
   }
 
   public ResultSetMetaData getMetaData() throws SQLException {
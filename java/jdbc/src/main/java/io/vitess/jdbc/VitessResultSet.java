@@ -22,6 +22,7 @@ import com.google.protobuf.ByteString;
 import io.vitess.client.cursor.Cursor;
 import io.vitess.client.cursor.Row;
 import io.vitess.client.cursor.SimpleCursor;
+import io.vitess.mysql.DateTime;
 import io.vitess.proto.Query;
 import io.vitess.util.Constants;
 import io.vitess.util.StringUtils;
@@ -29,7 +30,6 @@ import io.vitess.util.StringUtils;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.Reader;
-import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URL;
@@ -50,6 +50,9 @@ import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
@@ -88,7 +91,7 @@ public class VitessResultSet implements ResultSet {
     this.vitessStatement = vitessStatement;
     try {
       this.fields = enhancedFieldsFromCursor(
-          vitessStatement == null ? null : vitessStatement.getConnection());
+          vitessStatement == null ? null : vitessStatement.getVitessConnection());
     } catch (SQLException exc) {
       throw new SQLException(Constants.SQLExceptionMessages.RESULT_SET_INIT_ERROR, exc);
     }
@@ -178,12 +181,7 @@ public class VitessResultSet implements ResultSet {
     if (cursor == null || cursor.getFields() == null) {
       throw new SQLException(Constants.SQLExceptionMessages.CURSOR_NULL);
     }
-    List<Query.Field> rawFields = cursor.getFields();
-    List<FieldWithMetadata> fields = new ArrayList<>(rawFields.size());
-    for (Query.Field field : rawFields) {
-      fields.add(new FieldWithMetadata(connection, field));
-    }
-    return fields;
+    return FieldMetadataCache.get(connection, cursor.getFields());
   }
 
   public boolean next() throws SQLException {
@@ -225,27 +223,17 @@ public class VitessResultSet implements ResultSet {
   }
 
   public String getString(int columnIndex) throws SQLException {
-    Object object;
-    String columnValue;
-
     preAccessor(columnIndex);
 
     if (isNull(columnIndex)) {
       return null;
     }
 
-    object = this.row.getObject(columnIndex);
-    if (object instanceof byte[]) {
-      FieldWithMetadata field = this.fields.get(columnIndex - 1);
-      if (field.hasConnectionProperties() && field.getConnectionProperties().isIncludeAllFields()) {
-        columnValue = convertBytesToString((byte[]) object, field.getEncoding());
-      } else {
-        columnValue = new String((byte[]) object);
-      }
-    } else {
-      columnValue = String.valueOf(object);
+    FieldWithMetadata field = this.fields.get(columnIndex - 1);
+    if (field.isBytesValue()) {
+      return field.decode(this.row.getRawValue(columnIndex));
     }
-    return columnValue;
+    return String.valueOf(this.row.getObject(columnIndex));
   }
 
   public boolean getBoolean(int columnIndex) throws SQLException {
@@ -584,56 +572,120 @@ public class VitessResultSet implements ResultSet {
       return null;
     }
 
-    Object retVal = this.row.getObject(columnIndex);
-
     FieldWithMetadata field = this.fields.get(columnIndex - 1);
     if (field.hasConnectionProperties() && field.getConnectionProperties().isIncludeAllFields()
-        && retVal instanceof byte[]) {
-      retVal = convertBytesIfPossible((byte[]) retVal, field);
+        && field.isBytesValue()) {
+      return convertBytesIfPossible(this.row.getRawValue(columnIndex), field);
     }
 
-    return retVal;
+    return this.row.getObject(columnIndex);
   }
 
-  private Object convertBytesIfPossible(byte[] bytes, FieldWithMetadata field) throws SQLException {
-    String encoding = field.getEncoding();
+  private Object convertBytesIfPossible(ByteString rawValue, FieldWithMetadata field)
+      throws SQLException {
     switch (field.getJavaType()) {
       case Types.BIT:
         if (!field.isSingleBit()) {
-          return bytes;
+          return rawValue.toByteArray();
         }
-        return byteArrayToBoolean(bytes);
+        return byteArrayToBoolean(rawValue.toByteArray());
       case Types.CHAR:
       case Types.VARCHAR:
       case Types.LONGVARCHAR:
         if (!field.isOpaqueBinary()) {
-          return convertBytesToString(bytes, encoding);
+          return field.decode(rawValue);
         }
-        return bytes;
+        return rawValue.toByteArray();
       case Types.BINARY:
       case Types.VARBINARY:
       case Types.LONGVARBINARY:
-        return bytes;
+        return rawValue.toByteArray();
       default:
-        return convertBytesToString(bytes, encoding);
+        return field.decode(rawValue);
     }
   }
 
-  private String convertBytesToString(byte[] bytes, String encoding) throws SQLException {
-    if (encoding == null) {
-      return StringUtils.toString(bytes);
-    } else {
-      try {
-        return StringUtils.toString(bytes, 0, bytes.length, encoding);
-      } catch (UnsupportedEncodingException exc) {
-        throw new SQLException("Unsupported character encoding: " + encoding, exc);
+  public Object getObject(String columnLabel) throws SQLException {
+    int columnIndex = this.findColumn(columnLabel);
+    return getObject(columnIndex);
+  }
+
+  /**
+   * Returns the column value converted to the given type.
+   * <p>
+   * Besides the types of the other getters, {@link LocalDate}, {@link LocalDateTime} and {@link
+   * Instant} are supported for DATE, DATETIME and TIMESTAMP columns. Zero dates are handled
+   * according to zeroDateTimeBehavior, except that they can't be garbled into a java.time value.
+   */
+  public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+    preAccessor(columnIndex);
+    if (type == null) {
+      throw new SQLException(Constants.SQLExceptionMessages.ILLEGAL_VALUE_FOR + "type");
+    }
+
+    if (type == LocalDate.class || type == LocalDateTime.class || type == Instant.class) {
+      switch (getNullDateTime(columnIndex)) {
+        case NULL:
+          return null;
+        case ROUND:
+          LocalDateTime rounded = LocalDateTime.of(1, 1, 1, 0, 0);
+          if (type == LocalDate.class) {
+            return type.cast(rounded.toLocalDate());
+          } else if (type == LocalDateTime.class) {
+            return type.cast(rounded);
+          }
+          return type.cast(getNullableDateTime(columnIndex, NullDateTime.ROUND, null).toInstant());
+        case NO_CHANGE:
+        default:
+          return this.row.getObject(columnIndex, type);
       }
     }
+
+    if (isNull(columnIndex)) {
+      return null;
+    }
+    Object value;
+    if (type == String.class) {
+      value = getString(columnIndex);
+    } else if (type == Integer.class) {
+      value = getInt(columnIndex);
+    } else if (type == Long.class) {
+      value = getLong(columnIndex);
+    } else if (type == Short.class) {
+      value = getShort(columnIndex);
+    } else if (type == Byte.class) {
+      value = getByte(columnIndex);
+    } else if (type == Double.class) {
+      value = getDouble(columnIndex);
+    } else if (type == Float.class) {
+      value = getFloat(columnIndex);
+    } else if (type == Boolean.class) {
+      value = getBoolean(columnIndex);
+    } else if (type == BigDecimal.class) {
+      value = getBigDecimal(columnIndex);
+    } else if (type == BigInteger.class) {
+      value = getBigInteger(columnIndex);
+    } else if (type == byte[].class) {
+      value = getBytes(columnIndex);
+    } else if (type == Date.class) {
+      value = getDate(columnIndex);
+    } else if (type == Time.class) {
+      value = getTime(columnIndex);
+    } else if (type == Timestamp.class) {
+      value = getTimestamp(columnIndex);
+    } else {
+      value = getObject(columnIndex);
+    }
+    if (value != null && !type.isInstance(value)) {
+      throw new SQLException(
+          Constants.SQLExceptionMessages.CLASS_CAST_EXCEPTION + type.getName());
+    }
+    return type.cast(value);
   }
 
-  public Object getObject(String columnLabel) throws SQLException {
+  public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
     int columnIndex = this.findColumn(columnLabel);
-    return getObject(columnIndex);
+    return getObject(columnIndex, type);
   }
 
   public int findColumn(String columnLabel) throws SQLException {
@@ -803,11 +855,11 @@ public class VitessResultSet implements ResultSet {
       return NullDateTime.NULL;
     }
 
-    if (!hasZeroDateTimePrefix(columnIndex)) {
+    if (!DateTime.isZeroDate(this.row.getRawValue(columnIndex))) {
       return NullDateTime.NO_CHANGE;
     }
 
-    switch (this.vitessStatement.getConnection().getZeroDateTimeBehavior()) {
+    switch (this.vitessStatement.getVitessConnection().getZeroDateTimeBehavior()) {
       case CONVERTTONULL:
         return NullDateTime.NULL;
       case EXCEPTION:
@@ -854,12 +906,10 @@ public class VitessResultSet implements ResultSet {
     }
   }
 
-  private boolean hasZeroDateTimePrefix(int columnIndex) throws SQLException {
-    return this.row.getRawValue(columnIndex).startsWith(Constants.ZERO_DATE_TIME_PREFIX);
-  }
-
   private boolean isNull(int columnIndex) throws SQLException {
-    return null == this.row.getObject(columnIndex);
+    // Check the raw value rather than converting it; only NULL_TYPE converts a value to null.
+    return null == this.row.getRawValue(columnIndex)
+        || this.fields.get(columnIndex - 1).getVitessTypeValue() == Query.Type.NULL_TYPE_VALUE;
   }
 
   //Unsupported Methods
@@ -1569,16 +1619,6 @@ public class VitessResultSet implements ResultSet {
         Constants.SQLExceptionMessages.SQL_FEATURE_NOT_SUPPORTED);
   }
 
-  public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
-    throw new SQLFeatureNotSupportedException(
-        Constants.SQLExceptionMessages.SQL_FEATURE_NOT_SUPPORTED);
-  }
-
-  public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
-    throw new SQLFeatureNotSupportedException(
-        Constants.SQLExceptionMessages.SQL_FEATURE_NOT_SUPPORTED);
-  }
-
   @VisibleForTesting
   List<FieldWithMetadata> getFields() {
     return fields;
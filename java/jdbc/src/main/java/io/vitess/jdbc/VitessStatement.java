@@ -24,9 +24,11 @@ import io.vitess.client.cursor.CursorWithError;
 import io.vitess.proto.Query;
 import io.vitess.proto.Vtrpc;
 import io.vitess.util.Constants;
+import io.vitess.util.QueryNormalizer;
 import io.vitess.util.StringUtils;
 
 import java.sql.BatchUpdateException;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
@@ -50,6 +52,10 @@ public class VitessStatement implements Statement {
       "KEY", "UPDATE"};
   protected VitessResultSet vitessResultSet;
   protected VitessConnection vitessConnection;
+  /**
+   * The handle the connection was handed out as when this statement was created, if it is pooled.
+   */
+  private final Connection logicalConnection;
   protected boolean closed;
   protected long resultCount;
   protected long queryTimeoutInMillis;
@@ -74,6 +80,7 @@ public class VitessStatement implements Statement {
   public VitessStatement(VitessConnection vitessConnection, int resultSetType,
       int resultSetConcurrency) {
     this.vitessConnection = vitessConnection;
+    this.logicalConnection = vitessConnection.getLogicalConnection();
     this.queryTimeoutInMillis = vitessConnection.getTimeout();
     this.vitessResultSet = null;
     this.resultSetType = resultSetType;
@@ -105,17 +112,20 @@ public class VitessStatement implements Statement {
     this.generatedId = -1;
 
     VTGateConnection vtGateConn = this.vitessConnection.getVtGateConn();
+    QueryNormalizer.NormalizedQuery query = normalize(sql);
 
     Cursor cursor;
     if ((vitessConnection.isSimpleExecute() && this.fetchSize == 0) || vitessConnection
         .isInTransaction()) {
       checkAndBeginTransaction();
       Context context = this.vitessConnection.createContext(this.queryTimeoutInMillis);
-      cursor = vtGateConn.execute(context, sql, null, vitessConnection.getVtSession()).checkedGet();
+      cursor = vtGateConn.execute(context, query.getSql(), query.getBindVariables(),
+          vitessConnection.getVtSession()).checkedGet();
     } else {
       /* Stream query is not suppose to run in a txn. */
       Context context = this.vitessConnection.createContext(this.queryTimeoutInMillis);
-      cursor = vtGateConn.streamExecute(context, sql, null, vitessConnection.getVtSession());
+      cursor = vtGateConn.streamExecute(context, query.getSql(), query.getBindVariables(),
+          vitessConnection.getVtSession());
     }
 
     if (null == cursor) {
@@ -295,8 +305,16 @@ public class VitessStatement implements Statement {
     return this.resultSetType;
   }
 
-  public VitessConnection getConnection() throws SQLException {
+  /**
+   * Returns the connection which created this statement: the handle it was handed out as, if it is
+   * pooled, rather than the physical connection.
+   */
+  public Connection getConnection() throws SQLException {
     checkOpen();
+    return null != logicalConnection ? logicalConnection : vitessConnection;
+  }
+
+  VitessConnection getVitessConnection() {
     return vitessConnection;
   }
 
@@ -397,8 +415,9 @@ public class VitessStatement implements Statement {
 
     checkAndBeginTransaction();
     Context context = this.vitessConnection.createContext(this.queryTimeoutInMillis);
-    Cursor cursor = vtGateConn.execute(context, sql, null, vitessConnection.getVtSession())
-        .checkedGet();
+    QueryNormalizer.NormalizedQuery query = normalize(sql);
+    Cursor cursor = vtGateConn.execute(context, query.getSql(), query.getBindVariables(),
+        vitessConnection.getVtSession()).checkedGet();
 
     if (null == cursor) {
       throw new SQLException(Constants.SQLExceptionMessages.METHOD_CALL_FAILED);
@@ -620,6 +639,16 @@ public class VitessStatement implements Statement {
     return updateCounts;
   }
 
+  /**
+   * Replaces the literals of the query with bind variables if autoParameterize is enabled.
+   */
+  private QueryNormalizer.NormalizedQuery normalize(String sql) {
+    if (this.vitessConnection.getAutoParameterize()) {
+      return QueryNormalizer.normalize(sql);
+    }
+    return QueryNormalizer.unchanged(sql);
+  }
+
   private boolean sqlIsUpsert(String sql) {
     return StringUtils.indexOfIgnoreCase(0, sql, ON_DUPLICATE_KEY_UPDATE_CLAUSE, "\"'`", "\"'`",
         StringUtils.SEARCH_MODE__ALL) != -1;
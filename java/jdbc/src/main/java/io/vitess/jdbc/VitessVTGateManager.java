@@ -17,6 +17,7 @@
 package io.vitess.jdbc;
 
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import io.vitess.client.Context;
 import io.vitess.client.RefreshableVTGateConnection;
@@ -28,6 +29,7 @@ import io.vitess.client.grpc.error.ErrorHandler;
 import io.vitess.client.grpc.netty.DefaultChannelBuilderProvider;
 import io.vitess.client.grpc.netty.NettyChannelBuilderProvider;
 import io.vitess.client.grpc.tls.TlsOptions;
+import io.vitess.proto.Query;
 import io.vitess.util.Constants;
 
 import java.io.IOException;
@@ -43,7 +45,11 @@ import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -54,6 +60,11 @@ public class VitessVTGateManager {
 
   private static Logger logger = Logger.getLogger(VitessVTGateManager.class.getName());
   /*
+  Guards the creation and replacement of VTGate connections and timers. An explicit lock rather
+  than a monitor, so that connections opened from virtual threads don't pin their carrier thread.
+  */
+  private static final Lock LOCK = new ReentrantLock();
+  /*
   Current implementation have one VTGateConn for ip-port-username combination
   */
   private static ConcurrentHashMap<String, VTGateConnection> vtGateConnHashMap =
@@ -61,6 +72,11 @@ public class VitessVTGateManager {
   private static Timer vtgateConnRefreshTimer = null;
   private static Timer vtgateClosureTimer = null;
   private static long vtgateClosureDelaySeconds = 0L;
+  /*
+  Callback executors shared by the VTGate connections configured with the same number of threads
+  */
+  private static ConcurrentHashMap<Integer, ExecutorService> callbackExecutors =
+      new ConcurrentHashMap<>();
 
   /**
    * VTGateConnections object consist of vtGateIdentifire list and return vtGate object in round
@@ -76,10 +92,12 @@ public class VitessVTGateManager {
      */
     public VTGateConnections(final VitessConnection connection) {
       maybeStartClosureTimer(connection);
+      String workloadClass = getWorkloadClass(connection);
       for (final VitessJDBCUrl.HostInfo hostInfo : connection.getUrl().getHostInfos()) {
         String identifier = getIdentifer(hostInfo.getHostname(), hostInfo.getPort(),
-            connection.getUsername(), connection.getTarget());
-        synchronized (VitessVTGateManager.class) {
+            connection.getUsername(), connection.getTarget()) + workloadClass;
+        LOCK.lock();
+        try {
           if (!vtGateConnHashMap.containsKey(identifier)) {
             updateVtGateConnHashMap(identifier, hostInfo, connection);
           }
@@ -100,6 +118,8 @@ public class VitessVTGateManager {
                 TimeUnit.SECONDS.toMillis(connection.getRefreshSeconds()),
                 TimeUnit.SECONDS.toMillis(connection.getRefreshSeconds()));
           }
+        } finally {
+          LOCK.unlock();
         }
         vtGateIdentifiers.add(identifier);
       }
@@ -120,15 +140,34 @@ public class VitessVTGateManager {
 
   private static void maybeStartClosureTimer(VitessConnection connection) {
     if (connection.getRefreshClosureDelayed() && vtgateClosureTimer == null) {
-      synchronized (VitessVTGateManager.class) {
+      LOCK.lock();
+      try {
         if (vtgateClosureTimer == null) {
           vtgateClosureTimer = new Timer("vtgate-conn-closure", true);
           vtgateClosureDelaySeconds = connection.getRefreshClosureDelaySeconds();
         }
+      } finally {
+        LOCK.unlock();
       }
     }
   }
 
+  /**
+   * Returns the suffix which separates the VTGate connections of a workload from the default ones,
+   * or an empty string if the connection shares the default ones.
+   */
+  static String getWorkloadClass(VitessConnection connection) {
+    if (!connection.getGrpcWorkloadChannels()) {
+      return "";
+    }
+    Query.ExecuteOptions.Workload workload = connection.getWorkload();
+    if (workload == Query.ExecuteOptions.Workload.OLAP
+        || workload == Query.ExecuteOptions.Workload.DBA) {
+      return "-" + workload.name().toLowerCase();
+    }
+    return "";
+  }
+
   private static String getIdentifer(String hostname, int port, String userIdentifer,
       String keyspace) {
     return (hostname + port + userIdentifer + keyspace);
@@ -145,7 +184,8 @@ public class VitessVTGateManager {
   private static void refreshUpdatedSSLConnections(VitessJDBCUrl.HostInfo hostInfo,
       VitessConnection connection) {
     Set<VTGateConnection> closedConnections = new HashSet<>();
-    synchronized (VitessVTGateManager.class) {
+    LOCK.lock();
+    try {
       for (Map.Entry<String, VTGateConnection> entry : vtGateConnHashMap.entrySet()) {
         if (entry.getValue() instanceof RefreshableVTGateConnection) {
           RefreshableVTGateConnection existing = (RefreshableVTGateConnection) entry.getValue();
@@ -156,6 +196,8 @@ public class VitessVTGateManager {
           }
         }
       }
+    } finally {
+      LOCK.unlock();
     }
 
     if (closedConnections.size() > 0) {
@@ -223,14 +265,47 @@ public class VitessVTGateManager {
           .trustStorePath(trustStorePath).trustStorePassword(trustStorePassword)
           .trustAlias(trustAlias);
 
-      return new RefreshableVTGateConnection(new GrpcClientFactory(channelProvider, errorHandler)
-          .createTls(context, hostInfo.toString(), tlsOptions), keyStorePath, trustStorePath);
+      return new RefreshableVTGateConnection(getClientFactory(channelProvider, errorHandler,
+          connection).createTls(context, hostInfo.toString(), tlsOptions), keyStorePath,
+          trustStorePath);
     } else {
-      return new VTGateConnection(new GrpcClientFactory(channelProvider, errorHandler)
+      return new VTGateConnection(getClientFactory(channelProvider, errorHandler, connection)
           .create(context, hostInfo.toString()));
     }
   }
 
+  private static GrpcClientFactory getClientFactory(NettyChannelBuilderProvider channelProvider,
+      ErrorHandler errorHandler, VitessConnection connection) {
+    GrpcClientFactory factory = new GrpcClientFactory(channelProvider, errorHandler);
+    int callbackThreads = connection.getGrpcCallbackThreads();
+    if (callbackThreads > 0) {
+      factory.setCallbackExecutor(getCallbackExecutor(callbackThreads));
+    }
+    return factory;
+  }
+
+  /**
+   * Returns the shared executor with the given number of daemon threads, creating it if needed.
+   */
+  static ExecutorService getCallbackExecutor(int threads) {
+    ExecutorService executor = callbackExecutors.get(threads);
+    if (executor == null) {
+      LOCK.lock();
+      try {
+        executor = callbackExecutors.get(threads);
+        if (executor == null) {
+          executor = Executors.newFixedThreadPool(threads,
+              new ThreadFactoryBuilder().setNameFormat("vitess-grpc-callback-" + threads + "-%d")
+                  .setDaemon(true).build());
+          callbackExecutors.put(threads, executor);
+        }
+      } finally {
+        LOCK.unlock();
+      }
+    }
+    return executor;
+  }
+
   private static RetryingInterceptorConfig getRetryingInterceptorConfig(VitessConnection conn) {
     if (!conn.getGrpcRetriesEnabled()) {
       return RetryingInterceptorConfig.noOpConfig();
@@ -254,7 +329,13 @@ public class VitessVTGateManager {
       VitessConnection connection) {
     // Skip reflection in default case
     if (Strings.isNullOrEmpty(connection.getGrpcChannelProvider())) {
-      return new DefaultChannelBuilderProvider(getRetryingInterceptorConfig(connection));
+      String eventLoopName = DefaultChannelBuilderProvider.DEFAULT_EVENT_LOOP_NAME;
+      String workloadClass = getWorkloadClass(connection);
+      if (connection.getGrpcWorkloadEventLoops() && !workloadClass.isEmpty()) {
+        eventLoopName += workloadClass;
+      }
+      return new DefaultChannelBuilderProvider(getRetryingInterceptorConfig(connection),
+          eventLoopName, connection.getGrpcEventLoopThreads(), connection.getGrpcTransport());
     }
 
     Object provider = constructDefault(connection.getGrpcChannelProvider());
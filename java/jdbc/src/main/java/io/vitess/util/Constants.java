@@ -44,6 +44,7 @@ public class Constants {
   public static final int MAX_BUFFER_SIZE = 65535;
   //Default Timeout in miliseconds
   public static final int DEFAULT_TIMEOUT = 30000;
+  public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 10;
   public static final String VITESS_KEYSPACE = "Keyspace name in Vitess Server";
   public static final Constants.QueryExecuteType DEFAULT_EXECUTE_TYPE = QueryExecuteType.SIMPLE;
   public static final String EXECUTE_TYPE_DESC = "Query execution type: simple or stream \n";
@@ -81,6 +82,7 @@ public class Constants {
     public static final String MALFORMED_URL = "Malformed URL Exception";
     public static final String SQL_TYPE_INFER = "Cannot infer the SQL type to use for an instance"
         + " of ";
+    public static final String EMPTY_LIST_PARAMETER = "Cannot bind an empty list to parameter ";
     public static final String DML_NOT_ON_MASTER = "DML Statement cannot be executed on non "
         + "master instance type";
     public static final String SQL_EMPTY = "SQL statement is not valid";
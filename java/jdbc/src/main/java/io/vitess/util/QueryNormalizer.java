@@ -0,0 +1,432 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replaces the literals of a SQL statement with bind variables.
+ * <p>
+ * VTGate caches query plans by SQL text, so statements which only differ by their literal values,
+ * like {@code select * from t where id = 1} and {@code select * from t where id = 2}, each get
+ * their own plan. Normalizing them to {@code select * from t where id = :vtc1} lets them share a
+ * plan.
+ * <p>
+ * Only {@code SELECT}, {@code INSERT}, {@code UPDATE} and {@code DELETE} statements are
+ * normalized. Integer, decimal and single-quoted string literals are replaced, except where the
+ * literal changes the meaning of the statement: the select list, {@code ORDER BY} and {@code GROUP
+ * BY} positions, {@code LIMIT} and typed literals like {@code INTERVAL 1 DAY}. Statements which
+ * already contain bind variables, or which use {@code CAST}/{@code CONVERT} or executable
+ * comments, are left untouched. Quotes and comments are skipped with the {@link StringUtils}
+ * scanner which {@code VitessPreparedStatement} uses to find its parameters.
+ * <p>
+ * A statement is normalized in two steps. Its literals are found first, which gives its shape: the
+ * statement with each literal replaced by {@code ?}. Which literals of a shape are replaced is
+ * then decided from the clauses around them. Statements which only differ by their literals share
+ * a shape, so that decision is cached by shape.
+ */
+public class QueryNormalizer {
+
+  public static final String BIND_VARIABLE_PREFIX = "vtc";
+  private static final int CACHE_SIZE = 1000;
+
+  /**
+   * Keywords whose literal argument is part of the syntax, like {@code INTERVAL 1 DAY} or
+   * {@code DATE '2019-01-01'}.
+   */
+  private static final Set<String> KEEP_AFTER =
+      ImmutableSet.of("INTERVAL", "DATE", "TIME", "TIMESTAMP");
+
+  /**
+   * The literals to replace, by the shape of the statements they are found in.
+   */
+  private static final Cache<String, BitSet> cache =
+      CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
+  private QueryNormalizer() {
+  }
+
+  /**
+   * A statement with its literals replaced by bind variables.
+   */
+  public static final class NormalizedQuery {
+
+    private final String sql;
+    private final Map<String, Object> bindVariables;
+
+    private NormalizedQuery(String sql, Map<String, Object> bindVariables) {
+      this.sql = sql;
+      this.bindVariables = bindVariables;
+    }
+
+    public String getSql() {
+      return sql;
+    }
+
+    /**
+     * Returns the values of the replaced literals, or {@code null} if nothing was replaced.
+     */
+    public Map<String, Object> getBindVariables() {
+      return bindVariables;
+    }
+  }
+
+  /**
+   * A literal found in a statement, between {@code start} and {@code end}.
+   */
+  private static final class Literal {
+
+    private final int start;
+    private final int end;
+    private final Object value;
+
+    private Literal(int start, int end, Object value) {
+      this.start = start;
+      this.end = end;
+      this.value = value;
+    }
+  }
+
+  /**
+   * Normalizes a statement, using the cached decision for its shape if there is one.
+   */
+  public static NormalizedQuery normalize(String sql) {
+    int start = StringUtils.findStartOfStatement(sql);
+    if (!(StringUtils.startsWithIgnoreCaseAndWs(sql, "select", start)
+        || StringUtils.startsWithIgnoreCaseAndWs(sql, "insert", start)
+        || StringUtils.startsWithIgnoreCaseAndWs(sql, "update", start)
+        || StringUtils.startsWithIgnoreCaseAndWs(sql, "delete", start))) {
+      return unchanged(sql);
+    }
+    List<Literal> literals = findLiterals(sql);
+    if (literals == null || literals.isEmpty()) {
+      return unchanged(sql);
+    }
+
+    StringBuilder shape = new StringBuilder(sql.length());
+    int copied = 0;
+    for (Literal literal : literals) {
+      shape.append(sql, copied, literal.start).append('?');
+      copied = literal.end;
+    }
+    shape.append(sql, copied, sql.length());
+    String key = shape.toString();
+    BitSet replaced = cache.getIfPresent(key);
+    if (replaced == null) {
+      replaced = findReplacedLiterals(key);
+      cache.put(key, replaced);
+    }
+    if (replaced.isEmpty()) {
+      return unchanged(sql);
+    }
+
+    StringBuilder normalized = new StringBuilder(sql.length());
+    Map<String, Object> bindVariables = new LinkedHashMap<>();
+    copied = 0;
+    for (int i = replaced.nextSetBit(0); i >= 0; i = replaced.nextSetBit(i + 1)) {
+      Literal literal = literals.get(i);
+      String name = BIND_VARIABLE_PREFIX + (bindVariables.size() + 1);
+      bindVariables.put(name, literal.value);
+      normalized.append(sql, copied, literal.start).append(':').append(name);
+      copied = literal.end;
+    }
+    normalized.append(sql, copied, sql.length());
+    return new NormalizedQuery(normalized.toString(), Collections.unmodifiableMap(bindVariables));
+  }
+
+  /**
+   * Returns the statement as it is, without bind variables.
+   */
+  public static NormalizedQuery unchanged(String sql) {
+    return new NormalizedQuery(sql, null);
+  }
+
+  /**
+   * Returns how many statement shapes are cached.
+   */
+  static long cachedShapes() {
+    return cache.size();
+  }
+
+  /**
+   * Returns the literals of a statement which could be replaced by bind variables, or {@code
+   * null} if the statement must be left untouched.
+   */
+  private static List<Literal> findLiterals(String sql) {
+    List<Literal> literals = new ArrayList<>();
+    int length = sql.length();
+
+    for (int i = 0; i < length; ) {
+      char ch = sql.charAt(i);
+      final int tokenStart = i;
+
+      if (ch == '/' && i + 2 < length && sql.charAt(i + 1) == '*' && sql.charAt(i + 2) == '!') {
+        // Executable comment, whose content we don't parse.
+        return null;
+      }
+      int endOfComment = StringUtils.skipComment(sql, i);
+      if (endOfComment > i) {
+        i = endOfComment;
+        continue;
+      }
+      if (ch == '`' || ch == '"') {
+        int end = StringUtils.findClosingQuote(sql, i);
+        if (end == -1) {
+          return null;
+        }
+        i = end + 1;
+        continue;
+      }
+      if (ch == '?' || ch == ':') {
+        // The statement already has bind variables, which might clash with ours.
+        return null;
+      }
+      if (isIdentifierChar(ch) && !Character.isDigit(ch)) {
+        while (i < length && isIdentifierChar(sql.charAt(i))) {
+          i++;
+        }
+        if (i < length && sql.charAt(i) == '\'') {
+          // Charset introducer or hex/bit literal, e.g. _utf8'abc' or x'0f'.
+          int end = StringUtils.findClosingQuote(sql, i);
+          if (end == -1) {
+            return null;
+          }
+          i = end + 1;
+        }
+        continue;
+      }
+
+      if (ch == '\'') {
+        int end = StringUtils.findClosingQuote(sql, i);
+        if (end == -1) {
+          return null;
+        }
+        i = end + 1;
+        int next = i;
+        while (next < length && Character.isWhitespace(sql.charAt(next))) {
+          next++;
+        }
+        if (next < length && sql.charAt(next) == '\'') {
+          // Adjacent strings are concatenated by MySQL, which a bind variable can't express.
+          return null;
+        }
+        literals.add(new Literal(tokenStart, i, unquote(sql, tokenStart, end)));
+      } else if (Character.isDigit(ch) && (tokenStart == 0 || !isIdentifierChar(
+          sql.charAt(tokenStart - 1)) && sql.charAt(tokenStart - 1) != '.')) {
+        while (i < length && Character.isDigit(sql.charAt(i))) {
+          i++;
+        }
+        boolean decimal = false;
+        if (i + 1 < length && sql.charAt(i) == '.' && Character.isDigit(sql.charAt(i + 1))) {
+          decimal = true;
+          i++;
+          while (i < length && Character.isDigit(sql.charAt(i))) {
+            i++;
+          }
+        }
+        if (i < length && (isIdentifierChar(sql.charAt(i)) || sql.charAt(i) == '.')) {
+          // Exponent, hex literal or identifier starting with digits: leave it alone.
+          while (i < length && (isIdentifierChar(sql.charAt(i)) || sql.charAt(i) == '.')) {
+            i++;
+          }
+          continue;
+        }
+        String number = sql.substring(tokenStart, i);
+        if (decimal) {
+          literals.add(new Literal(tokenStart, i, new BigDecimal(number)));
+        } else if (number.length() < 19) {
+          literals.add(new Literal(tokenStart, i, Long.valueOf(number)));
+        }
+      } else {
+        i++;
+      }
+    }
+    return literals;
+  }
+
+  /**
+   * Returns which literals of a statement shape, where each literal is a {@code ?}, should be
+   * replaced by bind variables.
+   */
+  private static BitSet findReplacedLiterals(String shape) {
+    BitSet replaced = new BitSet();
+    // One clause state per level of parentheses.
+    Deque<Clause> clauses = new ArrayDeque<>();
+    Clause clause = Clause.OTHER;
+    String previousWord = "";
+    int literal = 0;
+    int length = shape.length();
+
+    for (int i = 0; i < length; ) {
+      char ch = shape.charAt(i);
+      final int tokenStart = i;
+
+      int endOfComment = StringUtils.skipComment(shape, i);
+      if (endOfComment > i) {
+        i = endOfComment;
+        continue;
+      }
+      if (ch == '`' || ch == '"' || ch == '\'') {
+        i = StringUtils.findClosingQuote(shape, i) + 1;
+        previousWord = "";
+        continue;
+      }
+      if (ch == '?') {
+        if (clause == Clause.OTHER && !KEEP_AFTER.contains(previousWord)) {
+          replaced.set(literal);
+        }
+        literal++;
+        previousWord = "";
+        i++;
+        continue;
+      }
+      if (ch == '(') {
+        // Nested expressions keep the clause of their parent, until a subquery starts.
+        clauses.push(clause);
+        previousWord = "";
+        i++;
+        continue;
+      }
+      if (ch == ')') {
+        clause = clauses.isEmpty() ? Clause.OTHER : clauses.pop();
+        previousWord = "";
+        i++;
+        continue;
+      }
+      if (isIdentifierChar(ch)) {
+        while (i < length && (isIdentifierChar(shape.charAt(i))
+            || Character.isDigit(ch) && shape.charAt(i) == '.')) {
+          i++;
+        }
+        if (Character.isDigit(ch)) {
+          // A number which isn't replaced, like an exponent or a hex literal.
+          previousWord = "";
+          continue;
+        }
+        String word = shape.substring(tokenStart, i).toUpperCase(Locale.ENGLISH);
+        if ("CAST".equals(word) || "CONVERT".equals(word)) {
+          return new BitSet();
+        }
+        clause = nextClause(clause, previousWord, word);
+        previousWord = word;
+        continue;
+      }
+      if (!Character.isWhitespace(ch)) {
+        previousWord = "";
+      }
+      i++;
+    }
+    return replaced;
+  }
+
+  /**
+   * Parts of a statement in which literals must not be replaced, and {@link #OTHER}.
+   */
+  private enum Clause {
+    SELECT_LIST, ORDER_OR_GROUP_BY, LIMIT, OTHER
+  }
+
+  private static Clause nextClause(Clause clause, String previousWord, String word) {
+    switch (word) {
+      case "SELECT":
+        return Clause.SELECT_LIST;
+      case "BY":
+        if ("ORDER".equals(previousWord) || "GROUP".equals(previousWord)) {
+          return Clause.ORDER_OR_GROUP_BY;
+        }
+        return clause;
+      case "LIMIT":
+        return Clause.LIMIT;
+      case "FROM":
+      case "WHERE":
+      case "HAVING":
+      case "UNION":
+      case "SET":
+      case "VALUES":
+      case "ON":
+      case "FOR":
+      case "LOCK":
+        return Clause.OTHER;
+      default:
+        return clause;
+    }
+  }
+
+  private static boolean isIdentifierChar(char ch) {
+    return Character.isLetterOrDigit(ch) || ch == '_' || ch == '$';
+  }
+
+  /**
+   * Returns the value of the string literal between the quotes at {@code start} and {@code end}.
+   */
+  private static String unquote(String sql, int start, int end) {
+    StringBuilder value = new StringBuilder(end - start);
+    for (int i = start + 1; i < end; i++) {
+      char ch = sql.charAt(i);
+      if (ch == '\'') {
+        // Doubled quote.
+        i++;
+      } else if (ch == '\\') {
+        i++;
+        ch = sql.charAt(i);
+        switch (ch) {
+          case '0':
+            ch = '\0';
+            break;
+          case 'b':
+            ch = '\b';
+            break;
+          case 'n':
+            ch = '\n';
+            break;
+          case 'r':
+            ch = '\r';
+            break;
+          case 't':
+            ch = '\t';
+            break;
+          case 'Z':
+            ch = '\032';
+            break;
+          case '%':
+          case '_':
+            // MySQL keeps the backslash for LIKE wildcards.
+            value.append('\\');
+            break;
+          default:
+            break;
+        }
+      }
+      value.append(ch);
+    }
+    return value.toString();
+  }
+}
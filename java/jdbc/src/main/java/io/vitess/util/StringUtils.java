@@ -16,6 +16,8 @@
 
 package io.vitess.util;
 
+import com.google.protobuf.ByteString;
+
 import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
@@ -395,6 +397,51 @@ public class StringUtils {
     return statementStartPos;
   }
 
+  /**
+   * Returns the index of the quote closing the string or quoted identifier whose opening quote
+   * ({@code '}, {@code "} or {@code `}) is at {@code openPos}, or -1 if it isn't closed. Quotes
+   * are escaped by doubling them and, except in quoted identifiers, by a backslash.
+   */
+  public static int findClosingQuote(String sql, int openPos) {
+    char quote = sql.charAt(openPos);
+    int length = sql.length();
+    for (int i = openPos + 1; i < length; i++) {
+      char ch = sql.charAt(i);
+      if (ch == '\\' && quote != '`') {
+        i++; // next character is escaped
+      } else if (ch == quote) {
+        if (i + 1 < length && sql.charAt(i + 1) == quote) {
+          i++; // inline quote escape
+        } else {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index just past the comment starting at {@code pos}, or {@code pos} if no comment
+   * starts there. {@code #} and {@code --} comments run to the end of the line, and {@code /*}
+   * comments to their closing {@code *}{@code /} or the end of the statement.
+   */
+  public static int skipComment(String sql, int pos) {
+    int length = sql.length();
+    char ch = sql.charAt(pos);
+    if (ch == '#' || (ch == '-' && pos + 1 < length && sql.charAt(pos + 1) == '-')) {
+      int end = pos;
+      while (end < length && sql.charAt(end) != '\n' && sql.charAt(end) != '\r') {
+        end++;
+      }
+      return end;
+    }
+    if (ch == '/' && pos + 1 < length && sql.charAt(pos + 1) == '*') {
+      int end = sql.indexOf("*/", pos + 2);
+      return end == -1 ? length : end + 2;
+    }
+    return pos;
+  }
+
   public static char firstAlphaCharUc(String searchIn, int startAt) {
     if (searchIn == null) {
       return 0;
@@ -442,6 +489,56 @@ public class StringUtils {
     return null;
   }
 
+  /**
+   * Decodes a cell value without first copying it into a {@code byte[]}.
+   * <p>
+   * If the charset decodes bytes below 0x80 as ASCII, a value made only of such bytes is widened
+   * directly to chars, which avoids creating a decoder for the common case of ASCII text.
+   *
+   * @param asciiCompatible the result of {@link #isAsciiCompatible(Charset)} for {@code charset}
+   */
+  public static String toString(ByteString value, Charset charset, boolean asciiCompatible) {
+    int size = value.size();
+    if (size == 0) {
+      return "";
+    }
+    if (asciiCompatible) {
+      char[] chars = new char[size];
+      for (int i = 0; i < size; i++) {
+        byte b = value.byteAt(i);
+        if (b < 0) {
+          return value.toString(charset);
+        }
+        chars[i] = (char) b;
+      }
+      return new String(chars);
+    }
+    return value.toString(charset);
+  }
+
+  /**
+   * Returns whether {@code charset} decodes every byte below 0x80 as the same ASCII character.
+   * This holds for UTF-8 and the single-byte charsets, and also for multi-byte charsets like GBK
+   * or Shift_JIS, because their lead bytes are all above 0x7F.
+   */
+  public static boolean isAsciiCompatible(Charset charset) {
+    byte[] ascii = new byte[0x80];
+    char[] expected = new char[0x80];
+    for (int i = 0; i < ascii.length; i++) {
+      ascii[i] = (byte) i;
+      expected[i] = (char) i;
+    }
+    return charset.canEncode() && new String(ascii, charset).equals(new String(expected));
+  }
+
+  /**
+   * Returns the {@link Charset} for an encoding name or alias, or for the platform encoding if
+   * {@code encoding} is {@code null}.
+   */
+  public static Charset charsetForEncoding(String encoding) throws UnsupportedEncodingException {
+    return findCharset(encoding == null ? platformEncoding : encoding);
+  }
+
   public static byte[] getBytes(String value, String encoding) throws UnsupportedEncodingException {
     return getBytes(value, 0, value.length(), encoding);
   }
@@ -43,7 +43,7 @@ import org.mockito.Mockito;
 
 public class ConnectionPropertiesTest {
 
-  private static final int NUM_PROPS = 41;
+  private static final int NUM_PROPS = 50;
 
   @Test
   public void testReflection() throws Exception {
@@ -150,7 +150,7 @@ public class ConnectionPropertiesTest {
     assertEquals(NUM_PROPS, infos.length);
 
     // Test the expected fields for just 1
-    int indexForFullTest = 4;
+    int indexForFullTest = 7;
     assertEquals("executeType", infos[indexForFullTest].name);
     assertEquals("Query execution type: simple or stream", infos[indexForFullTest].description);
     assertEquals(false, infos[indexForFullTest].required);
@@ -162,20 +162,28 @@ public class ConnectionPropertiesTest {
     Assert.assertArrayEquals(allowed, infos[indexForFullTest].choices);
 
     // Test that name exists for the others, as a sanity check
-    assertEquals("dbName", infos[1].name);
-    assertEquals("characterEncoding", infos[2].name);
-    assertEquals("errorHandlerClass", infos[3].name);
-    assertEquals("executeType", infos[4].name);
-    assertEquals("functionsNeverReturnBlobs", infos[5].name);
-
-    assertEquals("grpcChannelBuilderProvider", infos[6].name);
-    assertEquals("grpcRetriesEnabled", infos[7].name);
-    assertEquals("grpcRetriesBackoffMultiplier", infos[8].name);
-    assertEquals("grpcRetriesInitialBackoffMillis", infos[9].name);
-    assertEquals("grpcRetriesMaxBackoffMillis", infos[10].name);
-    assertEquals(Constants.Property.INCLUDED_FIELDS, infos[11].name);
-    assertEquals(Constants.Property.TABLET_TYPE, infos[23].name);
-    assertEquals(Constants.Property.TWOPC_ENABLED, infos[31].name);
+    assertEquals("autoParameterize", infos[0].name);
+    assertEquals("cacheResultFields", infos[2].name);
+    assertEquals("dbName", infos[3].name);
+    assertEquals("characterEncoding", infos[4].name);
+    assertEquals("dbPropertiesCacheTtlMillis", infos[5].name);
+    assertEquals("errorHandlerClass", infos[6].name);
+    assertEquals("executeType", infos[7].name);
+    assertEquals("functionsNeverReturnBlobs", infos[8].name);
+
+    assertEquals("grpcCallbackThreads", infos[9].name);
+    assertEquals("grpcChannelBuilderProvider", infos[10].name);
+    assertEquals("grpcEventLoopThreads", infos[11].name);
+    assertEquals("grpcRetriesEnabled", infos[12].name);
+    assertEquals("grpcRetriesBackoffMultiplier", infos[13].name);
+    assertEquals("grpcRetriesInitialBackoffMillis", infos[14].name);
+    assertEquals("grpcRetriesMaxBackoffMillis", infos[15].name);
+    assertEquals("grpcTransport", infos[16].name);
+    assertEquals("grpcWorkloadChannels", infos[17].name);
+    assertEquals("grpcWorkloadEventLoops", infos[18].name);
+    assertEquals(Constants.Property.INCLUDED_FIELDS, infos[19].name);
+    assertEquals(Constants.Property.TABLET_TYPE, infos[32].name);
+    assertEquals(Constants.Property.TWOPC_ENABLED, infos[40].name);
   }
 
   @Test
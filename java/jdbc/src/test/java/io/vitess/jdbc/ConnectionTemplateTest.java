@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.jdbc;
+
+import io.vitess.proto.Query;
+import io.vitess.proto.Topodata;
+import io.vitess.util.Constants;
+
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConnectionTemplateTest extends BaseTest {
+
+  @Before
+  public void clearCache() {
+    ConnectionTemplate.clear();
+  }
+
+  @Test
+  public void testSharedByUrlAndProperties() throws SQLException {
+    Properties info = new Properties();
+    info.setProperty(Constants.Property.TABLET_TYPE, "replica");
+    ConnectionTemplate template = ConnectionTemplate.get(dbURL, info);
+
+    Properties sameInfo = new Properties();
+    sameInfo.setProperty(Constants.Property.TABLET_TYPE, "replica");
+    Assert.assertSame(template, ConnectionTemplate.get(dbURL, sameInfo));
+    // Defaults count as properties too.
+    Assert.assertSame(template, ConnectionTemplate.get(dbURL, new Properties(sameInfo)));
+
+    info.setProperty(Constants.Property.TABLET_TYPE, "rdonly");
+    Assert.assertEquals(Topodata.TabletType.REPLICA, template.getProperties().getTabletType());
+    Assert.assertNotSame(template, ConnectionTemplate.get(dbURL, info));
+    Assert.assertNotSame(template, ConnectionTemplate.get(dbURL + "?userName=other", sameInfo));
+  }
+
+  @Test
+  public void testConnectionsDontModifyTemplate() throws SQLException {
+    VitessConnection conn = getVitessConnection();
+    conn.setIncludedFields(Query.ExecuteOptions.IncludedFields.TYPE_ONLY);
+    conn.setTabletType(Topodata.TabletType.RDONLY);
+
+    ConnectionProperties template = ConnectionTemplate.get(dbURL, new Properties())
+        .getProperties();
+    Assert.assertEquals(Query.ExecuteOptions.IncludedFields.ALL, template.getIncludedFields());
+    Assert.assertEquals(Topodata.TabletType.MASTER, template.getTabletType());
+
+    VitessConnection other = getVitessConnection();
+    Assert.assertEquals(Query.ExecuteOptions.IncludedFields.ALL, other.getIncludedFields());
+    Assert.assertEquals(Topodata.TabletType.MASTER, other.getTabletType());
+    Assert.assertEquals(template.getExecuteOptions(), other.getExecuteOptions());
+    Assert.assertEquals("keyspace", other.getCatalog());
+  }
+
+  @Test(expected = SQLException.class)
+  public void testInvalidPropertiesAreNotCached() throws SQLException {
+    Properties info = new Properties();
+    info.setProperty(Constants.Property.TABLET_TYPE, "invalid");
+    try {
+      new VitessConnection(dbURL, info);
+      Assert.fail("Should have thrown an exception");
+    } catch (SQLException e) {
+      // expected
+    }
+    new VitessConnection(dbURL, info);
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DBPropertiesCacheTest extends BaseTest {
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private final DBPropertiesCache.Loader loader = new DBPropertiesCache.Loader() {
+    @Override
+    public DBPropertiesCache.Entry load() {
+      loads.incrementAndGet();
+      return new DBPropertiesCache.Entry(new DBProperties("5.7.21", "5", "7",
+          Connection.TRANSACTION_REPEATABLE_READ, "1"), false);
+    }
+  };
+
+  @Before
+  public void clearCache() {
+    DBPropertiesCache.clear();
+  }
+
+  @Test
+  public void testSharedBetweenConnections() throws SQLException {
+    VitessConnection conn = getVitessConnection();
+    DBPropertiesCache.Entry entry = DBPropertiesCache.get(conn, loader);
+    conn.close();
+
+    Assert.assertSame(entry, DBPropertiesCache.get(getVitessConnection(), loader));
+    Assert.assertEquals(1, loads.get());
+
+    VitessConnection otherCluster = new VitessConnection(
+        "jdbc:vitess://otherhost:15991/shipment/shipment?tabletType=master", new Properties());
+    Assert.assertNotSame(entry, DBPropertiesCache.get(otherCluster, loader));
+    Assert.assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void testTtl() throws SQLException {
+    VitessConnection conn = getVitessConnection();
+    DBPropertiesCache.Entry entry = DBPropertiesCache.get(conn, loader);
+
+    conn.setDbPropertiesCacheTtlMillis(0);
+    Assert.assertNotSame(entry, DBPropertiesCache.get(conn, loader));
+    Assert.assertEquals(2, loads.get());
+
+    conn.setDbPropertiesCacheTtlMillis(1);
+    try {
+      Thread.sleep(5);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    Assert.assertNotSame(entry, DBPropertiesCache.get(conn, loader));
+    Assert.assertEquals(3, loads.get());
+  }
+
+  @Test
+  public void testLoadFailure() throws SQLException {
+    try {
+      DBPropertiesCache.get(getVitessConnection(), new DBPropertiesCache.Loader() {
+        @Override
+        public DBPropertiesCache.Entry load() throws SQLException {
+          throw new SQLException("unavailable");
+        }
+      });
+      Assert.fail("Should have thrown an exception");
+    } catch (SQLException e) {
+      Assert.assertEquals("unavailable", e.getMessage());
+    }
+    DBPropertiesCache.get(getVitessConnection(), loader);
+    Assert.assertEquals(1, loads.get());
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.jdbc;
+
+import io.vitess.proto.Query;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FieldMetadataCacheTest extends BaseTest {
+
+  private static final List<Query.Field> FIELDS = Collections.singletonList(
+      Query.Field.newBuilder().setName("foo").setOrgName("foo").setType(Query.Type.BLOB)
+          .setCharset(5).setFlags(Query.MySqlFlag.BINARY_FLAG_VALUE).build());
+
+  @Before
+  public void clearCache() {
+    FieldMetadataCache.clear();
+  }
+
+  @Test
+  public void testSharedBetweenConnections() throws SQLException {
+    List<FieldWithMetadata> fields = FieldMetadataCache.get(getVitessConnection(), FIELDS);
+    Assert.assertSame(fields, FieldMetadataCache.get(getVitessConnection(), FIELDS));
+    Assert.assertSame(fields,
+        FieldMetadataCache.get(getVitessConnection(), Collections.singletonList(FIELDS.get(0)
+            .toBuilder().build())));
+  }
+
+  @Test
+  public void testKeyedBySettings() throws SQLException {
+    VitessConnection conn = getVitessConnection();
+    List<FieldWithMetadata> fields = FieldMetadataCache.get(conn, FIELDS);
+    Assert.assertEquals(Types.LONGVARCHAR, fields.get(0).getJavaType());
+
+    conn.setBlobsAreStrings(true);
+    List<FieldWithMetadata> stringFields = FieldMetadataCache.get(conn, FIELDS);
+    Assert.assertNotSame(fields, stringFields);
+    Assert.assertEquals(Types.VARCHAR, stringFields.get(0).getJavaType());
+
+    conn.setIncludedFields(Query.ExecuteOptions.IncludedFields.TYPE_AND_NAME);
+    Assert.assertNotSame(stringFields, FieldMetadataCache.get(conn, FIELDS));
+  }
+
+  @Test
+  public void testIsolatedFromConnection() throws SQLException {
+    VitessConnection conn = getVitessConnection();
+    FieldWithMetadata field = FieldMetadataCache.get(conn, FIELDS).get(0);
+
+    conn.setIncludedFields(Query.ExecuteOptions.IncludedFields.TYPE_AND_NAME);
+    conn.setYearIsDateType(false);
+    Assert.assertNotSame(conn, field.getConnectionProperties());
+    Assert.assertTrue(field.getConnectionProperties().isIncludeAllFields());
+    Assert.assertTrue(field.getConnectionProperties().getYearIsDateType());
+  }
+}
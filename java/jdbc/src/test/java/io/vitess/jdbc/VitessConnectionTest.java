@@ -58,6 +58,18 @@ public class VitessConnectionTest extends BaseTest {
     assertNull(vitessConnection.getDbProperties());
   }
 
+  @Test
+  public void testCacheResultFields() throws SQLException {
+    Properties info = new Properties();
+    info.setProperty("cacheResultFields", "true");
+    VitessConnection vitessConnection = new VitessConnection(dbURL, info);
+    assertTrue(vitessConnection.getVtSession().isResultFieldsCacheEnabled());
+
+    vitessConnection.setCacheResultFields(false);
+    assertFalse(vitessConnection.getCacheResultFields());
+    assertFalse(vitessConnection.getVtSession().isResultFieldsCacheEnabled());
+  }
+
   @Test
   public void testCreateStatement() throws SQLException {
     VitessConnection vitessConnection = getVitessConnection();
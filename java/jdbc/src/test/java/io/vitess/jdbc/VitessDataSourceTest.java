@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.jdbc;
+
+import io.vitess.proto.Query;
+import io.vitess.proto.Topodata;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VitessDataSourceTest extends BaseTest {
+
+  @Test
+  public void testConnectionsAreReused() throws SQLException {
+    VitessDataSource dataSource = new VitessDataSource(dbURL, new Properties());
+    Connection conn = dataSource.getConnection();
+    Connection other = dataSource.getConnection();
+    Assert.assertNotSame(conn, other);
+    VitessConnection connection = conn.unwrap(VitessConnection.class);
+    VitessConnection otherConnection = other.unwrap(VitessConnection.class);
+
+    other.close();
+    Assert.assertEquals(1, dataSource.getIdleConnections());
+    Connection reused = dataSource.getConnection();
+    Assert.assertNotSame(other, reused);
+    Assert.assertSame(otherConnection, reused.unwrap(VitessConnection.class));
+    Assert.assertEquals(0, dataSource.getIdleConnections());
+    Assert.assertFalse(reused.isClosed());
+    Assert.assertTrue(other.isClosed());
+
+    conn.close();
+    conn.close();
+    Assert.assertEquals(1, dataSource.getIdleConnections());
+
+    dataSource.close();
+    Assert.assertEquals(0, dataSource.getIdleConnections());
+    Assert.assertNotSame(connection, dataSource.getConnection().unwrap(VitessConnection.class));
+  }
+
+  @Test
+  public void testClosedHandleStaysClosed() throws SQLException {
+    VitessDataSource dataSource = new VitessDataSource(dbURL, new Properties());
+    Connection conn = dataSource.getConnection();
+    conn.close();
+    Connection next = dataSource.getConnection();
+    Assert.assertEquals(0, dataSource.getIdleConnections());
+
+    // Closing the stale handle again must neither close nor release the new borrower's connection.
+    conn.close();
+    Assert.assertTrue(conn.isClosed());
+    Assert.assertFalse(next.isClosed());
+    Assert.assertEquals(0, dataSource.getIdleConnections());
+    Assert.assertNotSame(next.unwrap(VitessConnection.class),
+        dataSource.getConnection().unwrap(VitessConnection.class));
+
+    try {
+      conn.createStatement();
+      Assert.fail("Should have thrown an exception");
+    } catch (SQLException exc) {
+      Assert.assertEquals("Connection is Closed", exc.getMessage());
+    }
+    Assert.assertFalse(conn.isValid(0));
+    Assert.assertTrue(next.isValid(0));
+    next.createStatement().close();
+  }
+
+  @Test
+  public void testStateIsReset() throws SQLException {
+    VitessDataSource dataSource = new VitessDataSource(dbURL + "?TABLET_TYPE=replica",
+        new Properties());
+    VitessConnection conn = dataSource.getConnection().unwrap(VitessConnection.class);
+    conn.setAutoCommit(false);
+    conn.setReadOnly(true);
+    conn.setTabletType(Topodata.TabletType.MASTER);
+    conn.setIncludedFields(Query.ExecuteOptions.IncludedFields.TYPE_ONLY);
+    conn.getVtSession().setTransactionIsolation(
+        Query.ExecuteOptions.TransactionIsolation.SERIALIZABLE);
+    conn.close();
+
+    Assert.assertSame(conn, dataSource.getConnection().unwrap(VitessConnection.class));
+    Assert.assertTrue(conn.getAutoCommit());
+    Assert.assertFalse(conn.isReadOnly());
+    Assert.assertEquals(Topodata.TabletType.REPLICA, conn.getTabletType());
+    Assert.assertEquals(Query.ExecuteOptions.IncludedFields.ALL, conn.getIncludedFields());
+    Assert.assertEquals(Query.ExecuteOptions.TransactionIsolation.DEFAULT,
+        conn.getVtSession().getTransactionIsolation());
+    Assert.assertEquals(conn.getExecuteOptions(), conn.getVtSession().getSession().getOptions());
+  }
+
+  @Test
+  public void testMaxIdleConnections() throws SQLException {
+    VitessDataSource dataSource = new VitessDataSource(dbURL, new Properties(), 1);
+    Connection conn = dataSource.getConnection();
+    Connection other = dataSource.getConnection();
+    VitessConnection connection = conn.unwrap(VitessConnection.class);
+    VitessConnection otherConnection = other.unwrap(VitessConnection.class);
+    conn.close();
+    other.close();
+    Assert.assertEquals(1, dataSource.getIdleConnections());
+    Assert.assertSame(connection, dataSource.getConnection().unwrap(VitessConnection.class));
+    Assert.assertNotSame(otherConnection,
+        dataSource.getConnection().unwrap(VitessConnection.class));
+  }
+
+  @Test
+  public void testPooledConnection() throws SQLException {
+    VitessDataSource dataSource = new VitessDataSource(dbURL, new Properties());
+    VitessPooledConnection pooledConnection = dataSource.getPooledConnection("user", null);
+    final AtomicInteger closedEvents = new AtomicInteger();
+    pooledConnection.addConnectionEventListener(new ConnectionEventListener() {
+      @Override
+      public void connectionClosed(ConnectionEvent event) {
+        closedEvents.incrementAndGet();
+      }
+
+      @Override
+      public void connectionErrorOccurred(ConnectionEvent event) {
+        Assert.fail("Unexpected error: " + event.getSQLException());
+      }
+    });
+
+    Connection conn = pooledConnection.getConnection();
+    VitessConnection connection = conn.unwrap(VitessConnection.class);
+    Assert.assertEquals("user", connection.getUsername());
+    conn.close();
+    Assert.assertEquals(1, closedEvents.get());
+    Assert.assertEquals(0, dataSource.getIdleConnections());
+
+    Connection reopened = pooledConnection.getConnection();
+    Assert.assertSame(connection, reopened.unwrap(VitessConnection.class));
+    pooledConnection.close();
+    Assert.assertTrue(reopened.isClosed());
+    Assert.assertEquals(1, closedEvents.get());
+    try {
+      pooledConnection.getConnection();
+      Assert.fail("Should have thrown an exception");
+    } catch (SQLException e) {
+      Assert.assertEquals("Connection is Closed", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testHandedOutAgainWithoutClosing() throws SQLException {
+    VitessDataSource dataSource = new VitessDataSource(dbURL, new Properties());
+    VitessPooledConnection pooledConnection = dataSource.getPooledConnection();
+    final AtomicInteger closedEvents = new AtomicInteger();
+    pooledConnection.addConnectionEventListener(new ConnectionEventListener() {
+      @Override
+      public void connectionClosed(ConnectionEvent event) {
+        closedEvents.incrementAndGet();
+      }
+
+      @Override
+      public void connectionErrorOccurred(ConnectionEvent event) {
+        Assert.fail("Unexpected error: " + event.getSQLException());
+      }
+    });
+
+    Connection conn = pooledConnection.getConnection();
+    Connection next = pooledConnection.getConnection();
+    Assert.assertTrue(conn.isClosed());
+    Assert.assertFalse(next.isClosed());
+    Assert.assertEquals(0, closedEvents.get());
+    Assert.assertEquals(0, dataSource.getIdleConnections());
+
+    next.close();
+    Assert.assertEquals(1, closedEvents.get());
+  }
+
+  @Test
+  public void testStatementsAndMetaDataReturnTheHandle() throws SQLException {
+    VitessDataSource dataSource = new VitessDataSource(dbURL, new Properties());
+    Connection conn = dataSource.getConnection();
+    DBPropertiesCache.get(conn.unwrap(VitessConnection.class), new DBPropertiesCache.Loader() {
+      @Override
+      public DBPropertiesCache.Entry load() {
+        return new DBPropertiesCache.Entry(new DBProperties("5.7.21", "5", "7",
+            Connection.TRANSACTION_REPEATABLE_READ, "1"), false);
+      }
+    });
+
+    Assert.assertSame(conn, conn.createStatement().getConnection());
+    Assert.assertSame(conn, conn.prepareStatement("select 1").getConnection());
+    DatabaseMetaData metaData = conn.getMetaData();
+    Assert.assertSame(conn, metaData.getConnection());
+    Assert.assertEquals("5.7.21", metaData.getDatabaseProductVersion());
+
+    conn.close();
+    Assert.assertEquals(1, dataSource.getIdleConnections());
+    try {
+      metaData.getDatabaseProductVersion();
+      Assert.fail("Should have thrown an exception");
+    } catch (SQLException exc) {
+      Assert.assertEquals("Connection is Closed", exc.getMessage());
+    }
+  }
+
+  @Test(expected = SQLException.class)
+  public void testInvalidUrl() throws SQLException {
+    new VitessDataSource("jdbc:mysql://localhost:3306/keyspace", new Properties());
+  }
+}
@@ -41,6 +41,7 @@ import java.util.Scanner;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Mockito;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
@@ -1090,6 +1091,42 @@ public class VitessDatabaseMetadataTest extends BaseTest {
     Assert.assertEquals(String.class, actualResultSet.getObject("TABLE_CAT").getClass());
   }
 
+  @Test
+  public void getTablesCachedTest() throws SQLException, Exception {
+    SchemaMetadataCache.clear();
+    String sql = "SHOW FULL TABLES FROM `vt` LIKE '%'";
+
+    VitessStatement vitessStatement = PowerMockito.mock(VitessStatement.class);
+    PowerMockito.whenNew(VitessStatement.class).withAnyArguments().thenReturn(vitessStatement);
+    PowerMockito.when(vitessStatement.executeQuery(sql))
+        .thenReturn(new VitessResultSet(getTablesCursor()),
+            new VitessResultSet(getTablesCursor()));
+
+    ResultSet first = new VitessMySQLDatabaseMetadata(getCachingConnection())
+        .getTables("vt", null, null, null);
+    // Null patterns are the same as "%", and other connections to the cluster share the cache.
+    ResultSet second = new VitessMySQLDatabaseMetadata(getCachingConnection())
+        .getTables("vt", null, "%", null);
+    Assert.assertTrue(first.next());
+    do {
+      Assert.assertTrue(second.next());
+      Assert.assertEquals(first.getString("TABLE_NAME"), second.getString("TABLE_NAME"));
+    } while (first.next());
+    Assert.assertFalse(second.next());
+    Mockito.verify(vitessStatement, Mockito.times(1)).executeQuery(sql);
+
+    // Without a TTL, nothing is cached.
+    new VitessMySQLDatabaseMetadata(getVitessConnection()).getTables("vt", null, null, null);
+    Mockito.verify(vitessStatement, Mockito.times(2)).executeQuery(sql);
+    SchemaMetadataCache.clear();
+  }
+
+  private VitessConnection getCachingConnection() throws SQLException {
+    VitessConnection connection = getVitessConnection();
+    connection.setSchemaCacheTtlMillis(60000);
+    return connection;
+  }
+
   private Cursor getTablesCursor() throws Exception {
     return new SimpleCursor(Query.QueryResult.newBuilder()
         .addFields(Query.Field.newBuilder().setName("TABLE_CAT").setType(Query.Type.VARCHAR))
@@ -1134,49 +1171,7 @@ public class VitessDatabaseMetadataTest extends BaseTest {
   @Test
   public void getColumnsTest() throws SQLException, Exception {
 
-    String sql = "SHOW FULL COLUMNS FROM `sampleTable1` FROM `TestDB1` LIKE '%'";
-    Cursor mockedTablecursor = new SimpleCursor(Query.QueryResult.newBuilder()
-        .addFields(Query.Field.newBuilder().setName("TABLE_CAT").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("TABLE_SCHEM").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("TABLE_NAME").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("TABLE_TYPE").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("REMARKS").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("TYPE_CAT").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("TYPE_SCHEM").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("TYPE_NAME").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("SELF_REFERENCING_COL_NAME")
-            .setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("REF_GENERATION").setType(Query.Type.VARCHAR))
-        .addRows(Query.Row.newBuilder().addLengths("TestDB1".length()).addLengths("".length())
-            .addLengths("sampleTable1".length()).addLengths("TABLE".length())
-            .addLengths("".length()).addLengths("".length()).addLengths("".length())
-            .addLengths("".length()).addLengths("".length()).addLengths("".length())
-            .setValues(ByteString.copyFromUtf8("TestDB1sampleTable1TABLE"))).build());
-
-    Cursor actualCursor = new SimpleCursor(Query.QueryResult.newBuilder()
-        .addFields(Query.Field.newBuilder().setName("Field").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("Type").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("Collation").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("Null").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("Key").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("Default").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("Extra").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("Privileges").setType(Query.Type.VARCHAR))
-        .addFields(Query.Field.newBuilder().setName("Comment").setType(Query.Type.VARCHAR)).addRows(
-            Query.Row.newBuilder().addLengths("shipmentid".length()).addLengths("bigint".length())
-                .addLengths("NULL".length()).addLengths("NO".length()).addLengths("PRI".length())
-                .addLengths("NULL".length()).addLengths("".length())
-                .addLengths("select,insert,update,references".length()).addLengths("".length())
-                .setValues(ByteString
-                    .copyFromUtf8("shipmentidbigintNULLNOPRINULLselect,insert,update,references")))
-        .addRows(
-            Query.Row.newBuilder().addLengths("trackingid".length()).addLengths("varchar".length())
-                .addLengths("utf8_general_ci".length()).addLengths("YES".length())
-                .addLengths("".length()).addLengths("NULL".length()).addLengths("".length())
-                .addLengths("select,insert,update,references".length()).addLengths("".length())
-                .setValues(ByteString.copyFromUtf8(
-                    "trackingidvarcharutf8_general_ciYESNULLselect,insert,update,references")))
-        .build());
+    String sql = "SHOW FULL COLUMNS FROM `sampleTable1` FROM `TestDB1`";
     Cursor expectedCursor = new SimpleCursor(Query.QueryResult.newBuilder()
         .addFields(Query.Field.newBuilder().setName("TABLE_CAT").setType(Query.Type.CHAR))
         .addFields(Query.Field.newBuilder().setName("TABLE_SCHEM").setType(Query.Type.CHAR))
@@ -1226,21 +1221,83 @@ public class VitessDatabaseMetadataTest extends BaseTest {
 
     VitessStatement vitessStatement = PowerMockito.mock(VitessStatement.class);
     PowerMockito.whenNew(VitessStatement.class).withAnyArguments().thenReturn(vitessStatement);
+    PowerMockito.when(vitessStatement.executeQuery("SHOW FULL TABLES FROM `TestDB1` LIKE '%'"))
+        .thenReturn(new VitessResultSet(getFullTablesCursor()));
     PowerMockito.when(vitessStatement.executeQuery(sql))
-        .thenReturn(new VitessResultSet(actualCursor));
-
-    VitessDatabaseMetaData vitessDatabaseMetaData = PowerMockito
-        .mock(VitessMySQLDatabaseMetadata.class);
-    PowerMockito.doCallRealMethod().when(vitessDatabaseMetaData)
-        .getColumns("TestDB1", null, null, null);
-    PowerMockito.when(vitessDatabaseMetaData.getTables("TestDB1", null, "%", new String[0]))
-        .thenReturn(new VitessResultSet(mockedTablecursor));
+        .thenReturn(new VitessResultSet(getFullColumnsCursor()));
+
+    VitessDatabaseMetaData vitessDatabaseMetaData = new VitessMySQLDatabaseMetadata(
+        getVitessConnection());
     ResultSet actualResultSet = vitessDatabaseMetaData.getColumns("TestDB1", null, null, null);
     ResultSet expectedResultSet = new VitessResultSet(expectedCursor);
 
     assertResultSetEquals(actualResultSet, expectedResultSet);
   }
 
+  @Test
+  public void getColumnsPatternTest() throws SQLException, Exception {
+    VitessStatement vitessStatement = PowerMockito.mock(VitessStatement.class);
+    PowerMockito.whenNew(VitessStatement.class).withAnyArguments().thenReturn(vitessStatement);
+    PowerMockito.when(vitessStatement.executeQuery("SHOW FULL TABLES FROM `Test``DB1` LIKE "
+        + "'sample\\\\_\\'%'")).thenReturn(new VitessResultSet(getFullTablesCursor()));
+    PowerMockito.when(vitessStatement.executeQuery(
+        "SHOW FULL COLUMNS FROM `sampleTable1` FROM `Test``DB1`"))
+        .thenReturn(new VitessResultSet(getFullColumnsCursor()));
+
+    ResultSet actualResultSet = new VitessMySQLDatabaseMetadata(getVitessConnection())
+        .getColumns("Test`DB1", null, "sample\\_'%", "TRACKING%");
+    Assert.assertTrue(actualResultSet.next());
+    Assert.assertEquals("trackingid", actualResultSet.getString("COLUMN_NAME"));
+    Assert.assertEquals(2, actualResultSet.getInt("ORDINAL_POSITION"));
+    Assert.assertFalse(actualResultSet.next());
+  }
+
+  @Test
+  public void likePatternTest() {
+    Assert.assertTrue(VitessMySQLDatabaseMetadata.likePattern("%").matcher("").matches());
+    Assert.assertTrue(VitessMySQLDatabaseMetadata.likePattern("a_c%").matcher("ABCd").matches());
+    Assert.assertTrue(VitessMySQLDatabaseMetadata.likePattern("a\\_c").matcher("a_c").matches());
+    Assert.assertFalse(VitessMySQLDatabaseMetadata.likePattern("a\\_c").matcher("abc").matches());
+    Assert.assertFalse(VitessMySQLDatabaseMetadata.likePattern("a.c").matcher("abc").matches());
+  }
+
+  private Cursor getFullTablesCursor() {
+    return new SimpleCursor(Query.QueryResult.newBuilder()
+        .addFields(Query.Field.newBuilder().setName("Tables_in_TestDB1")
+            .setType(Query.Type.VARCHAR))
+        .addFields(Query.Field.newBuilder().setName("Table_type").setType(Query.Type.VARCHAR))
+        .addRows(Query.Row.newBuilder().addLengths("sampleTable1".length())
+            .addLengths("BASE TABLE".length())
+            .setValues(ByteString.copyFromUtf8("sampleTable1BASE TABLE"))).build());
+  }
+
+  private Cursor getFullColumnsCursor() {
+    return new SimpleCursor(Query.QueryResult.newBuilder()
+        .addFields(Query.Field.newBuilder().setName("Field").setType(Query.Type.VARCHAR))
+        .addFields(Query.Field.newBuilder().setName("Type").setType(Query.Type.VARCHAR))
+        .addFields(Query.Field.newBuilder().setName("Collation").setType(Query.Type.VARCHAR))
+        .addFields(Query.Field.newBuilder().setName("Null").setType(Query.Type.VARCHAR))
+        .addFields(Query.Field.newBuilder().setName("Key").setType(Query.Type.VARCHAR))
+        .addFields(Query.Field.newBuilder().setName("Default").setType(Query.Type.VARCHAR))
+        .addFields(Query.Field.newBuilder().setName("Extra").setType(Query.Type.VARCHAR))
+        .addFields(Query.Field.newBuilder().setName("Privileges").setType(Query.Type.VARCHAR))
+        .addFields(Query.Field.newBuilder().setName("Comment").setType(Query.Type.VARCHAR)).addRows(
+            Query.Row.newBuilder().addLengths("shipmentid".length()).addLengths("bigint".length())
+                .addLengths("NULL".length()).addLengths("NO".length()).addLengths("PRI".length())
+                .addLengths("NULL".length()).addLengths("".length())
+                .addLengths("select,insert,update,references".length()).addLengths("".length())
+                .setValues(ByteString
+                    .copyFromUtf8("shipmentidbigintNULLNOPRINULLselect,insert,update,references")))
+        .addRows(
+            Query.Row.newBuilder().addLengths("trackingid".length()).addLengths("varchar".length())
+                .addLengths("utf8_general_ci".length()).addLengths("YES".length())
+                .addLengths("".length()).addLengths("NULL".length()).addLengths("".length())
+                .addLengths("select,insert,update,references".length()).addLengths("".length())
+                .setValues(ByteString.copyFromUtf8(
+                    "trackingidvarcharutf8_general_ciYESNULLselect,insert,update,references")))
+        .build());
+  }
+
   @Test
   public void getPrimaryKeysTest() throws SQLException, Exception {
 
@@ -1279,11 +1336,8 @@ public class VitessDatabaseMetadataTest extends BaseTest {
                 .setValues(ByteString.copyFromUtf8("vtshipmentshipmentid1PRIMARY"))).build());
 
     VitessStatement vitessStatement = PowerMockito.mock(VitessStatement.class);
-    VitessDatabaseMetaData vitessDatabaseMetaData = PowerMockito
-        .mock(VitessMySQLDatabaseMetadata.class);
-    PowerMockito.mock(VitessMySQLDatabaseMetadata.class);
-    PowerMockito.doCallRealMethod().when(vitessDatabaseMetaData)
-        .getPrimaryKeys("vt", null, "shipment");
+    VitessDatabaseMetaData vitessDatabaseMetaData = new VitessMySQLDatabaseMetadata(
+        getVitessConnection());
     PowerMockito.whenNew(VitessStatement.class).withAnyArguments().thenReturn(vitessStatement);
     PowerMockito.when(vitessStatement.executeQuery(sql))
         .thenReturn(new VitessResultSet(mockedCursor));
@@ -1341,11 +1395,8 @@ public class VitessDatabaseMetadataTest extends BaseTest {
             .setValues(ByteString.copyFromUtf8("vtshipmentfalsePRIMARY31shipmentidA4348800")))
         .build());
     VitessStatement vitessStatement = PowerMockito.mock(VitessStatement.class);
-    VitessDatabaseMetaData vitessDatabaseMetaData = PowerMockito
-        .mock(VitessMySQLDatabaseMetadata.class);
-    PowerMockito.mock(VitessMySQLDatabaseMetadata.class);
-    PowerMockito.doCallRealMethod().when(vitessDatabaseMetaData)
-        .getIndexInfo("vt", null, "shipment", true, false);
+    VitessDatabaseMetaData vitessDatabaseMetaData = new VitessMySQLDatabaseMetadata(
+        getVitessConnection());
     PowerMockito.whenNew(VitessStatement.class).withAnyArguments().thenReturn(vitessStatement);
     PowerMockito.when(vitessStatement.executeQuery(sql))
         .thenReturn(new VitessResultSet(mockedCursor));
@@ -1495,6 +1546,8 @@ public class VitessDatabaseMetadataTest extends BaseTest {
 
   private void mockStatementForLowercaseTablesValue(String lcTablesValue, boolean useMariaDb)
       throws Exception {
+    // The server's variables are cached per cluster, so forget what the last mock returned.
+    DBPropertiesCache.clear();
     String sql = "SHOW VARIABLES WHERE VARIABLE_NAME IN (\'tx_isolation\',\'INNODB_VERSION\', "
         + "\'lower_case_table_names\')";
     String versionName = "innodb_version";
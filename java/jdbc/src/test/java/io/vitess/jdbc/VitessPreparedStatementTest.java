@@ -49,6 +49,7 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Map;
@@ -562,6 +563,60 @@ public class VitessPreparedStatementTest {
     preparedStatement.clearParameters();
   }
 
+  @Test
+  public void testSetListParameters() throws Exception {
+    VitessConnection mockConn = mock(VitessConnection.class);
+    VTGateConnection mockVtGateConn = mock(VTGateConnection.class);
+    Cursor mockCursor = mock(Cursor.class);
+    SQLFuture mockSqlFutureCursor = mock(SQLFuture.class);
+
+    when(mockConn.getVtGateConn()).thenReturn(mockVtGateConn);
+    when(mockVtGateConn.execute(any(Context.class), anyString(), anyMap(), any(VTSession.class)))
+        .thenReturn(mockSqlFutureCursor);
+    when(mockConn.isSimpleExecute()).thenReturn(true);
+    when(mockSqlFutureCursor.checkedGet()).thenReturn(mockCursor);
+
+    String sql = "select * from t where name = '?' and a in ? and b = ? and c in ( ? )"
+        + " and (d = ?)";
+    VitessPreparedStatement preparedStatement = new VitessPreparedStatement(mockConn, sql);
+    Field bindVariablesMap = preparedStatement.getClass().getDeclaredField("bindVariables");
+    bindVariablesMap.setAccessible(true);
+    Map<String, Object> bindVariables = (Map<String, Object>) bindVariablesMap
+        .get(preparedStatement);
+
+    preparedStatement.setObject(1, Arrays.asList(1, 2, 3));
+    preparedStatement.setInt(2, 4);
+    preparedStatement.setObject(3, new long[]{5L, 6L});
+    preparedStatement.setInt(4, 12);
+    Query.BindVariable list = (Query.BindVariable) bindVariables.get("v1");
+    assertEquals(Query.Type.TUPLE, list.getType());
+    assertEquals(3, list.getValuesCount());
+    assertEquals("3", list.getValues(2).getValue().toStringUtf8());
+    list = (Query.BindVariable) bindVariables.get("v3");
+    assertEquals(Query.Type.TUPLE, list.getType());
+    assertEquals(2, list.getValuesCount());
+    assertEquals(4, bindVariables.get("v2"));
+    preparedStatement.executeQuery();
+
+    preparedStatement.setObject(1, new String[]{"a"});
+    preparedStatement.setInt(2, 7);
+    preparedStatement.setObject(3, Arrays.asList(8L, 9L, 10L, 11L));
+    preparedStatement.setInt(4, 13);
+    preparedStatement.executeQuery();
+
+    Mockito.verify(mockVtGateConn, Mockito.times(2)).execute(any(Context.class),
+        Matchers.eq("select * from t where name = '?' and a in ::v1 and b = :v2 and c in ::v3"
+            + " and (d = :v4)"),
+        anyMap(), any(VTSession.class));
+
+    try {
+      preparedStatement.setObject(1, new ArrayList<>());
+      fail("Should have thrown exception for empty list");
+    } catch (SQLException ex) {
+      assertEquals(Constants.SQLExceptionMessages.EMPTY_LIST_PARAMETER + 1, ex.getMessage());
+    }
+  }
+
   @Test
   public void testTreatUtilDateAsTimestamp() throws Exception {
     VitessConnection mockConn = mock(VitessConnection.class);
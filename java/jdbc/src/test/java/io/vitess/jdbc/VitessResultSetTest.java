@@ -36,6 +36,9 @@ import java.sql.Clob;
 import java.sql.SQLException;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Properties;
 
 import org.junit.Assert;
@@ -458,6 +461,45 @@ public class VitessResultSetTest extends BaseTest {
     assertEquals("0001-01-01", vitessResultSet.getDate(28).toString());
   }
 
+  @Test
+  public void testGetObjectWithType() throws SQLException {
+    Cursor cursor = getCursorWithRows();
+    VitessResultSet vitessResultSet = new VitessResultSet(cursor, getVitessStatement());
+    vitessResultSet.next();
+    assertEquals(Integer.valueOf(-100), vitessResultSet.getObject(7, Integer.class));
+    assertEquals(Long.valueOf(-100), vitessResultSet.getObject(7, Long.class));
+    assertEquals("-100", vitessResultSet.getObject(7, String.class));
+    assertEquals(LocalDate.of(2016, 2, 6), vitessResultSet.getObject(14, LocalDate.class));
+    assertEquals(LocalDateTime.of(2016, 2, 6, 14, 15, 16),
+        vitessResultSet.getObject(13, LocalDateTime.class));
+    assertEquals(vitessResultSet.getTimestamp(13).toInstant(),
+        vitessResultSet.getObject(13, Instant.class));
+    try {
+      vitessResultSet.getObject(28, LocalDateTime.class);
+      Assert.fail("zero date can't be garbled into a LocalDateTime");
+    } catch (SQLException e) {
+    }
+  }
+
+  @Test
+  public void testGetObjectWithTypeZeroDate() throws SQLException {
+    VitessResultSet vitessResultSet = new VitessResultSet(getCursorWithRows(),
+        new VitessStatement(new VitessConnection(
+            "jdbc:vitess://locahost:9000/vt_keyspace/keyspace?zeroDateTimeBehavior=convertToNull",
+            new Properties())));
+    vitessResultSet.next();
+    Assert.assertNull(vitessResultSet.getObject(28, LocalDateTime.class));
+
+    vitessResultSet = new VitessResultSet(getCursorWithRows(),
+        new VitessStatement(new VitessConnection(
+            "jdbc:vitess://locahost:9000/vt_keyspace/keyspace?zeroDateTimeBehavior=round",
+            new Properties())));
+    vitessResultSet.next();
+    assertEquals(LocalDateTime.of(1, 1, 1, 0, 0),
+        vitessResultSet.getObject(28, LocalDateTime.class));
+    assertEquals(LocalDate.of(1, 1, 1), vitessResultSet.getObject(28, LocalDate.class));
+  }
+
   @Test
   public void testgetStringbyColumnLabel() throws SQLException {
     Cursor cursor = getCursorWithRows();
@@ -637,30 +679,36 @@ public class VitessResultSetTest extends BaseTest {
 
   @Test
   public void testGetStringUsesEncoding() throws Exception {
+    byte[] latin1 = new byte[]{'c', 'a', 'f', (byte) 0xE9};
+    Query.QueryResult result = Query.QueryResult.newBuilder()
+        .addFields(Query.Field.newBuilder().setName("col1").setType(Query.Type.VARCHAR)
+            .setCharset(/* latin1_swedish_ci */ 8))
+        .addFields(Query.Field.newBuilder().setName("col2").setType(Query.Type.VARCHAR)
+            .setCharset(/* latin1_swedish_ci */ 8))
+        .addFields(Query.Field.newBuilder().setName("col3").setType(Query.Type.DATETIME))
+        .addRows(Query.Row.newBuilder().addLengths(latin1.length).addLengths(3).addLengths(19)
+            .setValues(ByteString.copyFrom(latin1).concat(
+                ByteString.copyFromUtf8("abc2016-02-06 14:15:16"))))
+        .build();
+
+    // With all fields included, string-like columns are decoded with the column's encoding.
     VitessConnection conn = getVitessConnection();
-    VitessResultSet resultOne = PowerMockito
-        .spy(new VitessResultSet(getCursorWithRows(), new VitessStatement(conn)));
+    VitessResultSet resultOne = new VitessResultSet(new SimpleCursor(result),
+        new VitessStatement(conn));
     resultOne.next();
-    // test all ways to get to convertBytesToString
-
-    // Verify that we're going through convertBytesToString for column types that return bytes
-    // (string-like),
-    // but not for those that return a real object
-    resultOne.getString("col21"); // is a string, should go through convert bytes
-    resultOne.getString("col13"); // is a datetime, should not
-    PowerMockito.verifyPrivate(resultOne, VerificationModeFactory.times(1))
-        .invoke("convertBytesToString", Matchers.any(byte[].class), Matchers.anyString());
+    assertEquals("caf\u00e9", resultOne.getString("col1"));
+    assertEquals("caf\u00e9", resultOne.getObject("col1"));
+    assertEquals("abc", resultOne.getString("col2"));
+    assertEquals("2016-02-06 14:15:16.0", resultOne.getString("col3"));
 
+    // Otherwise, the platform encoding is used.
     conn.setIncludedFields(Query.ExecuteOptions.IncludedFields.TYPE_AND_NAME);
-    VitessResultSet resultTwo = PowerMockito
-        .spy(new VitessResultSet(getCursorWithRows(), new VitessStatement(conn)));
+    VitessResultSet resultTwo = new VitessResultSet(new SimpleCursor(result),
+        new VitessStatement(conn));
     resultTwo.next();
-
-    // neither of these should go through convertBytesToString, because we didn't include all fields
-    resultTwo.getString("col21");
-    resultTwo.getString("col13");
-    PowerMockito.verifyPrivate(resultTwo, VerificationModeFactory.times(0))
-        .invoke("convertBytesToString", Matchers.any(byte[].class), Matchers.anyString());
+    assertEquals(new String(latin1), resultTwo.getString("col1"));
+    assertEquals("abc", resultTwo.getString("col2"));
+    assertEquals("2016-02-06 14:15:16.0", resultTwo.getString("col3"));
   }
 
   @Test
@@ -690,7 +738,7 @@ public class VitessResultSetTest extends BaseTest {
     Assert.assertArrayEquals(new byte[]{1, 2, 3, 4}, (byte[]) vitessResultSet.getObject(3));
 
     PowerMockito.verifyPrivate(vitessResultSet, VerificationModeFactory.times(3))
-        .invoke("convertBytesIfPossible", Matchers.any(byte[].class),
+        .invoke("convertBytesIfPossible", Matchers.any(ByteString.class),
             Matchers.any(FieldWithMetadata.class));
 
     conn.setIncludedFields(Query.ExecuteOptions.IncludedFields.TYPE_AND_NAME);
@@ -703,7 +751,7 @@ public class VitessResultSetTest extends BaseTest {
     Assert.assertArrayEquals(new byte[]{1, 2, 3, 4}, (byte[]) vitessResultSet.getObject(3));
 
     PowerMockito.verifyPrivate(vitessResultSet, VerificationModeFactory.times(0))
-        .invoke("convertBytesIfPossible", Matchers.any(byte[].class),
+        .invoke("convertBytesIfPossible", Matchers.any(ByteString.class),
             Matchers.any(FieldWithMetadata.class));
   }
 
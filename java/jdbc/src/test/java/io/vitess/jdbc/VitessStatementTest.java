@@ -31,6 +31,8 @@ import static org.powermock.api.mockito.PowerMockito.doReturn;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.when;
 
+import com.google.common.collect.ImmutableMap;
+
 import io.vitess.client.Context;
 import io.vitess.client.SQLFuture;
 import io.vitess.client.VTGateConnection;
@@ -48,6 +50,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -129,6 +132,33 @@ public class VitessStatementTest {
     }
   }
 
+  @Test
+  public void testExecuteQueryAutoParameterize() throws SQLException {
+    VitessConnection mockConn = mock(VitessConnection.class);
+    VTGateConnection mockVtGateConn = mock(VTGateConnection.class);
+    Cursor mockCursor = mock(Cursor.class);
+    SQLFuture mockSqlFutureCursor = mock(SQLFuture.class);
+
+    when(mockConn.getVtGateConn()).thenReturn(mockVtGateConn);
+    when(mockVtGateConn.execute(any(Context.class), anyString(), anyMap(), any(VTSession.class)))
+        .thenReturn(mockSqlFutureCursor);
+    when(mockConn.isSimpleExecute()).thenReturn(true);
+    when(mockSqlFutureCursor.checkedGet()).thenReturn(mockCursor);
+    when(mockCursor.getFields()).thenReturn(Query.QueryResult.getDefaultInstance().getFieldsList());
+
+    VitessStatement statement = new VitessStatement(mockConn);
+    String sql = "select * from test_table where id = 1";
+    statement.executeQuery(sql);
+    verify(mockVtGateConn).execute(any(Context.class), Mockito.eq(sql),
+        Mockito.<Map<String, ?>>eq(null), any(VTSession.class));
+
+    when(mockConn.getAutoParameterize()).thenReturn(true);
+    statement.executeQuery(sql);
+    verify(mockVtGateConn).execute(any(Context.class),
+        Mockito.eq("select * from test_table where id = :vtc1"),
+        Mockito.eq(ImmutableMap.of("vtc1", 1L)), any(VTSession.class));
+  }
+
   @Test
   public void testExecuteQueryWithStreamExecuteType() throws SQLException {
     VitessConnection mockConn = mock(VitessConnection.class);
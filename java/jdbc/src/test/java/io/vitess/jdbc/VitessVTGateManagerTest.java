@@ -20,6 +20,7 @@ import io.vitess.client.Context;
 import io.vitess.client.RpcClient;
 import io.vitess.client.VTGateConnection;
 import io.vitess.client.grpc.GrpcClientFactory;
+import io.vitess.client.grpc.netty.NettyTransport;
 import io.vitess.proto.Vtrpc;
 
 import org.joda.time.Duration;
@@ -102,4 +103,63 @@ public class VitessVTGateManagerTest {
     VitessVTGateManager.close();
   }
 
+  @Test
+  public void testVtGateConnectionsPerWorkload()
+      throws SQLException, NoSuchFieldException, IllegalAccessException, IOException {
+    VitessVTGateManager.close();
+    String url = "jdbc:vitess://10.33.17.231:15991/shipment/shipment?tabletType=master";
+    Properties info = new Properties();
+    new VitessVTGateManager.VTGateConnections(new VitessConnection(url, info));
+    info.setProperty("workload", "oltp");
+    new VitessVTGateManager.VTGateConnections(new VitessConnection(url, info));
+    info.setProperty("workload", "olap");
+    info.setProperty("grpcWorkloadEventLoops", "true");
+    VitessConnection olapConnection = new VitessConnection(url, info);
+    Assert.assertEquals("-olap", VitessVTGateManager.getWorkloadClass(olapConnection));
+    new VitessVTGateManager.VTGateConnections(olapConnection);
+
+    Field privateMapField = VitessVTGateManager.class.
+        getDeclaredField("vtGateConnHashMap");
+    privateMapField.setAccessible(true);
+    ConcurrentHashMap<String, VTGateConnection> map = (ConcurrentHashMap<String,
+        VTGateConnection>) privateMapField
+        .get(VitessVTGateManager.class);
+    Assert.assertEquals(2, map.size());
+
+    info.setProperty("grpcWorkloadChannels", "false");
+    VitessConnection sharedConnection = new VitessConnection(url, info);
+    Assert.assertEquals("", VitessVTGateManager.getWorkloadClass(sharedConnection));
+    new VitessVTGateManager.VTGateConnections(sharedConnection);
+    Assert.assertEquals(2, map.size());
+    VitessVTGateManager.close();
+  }
+
+  @Test
+  public void testTransportThreadingProperties()
+      throws SQLException, NoSuchFieldException, IllegalAccessException, IOException {
+    VitessVTGateManager.close();
+    String url = "jdbc:vitess://10.33.17.232:15991/shipment/shipment?tabletType=master";
+    Properties info = new Properties();
+    info.setProperty("grpcEventLoopThreads", "2");
+    info.setProperty("grpcTransport", "auto");
+    info.setProperty("grpcCallbackThreads", "3");
+    VitessConnection connection = new VitessConnection(url, info);
+    Assert.assertEquals(2, connection.getGrpcEventLoopThreads());
+    Assert.assertEquals(NettyTransport.AUTO, connection.getGrpcTransport());
+    Assert.assertEquals(3, connection.getGrpcCallbackThreads());
+    new VitessVTGateManager.VTGateConnections(connection);
+
+    Field privateMapField = VitessVTGateManager.class.
+        getDeclaredField("vtGateConnHashMap");
+    privateMapField.setAccessible(true);
+    ConcurrentHashMap<String, VTGateConnection> map = (ConcurrentHashMap<String,
+        VTGateConnection>) privateMapField
+        .get(VitessVTGateManager.class);
+    Assert.assertEquals(1, map.size());
+    Assert.assertSame(VitessVTGateManager.getCallbackExecutor(3),
+        VitessVTGateManager.getCallbackExecutor(3));
+    Assert.assertNotSame(VitessVTGateManager.getCallbackExecutor(3),
+        VitessVTGateManager.getCallbackExecutor(4));
+    VitessVTGateManager.close();
+  }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 The Vitess Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.vitess.util;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.math.BigDecimal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryNormalizerTest {
+
+  @Test
+  public void testNormalize() {
+    QueryNormalizer.NormalizedQuery query = QueryNormalizer.normalize(
+        "select a, 1 from t where id = 12 and name = 'it''s\\n' and price > 1.50 -- 7\n"
+            + "and ts > now() - interval 1 day and b in (3, 4) order by 1 limit 10");
+    Assert.assertEquals(
+        "select a, 1 from t where id = :vtc1 and name = :vtc2 and price > :vtc3 -- 7\n"
+            + "and ts > now() - interval 1 day and b in (:vtc4, :vtc5) order by 1 limit 10",
+        query.getSql());
+    Assert.assertEquals(ImmutableMap.of("vtc1", 12L, "vtc2", "it's\n", "vtc3",
+        new BigDecimal("1.50"), "vtc4", 3L, "vtc5", 4L), query.getBindVariables());
+
+    // The same shape with other literals reuses the cached decision, even for kept literals.
+    long cachedShapes = QueryNormalizer.cachedShapes();
+    query = QueryNormalizer.normalize(
+        "select a, 2 from t where id = 13 and name = 'x' and price > 2.25 -- 7\n"
+            + "and ts > now() - interval 3 day and b in (5, 6) order by 2 limit 20");
+    Assert.assertEquals(cachedShapes, QueryNormalizer.cachedShapes());
+    Assert.assertEquals(
+        "select a, 2 from t where id = :vtc1 and name = :vtc2 and price > :vtc3 -- 7\n"
+            + "and ts > now() - interval 3 day and b in (:vtc4, :vtc5) order by 2 limit 20",
+        query.getSql());
+    Assert.assertEquals(ImmutableMap.of("vtc1", 13L, "vtc2", "x", "vtc3",
+        new BigDecimal("2.25"), "vtc4", 5L, "vtc5", 6L), query.getBindVariables());
+
+    query = QueryNormalizer.normalize(
+        "insert into `t1` (a, b) values (1, 'x'), (2, \"y\") on duplicate key update c = 5");
+    Assert.assertEquals(
+        "insert into `t1` (a, b) values (:vtc1, :vtc2), (:vtc3, \"y\") on duplicate key update "
+            + "c = :vtc4", query.getSql());
+
+    query = QueryNormalizer.normalize(
+        "update t set a = 'b' where id in (select id from u where x = 1 group by 2)");
+    Assert.assertEquals(
+        "update t set a = :vtc1 where id in (select id from u where x = :vtc2 group by 2)",
+        query.getSql());
+  }
+
+  @Test
+  public void testNormalizeUnchanged() {
+    String[] unchanged = new String[]{
+        "show tables",
+        "set names 'utf8'",
+        "select 1 from dual",
+        "select * from t where a = :a and b = 1",
+        "select * from t where a = ? and b = 1",
+        "select * from t where a = cast('1' as unsigned)",
+        "select /*!40001 SQL_NO_CACHE */ * from t where a = 1",
+        "select * from t where a = _utf8'x' and b = x'0f' and c = 1e5 and d = 0x1f",
+        "select * from t where a = 'x' 'y'",
+        "select * from t where a = 12345678901234567890",
+        "select * from t where d = date '2019-01-01'",
+        "select * from t where a = 'unterminated",
+        "select * from t1",
+    };
+    for (String sql : unchanged) {
+      QueryNormalizer.NormalizedQuery query = QueryNormalizer.normalize(sql);
+      Assert.assertEquals(sql, query.getSql());
+      Assert.assertNull(sql, query.getBindVariables());
+    }
+  }
+}
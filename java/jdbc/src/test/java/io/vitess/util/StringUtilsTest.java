@@ -17,6 +17,10 @@
 package io.vitess.util;
 
 import com.google.common.collect.Lists;
+import com.google.protobuf.ByteString;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -153,4 +157,20 @@ public class StringUtilsTest {
     Assert.assertEquals('S',
         StringUtils.firstAlphaCharUc("/* leading comment */ select * from table2 ", 22));
   }
+
+  @Test
+  public void toStringFromByteStringTest() throws Exception {
+    Charset utf8 = StandardCharsets.UTF_8;
+    Assert.assertTrue(StringUtils.isAsciiCompatible(utf8));
+    Assert.assertTrue(StringUtils.isAsciiCompatible(Charset.forName("Cp1252")));
+    Assert.assertFalse(StringUtils.isAsciiCompatible(StandardCharsets.UTF_16));
+
+    Assert.assertEquals("", StringUtils.toString(ByteString.EMPTY, utf8, true));
+    Assert.assertEquals("abc", StringUtils.toString(ByteString.copyFromUtf8("abc"), utf8, true));
+    Assert.assertEquals("caf\u00e9",
+        StringUtils.toString(ByteString.copyFromUtf8("caf\u00e9"), utf8, true));
+    Assert.assertEquals("abc", StringUtils.toString(
+        ByteString.copyFrom("abc", "UTF-16"), StandardCharsets.UTF_16, false));
+    Assert.assertEquals(utf8, StringUtils.charsetForEncoding("UTF-8"));
+  }
 }